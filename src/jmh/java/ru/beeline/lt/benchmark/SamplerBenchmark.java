@@ -0,0 +1,156 @@
+package ru.beeline.lt.benchmark;
+
+import org.apache.jmeter.samplers.SampleResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.beeline.lt.RedisSampler;
+import ru.beeline.lt.SharedConnections;
+import ru.beeline.lt.stub.RespStubServer;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-sample overhead of {@link RedisSampler} against an in-process {@link RespStubServer}.
+ * The stub answers from memory over loopback, so the score is the sampler and client cost plus one local round trip;
+ * compare runs of the same machine to spot regressions. {@link #sampleError} measures samples failed by the server.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class SamplerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Server {
+        RespStubServer server;
+
+        @Setup(Level.Trial)
+        public void start() throws IOException {
+            server = new RespStubServer(0).start();
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            SharedConnections.closeAll();
+            server.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Sampler {
+        @Param({"GET", "SET", "SETEX", "EXISTS", "DEL", "PEXPIRE", "MGET", "MSET",
+                "HSET", "HGETALL", "LPUSH", "SADD", "ZADD", "XADD", "XREADGROUP", "EVALSHA", "MULTI"})
+        String operation;
+
+        @Param({RedisSampler.POOL_MODE_THREAD, RedisSampler.POOL_MODE_SHARED})
+        String poolMode;
+
+        @Param({"true", "false"})
+        boolean leanResponse;
+
+        RedisSampler sampler;
+
+        @Setup(Level.Trial)
+        public void create(Server server) {
+            sampler = createSampler(server.server, operation, poolMode, leanResponse);
+            SampleResult result = sampler.sample(null);
+            if (!result.isSuccessful()) {
+                // do not measure the failure path by accident
+                throw new IllegalStateException("%s failed against the stub: %s".formatted(operation, result.getResponseMessage()));
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            sampler.threadFinished();
+        }
+    }
+
+    /**
+     * Stub answering every command with an error, for the cost of the failure path.
+     */
+    @State(Scope.Benchmark)
+    public static class FailingServer {
+        RespStubServer server;
+
+        @Setup(Level.Trial)
+        public void start() throws IOException {
+            server = new RespStubServer(0, new RespStubServer.Faults(0, 1)).start();
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            SharedConnections.closeAll();
+            server.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class FailingSampler {
+        @Param({"true", "false"})
+        boolean leanResponse;
+
+        RedisSampler sampler;
+
+        @Setup(Level.Trial)
+        public void create(FailingServer server) {
+            sampler = createSampler(server.server, "GET", RedisSampler.POOL_MODE_THREAD, leanResponse);
+            SampleResult result = sampler.sample(null);
+            if (result.isSuccessful()) {
+                throw new IllegalStateException("GET succeeded against the failing stub");
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            sampler.threadFinished();
+        }
+    }
+
+    private static RedisSampler createSampler(RespStubServer server, String operation, String poolMode, boolean leanResponse) {
+        RedisSampler sampler = new RedisSampler();
+        sampler.setName("benchmark");
+        sampler.setHost("127.0.0.1");
+        sampler.setPort(Integer.toString(server.port()));
+        sampler.setPassword("");
+        sampler.setClientName("");
+        sampler.setDatabase("0");
+        sampler.setTimeout("2000");
+        sampler.setOperation(operation);
+        // one key per operation, so commands of different types never clash
+        sampler.setKey("benchmark:" + operation);
+        sampler.setValue("value");
+        sampler.setExpire("60000");
+        sampler.setScript("return 1");
+        sampler.setTransactionWatch("{key}");
+        sampler.setTransactionCommands("SET {key} {value}; PEXPIRE {key} 60000");
+        sampler.setPoolMode(poolMode);
+        sampler.setLeanResponse(leanResponse);
+        return sampler;
+    }
+
+    @Benchmark
+    public SampleResult sample(Sampler state) {
+        return state.sampler.sample(null);
+    }
+
+    @Benchmark
+    public SampleResult sampleError(FailingSampler state) {
+        return state.sampler.sample(null);
+    }
+}
@@ -0,0 +1,24 @@
+package ru.beeline.lt;
+
+import org.apache.jmeter.engine.util.CompoundVariable;
+import org.apache.jmeter.testelement.property.FunctionProperty;
+import org.apache.jmeter.testelement.property.JMeterProperty;
+
+import java.util.function.Supplier;
+
+/**
+ * Evaluates a sampler property several times within one sample.
+ * JMeter caches the value of a function property for the whole iteration, so a key such as
+ * {@code user:${__counter(FALSE,)}} would be the same for every command of a pipeline.
+ * For function properties the template re-runs the underlying functions on each call.
+ */
+public class PropertyTemplate {
+
+    public static Supplier<String> of(JMeterProperty property) {
+        if (property instanceof FunctionProperty && property.getObjectValue() instanceof CompoundVariable function) {
+            return function::execute;
+        }
+        String value = property.getStringValue();
+        return () -> value;
+    }
+}
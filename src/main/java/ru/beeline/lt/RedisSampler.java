@@ -6,30 +6,234 @@ import org.apache.jmeter.samplers.Interruptible;
 import org.apache.jmeter.samplers.SampleResult;
 import org.apache.jmeter.testelement.TestStateListener;
 import org.apache.jmeter.testelement.ThreadListener;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.threads.JMeterVariables;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ru.beeline.lt.cache.ClientSideCache;
+import ru.beeline.lt.cache.ClientSideCaches;
+import ru.beeline.lt.cluster.ClusterNodeStats;
+import ru.beeline.lt.cluster.RedisClusterClient;
+import ru.beeline.lt.codec.CodecStats;
+import ru.beeline.lt.codec.ValueCodec;
+import ru.beeline.lt.codec.ValueCodecs;
+import ru.beeline.lt.command.OperationMix;
+import ru.beeline.lt.command.RedisOperation;
+import ru.beeline.lt.command.RedisOperations;
+import ru.beeline.lt.command.RedisRequest;
+import ru.beeline.lt.command.RequestOptions;
+import ru.beeline.lt.command.ScriptCache;
+import ru.beeline.lt.command.ScriptOperation;
+import ru.beeline.lt.command.TransactionAbortedException;
+import ru.beeline.lt.command.TransactionResult;
+import ru.beeline.lt.command.TransactionSpec;
+import ru.beeline.lt.data.KeyDistribution;
+import ru.beeline.lt.data.KeyGenerator;
+import ru.beeline.lt.data.Preloader;
+import ru.beeline.lt.data.ValuePool;
+import ru.beeline.lt.error.ErrorClass;
+import ru.beeline.lt.error.ErrorLog;
+import ru.beeline.lt.latency.LatencyHistograms;
+import ru.beeline.lt.latency.LatencyRecorder;
+import ru.beeline.lt.metrics.MetricsExporter;
+import ru.beeline.lt.metrics.OperationMetrics;
+import ru.beeline.lt.metrics.SamplerMetrics;
+import ru.beeline.lt.openmodel.OpenModelEngine;
+import ru.beeline.lt.openmodel.OpenModelEngines;
+import ru.beeline.lt.openmodel.RateSearch;
+import ru.beeline.lt.openmodel.RateSearches;
+import ru.beeline.lt.resilience.ChurnPool;
+import ru.beeline.lt.resilience.FailoverObserver;
+import ru.beeline.lt.resilience.FailoverObservers;
+import ru.beeline.lt.server.ServerStatsCollector;
+import ru.beeline.lt.server.ServerStatsCollectors;
+import ru.beeline.lt.resp.RespProtocol;
+import ru.beeline.lt.stub.RespStubServer;
+import ru.beeline.lt.stub.StubServers;
+import ru.beeline.lt.tls.TlsSocketFactories;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.ClusterPipeline;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.DefaultJedisClientConfig;
+import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisClientConfig;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.JedisSentinelPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.RedisProtocol;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.commands.JedisBinaryCommands;
+import redis.clients.jedis.commands.JedisCommands;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+import redis.clients.jedis.util.Pool;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
+import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
 
 public class RedisSampler extends AbstractSampler implements ThreadListener, TestStateListener, Interruptible {
-    protected static final ThreadLocal<JedisPool> THREAD_LOCAL_CACHED_CONNECTION = new ThreadLocal<>();
+    protected static final ThreadLocal<Pool<Jedis>> THREAD_LOCAL_CACHED_CONNECTION = new ThreadLocal<>();
     private static final Logger log = LoggerFactory.getLogger(RedisSampler.class);
     private static final long serialVersionUID = -7043041976771463703L;
     private static final String REDIS_HOST_PROP = "RedisSampler.connection.host";
     private static final String REDIS_PORT_PROP = "RedisSampler.connection.port";
     private static final String REDIS_CLIENT_NAME_PROP = "RedisSampler.connection.client_name";
+    private static final String REDIS_USER_PROP = "RedisSampler.connection.user";
     private static final String REDIS_PASSWORD_PROP = "RedisSampler.connection.password";
     private static final String REDIS_TIMEOUT_PROP = "RedisSampler.connection.timeout";
     private static final String REDIS_DATABASE_PROP = "RedisSampler.connection.database";
+    private static final String REDIS_TOPOLOGY_PROP = "RedisSampler.connection.topology";
+    private static final String REDIS_NODES_PROP = "RedisSampler.connection.nodes";
+    private static final String REDIS_SENTINEL_MASTER_PROP = "RedisSampler.connection.sentinel_master";
+    private static final String REDIS_NODE_LABELS_PROP = "RedisSampler.connection.node_labels";
+    private static final String REDIS_PROTOCOL_PROP = "RedisSampler.connection.protocol";
+    private static final String REDIS_TLS_ENABLED_PROP = "RedisSampler.tls.enabled";
+    private static final String REDIS_TLS_KEYSTORE_PROP = "RedisSampler.tls.keystore";
+    private static final String REDIS_TLS_KEYSTORE_PASSWORD_PROP = "RedisSampler.tls.keystore_password";
+    private static final String REDIS_TLS_TRUSTSTORE_PROP = "RedisSampler.tls.truststore";
+    private static final String REDIS_TLS_TRUSTSTORE_PASSWORD_PROP = "RedisSampler.tls.truststore_password";
+    private static final String REDIS_TLS_SKIP_HOSTNAME_CHECK_PROP = "RedisSampler.tls.skip_hostname_check";
+    private static final String REDIS_CACHE_ENABLED_PROP = "RedisSampler.cache.enabled";
+    private static final String REDIS_CACHE_SIZE_PROP = "RedisSampler.cache.size";
     private static final String REDIS_OPERATION_PROP = "RedisSampler.request.operation";
+    private static final String REDIS_MIX_PROP = "RedisSampler.request.mix";
     private static final String REDIS_KEY_PROP = "RedisSampler.request.key";
     private static final String REDIS_VALUE_PROP = "RedisSampler.request.value";
     private static final String REDIS_EXPIRE_PROP = "RedisSampler.request.expire";
+    private static final String REDIS_PIPELINE_DEPTH_PROP = "RedisSampler.request.pipeline_depth";
+    private static final String REDIS_FIELD_PROP = "RedisSampler.request.field";
+    private static final String REDIS_RANGE_PROP = "RedisSampler.request.range";
+    private static final String REDIS_BATCH_SIZE_PROP = "RedisSampler.request.batch_size";
+    private static final String REDIS_GROUP_PROP = "RedisSampler.request.group";
+    private static final String REDIS_SCRIPT_PROP = "RedisSampler.request.script";
+    private static final String REDIS_TRANSACTION_COMMANDS_PROP = "RedisSampler.transaction.commands";
+    private static final String REDIS_TRANSACTION_READS_PROP = "RedisSampler.transaction.reads";
+    private static final String REDIS_TRANSACTION_WATCH_PROP = "RedisSampler.transaction.watch";
+    private static final String REDIS_TRANSACTION_MAX_RETRIES_PROP = "RedisSampler.transaction.max_retries";
+    private static final String REDIS_KEY_DISTRIBUTION_PROP = "RedisSampler.data.key_distribution";
+    private static final String REDIS_KEYSPACE_PROP = "RedisSampler.data.keyspace";
+    private static final String REDIS_ZIPF_THETA_PROP = "RedisSampler.data.zipf_theta";
+    private static final String REDIS_HOT_KEYS_PROP = "RedisSampler.data.hot_keys";
+    private static final String REDIS_HOT_OPS_PROP = "RedisSampler.data.hot_ops";
+    private static final String REDIS_VALUE_SIZES_PROP = "RedisSampler.data.value_sizes";
+    private static final String REDIS_VALUE_FILE_PROP = "RedisSampler.data.value_file";
+    private static final String REDIS_BINARY_PROP = "RedisSampler.data.binary";
+    private static final String REDIS_CODEC_PROP = "RedisSampler.data.codec";
+    private static final String REDIS_LEAN_RESPONSE_PROP = "RedisSampler.response.lean";
+    private static final String REDIS_FULL_CAPTURE_PROP = "RedisSampler.response.full_capture";
+    private static final String REDIS_HDR_FILE_PROP = "RedisSampler.response.hdr_file";
+    private static final String REDIS_POOL_MODE_PROP = "RedisSampler.pool.mode";
+    private static final String REDIS_POOL_MAX_TOTAL_PROP = "RedisSampler.pool.max_total";
+    private static final String REDIS_POOL_MAX_IDLE_PROP = "RedisSampler.pool.max_idle";
+    private static final String REDIS_POOL_MIN_IDLE_PROP = "RedisSampler.pool.min_idle";
+    private static final String REDIS_POOL_PREWARM_PROP = "RedisSampler.pool.prewarm";
+    private static final String REDIS_POOL_MAX_WAIT_PROP = "RedisSampler.pool.max_wait";
+    private static final String REDIS_LOAD_MODEL_PROP = "RedisSampler.load.model";
+    private static final String REDIS_LOAD_TARGET_RATE_PROP = "RedisSampler.load.target_rate";
+    private static final String REDIS_LOAD_CONNECTIONS_PROP = "RedisSampler.load.connections";
+    private static final String REDIS_LOAD_MAX_IN_FLIGHT_PROP = "RedisSampler.load.max_in_flight";
+    private static final String REDIS_ADAPTIVE_SLO_P99_PROP = "RedisSampler.adaptive.slo_p99";
+    private static final String REDIS_ADAPTIVE_STEP_PROP = "RedisSampler.adaptive.step";
+    private static final String REDIS_ADAPTIVE_GROWTH_PROP = "RedisSampler.adaptive.growth";
+    private static final String REDIS_ADAPTIVE_REPORT_PROP = "RedisSampler.adaptive.report";
+    private static final String REDIS_METRICS_ENABLED_PROP = "RedisSampler.metrics.enabled";
+    private static final String REDIS_METRICS_PORT_PROP = "RedisSampler.metrics.port";
+    private static final String REDIS_STUB_ENABLED_PROP = "RedisSampler.stub.enabled";
+    private static final String REDIS_STUB_LATENCY_PROP = "RedisSampler.stub.latency";
+    private static final String REDIS_STUB_ERROR_RATE_PROP = "RedisSampler.stub.error_rate";
+    private static final String REDIS_PRELOAD_KEYS_PROP = "RedisSampler.preload.keys";
+    private static final String REDIS_PRELOAD_TTL_PROP = "RedisSampler.preload.ttl";
+    private static final String REDIS_PRELOAD_CONNECTIONS_PROP = "RedisSampler.preload.connections";
+    private static final String REDIS_PRELOAD_BATCH_PROP = "RedisSampler.preload.batch";
+    private static final String REDIS_CHURN_RATE_PROP = "RedisSampler.churn.rate";
+    private static final String REDIS_CHURN_BORROWS_PROP = "RedisSampler.churn.borrows";
+    private static final String REDIS_FAILOVER_OBSERVE_PROP = "RedisSampler.failover.observe";
+    private static final String REDIS_FAILOVER_PROBE_INTERVAL_PROP = "RedisSampler.failover.probe_interval";
+    private static final String REDIS_SERVER_STATS_COLLECT_PROP = "RedisSampler.server_stats.collect";
+    private static final String REDIS_SERVER_STATS_INTERVAL_PROP = "RedisSampler.server_stats.interval";
+    private static final String REDIS_SERVER_STATS_FILE_PROP = "RedisSampler.server_stats.file";
+
+    private static final String DEFAULT_CHARSET = Charset.defaultCharset().name();
+
+    public static final String KEY_DISTRIBUTION_FIXED = "FIXED";
+    private static final long DEFAULT_KEYSPACE = 1_000_000;
+    private static final double DEFAULT_ZIPF_THETA = 0.99;
+    private static final double DEFAULT_HOT_KEYS = 0.2;
+    private static final double DEFAULT_HOT_OPS = 0.8;
+    public static final String TOPOLOGY_STANDALONE = "STANDALONE";
+    public static final String TOPOLOGY_CLUSTER = "CLUSTER";
+    public static final String TOPOLOGY_SENTINEL = "SENTINEL";
+    public static final String PROTOCOL_RESP2 = "RESP2";
+    public static final String PROTOCOL_RESP3 = "RESP3";
+    private static final int DEFAULT_CACHE_SIZE = 100_000;
+    public static final String POOL_MODE_THREAD = "THREAD";
+    public static final String POOL_MODE_SHARED = "SHARED";
+    private static final int DEFAULT_POOL_MAX_TOTAL = 1000;
+    private static final int DEFAULT_POOL_MAX_IDLE = 1000;
+    public static final String LOAD_MODEL_CLOSED = "CLOSED";
+    public static final String LOAD_MODEL_OPEN = "OPEN";
+    public static final String LOAD_MODEL_ADAPTIVE = "ADAPTIVE";
+    private static final int DEFAULT_LOAD_CONNECTIONS = 4;
+    private static final int DEFAULT_LOAD_MAX_IN_FLIGHT = 1024;
+    private static final long DEFAULT_ADAPTIVE_STEP = 10_000;
+    private static final double DEFAULT_ADAPTIVE_GROWTH = 1.5;
+    private static final long OPEN_MODEL_POLL_MILLIS = 100;
+    private static final int DEFAULT_BATCH_SIZE = 10;
+    private static final int DEFAULT_TRANSACTION_MAX_RETRIES = 10;
+    private static final int DEFAULT_PRELOAD_CONNECTIONS = 4;
+    private static final int DEFAULT_PRELOAD_BATCH = 1000;
+    private static final int DEFAULT_FAILOVER_PROBE_INTERVAL = 100;
+    private static final int DEFAULT_SERVER_STATS_INTERVAL = 1000;
+    /** JMeter variable with the transaction retries of the last sample; add it to sample_variables to save it per sample */
+    public static final String RETRIES_VARIABLE = "redis_retries";
+    /** JMeter variable with the nanoseconds the value codec took in the last sample, outside its elapsed time */
+    public static final String CODEC_NANOS_VARIABLE = "redis_codec_nanos";
+    /** JMeter variable with the raw size of the values of the last sample, before encoding or after decoding */
+    public static final String RAW_BYTES_VARIABLE = "redis_raw_bytes";
+
+    private transient Pool<Jedis> connectionPool;
+    private transient RedisClusterClient clusterClient;
+    private transient KeyGenerator keyGenerator;
+    private transient String keyPrefix;
+    private transient ValuePool valuePool;
+    private transient boolean clusterTopology;
+    private transient boolean nodeLabels;
+    private transient RedisOperation operation;
+    private transient RequestOptions requestOptions;
+    private transient boolean operationPrepared;
+    private transient OperationMix mix;
+    private transient MixedOperation[] mixedOperations; // per share of the mix
+    private transient MixedOperation mixedOperation; // of the current sample
+    private transient String sampleLabel;
+    private transient int pipelineDepth;
+    private transient boolean leanResponse;
+    private transient boolean binaryMode;
+    private transient ValueCodec codec;
+    private transient CodecStats codecStats;
+    private transient long sampleCodecNanos; // codec time of the current sample
+    private transient long sampleRawBytes; // raw size of the values of the current sample
+    private transient boolean cacheReads;
+    private transient boolean fullCapture;
+    private transient CRC32C checksum;
+    private transient LatencyRecorder latencyRecorder;
+    private transient OperationMetrics operationMetrics;
+    private transient boolean openModel;
+    private transient boolean threadSettingsResolved;
+    private transient OpenModelEngine openModelEngine;
+    private transient ClientSideCache clientCache;
+    private transient ChurnPool.Reconnect reconnect; // of the connection borrowed by the current sample
 
     public RedisSampler() {
         super();
@@ -84,6 +288,131 @@ public class RedisSampler extends AbstractSampler implements ThreadListener, Tes
         setProperty(REDIS_CLIENT_NAME_PROP, clientName);
     }
 
+    /**
+     * @return ACL user, blank to authenticate the default user with the password only
+     */
+    public String getUser() {
+        return getPropertyAsString(REDIS_USER_PROP);
+    }
+
+    public void setUser(String user) {
+        setProperty(REDIS_USER_PROP, user);
+    }
+
+    public String getProtocol() {
+        return getPropertyAsString(REDIS_PROTOCOL_PROP, PROTOCOL_RESP2);
+    }
+
+    public void setProtocol(String protocol) {
+        setProperty(REDIS_PROTOCOL_PROP, protocol);
+    }
+
+    public boolean isTlsEnabled() {
+        return getPropertyAsBoolean(REDIS_TLS_ENABLED_PROP);
+    }
+
+    public void setTlsEnabled(boolean tlsEnabled) {
+        setProperty(REDIS_TLS_ENABLED_PROP, tlsEnabled);
+    }
+
+    /**
+     * @return client certificate store for mutual TLS, PKCS12 or JKS, blank for none
+     */
+    public String getTlsKeystore() {
+        return getPropertyAsString(REDIS_TLS_KEYSTORE_PROP);
+    }
+
+    public void setTlsKeystore(String tlsKeystore) {
+        setProperty(REDIS_TLS_KEYSTORE_PROP, tlsKeystore);
+    }
+
+    public String getTlsKeystorePassword() {
+        return getPropertyAsString(REDIS_TLS_KEYSTORE_PASSWORD_PROP);
+    }
+
+    public void setTlsKeystorePassword(String tlsKeystorePassword) {
+        setProperty(REDIS_TLS_KEYSTORE_PASSWORD_PROP, tlsKeystorePassword);
+    }
+
+    /**
+     * @return trusted server certificates, PKCS12 or JKS, blank for the JVM defaults
+     */
+    public String getTlsTruststore() {
+        return getPropertyAsString(REDIS_TLS_TRUSTSTORE_PROP);
+    }
+
+    public void setTlsTruststore(String tlsTruststore) {
+        setProperty(REDIS_TLS_TRUSTSTORE_PROP, tlsTruststore);
+    }
+
+    public String getTlsTruststorePassword() {
+        return getPropertyAsString(REDIS_TLS_TRUSTSTORE_PASSWORD_PROP);
+    }
+
+    public void setTlsTruststorePassword(String tlsTruststorePassword) {
+        setProperty(REDIS_TLS_TRUSTSTORE_PASSWORD_PROP, tlsTruststorePassword);
+    }
+
+    public boolean isTlsSkipHostnameCheck() {
+        return getPropertyAsBoolean(REDIS_TLS_SKIP_HOSTNAME_CHECK_PROP);
+    }
+
+    public void setTlsSkipHostnameCheck(boolean tlsSkipHostnameCheck) {
+        setProperty(REDIS_TLS_SKIP_HOSTNAME_CHECK_PROP, tlsSkipHostnameCheck);
+    }
+
+    /**
+     * Client-side caching applies to single reads of cacheable operations (GET, HGETALL, SMEMBERS)
+     * on standalone and Sentinel topologies; pipelined, binary and open model samples bypass the cache.
+     */
+    public boolean isCacheEnabled() {
+        return getPropertyAsBoolean(REDIS_CACHE_ENABLED_PROP);
+    }
+
+    public void setCacheEnabled(boolean cacheEnabled) {
+        setProperty(REDIS_CACHE_ENABLED_PROP, cacheEnabled);
+    }
+
+    public String getCacheSize() {
+        return getPropertyAsString(REDIS_CACHE_SIZE_PROP);
+    }
+
+    public void setCacheSize(String cacheSize) {
+        setProperty(REDIS_CACHE_SIZE_PROP, cacheSize);
+    }
+
+    public String getTopology() {
+        return getPropertyAsString(REDIS_TOPOLOGY_PROP, TOPOLOGY_STANDALONE);
+    }
+
+    public void setTopology(String topology) {
+        setProperty(REDIS_TOPOLOGY_PROP, topology);
+    }
+
+    public String getNodes() {
+        return getPropertyAsString(REDIS_NODES_PROP);
+    }
+
+    public void setNodes(String nodes) {
+        setProperty(REDIS_NODES_PROP, nodes);
+    }
+
+    public String getSentinelMaster() {
+        return getPropertyAsString(REDIS_SENTINEL_MASTER_PROP);
+    }
+
+    public void setSentinelMaster(String sentinelMaster) {
+        setProperty(REDIS_SENTINEL_MASTER_PROP, sentinelMaster);
+    }
+
+    public boolean isNodeLabels() {
+        return getPropertyAsBoolean(REDIS_NODE_LABELS_PROP);
+    }
+
+    public void setNodeLabels(boolean nodeLabels) {
+        setProperty(REDIS_NODE_LABELS_PROP, nodeLabels);
+    }
+
     public String getOperation() {
         return getPropertyAsString(REDIS_OPERATION_PROP);
     }
@@ -92,6 +421,18 @@ public class RedisSampler extends AbstractSampler implements ThreadListener, Tes
         setProperty(REDIS_OPERATION_PROP, operation);
     }
 
+    /**
+     * @return weighted operations like {@code GET:80, SET:15, DEL:5} drawn per sample instead of the operation,
+     * blank for the operation alone
+     */
+    public String getMix() {
+        return getPropertyAsString(REDIS_MIX_PROP);
+    }
+
+    public void setMix(String mix) {
+        setProperty(REDIS_MIX_PROP, mix);
+    }
+
     public String getKey() {
         return getPropertyAsString(REDIS_KEY_PROP);
     }
@@ -116,129 +457,1894 @@ public class RedisSampler extends AbstractSampler implements ThreadListener, Tes
         setProperty(REDIS_EXPIRE_PROP, expire);
     }
 
-    public JedisPool initConnectionPool() {
-        JedisPool pool = THREAD_LOCAL_CACHED_CONNECTION.get();
-        if (pool == null) {
-            String host = getPropertyAsString(REDIS_HOST_PROP);
-            int port = getPropertyAsInt(REDIS_PORT_PROP);
-            String password = getPropertyAsString(REDIS_PASSWORD_PROP);
-            int timeout = getPropertyAsInt(REDIS_TIMEOUT_PROP);
-            int database = getPropertyAsInt(REDIS_DATABASE_PROP);
-            String clientName = getPropertyAsString(REDIS_CLIENT_NAME_PROP);
+    public String getKeyDistribution() {
+        return getPropertyAsString(REDIS_KEY_DISTRIBUTION_PROP, KEY_DISTRIBUTION_FIXED);
+    }
 
-            log.debug("initConnectionPool()");
-            log.debug("%s:%s;%s;%s;%s;%s".formatted(host, port, timeout, password, database, clientName));
-            if (password.isEmpty()) {
-                password = null;
-            }
-            if (clientName.isEmpty()) {
-                clientName = null;
-            }
-            JedisPoolConfig jedisPoolConfig = new JedisPoolConfig();
-            jedisPoolConfig.setMaxTotal(1000);
-            jedisPoolConfig.setMaxIdle(1000);
-            pool = new JedisPool(jedisPoolConfig, host, port, timeout, password, database, clientName);
-            THREAD_LOCAL_CACHED_CONNECTION.set(pool);
-        }
-        log.debug(pool.toString());
-        return pool;
+    public void setKeyDistribution(String keyDistribution) {
+        setProperty(REDIS_KEY_DISTRIBUTION_PROP, keyDistribution);
     }
 
+    public String getKeyspace() {
+        return getPropertyAsString(REDIS_KEYSPACE_PROP);
+    }
 
-    @Override
-    public void testStarted() {
-        log.info("testStarted() Redis Sampler version 0.4");
-        initConnectionPool();
+    public void setKeyspace(String keyspace) {
+        setProperty(REDIS_KEYSPACE_PROP, keyspace);
     }
 
-    @Override
-    public void testStarted(String host) {
-        log.info("testStarted(%s) Redis Sampler version 0.4".formatted(host));
-        initConnectionPool();
+    public String getZipfTheta() {
+        return getPropertyAsString(REDIS_ZIPF_THETA_PROP);
     }
 
-    @Override
-    public void testEnded() {
-        log.info("testEnded()");
+    public void setZipfTheta(String zipfTheta) {
+        setProperty(REDIS_ZIPF_THETA_PROP, zipfTheta);
+    }
 
+    public String getHotKeys() {
+        return getPropertyAsString(REDIS_HOT_KEYS_PROP);
     }
 
-    @Override
-    public void testEnded(String host) {
-        log.info("testEnded(%s)".formatted(host));
+    public void setHotKeys(String hotKeys) {
+        setProperty(REDIS_HOT_KEYS_PROP, hotKeys);
+    }
 
+    public String getHotOps() {
+        return getPropertyAsString(REDIS_HOT_OPS_PROP);
     }
 
-    @Override
-    public void threadStarted() {
-        log.debug("threadStarted() + %s".formatted(Thread.currentThread().getName()));
+    public void setHotOps(String hotOps) {
+        setProperty(REDIS_HOT_OPS_PROP, hotOps);
     }
 
-    @Override
-    public void threadFinished() {
-        log.debug("threadFinished() + %s".formatted(Thread.currentThread().getName()));
-        JedisPool pool = THREAD_LOCAL_CACHED_CONNECTION.get();
-        if (pool != null) {
-            pool.close();
-        }
+    public String getValueSizes() {
+        return getPropertyAsString(REDIS_VALUE_SIZES_PROP);
     }
 
-    @Override
-    public SampleResult sample(Entry entry) {
-        log.debug("SampleResult sample(%s)".formatted(entry));
-        JedisPool pool = THREAD_LOCAL_CACHED_CONNECTION.get();
-        if (pool == null) {
-            pool = initConnectionPool();
-        }
-        String operation = getPropertyAsString(REDIS_OPERATION_PROP);
-        String key = getPropertyAsString(REDIS_KEY_PROP);
-        String value = getPropertyAsString(REDIS_VALUE_PROP);
-        long expire = getPropertyAsLong(REDIS_EXPIRE_PROP);
-        SampleResult result = new SampleResult();
-        result.setSampleLabel(getName());
+    public void setValueSizes(String valueSizes) {
+        setProperty(REDIS_VALUE_SIZES_PROP, valueSizes);
+    }
 
-        try (Jedis jedis = pool.getResource()) {
-            long start = System.nanoTime();
-            result.sampleStart(); // start stopwatch
-            var response = switch (operation) {
-                case "GET" -> jedis.get(key);
-                case "SETEX" -> jedis.setex(key, expire, value);
-                case "SET" -> jedis.set(key, value);
-                case "PEXPIRE" -> jedis.pexpire(key, expire);
-                case "EXISTS" -> jedis.exists(key);
-                case "DEL" -> jedis.del(key);
-                default -> throw new IllegalStateException("Unexpected value: " + operation);
-            };
-            result.sampleEnd(); // stop stopwatch
-            long end = System.nanoTime() - start;
-            result.setResponseData("""
-                    {
-                        "operation": "%s",
-                        "key": "%s",
-                        "response": "%s",
-                        "duration": %d
-                    }
-                    """.formatted(operation, key, response == null ? "null" : response.toString(), end), Charset.defaultCharset().name());
-            result.setSuccessful(true);
-            result.setResponseMessage(response == null ? "null" : response.toString());
-            result.setResponseCodeOK(); // 200 code
-        } catch (Throwable e) {
-            result.sampleEnd(); // stop stopwatch
-            result.setSuccessful(false);
-            result.setResponseMessage("Exception: " + e);
+    public String getField() {
+        return getPropertyAsString(REDIS_FIELD_PROP);
+    }
 
-            // get stack trace as a String to return as document data
-            StringWriter stringWriter = new StringWriter();
-            e.printStackTrace(new PrintWriter(stringWriter));
-            result.setResponseData(stringWriter.toString(), Charset.defaultCharset().name());
-            result.setDataType(SampleResult.TEXT);
-            result.setResponseCode("500");
-        }
-        return result;
+    public void setField(String field) {
+        setProperty(REDIS_FIELD_PROP, field);
     }
 
-    @Override
-    public boolean interrupt() {
-        return false;
+    public String getRange() {
+        return getPropertyAsString(REDIS_RANGE_PROP);
+    }
+
+    public void setRange(String range) {
+        setProperty(REDIS_RANGE_PROP, range);
+    }
+
+    public String getBatchSize() {
+        return getPropertyAsString(REDIS_BATCH_SIZE_PROP);
+    }
+
+    public void setBatchSize(String batchSize) {
+        setProperty(REDIS_BATCH_SIZE_PROP, batchSize);
+    }
+
+    public String getGroup() {
+        return getPropertyAsString(REDIS_GROUP_PROP);
+    }
+
+    public void setGroup(String group) {
+        setProperty(REDIS_GROUP_PROP, group);
+    }
+
+    public String getScript() {
+        return getPropertyAsString(REDIS_SCRIPT_PROP);
+    }
+
+    public void setScript(String script) {
+        setProperty(REDIS_SCRIPT_PROP, script);
+    }
+
+    public String getTransactionCommands() {
+        return getPropertyAsString(REDIS_TRANSACTION_COMMANDS_PROP);
+    }
+
+    public void setTransactionCommands(String transactionCommands) {
+        setProperty(REDIS_TRANSACTION_COMMANDS_PROP, transactionCommands);
+    }
+
+    public String getTransactionReads() {
+        return getPropertyAsString(REDIS_TRANSACTION_READS_PROP);
+    }
+
+    public void setTransactionReads(String transactionReads) {
+        setProperty(REDIS_TRANSACTION_READS_PROP, transactionReads);
+    }
+
+    public String getTransactionWatch() {
+        return getPropertyAsString(REDIS_TRANSACTION_WATCH_PROP);
+    }
+
+    public void setTransactionWatch(String transactionWatch) {
+        setProperty(REDIS_TRANSACTION_WATCH_PROP, transactionWatch);
+    }
+
+    public String getTransactionMaxRetries() {
+        return getPropertyAsString(REDIS_TRANSACTION_MAX_RETRIES_PROP);
+    }
+
+    public void setTransactionMaxRetries(String transactionMaxRetries) {
+        setProperty(REDIS_TRANSACTION_MAX_RETRIES_PROP, transactionMaxRetries);
+    }
+
+    public String getValueFile() {
+        return getPropertyAsString(REDIS_VALUE_FILE_PROP);
+    }
+
+    public void setValueFile(String valueFile) {
+        setProperty(REDIS_VALUE_FILE_PROP, valueFile);
+    }
+
+    public boolean isBinary() {
+        return getPropertyAsBoolean(REDIS_BINARY_PROP);
+    }
+
+    public void setBinary(boolean binary) {
+        setProperty(REDIS_BINARY_PROP, binary);
+    }
+
+    public String getCodec() {
+        return getPropertyAsString(REDIS_CODEC_PROP);
+    }
+
+    public void setCodec(String codec) {
+        setProperty(REDIS_CODEC_PROP, codec);
+    }
+
+    public String getPipelineDepth() {
+        return getPropertyAsString(REDIS_PIPELINE_DEPTH_PROP);
+    }
+
+    public void setPipelineDepth(String pipelineDepth) {
+        setProperty(REDIS_PIPELINE_DEPTH_PROP, pipelineDepth);
+    }
+
+    public boolean isLeanResponse() {
+        return getPropertyAsBoolean(REDIS_LEAN_RESPONSE_PROP);
+    }
+
+    public void setLeanResponse(boolean leanResponse) {
+        setProperty(REDIS_LEAN_RESPONSE_PROP, leanResponse);
+    }
+
+    public boolean isFullCapture() {
+        return getPropertyAsBoolean(REDIS_FULL_CAPTURE_PROP);
+    }
+
+    public void setFullCapture(boolean fullCapture) {
+        setProperty(REDIS_FULL_CAPTURE_PROP, fullCapture);
+    }
+
+    public String getHdrFile() {
+        return getPropertyAsString(REDIS_HDR_FILE_PROP);
+    }
+
+    public void setHdrFile(String hdrFile) {
+        setProperty(REDIS_HDR_FILE_PROP, hdrFile);
+    }
+
+    public String getPoolMode() {
+        return getPropertyAsString(REDIS_POOL_MODE_PROP, POOL_MODE_THREAD);
+    }
+
+    public void setPoolMode(String poolMode) {
+        setProperty(REDIS_POOL_MODE_PROP, poolMode);
+    }
+
+    public String getPoolMaxTotal() {
+        return getPropertyAsString(REDIS_POOL_MAX_TOTAL_PROP);
+    }
+
+    public void setPoolMaxTotal(String poolMaxTotal) {
+        setProperty(REDIS_POOL_MAX_TOTAL_PROP, poolMaxTotal);
+    }
+
+    public String getPoolMaxIdle() {
+        return getPropertyAsString(REDIS_POOL_MAX_IDLE_PROP);
+    }
+
+    public void setPoolMaxIdle(String poolMaxIdle) {
+        setProperty(REDIS_POOL_MAX_IDLE_PROP, poolMaxIdle);
+    }
+
+    public String getPoolMinIdle() {
+        return getPropertyAsString(REDIS_POOL_MIN_IDLE_PROP);
+    }
+
+    public void setPoolMinIdle(String poolMinIdle) {
+        setProperty(REDIS_POOL_MIN_IDLE_PROP, poolMinIdle);
+    }
+
+    public String getPoolPrewarm() {
+        return getPropertyAsString(REDIS_POOL_PREWARM_PROP);
+    }
+
+    public void setPoolPrewarm(String poolPrewarm) {
+        setProperty(REDIS_POOL_PREWARM_PROP, poolPrewarm);
+    }
+
+    public String getPoolMaxWait() {
+        return getPropertyAsString(REDIS_POOL_MAX_WAIT_PROP);
+    }
+
+    public void setPoolMaxWait(String poolMaxWait) {
+        setProperty(REDIS_POOL_MAX_WAIT_PROP, poolMaxWait);
+    }
+
+    public String getLoadModel() {
+        return getPropertyAsString(REDIS_LOAD_MODEL_PROP, LOAD_MODEL_CLOSED);
+    }
+
+    public void setLoadModel(String loadModel) {
+        setProperty(REDIS_LOAD_MODEL_PROP, loadModel);
+    }
+
+    public String getLoadTargetRate() {
+        return getPropertyAsString(REDIS_LOAD_TARGET_RATE_PROP);
+    }
+
+    public void setLoadTargetRate(String loadTargetRate) {
+        setProperty(REDIS_LOAD_TARGET_RATE_PROP, loadTargetRate);
+    }
+
+    public String getLoadConnections() {
+        return getPropertyAsString(REDIS_LOAD_CONNECTIONS_PROP);
+    }
+
+    public void setLoadConnections(String loadConnections) {
+        setProperty(REDIS_LOAD_CONNECTIONS_PROP, loadConnections);
+    }
+
+    public String getLoadMaxInFlight() {
+        return getPropertyAsString(REDIS_LOAD_MAX_IN_FLIGHT_PROP);
+    }
+
+    public void setLoadMaxInFlight(String loadMaxInFlight) {
+        setProperty(REDIS_LOAD_MAX_IN_FLIGHT_PROP, loadMaxInFlight);
+    }
+
+    /**
+     * @return p99 latency in milliseconds the adaptive load model keeps the target within
+     */
+    public String getAdaptiveSloP99() {
+        return getPropertyAsString(REDIS_ADAPTIVE_SLO_P99_PROP);
+    }
+
+    public void setAdaptiveSloP99(String adaptiveSloP99) {
+        setProperty(REDIS_ADAPTIVE_SLO_P99_PROP, adaptiveSloP99);
+    }
+
+    /**
+     * @return milliseconds the adaptive load model stays at one rate
+     */
+    public String getAdaptiveStep() {
+        return getPropertyAsString(REDIS_ADAPTIVE_STEP_PROP);
+    }
+
+    public void setAdaptiveStep(String adaptiveStep) {
+        setProperty(REDIS_ADAPTIVE_STEP_PROP, adaptiveStep);
+    }
+
+    /**
+     * @return factor the adaptive load model raises the rate by until the SLO is exceeded
+     */
+    public String getAdaptiveGrowth() {
+        return getPropertyAsString(REDIS_ADAPTIVE_GROWTH_PROP);
+    }
+
+    public void setAdaptiveGrowth(String adaptiveGrowth) {
+        setProperty(REDIS_ADAPTIVE_GROWTH_PROP, adaptiveGrowth);
+    }
+
+    /**
+     * @return CSV file of the rate search steps, blank for the log only
+     */
+    public String getAdaptiveReport() {
+        return getPropertyAsString(REDIS_ADAPTIVE_REPORT_PROP);
+    }
+
+    public void setAdaptiveReport(String adaptiveReport) {
+        setProperty(REDIS_ADAPTIVE_REPORT_PROP, adaptiveReport);
+    }
+
+    public boolean isMetricsEnabled() {
+        return getPropertyAsBoolean(REDIS_METRICS_ENABLED_PROP);
+    }
+
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        setProperty(REDIS_METRICS_ENABLED_PROP, metricsEnabled);
+    }
+
+    public String getMetricsPort() {
+        return getPropertyAsString(REDIS_METRICS_PORT_PROP);
+    }
+
+    public void setMetricsPort(String metricsPort) {
+        setProperty(REDIS_METRICS_PORT_PROP, metricsPort);
+    }
+
+    public boolean isStubEnabled() {
+        return getPropertyAsBoolean(REDIS_STUB_ENABLED_PROP);
+    }
+
+    public void setStubEnabled(boolean stubEnabled) {
+        setProperty(REDIS_STUB_ENABLED_PROP, stubEnabled);
+    }
+
+    public String getStubLatency() {
+        return getPropertyAsString(REDIS_STUB_LATENCY_PROP);
+    }
+
+    public void setStubLatency(String stubLatency) {
+        setProperty(REDIS_STUB_LATENCY_PROP, stubLatency);
+    }
+
+    public String getStubErrorRate() {
+        return getPropertyAsString(REDIS_STUB_ERROR_RATE_PROP);
+    }
+
+    public void setStubErrorRate(String stubErrorRate) {
+        setProperty(REDIS_STUB_ERROR_RATE_PROP, stubErrorRate);
+    }
+
+    /**
+     * @return keys loaded before the test, blank or {@code 0} to skip the preload
+     */
+    public String getPreloadKeys() {
+        return getPropertyAsString(REDIS_PRELOAD_KEYS_PROP);
+    }
+
+    public void setPreloadKeys(String preloadKeys) {
+        setProperty(REDIS_PRELOAD_KEYS_PROP, preloadKeys);
+    }
+
+    /**
+     * @return TTL of the preloaded keys in milliseconds, fixed ({@code 60000}) or a range ({@code 60000-120000})
+     */
+    public String getPreloadTtl() {
+        return getPropertyAsString(REDIS_PRELOAD_TTL_PROP);
+    }
+
+    public void setPreloadTtl(String preloadTtl) {
+        setProperty(REDIS_PRELOAD_TTL_PROP, preloadTtl);
+    }
+
+    public String getPreloadConnections() {
+        return getPropertyAsString(REDIS_PRELOAD_CONNECTIONS_PROP);
+    }
+
+    public void setPreloadConnections(String preloadConnections) {
+        setProperty(REDIS_PRELOAD_CONNECTIONS_PROP, preloadConnections);
+    }
+
+    public String getPreloadBatch() {
+        return getPropertyAsString(REDIS_PRELOAD_BATCH_PROP);
+    }
+
+    public void setPreloadBatch(String preloadBatch) {
+        setProperty(REDIS_PRELOAD_BATCH_PROP, preloadBatch);
+    }
+
+    /**
+     * @return reconnects per second of each connection, blank or {@code 0} to keep connections
+     */
+    public String getChurnRate() {
+        return getPropertyAsString(REDIS_CHURN_RATE_PROP);
+    }
+
+    public void setChurnRate(String churnRate) {
+        setProperty(REDIS_CHURN_RATE_PROP, churnRate);
+    }
+
+    /**
+     * @return borrows of a connection before it is replaced, one per sample whatever it sends (a pipeline or a
+     *         transaction counts once), blank or {@code 0} for no limit
+     */
+    public String getChurnBorrows() {
+        return getPropertyAsString(REDIS_CHURN_BORROWS_PROP);
+    }
+
+    public void setChurnBorrows(String churnBorrows) {
+        setProperty(REDIS_CHURN_BORROWS_PROP, churnBorrows);
+    }
+
+    public boolean isFailoverObserve() {
+        return getPropertyAsBoolean(REDIS_FAILOVER_OBSERVE_PROP);
+    }
+
+    public void setFailoverObserve(boolean failoverObserve) {
+        setProperty(REDIS_FAILOVER_OBSERVE_PROP, failoverObserve);
+    }
+
+    /**
+     * @return milliseconds between write probes of the primary
+     */
+    public String getFailoverProbeInterval() {
+        return getPropertyAsString(REDIS_FAILOVER_PROBE_INTERVAL_PROP);
+    }
+
+    public void setFailoverProbeInterval(String failoverProbeInterval) {
+        setProperty(REDIS_FAILOVER_PROBE_INTERVAL_PROP, failoverProbeInterval);
+    }
+
+    public boolean isServerStatsCollect() {
+        return getPropertyAsBoolean(REDIS_SERVER_STATS_COLLECT_PROP);
+    }
+
+    public void setServerStatsCollect(boolean serverStatsCollect) {
+        setProperty(REDIS_SERVER_STATS_COLLECT_PROP, serverStatsCollect);
+    }
+
+    /**
+     * @return milliseconds between polls of INFO, SLOWLOG and LATENCY
+     */
+    public String getServerStatsInterval() {
+        return getPropertyAsString(REDIS_SERVER_STATS_INTERVAL_PROP);
+    }
+
+    public void setServerStatsInterval(String serverStatsInterval) {
+        setProperty(REDIS_SERVER_STATS_INTERVAL_PROP, serverStatsInterval);
+    }
+
+    /**
+     * @return CSV time series of the server stats, blank to export them as metrics only
+     */
+    public String getServerStatsFile() {
+        return getPropertyAsString(REDIS_SERVER_STATS_FILE_PROP);
+    }
+
+    public void setServerStatsFile(String serverStatsFile) {
+        setProperty(REDIS_SERVER_STATS_FILE_PROP, serverStatsFile);
+    }
+
+    /**
+     * @return whether commands are sent by an open model engine: at the target rate, or at the rate searched by the adaptive model
+     */
+    public boolean isOpenModel() {
+        return LOAD_MODEL_OPEN.equals(getLoadModel()) || isAdaptive();
+    }
+
+    public boolean isAdaptive() {
+        return LOAD_MODEL_ADAPTIVE.equals(getLoadModel());
+    }
+
+    public boolean isSharedPool() {
+        return POOL_MODE_SHARED.equals(getPoolMode());
+    }
+
+    public boolean isCluster() {
+        return TOPOLOGY_CLUSTER.equals(getTopology());
+    }
+
+    public Pool<Jedis> initConnectionPool() {
+        if (isSharedPool()) {
+            return SharedConnections.getOrCreate(createConnectionKey(), this::createConnectionPool);
+        }
+        Pool<Jedis> pool = THREAD_LOCAL_CACHED_CONNECTION.get();
+        if (pool == null) {
+            pool = createConnectionPool();
+            THREAD_LOCAL_CACHED_CONNECTION.set(pool);
+        }
+        log.debug(pool.toString());
+        return pool;
+    }
+
+    /**
+     * Cluster clients keep a connection pool per node and are thread-safe, so they are always shared by the test.
+     */
+    public RedisClusterClient initClusterClient() {
+        return SharedConnections.getOrCreate(createConnectionKey(), this::createClusterClient);
+    }
+
+    private SharedConnections.ConnectionKey createConnectionKey() {
+        String topology = getTopology();
+        String address = switch (topology) {
+            case TOPOLOGY_CLUSTER -> getPropertyAsString(REDIS_NODES_PROP);
+            case TOPOLOGY_SENTINEL -> getPropertyAsString(REDIS_SENTINEL_MASTER_PROP) + "@" + getPropertyAsString(REDIS_NODES_PROP);
+            default -> getPropertyAsString(REDIS_HOST_PROP) + ":" + getPropertyAsInt(REDIS_PORT_PROP);
+        };
+        String protocol = getPropertyAsString(REDIS_PROTOCOL_PROP);
+        return new SharedConnections.ConnectionKey(
+                topology,
+                address,
+                getPropertyAsInt(REDIS_DATABASE_PROP),
+                getPropertyAsString(REDIS_USER_PROP),
+                getPropertyAsString(REDIS_PASSWORD_PROP),
+                getPropertyAsString(REDIS_CLIENT_NAME_PROP),
+                createTlsSettings(),
+                PROTOCOL_RESP2.equals(protocol) ? "" : protocol);
+    }
+
+    private Pool<Jedis> createConnectionPool() {
+        String host = getPropertyAsString(REDIS_HOST_PROP);
+        int port = getPropertyAsInt(REDIS_PORT_PROP);
+        int timeout = getPropertyAsInt(REDIS_TIMEOUT_PROP);
+
+        log.debug("initConnectionPool()");
+        log.debug("%s:%s;%s;%s;%s".formatted(host, port, timeout, getPropertyAsInt(REDIS_DATABASE_PROP),
+                getPropertyAsString(REDIS_CLIENT_NAME_PROP)));
+        JedisPoolConfig jedisPoolConfig = new JedisPoolConfig();
+        configurePool(jedisPoolConfig);
+        ChurnPool.Policy churn = createChurnPolicy();
+        Pool<Jedis> pool;
+        if (churn.isEnabled()) {
+            if (!TOPOLOGY_STANDALONE.equals(getTopology())) {
+                throw new IllegalStateException("Connection churn needs standalone topology, not " + getTopology());
+            }
+            pool = new ChurnPool(jedisPoolConfig, new HostAndPort(host, port), createClientConfig(), churn);
+        } else if (TOPOLOGY_SENTINEL.equals(getTopology())) {
+            String masterName = getPropertyAsString(REDIS_SENTINEL_MASTER_PROP);
+            pool = new JedisSentinelPool(masterName, parseNodes(getPropertyAsString(REDIS_NODES_PROP)), jedisPoolConfig,
+                    createClientConfig(),
+                    DefaultJedisClientConfig.builder().timeoutMillis(timeout).build());
+            log.info("Sentinel master %s is %s".formatted(masterName, ((JedisSentinelPool) pool).getCurrentHostMaster()));
+        } else {
+            pool = new JedisPool(jedisPoolConfig, new HostAndPort(host, port), createClientConfig());
+        }
+
+        int prewarm = Math.min(getIntProperty(REDIS_POOL_PREWARM_PROP, 0), jedisPoolConfig.getMaxTotal());
+        if (prewarm > 0) {
+            long start = System.nanoTime();
+            pool.addObjects(prewarm);
+            log.info("Pre-warmed %d connections to %s in %d ms".formatted(
+                    prewarm, createConnectionKey(), (System.nanoTime() - start) / 1_000_000));
+        }
+        if (isMetricsEnabled()) {
+            SamplerMetrics.registerPool(pool);
+        }
+        return pool;
+    }
+
+    private ChurnPool.Policy createChurnPolicy() {
+        return new ChurnPool.Policy(getDoubleProperty(REDIS_CHURN_RATE_PROP, 0), getLongProperty(REDIS_CHURN_BORROWS_PROP, 0));
+    }
+
+    private RedisClusterClient createClusterClient() {
+        GenericObjectPoolConfig<Connection> poolConfig = new GenericObjectPoolConfig<>();
+        configurePool(poolConfig);
+        RedisClusterClient client = new RedisClusterClient(parseNodes(getPropertyAsString(REDIS_NODES_PROP)), createClientConfig(),
+                poolConfig, getPropertyAsInt(REDIS_TIMEOUT_PROP));
+        if (isMetricsEnabled()) {
+            SamplerMetrics.registerPools(client, client::pools);
+        }
+        return client;
+    }
+
+    private void configurePool(GenericObjectPoolConfig<?> poolConfig) {
+        poolConfig.setMaxTotal(getIntProperty(REDIS_POOL_MAX_TOTAL_PROP, DEFAULT_POOL_MAX_TOTAL));
+        poolConfig.setMaxIdle(getIntProperty(REDIS_POOL_MAX_IDLE_PROP, DEFAULT_POOL_MAX_IDLE));
+        poolConfig.setMinIdle(getIntProperty(REDIS_POOL_MIN_IDLE_PROP, 0));
+        poolConfig.setMaxWait(Duration.ofMillis(getIntProperty(REDIS_POOL_MAX_WAIT_PROP, -1)));
+    }
+
+    private JedisClientConfig createClientConfig() {
+        return clientConfigBuilder()
+                .protocol(PROTOCOL_RESP3.equals(getProtocol()) ? RedisProtocol.RESP3 : null)
+                .build();
+    }
+
+    /**
+     * @return connection settings shared by the data connections and the client-side cache, without the protocol
+     */
+    private DefaultJedisClientConfig.Builder clientConfigBuilder() {
+        String user = getPropertyAsString(REDIS_USER_PROP);
+        String password = getPropertyAsString(REDIS_PASSWORD_PROP);
+        String clientName = getPropertyAsString(REDIS_CLIENT_NAME_PROP);
+        TlsSocketFactories.Settings tls = createTlsSettings();
+        return DefaultJedisClientConfig.builder()
+                .timeoutMillis(getPropertyAsInt(REDIS_TIMEOUT_PROP))
+                .user(user.isEmpty() ? null : user)
+                .password(password.isEmpty() ? null : password)
+                .database(getPropertyAsInt(REDIS_DATABASE_PROP))
+                .clientName(clientName.isEmpty() ? null : clientName)
+                .ssl(tls != null)
+                .sslSocketFactory(tls == null ? null : TlsSocketFactories.get(tls));
+    }
+
+    /**
+     * @return TLS settings, {@code null} when TLS is disabled
+     */
+    private TlsSocketFactories.Settings createTlsSettings() {
+        if (!getPropertyAsBoolean(REDIS_TLS_ENABLED_PROP)) {
+            return null;
+        }
+        return new TlsSocketFactories.Settings(
+                getPropertyAsString(REDIS_TLS_KEYSTORE_PROP),
+                getPropertyAsString(REDIS_TLS_KEYSTORE_PASSWORD_PROP),
+                getPropertyAsString(REDIS_TLS_TRUSTSTORE_PROP),
+                getPropertyAsString(REDIS_TLS_TRUSTSTORE_PASSWORD_PROP),
+                !getPropertyAsBoolean(REDIS_TLS_SKIP_HOSTNAME_CHECK_PROP));
+    }
+
+    /**
+     * Starts the client-side cache of the server once per test. Invalidations are read on a RESP2 connection of their own.
+     *
+     * @param pool pool of the thread, to find the current master on Sentinel topology
+     */
+    private ClientSideCache initClientCache(Pool<Jedis> pool) {
+        SharedConnections.ConnectionKey key = createConnectionKey();
+        HostAndPort address = new HostAndPort(getPropertyAsString(REDIS_HOST_PROP), getPropertyAsInt(REDIS_PORT_PROP));
+        Supplier<HostAndPort> master = pool instanceof JedisSentinelPool sentinel ? sentinel::getCurrentHostMaster : () -> address;
+        JedisClientConfig config = clientConfigBuilder().build();
+        int size = getIntProperty(REDIS_CACHE_SIZE_PROP, DEFAULT_CACHE_SIZE);
+        return ClientSideCaches.getOrStart(key, () -> new ClientSideCache(key.toString(), size,
+                () -> new Connection(master.get(), config)));
+    }
+
+    /**
+     * Starts the failover observer of the target once per test. On Sentinel topology the primary is asked from the sentinels
+     * before each probe; on standalone topology the address is fixed and a change is seen as a new {@code run_id}.
+     */
+    private FailoverObserver initFailoverObserver() {
+        if (isCluster()) {
+            throw new IllegalStateException("Failover observation needs standalone or Sentinel topology");
+        }
+        SharedConnections.ConnectionKey key = createConnectionKey();
+        Supplier<HostAndPort> primary;
+        if (TOPOLOGY_SENTINEL.equals(getTopology())) {
+            primary = FailoverObserver.sentinelPrimary(getPropertyAsString(REDIS_SENTINEL_MASTER_PROP),
+                    parseNodes(getPropertyAsString(REDIS_NODES_PROP)),
+                    DefaultJedisClientConfig.builder().timeoutMillis(getPropertyAsInt(REDIS_TIMEOUT_PROP)).build());
+        } else {
+            HostAndPort address = new HostAndPort(getPropertyAsString(REDIS_HOST_PROP), getPropertyAsInt(REDIS_PORT_PROP));
+            primary = () -> address;
+        }
+        JedisClientConfig config = clientConfigBuilder().build();
+        long interval = getLongProperty(REDIS_FAILOVER_PROBE_INTERVAL_PROP, DEFAULT_FAILOVER_PROBE_INTERVAL);
+        return FailoverObservers.getOrStart(key, () -> new FailoverObserver(key.toString(), primary, config, interval));
+    }
+
+    /**
+     * Starts the server stats collector of the target once per test. On cluster topology the seed nodes are polled,
+     * on Sentinel topology the current primary.
+     */
+    private ServerStatsCollector initServerStatsCollector() {
+        SharedConnections.ConnectionKey key = createConnectionKey();
+        Supplier<List<HostAndPort>> nodes;
+        if (isCluster()) {
+            List<HostAndPort> seeds = List.copyOf(parseNodes(getPropertyAsString(REDIS_NODES_PROP)));
+            nodes = () -> seeds;
+        } else if (TOPOLOGY_SENTINEL.equals(getTopology())) {
+            Supplier<HostAndPort> primary = FailoverObserver.sentinelPrimary(getPropertyAsString(REDIS_SENTINEL_MASTER_PROP),
+                    parseNodes(getPropertyAsString(REDIS_NODES_PROP)),
+                    DefaultJedisClientConfig.builder().timeoutMillis(getPropertyAsInt(REDIS_TIMEOUT_PROP)).build());
+            nodes = () -> List.of(primary.get());
+        } else {
+            List<HostAndPort> address = List.of(new HostAndPort(getPropertyAsString(REDIS_HOST_PROP), getPropertyAsInt(REDIS_PORT_PROP)));
+            nodes = () -> address;
+        }
+        JedisClientConfig config = clientConfigBuilder().build();
+        long interval = getLongProperty(REDIS_SERVER_STATS_INTERVAL_PROP, DEFAULT_SERVER_STATS_INTERVAL);
+        String file = getPropertyAsString(REDIS_SERVER_STATS_FILE_PROP);
+        return ServerStatsCollectors.getOrStart(key, () -> new ServerStatsCollector(key.toString(), nodes, config, interval,
+                file.isBlank() ? null : Path.of(file.trim())));
+    }
+
+    /**
+     * Parses a seed node list such as {@code "10.0.0.1:7000, 10.0.0.2:7000"}.
+     */
+    static Set<HostAndPort> parseNodes(String nodes) {
+        Set<HostAndPort> result = new LinkedHashSet<>();
+        for (String node : nodes.split("[,;\\s]+")) {
+            if (!node.isBlank()) {
+                result.add(HostAndPort.from(node.trim()));
+            }
+        }
+        if (result.isEmpty()) {
+            throw new IllegalStateException("No seed nodes configured");
+        }
+        return result;
+    }
+
+    /**
+     * @return generator of key indexes, {@code null} when the key is used as is
+     */
+    private KeyGenerator createKeyGenerator() {
+        KeyDistribution distribution = KeyDistribution.find(getKeyDistribution());
+        if (distribution == null) {
+            return null;
+        }
+        return distribution.create(getName() + "|" + getPropertyAsString(REDIS_KEY_PROP),
+                getLongProperty(REDIS_KEYSPACE_PROP, DEFAULT_KEYSPACE),
+                getDoubleProperty(REDIS_ZIPF_THETA_PROP, DEFAULT_ZIPF_THETA),
+                getDoubleProperty(REDIS_HOT_KEYS_PROP, DEFAULT_HOT_KEYS),
+                getDoubleProperty(REDIS_HOT_OPS_PROP, DEFAULT_HOT_OPS));
+    }
+
+    /**
+     * @return file content or generated values, {@code null} when the value is used as is
+     */
+    private ValuePool createValuePool() {
+        String file = getPropertyAsString(REDIS_VALUE_FILE_PROP);
+        if (!file.isBlank()) {
+            return ValuePool.forFile(file.trim());
+        }
+        String sizes = getPropertyAsString(REDIS_VALUE_SIZES_PROP);
+        return sizes.isBlank() ? null : ValuePool.forSpec(sizes);
+    }
+
+    /**
+     * @param consumer stream consumer name, unique per JMeter thread
+     */
+    private RequestOptions createRequestOptions(RedisOperation operation, String consumer) {
+        TransactionSpec transaction = operation == null || !operation.uses(RedisOperation.Parameter.TRANSACTION) ? null
+                : TransactionSpec.parse(
+                        getPropertyAsString(REDIS_TRANSACTION_COMMANDS_PROP),
+                        getPropertyAsString(REDIS_TRANSACTION_READS_PROP),
+                        getPropertyAsString(REDIS_TRANSACTION_WATCH_PROP),
+                        getIntProperty(REDIS_TRANSACTION_MAX_RETRIES_PROP, DEFAULT_TRANSACTION_MAX_RETRIES));
+        return RequestOptions.of(
+                getPropertyAsString(REDIS_FIELD_PROP),
+                getPropertyAsString(REDIS_RANGE_PROP),
+                getIntProperty(REDIS_BATCH_SIZE_PROP, DEFAULT_BATCH_SIZE),
+                getPropertyAsString(REDIS_GROUP_PROP),
+                consumer,
+                getPropertyAsString(REDIS_SCRIPT_PROP),
+                transaction);
+    }
+
+    /**
+     * Loads the script of the operation once per test and keeps its SHA1 in the request options.
+     */
+    private void loadScript(Pool<Jedis> pool, RedisClusterClient cluster) {
+        if (!operation.uses(RedisOperation.Parameter.SCRIPT) || requestOptions.sha() != null) {
+            return;
+        }
+        requestOptions = requestOptions.withSha(ScriptCache.load(createConnectionKey(), requestOptions.script(), script -> {
+            if (cluster != null) {
+                return cluster.commands().scriptLoad(script); // broadcast to all masters
+            }
+            try (Jedis jedis = borrow(pool)) {
+                return jedis.scriptLoad(script);
+            }
+        }));
+    }
+
+    /**
+     * Builds the request of one command; multi-key commands get a batch of keys and values.
+     */
+    private static RedisRequest nextRequest(RedisOperation operation, RequestOptions options,
+                                            Supplier<String> keyTemplate, Supplier<String> valueTemplate, long expire) {
+        if (!operation.uses(RedisOperation.Parameter.KEYS)) {
+            return new RedisRequest(keyTemplate.get(), valueTemplate == null ? null : valueTemplate.get(), expire, options);
+        }
+        int batchSize = options.batchSize();
+        String[] keys = new String[batchSize];
+        String[] values = valueTemplate == null ? null : new String[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            keys[i] = keyTemplate.get();
+            if (values != null) {
+                values[i] = valueTemplate.get();
+            }
+        }
+        return new RedisRequest(keys[0], values == null ? null : values[0], expire, keys, values, options);
+    }
+
+    /**
+     * Key and value are re-evaluated on every call, so functions like {@code ${__counter}} give distinct keys.
+     */
+    private Supplier<String> keyTemplate() {
+        KeyGenerator keyGenerator = this.keyGenerator;
+        String keyPrefix = this.keyPrefix;
+        return keyGenerator != null ? () -> keyGenerator.nextKey(keyPrefix) : PropertyTemplate.of(getProperty(REDIS_KEY_PROP));
+    }
+
+    /**
+     * @return the value template or {@code null} if the operation does not use a value
+     */
+    private Supplier<String> valueTemplate() {
+        ValuePool valuePool = this.valuePool;
+        return !operation.usesValue() ? null
+                : valuePool != null ? valuePool::next : PropertyTemplate.of(getProperty(REDIS_VALUE_PROP));
+    }
+
+    private long getLongProperty(String name, long defaultValue) {
+        String value = getPropertyAsString(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return Long.parseLong(value.trim());
+    }
+
+    private double getDoubleProperty(String name, double defaultValue) {
+        String value = getPropertyAsString(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return Double.parseDouble(value.trim());
+    }
+
+    /**
+     * Reads an integer property, falling back to the default when it is absent or blank
+     * (e.g. test plans saved by older versions of the plugin).
+     */
+    private int getIntProperty(String name, int defaultValue) {
+        String value = getPropertyAsString(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return Integer.parseInt(value.trim());
+    }
+
+    /**
+     * Starts the open model engine of this sampler, or returns the running one.
+     * Key and value are evaluated once, when the engine starts.
+     * In the adaptive load model the target rate is where the search for the sustainable rate starts.
+     */
+    public OpenModelEngine initOpenModelEngine() {
+        OpenModelEngine engine = startOpenModelEngine();
+        if (isAdaptive()) {
+            String slo = getPropertyAsString(REDIS_ADAPTIVE_SLO_P99_PROP);
+            if (slo.isBlank()) {
+                throw new IllegalStateException("Adaptive load model requires a p99 SLO");
+            }
+            String report = getPropertyAsString(REDIS_ADAPTIVE_REPORT_PROP);
+            RateSearch.Settings settings = new RateSearch.Settings(Double.parseDouble(slo.trim()),
+                    getLongProperty(REDIS_ADAPTIVE_STEP_PROP, DEFAULT_ADAPTIVE_STEP),
+                    getDoubleProperty(REDIS_ADAPTIVE_GROWTH_PROP, DEFAULT_ADAPTIVE_GROWTH),
+                    report.isBlank() ? null : Path.of(report.trim()));
+            RateSearches.getOrStart(openModelEngineKey(), () -> new RateSearch(getName(), engine, settings));
+        }
+        return engine;
+    }
+
+    private String openModelEngineKey() {
+        return "%s|%s:%d/%d|%s".formatted(getName(), getPropertyAsString(REDIS_HOST_PROP), getPropertyAsInt(REDIS_PORT_PROP),
+                getPropertyAsInt(REDIS_DATABASE_PROP), getPropertyAsString(REDIS_OPERATION_PROP));
+    }
+
+    private OpenModelEngine startOpenModelEngine() {
+        if (!TOPOLOGY_STANDALONE.equals(getTopology())) {
+            throw new IllegalStateException("Open model supports standalone topology only");
+        }
+        if (PROTOCOL_RESP3.equals(getProtocol())) {
+            throw new IllegalStateException("Open model speaks RESP2 only");
+        }
+        String host = getPropertyAsString(REDIS_HOST_PROP);
+        int port = getPropertyAsInt(REDIS_PORT_PROP);
+        int database = getPropertyAsInt(REDIS_DATABASE_PROP);
+        return OpenModelEngines.getOrStart(openModelEngineKey(), () -> {
+            RedisOperation operation = RedisOperations.find(getPropertyAsString(REDIS_OPERATION_PROP));
+            if (operation == null) {
+                throw new IllegalStateException("Unexpected value: " + getPropertyAsString(REDIS_OPERATION_PROP));
+            }
+            String rate = getPropertyAsString(REDIS_LOAD_TARGET_RATE_PROP);
+            if (rate.isBlank() || Double.parseDouble(rate) <= 0) {
+                throw new IllegalStateException("Open model requires a positive target rate, got '%s'".formatted(rate));
+            }
+            String user = getPropertyAsString(REDIS_USER_PROP);
+            String password = getPropertyAsString(REDIS_PASSWORD_PROP);
+            String clientName = getPropertyAsString(REDIS_CLIENT_NAME_PROP);
+            TlsSocketFactories.Settings tls = createTlsSettings();
+            String key = getPropertyAsString(REDIS_KEY_PROP);
+            String value = getPropertyAsString(REDIS_VALUE_PROP);
+            long expire = getPropertyAsLong(REDIS_EXPIRE_PROP);
+            KeyGenerator keys = createKeyGenerator();
+            ValuePool values = createValuePool();
+            if (!operation.supportsPipeline()) {
+                throw new IllegalStateException(operation.name() + " can not run in the open model, it can not be pipelined");
+            }
+            RequestOptions options = createRequestOptions(operation, "open-model");
+            try (Jedis jedis = new Jedis(host, port, createClientConfig())) {
+                if (operation.uses(RedisOperation.Parameter.SCRIPT)) {
+                    options = options.withSha(ScriptCache.load(createConnectionKey(), options.script(), jedis::scriptLoad));
+                }
+                operation.prepare(jedis, new RedisRequest(key, value, expire, options));
+            }
+            RequestOptions requestOptions = options;
+            Supplier<byte[]> commands;
+            if (getPropertyAsBoolean(REDIS_BINARY_PROP)) {
+                byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+                commands = () -> RespProtocol.encodeCommand(operation.arguments(
+                        (keys == null ? key : keys.nextKey(key)).getBytes(StandardCharsets.UTF_8),
+                        values == null ? valueBytes : values.nextBytes(),
+                        expire));
+            } else if (keys == null && values == null) {
+                byte[] command = RespProtocol.encodeCommand(operation.arguments(
+                        nextRequest(operation, requestOptions, () -> key, () -> value, expire)));
+                commands = () -> command;
+            } else {
+                Supplier<String> keyTemplate = keys == null ? () -> key : () -> keys.nextKey(key);
+                Supplier<String> valueTemplate = values == null ? () -> value : values::next;
+                commands = () -> RespProtocol.encodeCommand(operation.arguments(
+                        nextRequest(operation, requestOptions, keyTemplate, valueTemplate, expire)));
+            }
+            return new OpenModelEngine.Settings(host, port,
+                    user.isEmpty() ? null : user,
+                    password.isEmpty() ? null : password,
+                    database,
+                    clientName.isEmpty() ? null : clientName,
+                    tls == null ? null : TlsSocketFactories.get(tls),
+                    getPropertyAsInt(REDIS_TIMEOUT_PROP),
+                    Double.parseDouble(rate),
+                    getIntProperty(REDIS_LOAD_CONNECTIONS_PROP, DEFAULT_LOAD_CONNECTIONS),
+                    getIntProperty(REDIS_LOAD_MAX_IN_FLIGHT_PROP, DEFAULT_LOAD_MAX_IN_FLIGHT),
+                    commands);
+        });
+    }
+
+    @Override
+    public void testStarted() {
+        log.info("testStarted() Redis Sampler version 0.5");
+        initTestResources();
+    }
+
+    @Override
+    public void testStarted(String host) {
+        log.info("testStarted(%s) Redis Sampler version 0.5".formatted(host));
+        LatencyHistograms.setEngine(host);
+        initTestResources();
+    }
+
+    private void initTestResources() {
+        if (isMetricsEnabled()) {
+            try {
+                MetricsExporter.start(getIntProperty(REDIS_METRICS_PORT_PROP, 0));
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to export metrics of %s".formatted(getName()), e);
+            }
+        }
+        if (isStubEnabled()) {
+            try {
+                initStubServer();
+            } catch (RuntimeException e) {
+                log.error("Failed to start RESP stub server for %s".formatted(getName()), e);
+            }
+        }
+        if (getLongProperty(REDIS_PRELOAD_KEYS_PROP, 0) > 0) {
+            try {
+                preload();
+            } catch (RuntimeException e) {
+                log.error("Failed to preload keys of %s".formatted(getName()), e);
+            }
+        }
+        if (getPropertyAsBoolean(REDIS_FAILOVER_OBSERVE_PROP)) {
+            try {
+                initFailoverObserver();
+            } catch (RuntimeException e) {
+                log.error("Failed to observe failovers of %s".formatted(getName()), e);
+            }
+        }
+        if (getPropertyAsBoolean(REDIS_SERVER_STATS_COLLECT_PROP)) {
+            try {
+                initServerStatsCollector();
+            } catch (RuntimeException e) {
+                log.error("Failed to collect server stats of %s".formatted(getName()), e);
+            }
+        }
+        if (isOpenModel()) {
+            try {
+                initOpenModelEngine();
+            } catch (RuntimeException e) {
+                log.error("Failed to start open model engine for %s".formatted(getName()), e);
+            }
+        } else if (isCluster()) {
+            try {
+                initClusterClient();
+            } catch (RuntimeException e) {
+                log.error("Failed to connect to the cluster of %s, samples will retry".formatted(getName()), e);
+            }
+        } else if (isSharedPool()) {
+            try {
+                initConnectionPool();
+            } catch (RuntimeException e) {
+                log.error("Failed to create the shared pool of %s, samples will retry".formatted(getName()), e);
+            }
+        }
+    }
+
+    /**
+     * Starts the embedded stub on the loopback interface at the configured port, so the sampler measures
+     * its own ceiling without a real Redis. Only standalone topology is served.
+     */
+    private void initStubServer() {
+        if (!TOPOLOGY_STANDALONE.equals(getTopology())) {
+            throw new IllegalStateException("RESP stub serves standalone topology only, not " + getTopology());
+        }
+        StubServers.getOrStart(getPropertyAsInt(REDIS_PORT_PROP), new RespStubServer.Faults(
+                getLongProperty(REDIS_STUB_LATENCY_PROP, 0), getDoubleProperty(REDIS_STUB_ERROR_RATE_PROP, 0)));
+    }
+
+    /**
+     * Loads the keyspace of the key distribution, {@code prefix0} to {@code prefix<N-1>}, before the threads start.
+     * Values come from the value sizes or file, or are the value as is. Thread pools are closed afterwards;
+     * a shared pool or cluster client stays open for the test.
+     */
+    private void preload() {
+        String keyPrefix = getPropertyAsString(REDIS_KEY_PROP);
+        long keys = getLongProperty(REDIS_PRELOAD_KEYS_PROP, 0);
+        ValuePool values = createValuePool();
+        String value = getPropertyAsString(REDIS_VALUE_PROP);
+        if (values == null && value.isEmpty()) {
+            throw new IllegalStateException("Preload needs a value, value sizes or a value file");
+        }
+        byte[] valueBytes = value.getBytes(Charset.forName(DEFAULT_CHARSET));
+        Preloader.Settings settings = new Preloader.Settings(keyPrefix, keys,
+                values != null ? values::nextBytes : () -> valueBytes,
+                getPropertyAsString(REDIS_PRELOAD_TTL_PROP),
+                getIntProperty(REDIS_PRELOAD_CONNECTIONS_PROP, DEFAULT_PRELOAD_CONNECTIONS),
+                getIntProperty(REDIS_PRELOAD_BATCH_PROP, DEFAULT_PRELOAD_BATCH));
+        String id = "%s|%s|%d".formatted(createConnectionKey(), keyPrefix, keys);
+        if (isCluster()) {
+            RedisClusterClient cluster = initClusterClient();
+            Preloader.loadOnce(id, settings, work -> {
+                try (ClusterPipeline pipeline = cluster.pipelined()) {
+                    work.accept(pipeline);
+                }
+            });
+            return;
+        }
+        Pool<Jedis> pool = isSharedPool() ? initConnectionPool() : createConnectionPool();
+        try {
+            Preloader.loadOnce(id, settings, work -> {
+                try (Jedis jedis = borrow(pool)) {
+                    work.accept(jedis.pipelined());
+                }
+            });
+        } finally {
+            if (!isSharedPool()) {
+                pool.close();
+                SamplerMetrics.unregisterPools(pool);
+            }
+        }
+    }
+
+    @Override
+    public void testEnded() {
+        log.info("testEnded()");
+        closeTestResources();
+    }
+
+    @Override
+    public void testEnded(String host) {
+        log.info("testEnded(%s)".formatted(host));
+        closeTestResources();
+    }
+
+    /**
+     * Stops what {@link #initTestResources()} and the threads started, load generators first, and writes the reports.
+     */
+    private void closeTestResources() {
+        RateSearches.stopAll();
+        OpenModelEngines.stopAll();
+        FailoverObservers.stopAll();
+        ServerStatsCollectors.stopAll();
+        SharedConnections.closeAll();
+        KeyDistribution.reset();
+        ValuePool.reset();
+        ValueCodecs.reset();
+        Preloader.reset();
+        LatencyHistograms.writeAll();
+        ScriptCache.reset();
+        ClientSideCaches.closeAll();
+        TlsSocketFactories.reset();
+        StubServers.stopAll();
+        MetricsExporter.stop();
+        SamplerMetrics.reset();
+        ErrorLog.reset();
+    }
+
+    @Override
+    public void threadStarted() {
+        log.debug("threadStarted() + %s".formatted(Thread.currentThread().getName()));
+    }
+
+    @Override
+    public void threadFinished() {
+        log.debug("threadFinished() + %s".formatted(Thread.currentThread().getName()));
+        Pool<Jedis> pool = THREAD_LOCAL_CACHED_CONNECTION.get();
+        if (pool != null) {
+            pool.close();
+            SamplerMetrics.unregisterPools(pool);
+            THREAD_LOCAL_CACHED_CONNECTION.remove();
+        }
+        connectionPool = null;
+        clusterClient = null;
+        latencyRecorder = null;
+        operationMetrics = null;
+        mixedOperations = null;
+        mixedOperation = null;
+        openModelEngine = null;
+        clientCache = null;
+        reconnect = null;
+        threadSettingsResolved = false;
+    }
+
+    @Override
+    public SampleResult sample(Entry entry) {
+        if (log.isDebugEnabled()) {
+            log.debug("SampleResult sample(%s)".formatted(entry));
+        }
+        SampleResult result = sampleOperation();
+        ChurnPool.Reconnect reconnect = this.reconnect;
+        if (reconnect != null && result != null) {
+            this.reconnect = null;
+            result.setConnectTime(reconnect.connectMillis());
+            SamplerMetrics.recordReconnect(reconnect);
+        }
+        OperationMetrics metrics = operationMetrics;
+        if (metrics != null && result != null) {
+            metrics.recordCommands(result.getSampleCount(), result.getErrorCount());
+        }
+        return result;
+    }
+
+    private SampleResult sampleOperation() {
+        if (!threadSettingsResolved) {
+            try {
+                resolveThreadSettings();
+            } catch (RuntimeException e) {
+                SampleResult result = new SampleResult();
+                result.setSampleLabel(getName());
+                setFailure(result, e);
+                return result;
+            }
+        }
+        if (mix != null) {
+            selectMixed(mixedOperations[mix.next()]);
+        }
+        RedisOperation operation = this.operation;
+        if (operation == null) {
+            SampleResult result = new SampleResult();
+            result.setSampleLabel(getName());
+            setFailure(result, new IllegalStateException("Unexpected value: " + getPropertyAsString(REDIS_OPERATION_PROP)));
+            return result;
+        }
+        if (openModel) {
+            return sampleOpenModel();
+        }
+        RedisClusterClient cluster = null;
+        Pool<Jedis> pool = null;
+        try {
+            if (clusterTopology) {
+                cluster = clusterClient;
+                if (cluster == null) {
+                    cluster = initClusterClient();
+                    clusterClient = cluster;
+                }
+            } else {
+                pool = connectionPool;
+                if (pool == null) {
+                    pool = initConnectionPool();
+                    connectionPool = pool;
+                }
+            }
+            loadScript(pool, cluster);
+        } catch (RuntimeException e) {
+            SampleResult result = new SampleResult();
+            result.setSampleLabel(sampleLabel);
+            setFailure(result, e);
+            return result;
+        }
+        if (pipelineDepth > 1) {
+            return samplePipelined(pool, cluster, pipelineDepth);
+        }
+        if (binaryMode) {
+            return sampleBinary(pool, cluster);
+        }
+        long expire = operation.usesExpire() ? getPropertyAsLong(REDIS_EXPIRE_PROP) : 0;
+        RedisRequest request;
+        if (operation.uses(RedisOperation.Parameter.KEYS)) {
+            request = nextRequest(operation, requestOptions, keyTemplate(), valueTemplate(), expire);
+        } else {
+            String key = keyGenerator == null ? getPropertyAsString(REDIS_KEY_PROP) : keyGenerator.nextKey(keyPrefix);
+            String value = !operation.usesValue() ? null
+                    : valuePool == null ? getPropertyAsString(REDIS_VALUE_PROP) : valuePool.next();
+            request = new RedisRequest(key, value, expire, requestOptions);
+        }
+        if (cacheReads) {
+            return sampleCached(pool, request);
+        }
+        String key = request.key();
+        SampleResult result = new SampleResult();
+        ClusterNodeStats.Node node = cluster == null ? null : cluster.nodeFor(key);
+        result.setSampleLabel(node != null && nodeLabels ? sampleLabel + node.label() : sampleLabel);
+
+        Jedis jedis = null;
+        try {
+            JedisCommands commands;
+            if (cluster != null) {
+                commands = cluster.commands();
+            } else {
+                jedis = borrow(pool);
+                commands = jedis;
+            }
+            if (!operationPrepared) {
+                operation.prepare(commands, request);
+                operationPrepared = true;
+            }
+            LatencyRecorder latency = latencyRecorder;
+            long start = leanResponse && node == null && latency == null && reconnect == null ? 0 : System.nanoTime();
+            result.sampleStart(); // start stopwatch
+            Object response = operation.execute(commands, request);
+            result.sampleEnd(); // stop stopwatch
+            long duration = start == 0 ? 0 : System.nanoTime() - start;
+            recordFirstCommand(duration);
+            if (response instanceof TransactionResult transaction) {
+                recordRetries(transaction.retries());
+            }
+            if (node != null) {
+                node.record(1, duration);
+            }
+            if (latency != null) {
+                latency.recordNanos(duration);
+            }
+            result.setSuccessful(true);
+            result.setResponseCodeOK(); // 200 code
+            if (!leanResponse) {
+                String responseText = String.valueOf(response);
+                result.setResponseData("""
+                        {
+                            "operation": "%s",
+                            "key": "%s",
+                            "response": "%s",
+                            "duration": %d
+                        }
+                        """.formatted(operation, key, responseText, duration), DEFAULT_CHARSET);
+                result.setResponseMessage(responseText);
+            }
+        } catch (Throwable e) {
+            setFailure(result, e);
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Serves a read from the client-side cache, sending it to the server on a miss.
+     * A hit takes no network round trip, so its elapsed time is the cache lookup only.
+     */
+    private SampleResult sampleCached(Pool<Jedis> pool, RedisRequest request) {
+        String key = request.key();
+        SampleResult result = new SampleResult();
+        result.setSampleLabel(sampleLabel);
+        Jedis jedis = null;
+        try {
+            ClientSideCache cache = clientCache;
+            if (cache == null) {
+                cache = initClientCache(pool);
+                clientCache = cache;
+            }
+            LatencyRecorder latency = latencyRecorder;
+            long start = System.nanoTime();
+            result.sampleStart(); // start stopwatch
+            Object response = cache.get(operation.name(), key);
+            boolean hit = response != ClientSideCache.MISS;
+            if (!hit) {
+                jedis = borrow(pool);
+                Object reservation = cache.reserve(jedis, operation.name(), key);
+                response = operation.execute(jedis, request);
+                cache.fill(operation.name(), key, reservation, response);
+            }
+            result.sampleEnd(); // stop stopwatch
+            long duration = System.nanoTime() - start;
+            if (!hit) {
+                recordFirstCommand(duration);
+            }
+            if (latency != null) {
+                latency.recordNanos(duration);
+            }
+            result.setSuccessful(true);
+            result.setResponseCodeOK(); // 200 code
+            if (!leanResponse) {
+                String responseText = String.valueOf(response);
+                result.setResponseData("""
+                        {
+                            "operation": "%s",
+                            "key": "%s",
+                            "response": "%s",
+                            "cache": "%s",
+                            "duration": %d
+                        }
+                        """.formatted(operation, key, responseText, hit ? "hit" : "miss", duration), DEFAULT_CHARSET);
+                result.setResponseMessage(responseText);
+            }
+        } catch (Throwable e) {
+            setFailure(result, e);
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Publishes the transaction retries of the sample as {@value #RETRIES_VARIABLE} and counts them in the metrics.
+     */
+    private void recordRetries(int retries) {
+        JMeterVariables variables = JMeterContextService.getContext().getVariables();
+        if (variables != null) {
+            variables.put(RETRIES_VARIABLE, Integer.toString(retries));
+        }
+        OperationMetrics metrics = operationMetrics;
+        if (metrics != null) {
+            metrics.recordRetries(retries);
+        }
+    }
+
+    /**
+     * Borrows a connection, timing the wait when metrics are enabled.
+     * A new connection of a churning pool leaves its setup timings for the sample in {@link #reconnect}.
+     */
+    private Jedis borrow(Pool<Jedis> pool) {
+        Jedis jedis;
+        if (operationMetrics == null) {
+            jedis = pool.getResource();
+        } else {
+            long start = System.nanoTime();
+            try {
+                jedis = pool.getResource();
+            } finally {
+                SamplerMetrics.recordPoolWait(System.nanoTime() - start);
+            }
+        }
+        if (pool instanceof ChurnPool churn) {
+            reconnect = churn.takeReconnect(jedis);
+        }
+        return jedis;
+    }
+
+    /**
+     * Completes the setup timings of a new connection with its first command.
+     */
+    private void recordFirstCommand(long nanos) {
+        ChurnPool.Reconnect reconnect = this.reconnect;
+        if (reconnect != null) {
+            this.reconnect = reconnect.firstCommand(nanos);
+        }
+    }
+
+    /**
+     * Fails the sample with the class of the error as the response code and the exception as the message.
+     * Stops the stopwatch, starting it first if the sample failed before sending a command.
+     * Failures come in bursts, so the sample keeps no stack trace; {@link ErrorLog} logs one per cause and interval.
+     */
+    private void setFailure(SampleResult result, Throwable e) {
+        if (result.getStartTime() == 0) {
+            result.sampleStart();
+        }
+        if (result.getEndTime() == 0) {
+            result.sampleEnd();
+        }
+        if (e instanceof TransactionAbortedException aborted) {
+            recordRetries(aborted.retries());
+        }
+        ErrorClass errorClass = ErrorClass.of(e);
+        OperationMetrics metrics = operationMetrics;
+        if (metrics != null) {
+            metrics.recordError(errorClass.responseCode());
+        }
+        ErrorLog.log(errorClass, e);
+        result.setSuccessful(false);
+        result.setResponseCode(errorClass.responseCode());
+        String message = e.toString();
+        result.setResponseMessage(message);
+        if (!leanResponse) {
+            result.setResponseData(message, DEFAULT_CHARSET);
+            result.setDataType(SampleResult.TEXT);
+        }
+    }
+
+    /**
+     * Resolves settings that can not change during the run, so the sample hot path does not re-read them.
+     * Called once per thread, on the first sample.
+     */
+    private void resolveThreadSettings() {
+        String mixSpec = getPropertyAsString(REDIS_MIX_PROP);
+        mix = mixSpec.isBlank() ? null : OperationMix.parse(mixSpec);
+        operation = mix != null ? mix.shares().get(0).operation() : RedisOperations.find(getPropertyAsString(REDIS_OPERATION_PROP));
+        requestOptions = createRequestOptions(operation, Thread.currentThread().getName());
+        operationPrepared = false;
+        sampleLabel = getName();
+        pipelineDepth = getIntProperty(REDIS_PIPELINE_DEPTH_PROP, 1);
+        if (pipelineDepth > 1 && operation != null && !operation.supportsPipeline()) {
+            throw new IllegalStateException(operation.name() + " can not be pipelined");
+        }
+        leanResponse = getPropertyAsBoolean(REDIS_LEAN_RESPONSE_PROP);
+        openModel = isOpenModel();
+        if (mix != null && openModel) {
+            throw new IllegalStateException("An operation mix can not run in the open model");
+        }
+        clusterTopology = isCluster();
+        nodeLabels = isNodeLabels();
+        keyGenerator = createKeyGenerator();
+        keyPrefix = getPropertyAsString(REDIS_KEY_PROP);
+        if (operation != null) {
+            checkClusterKeys(operation, requestOptions);
+        }
+        valuePool = createValuePool();
+        String codecSpec = getPropertyAsString(REDIS_CODEC_PROP);
+        codec = codecSpec.isBlank() ? null : ValueCodecs.parse(codecSpec.trim());
+        codecStats = codec == null ? null : ValueCodecs.stats(codec);
+        if (codec != null && openModel) {
+            throw new IllegalStateException("A value codec can not run in the open model");
+        }
+        binaryMode = getPropertyAsBoolean(REDIS_BINARY_PROP) || codec != null; // codecs work on bytes
+        if (binaryMode && operation != null && !operation.supportsBinary()) {
+            throw new IllegalStateException(operation.name() + " has no binary mode");
+        }
+        cacheReads = getPropertyAsBoolean(REDIS_CACHE_ENABLED_PROP) && operation != null && operation.cacheable();
+        if (cacheReads && clusterTopology) {
+            throw new IllegalStateException("Client-side caching needs standalone or Sentinel topology");
+        }
+        fullCapture = getPropertyAsBoolean(REDIS_FULL_CAPTURE_PROP);
+        checksum = new CRC32C();
+        String hdrFile = getPropertyAsString(REDIS_HDR_FILE_PROP);
+        latencyRecorder = hdrFile.isBlank() || operation == null ? null
+                : LatencyHistograms.register(hdrFile.trim(), "%s %s".formatted(getName(), operation));
+        operationMetrics = !isMetricsEnabled() || operation == null ? null : SamplerMetrics.operation(operation.name());
+        mixedOperations = mix == null ? null : resolveMix(mix, hdrFile.trim());
+        mixedOperation = null;
+        threadSettingsResolved = true;
+    }
+
+    /**
+     * Resolves the per-operation settings of every operation in the mix, checked like a single operation.
+     */
+    private MixedOperation[] resolveMix(OperationMix mix, String hdrFile) {
+        List<OperationMix.Share> shares = mix.shares();
+        MixedOperation[] mixed = new MixedOperation[shares.size()];
+        boolean cacheEnabled = getPropertyAsBoolean(REDIS_CACHE_ENABLED_PROP);
+        for (int i = 0; i < mixed.length; i++) {
+            RedisOperation operation = shares.get(i).operation();
+            if (pipelineDepth > 1 && !operation.supportsPipeline()) {
+                throw new IllegalStateException(operation.name() + " can not be pipelined");
+            }
+            if (binaryMode && !operation.supportsBinary()) {
+                throw new IllegalStateException(operation.name() + " has no binary mode");
+            }
+            boolean cached = cacheEnabled && operation.cacheable();
+            if (cached && clusterTopology) {
+                throw new IllegalStateException("Client-side caching needs standalone or Sentinel topology");
+            }
+            RequestOptions options = createRequestOptions(operation, Thread.currentThread().getName());
+            checkClusterKeys(operation, options);
+            String label = getName() + " " + operation.name();
+            mixed[i] = new MixedOperation(operation,
+                    options,
+                    label,
+                    cached,
+                    hdrFile.isEmpty() ? null : LatencyHistograms.register(hdrFile, label),
+                    isMetricsEnabled() ? SamplerMetrics.operation(operation.name()) : null);
+        }
+        return mixed;
+    }
+
+    /**
+     * The keys of a multi-key command are drawn independently, so on a cluster they only share a slot
+     * when the key has a hash tag, e.g. {@code user:{1}:}; otherwise every command fails with {@code CROSSSLOT}.
+     */
+    private void checkClusterKeys(RedisOperation operation, RequestOptions options) {
+        if (clusterTopology && operation.uses(RedisOperation.Parameter.KEYS) && options.batchSize() > 1 && !hasHashTag(keyPrefix)) {
+            throw new IllegalStateException("%s keys span cluster slots: put a {hash tag} in the key or use a batch size of 1"
+                    .formatted(operation.name()));
+        }
+    }
+
+    private static boolean hasHashTag(String key) {
+        int open = key.indexOf('{');
+        return open >= 0 && key.indexOf('}', open + 1) > open + 1;
+    }
+
+    /**
+     * Makes the operation drawn from the mix the operation of the sample,
+     * keeping what the previous one learned (its prepared state and script SHA1) for its next draw.
+     */
+    private void selectMixed(MixedOperation next) {
+        MixedOperation previous = mixedOperation;
+        if (previous == next) {
+            return;
+        }
+        if (previous != null) {
+            previous.requestOptions = requestOptions;
+            previous.prepared = operationPrepared;
+        }
+        mixedOperation = next;
+        operation = next.operation;
+        requestOptions = next.requestOptions;
+        operationPrepared = next.prepared;
+        sampleLabel = next.label;
+        cacheReads = next.cacheReads;
+        latencyRecorder = next.latencyRecorder;
+        operationMetrics = next.operationMetrics;
+    }
+
+    /**
+     * Sends one command through the {@code byte[]} API: the value goes to the socket without charset encoding,
+     * and the reply is reported by its size and CRC32C instead of being decoded into the result.
+     * With a value codec the value is encoded before and the reply decoded after the stopwatch,
+     * so the elapsed time stays the Redis round-trip and the sizes are those on the wire.
+     */
+    private SampleResult sampleBinary(Pool<Jedis> pool, RedisClusterClient cluster) {
+        RedisOperation operation = this.operation;
+        String key = keyGenerator == null ? getPropertyAsString(REDIS_KEY_PROP) : keyGenerator.nextKey(keyPrefix);
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] value = !operation.usesValue() ? null
+                : valuePool == null ? getPropertyAsString(REDIS_VALUE_PROP).getBytes(StandardCharsets.UTF_8) : valuePool.nextBytes();
+        long expire = operation.usesExpire() ? getPropertyAsLong(REDIS_EXPIRE_PROP) : 0;
+        SampleResult result = new SampleResult();
+        ClusterNodeStats.Node node = cluster == null ? null : cluster.nodeFor(key);
+        result.setSampleLabel(node != null && nodeLabels ? sampleLabel + node.label() : sampleLabel);
+
+        Jedis jedis = null;
+        try {
+            if (codec != null) {
+                sampleCodecNanos = 0;
+                sampleRawBytes = 0;
+                if (value != null) {
+                    value = encodeValue(value);
+                }
+            }
+            JedisBinaryCommands commands;
+            if (cluster != null) {
+                commands = cluster.commands();
+            } else {
+                jedis = borrow(pool);
+                commands = jedis;
+            }
+            LatencyRecorder latency = latencyRecorder;
+            long start = leanResponse && node == null && latency == null && reconnect == null ? 0 : System.nanoTime();
+            result.sampleStart(); // start stopwatch
+            Object response = operation.execute(commands, keyBytes, value, expire);
+            result.sampleEnd(); // stop stopwatch
+            long duration = start == 0 ? 0 : System.nanoTime() - start;
+            recordFirstCommand(duration);
+            if (node != null) {
+                node.record(1, duration);
+            }
+            if (latency != null) {
+                latency.recordNanos(duration);
+            }
+            result.setSuccessful(true);
+            result.setResponseCodeOK(); // 200 code
+            result.setSentBytes(keyBytes.length + (value == null ? 0 : value.length));
+            result.setBodySize(response instanceof byte[] data ? data.length : 0L);
+            if (codec != null) {
+                response = decodeResponse(response);
+                recordCodec();
+            }
+            setBinaryResponse(result, response, operation, key, duration);
+        } catch (Throwable e) {
+            setFailure(result, e);
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Keeps the payload of the reply, decoded if there is a codec, only with full capture;
+     * otherwise the non-lean response carries its checksum.
+     */
+    private void setBinaryResponse(SampleResult result, Object response, RedisOperation operation, String key, long duration) {
+        byte[] data = response instanceof byte[] bytes ? bytes : null;
+        if (fullCapture) {
+            result.setResponseData(data != null ? data : String.valueOf(response).getBytes(StandardCharsets.UTF_8));
+            result.setDataType(SampleResult.BINARY);
+            result.setResponseMessage(data == null ? String.valueOf(response) : "%d bytes".formatted(data.length));
+        } else if (!leanResponse) {
+            String responseText;
+            if (data == null) {
+                responseText = String.valueOf(response);
+            } else {
+                checksum.reset();
+                checksum.update(data);
+                responseText = "%d bytes, crc32c %08x".formatted(data.length, checksum.getValue());
+            }
+            result.setResponseData("""
+                    {
+                        "operation": "%s",
+                        "key": "%s",
+                        "response": "%s",%s
+                        "duration": %d
+                    }
+                    """.formatted(operation, key, responseText, codecFields(), duration), DEFAULT_CHARSET);
+            result.setResponseMessage(responseText);
+        }
+    }
+
+    /**
+     * Reports the next command completed by the open model engine.
+     * JMeter threads only drain results here, the engine itself decides when commands are sent.
+     *
+     * @return the result or {@code null} if nothing completed within the poll interval
+     */
+    private SampleResult sampleOpenModel() {
+        OpenModelEngine engine = openModelEngine;
+        if (engine == null) {
+            try {
+                engine = initOpenModelEngine();
+                openModelEngine = engine;
+            } catch (RuntimeException e) {
+                SampleResult result = new SampleResult();
+                result.setSampleLabel(getName());
+                setFailure(result, e);
+                return result;
+            }
+        }
+        OpenModelEngine.Completion completion;
+        try {
+            completion = engine.poll(OPEN_MODEL_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        if (completion == null) {
+            return null;
+        }
+        SampleResult result = new SampleResult();
+        result.setSampleLabel(getName());
+        long elapsed = completion.latencyNanos() / 1_000_000;
+        result.setStampAndTime(completion.timeStamp(), elapsed);
+        result.setLatency(elapsed);
+        if (completion.error() == null) {
+            if (latencyRecorder != null) {
+                latencyRecorder.recordNanos(completion.latencyNanos());
+            }
+            result.setSuccessful(true);
+            result.setResponseCodeOK(); // 200 code
+            if (!leanResponse) {
+                result.setResponseData("""
+                        {
+                            "operation": "%s",
+                            "duration": %d
+                        }
+                        """.formatted(operation, completion.latencyNanos()), DEFAULT_CHARSET);
+            }
+        } else {
+            ErrorClass errorClass = ErrorClass.of(completion.error());
+            if (operationMetrics != null) {
+                operationMetrics.recordError(errorClass.responseCode());
+            }
+            result.setSuccessful(false);
+            result.setResponseMessage(completion.error());
+            result.setResponseCode(errorClass.responseCode());
+        }
+        return result;
+    }
+
+    /**
+     * Sends {@code depth} commands in one round trip through a Jedis {@link Pipeline}.
+     * Key and value are re-evaluated for every command, so functions like {@code ${__counter}} give distinct keys.
+     * The result counts every command as a sample, so listeners show per-command average latency.
+     */
+    private SampleResult samplePipelined(Pool<Jedis> pool, RedisClusterClient cluster, int depth) {
+        RedisOperation operation = this.operation;
+        ValuePool valuePool = this.valuePool;
+        Supplier<String> keyTemplate = keyTemplate();
+        Supplier<String> valueTemplate = valueTemplate();
+        long expire = operation.usesExpire() ? getPropertyAsLong(REDIS_EXPIRE_PROP) : 0;
+        SampleResult result = new SampleResult();
+        result.setSampleLabel(sampleLabel);
+        result.setSampleCount(depth);
+
+        boolean binary = binaryMode;
+        if (codec != null) {
+            sampleCodecNanos = 0;
+            sampleRawBytes = 0;
+        }
+
+        Jedis jedis = null;
+        try {
+            String[] keys = new String[depth];
+            RedisRequest[] requests = binary ? null : new RedisRequest[depth];
+            byte[][] keyBytes = binary ? new byte[depth][] : null;
+            byte[][] valueBytes = binary ? new byte[depth][] : null;
+            for (int i = 0; i < depth; i++) {
+                if (binary) {
+                    keys[i] = keyTemplate.get();
+                    keyBytes[i] = keys[i].getBytes(StandardCharsets.UTF_8);
+                    if (operation.usesValue()) {
+                        valueBytes[i] = valuePool != null ? valuePool.nextBytes() : valueTemplate.get().getBytes(StandardCharsets.UTF_8);
+                        if (codec != null) {
+                            valueBytes[i] = encodeValue(valueBytes[i]);
+                        }
+                    }
+                } else {
+                    requests[i] = nextRequest(operation, requestOptions, keyTemplate, valueTemplate, expire);
+                    keys[i] = requests[i].key();
+                }
+            }
+            if (cluster == null) {
+                jedis = borrow(pool);
+            }
+            if (!operationPrepared && !binary) {
+                operation.prepare(cluster != null ? cluster.commands() : jedis, requests[0]);
+                operationPrepared = true;
+            }
+            Response<?>[] responses = binary ? new Response<?>[depth] : null;
+            Response<?>[] scriptReplies = operation instanceof ScriptOperation ? new Response<?>[depth] : null;
+            LatencyRecorder latency = latencyRecorder;
+            long start = leanResponse && cluster == null && latency == null && reconnect == null ? 0 : System.nanoTime();
+            result.sampleStart(); // start stopwatch
+            try (AbstractPipeline pipeline = cluster != null ? cluster.pipelined() : jedis.pipelined()) {
+                for (int i = 0; i < depth; i++) {
+                    if (binary) {
+                        responses[i] = operation.pipeline(pipeline, keyBytes[i], valueBytes[i], expire);
+                    } else if (scriptReplies != null) {
+                        scriptReplies[i] = ((ScriptOperation) operation).pipelineReply(pipeline, requests[i]);
+                    } else {
+                        operation.pipeline(pipeline, requests[i]);
+                    }
+                }
+                pipeline.sync();
+            }
+            result.sampleEnd(); // stop stopwatch
+            if (scriptReplies != null) {
+                checkScriptReplies(scriptReplies);
+            }
+            long duration = start == 0 ? 0 : System.nanoTime() - start;
+            recordFirstCommand(duration);
+            if (binary) {
+                long received = 0;
+                long sent = 0;
+                for (int i = 0; i < depth; i++) {
+                    if (responses[i].get() instanceof byte[] data) {
+                        received += data.length;
+                    }
+                    sent += keyBytes[i].length + (valueBytes[i] == null ? 0 : valueBytes[i].length);
+                }
+                result.setBodySize(received);
+                result.setSentBytes(sent);
+                if (codec != null) {
+                    for (Response<?> response : responses) {
+                        decodeResponse(response.get());
+                    }
+                    recordCodec();
+                }
+            }
+            if (cluster != null) {
+                for (String key : keys) {
+                    cluster.nodeFor(key).record(1, duration / depth);
+                }
+            }
+            if (latency != null) {
+                latency.recordNanos(duration / depth, depth);
+            }
+            result.setSuccessful(true);
+            result.setResponseCodeOK(); // 200 code
+            if (!leanResponse) {
+                result.setResponseData("""
+                        {
+                            "operation": "%s",
+                            "key": "%s",
+                            "commands": %d,%s
+                            "duration": %d,
+                            "avg_duration": %d
+                        }
+                        """.formatted(operation, keys[0], depth, codecFields(), duration, duration / depth), DEFAULT_CHARSET);
+                result.setResponseMessage("%d commands".formatted(depth));
+            }
+        } catch (Throwable e) {
+            result.setErrorCount(depth);
+            setFailure(result, e);
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Fails the sample on the first error reply of a pipelined script. On {@code NOSCRIPT} the servers lost the script,
+     * e.g. after a failover, so it is loaded again by the next sample.
+     */
+    private void checkScriptReplies(Response<?>[] replies) {
+        for (Response<?> reply : replies) {
+            try {
+                reply.get();
+            } catch (JedisNoScriptException e) {
+                ScriptCache.invalidate(createConnectionKey(), requestOptions.script());
+                requestOptions = requestOptions.withSha(null);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Encodes a value with the codec, adding its time and raw size to those of the sample.
+     */
+    private byte[] encodeValue(byte[] value) {
+        long start = System.nanoTime();
+        byte[] encoded = codec.encode(value);
+        long nanos = System.nanoTime() - start;
+        codecStats.recordEncode(value.length, encoded.length, nanos);
+        sampleCodecNanos += nanos;
+        sampleRawBytes += value.length;
+        return encoded;
+    }
+
+    /**
+     * Decodes a value reply, or the values of a multi-bulk reply; other replies are returned as is.
+     *
+     * @throws RuntimeException if a value was not encoded by the codec
+     */
+    private Object decodeResponse(Object response) {
+        if (response instanceof byte[] data) {
+            return decodeValue(data);
+        }
+        if (response instanceof List<?> elements) {
+            List<Object> decoded = new ArrayList<>(elements.size());
+            for (Object element : elements) {
+                decoded.add(element instanceof byte[] data ? decodeValue(data) : element);
+            }
+            return decoded;
+        }
+        return response;
+    }
+
+    private byte[] decodeValue(byte[] data) {
+        long start = System.nanoTime();
+        byte[] value = codec.decode(data);
+        long nanos = System.nanoTime() - start;
+        codecStats.recordDecode(data.length, value.length, nanos);
+        sampleCodecNanos += nanos;
+        sampleRawBytes += value.length;
+        return value;
+    }
+
+    /**
+     * Publishes the codec time and raw size of the sample as {@value #CODEC_NANOS_VARIABLE}
+     * and {@value #RAW_BYTES_VARIABLE}.
+     */
+    private void recordCodec() {
+        JMeterVariables variables = JMeterContextService.getContext().getVariables();
+        if (variables != null) {
+            variables.put(CODEC_NANOS_VARIABLE, Long.toString(sampleCodecNanos));
+            variables.put(RAW_BYTES_VARIABLE, Long.toString(sampleRawBytes));
+        }
+    }
+
+    /**
+     * @return the codec fields of a non-lean response, empty without a codec
+     */
+    private String codecFields() {
+        return codec == null ? "" : "\n    \"codec\": \"%s\",\n    \"raw_bytes\": %d,\n    \"codec_duration\": %d,"
+                .formatted(codec.name(), sampleRawBytes, sampleCodecNanos);
+    }
+
+    @Override
+    public boolean interrupt() {
+        return false;
+    }
+
+    /**
+     * An operation of the mix with the per-thread settings that differ between operations.
+     */
+    private static final class MixedOperation {
+        final RedisOperation operation;
+        final String label;
+        final boolean cacheReads;
+        final LatencyRecorder latencyRecorder;
+        final OperationMetrics operationMetrics;
+        RequestOptions requestOptions;
+        boolean prepared;
+
+        MixedOperation(RedisOperation operation, RequestOptions requestOptions, String label, boolean cacheReads,
+                       LatencyRecorder latencyRecorder, OperationMetrics operationMetrics) {
+            this.operation = operation;
+            this.requestOptions = requestOptions;
+            this.label = label;
+            this.cacheReads = cacheReads;
+            this.latencyRecorder = latencyRecorder;
+            this.operationMetrics = operationMetrics;
+        }
     }
 }
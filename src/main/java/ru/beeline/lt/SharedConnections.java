@@ -0,0 +1,61 @@
+package ru.beeline.lt;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Registry of connection pools and cluster clients shared by all JMeter threads of a test.
+ * A connection is created on first request for its {@link ConnectionKey} and lives until {@link #closeAll()}.
+ */
+public class SharedConnections {
+
+    private static final Logger log = LoggerFactory.getLogger(SharedConnections.class);
+
+    private static final Map<ConnectionKey, AutoCloseable> CONNECTIONS = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public static <T extends AutoCloseable> T getOrCreate(ConnectionKey key, Supplier<T> factory) {
+        AutoCloseable connection = CONNECTIONS.get(key);
+        if (connection == null) {
+            connection = CONNECTIONS.computeIfAbsent(key, k -> {
+                log.info("Creating shared connection for %s".formatted(k));
+                return factory.get();
+            });
+        }
+        return (T) connection;
+    }
+
+    public static void closeAll() {
+        CONNECTIONS.forEach((key, connection) -> {
+            if (CONNECTIONS.remove(key, connection)) {
+                log.info("Closing shared connection for %s".formatted(key));
+                try {
+                    connection.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close shared connection for %s".formatted(key), e);
+                }
+            }
+        });
+    }
+
+    /**
+     * @param address  {@code host:port} for a standalone server, seed nodes for a cluster,
+     *                 {@code master@sentinels} for Sentinel
+     * @param user     ACL user, blank for the default user
+     * @param tls      TLS settings, {@code null} for plain connections
+     * @param protocol RESP version, blank for RESP2
+     */
+    public record ConnectionKey(String topology, String address, int database, String user, String password, String clientName,
+                                Object tls, String protocol) {
+        @Override
+        public String toString() {
+            // never leak the password into logs
+            return "%s %s%s/%d[%s]%s%s".formatted(topology, user.isEmpty() ? "" : user + "@", address, database, clientName,
+                    tls == null ? "" : " TLS", protocol.isEmpty() ? "" : " " + protocol);
+        }
+    }
+}
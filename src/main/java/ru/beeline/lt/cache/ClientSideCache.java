@@ -0,0 +1,299 @@
+package ru.beeline.lt.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Protocol;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Client-side cache of one server, kept coherent by Redis key tracking ({@code CLIENT TRACKING}, Redis 6+).
+ * Connections reading through the cache turn tracking on with {@code REDIRECT} to a dedicated invalidation connection,
+ * subscribed to {@value #INVALIDATE_CHANNEL}, so the server sends it every key changed after a tracked read.
+ * Redirection works for RESP2 and RESP3 connections alike, and replies never share a socket with invalidations.
+ * <p>
+ * Replies are cached by command and key, so reads of one key by different commands, such as {@code GET} and
+ * {@code HGETALL}, never serve each other's reply; an invalidation of the key drops them all.
+ * Entries beyond the size are evicted in LRU order. A read reserves its entry before the command is sent and the reply
+ * is kept only if no invalidation arrived meanwhile, so a late reply never hides a newer write.
+ * When the invalidation connection is lost, the cache is flushed and reads go to the server until it is back.
+ */
+public class ClientSideCache implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ClientSideCache.class);
+
+    static final String INVALIDATE_CHANNEL = "__redis__:invalidate";
+    static final long RECONNECT_DELAY_MILLIS = 1000;
+    private static final long CLOSE_TIMEOUT_MILLIS = 1000;
+
+    /** Returned by {@link #get(String, String)} when the key has to be read from the server */
+    public static final Object MISS = new Object();
+    private static final Object NULL_REPLY = new Object();
+
+    /**
+     * Counters since the cache was started.
+     *
+     * @param invalidations keys invalidated by the server
+     * @param flushes       times the whole cache was dropped: server flushes and lost invalidation connections
+     */
+    public record Stats(long hits, long misses, long invalidations, long evictions, long flushes, int entries) {
+        public double hitRatio() {
+            long reads = hits + misses;
+            return reads == 0 ? 0 : (double) hits / reads;
+        }
+
+        @Override
+        public String toString() {
+            return "hits=%d, misses=%d (%.1f%% hits), invalidations=%d, evictions=%d, flushes=%d, entries=%d".formatted(
+                    hits, misses, hitRatio() * 100, invalidations, evictions, flushes, entries);
+        }
+    }
+
+    private final String name;
+    private final Supplier<Connection> connector;
+    private final Map<CachedRead, Object> entries;
+    private final Set<String> commands = ConcurrentHashMap.newKeySet(); // commands with cached replies
+    // client id the tracking of each pooled connection redirects to; weak, so connections dropped by the pool go away
+    private final Map<Jedis, Long> tracked = new WeakHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private volatile long redirectId; // client id of the invalidation connection, 0 while it is down
+    private volatile Connection invalidationConnection;
+    private volatile boolean running;
+    private Thread listener;
+
+    /**
+     * @param size      entries kept
+     * @param connector opens the invalidation connection; it must use RESP2, so invalidations arrive as pub/sub messages
+     */
+    public ClientSideCache(String name, int size, Supplier<Connection> connector) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Client-side cache size must be positive: " + size);
+        }
+        this.name = name;
+        this.connector = connector;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CachedRead, Object> eldest) {
+                if (size() > size) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Opens the invalidation connection, so the first reads are already cached.
+     *
+     * @throws redis.clients.jedis.exceptions.JedisException if the connection fails
+     */
+    public synchronized ClientSideCache start() {
+        if (!running) {
+            Connection connection = subscribe();
+            running = true;
+            listener = new Thread(() -> run(connection), "redis-cache-invalidation");
+            listener.setDaemon(true);
+            listener.start();
+            log.info("Client-side cache of %s started, invalidations go to client %d".formatted(name, redirectId));
+        }
+        return this;
+    }
+
+    /**
+     * @param command name of the read command, e.g. {@code GET}
+     * @return the cached reply, which may be {@code null}, or {@link #MISS}
+     */
+    public Object get(String command, String key) {
+        Object value;
+        synchronized (entries) {
+            value = entries.get(new CachedRead(command, key));
+        }
+        if (value == null || value instanceof Reservation) {
+            misses.increment();
+            return MISS;
+        }
+        hits.increment();
+        return value == NULL_REPLY ? null : value;
+    }
+
+    /**
+     * Makes the connection tracked and reserves the entry before the key is read on the connection.
+     *
+     * @return the reservation for {@link #fill}, {@code null} if the reply must not be cached
+     */
+    public Object reserve(Jedis jedis, String command, String key) {
+        long redirect = redirectId;
+        if (redirect == 0) {
+            return null;
+        }
+        Long current;
+        synchronized (tracked) {
+            current = tracked.get(jedis);
+        }
+        if (current == null || current != redirect) {
+            jedis.sendCommand(Protocol.Command.CLIENT, "TRACKING", "ON", "REDIRECT", Long.toString(redirect));
+            synchronized (tracked) {
+                tracked.put(jedis, redirect);
+            }
+        }
+        Reservation reservation = new Reservation();
+        commands.add(command);
+        synchronized (entries) {
+            entries.put(new CachedRead(command, key), reservation);
+        }
+        return reservation;
+    }
+
+    /**
+     * Caches the reply unless the key was invalidated since it was reserved.
+     */
+    public void fill(String command, String key, Object reservation, Object reply) {
+        if (reservation == null) {
+            return;
+        }
+        synchronized (entries) {
+            entries.replace(new CachedRead(command, key), reservation, reply == null ? NULL_REPLY : reply);
+        }
+    }
+
+    public Stats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new Stats(hits.sum(), misses.sum(), invalidations.sum(), evictions.sum(), flushes.sum(), size);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    private Connection subscribe() {
+        Connection connection = connector.get();
+        try {
+            connection.sendCommand(Protocol.Command.CLIENT, "ID");
+            long id = connection.getIntegerReply();
+            connection.sendCommand(Protocol.Command.SUBSCRIBE, INVALIDATE_CHANNEL);
+            connection.getObjectMultiBulkReply(); // subscribe confirmation
+            connection.setTimeoutInfinite();
+            invalidationConnection = connection;
+            redirectId = id;
+            return connection;
+        } catch (RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    private void run(Connection connection) {
+        while (running) {
+            try {
+                if (connection == null) {
+                    connection = subscribe();
+                    log.info("Client-side cache of %s reconnected, invalidations go to client %d".formatted(name, redirectId));
+                }
+                listen(connection);
+            } catch (RuntimeException e) {
+                if (!running) {
+                    break;
+                }
+                redirectId = 0;
+                flush();
+                if (connection != null) {
+                    connection.close();
+                    connection = null;
+                }
+                log.warn("Client-side cache of %s lost its invalidation connection: %s".formatted(name, e));
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private void listen(Connection connection) {
+        while (running) {
+            if (!(connection.getOne() instanceof List<?> message) || message.size() < 3) {
+                continue;
+            }
+            Object kind = message.get(0);
+            if (!(kind instanceof byte[] bytes) || !"message".equals(new String(bytes, StandardCharsets.US_ASCII))) {
+                continue;
+            }
+            if (message.get(2) instanceof List<?> keys) {
+                synchronized (entries) {
+                    for (Object key : keys) {
+                        invalidate(new String((byte[]) key, StandardCharsets.UTF_8));
+                    }
+                }
+            } else {
+                flush(); // null: the server flushed its keys
+            }
+        }
+    }
+
+    /**
+     * Drops the replies of every command to the key; the caller holds the entries lock.
+     */
+    private void invalidate(String key) {
+        boolean removed = false;
+        for (String command : commands) {
+            removed |= entries.remove(new CachedRead(command, key)) != null;
+        }
+        if (removed) {
+            invalidations.increment();
+        }
+    }
+
+    private void flush() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        flushes.increment();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        redirectId = 0;
+        Connection connection = invalidationConnection;
+        if (connection != null) {
+            connection.close(); // wakes up the listener
+        }
+        try {
+            listener.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Client-side cache of %s closed: %s".formatted(name, stats()));
+    }
+
+    private record CachedRead(String command, String key) {
+    }
+
+    /**
+     * Placeholder of a key being read, replaced by the reply unless an invalidation removes it first.
+     */
+    private static final class Reservation {
+    }
+}
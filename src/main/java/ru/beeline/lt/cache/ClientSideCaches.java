@@ -0,0 +1,38 @@
+package ru.beeline.lt.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Client-side caches of the running test, one per server connection. Samplers reading the same server share its cache.
+ */
+public class ClientSideCaches {
+
+    private static final Map<Object, ClientSideCache> CACHES = new ConcurrentHashMap<>();
+
+    /**
+     * @param key identifies the server connection
+     */
+    public static ClientSideCache getOrStart(Object key, Supplier<ClientSideCache> factory) {
+        ClientSideCache cache = CACHES.get(key);
+        if (cache == null) {
+            cache = CACHES.computeIfAbsent(key, k -> factory.get().start());
+        }
+        return cache;
+    }
+
+    public static Collection<ClientSideCache> all() {
+        return List.copyOf(CACHES.values());
+    }
+
+    public static void closeAll() {
+        CACHES.forEach((key, cache) -> {
+            if (CACHES.remove(key, cache)) {
+                cache.close();
+            }
+        });
+    }
+}
@@ -0,0 +1,88 @@
+package ru.beeline.lt.cluster;
+
+import redis.clients.jedis.HostAndPort;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-node command counts, latency and redirects of a cluster client, to spot hot slots and uneven shard load.
+ */
+public class ClusterNodeStats {
+
+    private final Map<HostAndPort, Node> nodes = new ConcurrentHashMap<>();
+
+    public Node node(HostAndPort address) {
+        Node node = nodes.get(address);
+        if (node == null) {
+            node = nodes.computeIfAbsent(address, Node::new);
+        }
+        return node;
+    }
+
+    public Map<HostAndPort, Node> nodes() {
+        return nodes;
+    }
+
+    public String summary() {
+        StringBuilder summary = new StringBuilder();
+        nodes.values().stream()
+                .sorted((a, b) -> Long.compare(b.commands.sum(), a.commands.sum()))
+                .forEach(node -> summary.append("%n  %s".formatted(node)));
+        return summary.toString();
+    }
+
+    public static class Node {
+        private final HostAndPort address;
+        private final String label;
+        private final LongAdder commands = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+        private final LongAdder moved = new LongAdder();
+        private final LongAdder asked = new LongAdder();
+
+        Node(HostAndPort address) {
+            this.address = address;
+            this.label = " [" + address + "]";
+        }
+
+        public void record(long commandCount, long nanos) {
+            commands.add(commandCount);
+            latencyNanos.add(nanos);
+        }
+
+        /**
+         * @return suffix for per-node sample labels
+         */
+        public String label() {
+            return label;
+        }
+
+        void moved() {
+            moved.increment();
+        }
+
+        void asked() {
+            asked.increment();
+        }
+
+        public long commands() {
+            return commands.sum();
+        }
+
+        public long movedRedirects() {
+            return moved.sum();
+        }
+
+        public long askRedirects() {
+            return asked.sum();
+        }
+
+        @Override
+        public String toString() {
+            long count = commands.sum();
+            return "%s: commands=%d, avg latency=%d us, MOVED=%d, ASK=%d".formatted(
+                    address, count, count == 0 ? 0 : latencyNanos.sum() / count / 1000, moved.sum(), asked.sum());
+        }
+    }
+}
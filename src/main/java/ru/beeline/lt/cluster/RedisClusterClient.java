@@ -0,0 +1,101 @@
+package ru.beeline.lt.cluster;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.ClusterPipeline;
+import redis.clients.jedis.CommandObject;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisClientConfig;
+import redis.clients.jedis.ConnectionPool;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.exceptions.JedisAskDataException;
+import redis.clients.jedis.exceptions.JedisMovedDataException;
+import redis.clients.jedis.executors.ClusterCommandExecutor;
+import redis.clients.jedis.providers.ClusterConnectionProvider;
+import redis.clients.jedis.util.JedisClusterCRC16;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Redis Cluster client shared by the sampler threads.
+ * Jedis keeps the slot map cached and refreshes it on MOVED; this client additionally counts redirects
+ * and exposes the slot owner of a key so that latency can be attributed to nodes.
+ */
+public class RedisClusterClient implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisClusterClient.class);
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final HostAndPort UNKNOWN_NODE = new HostAndPort("unknown", 0);
+
+    private final ClusterConnectionProvider provider;
+    private final UnifiedJedis jedis;
+    private final ClusterNodeStats stats = new ClusterNodeStats();
+
+    public RedisClusterClient(Set<HostAndPort> seedNodes, JedisClientConfig clientConfig,
+                              GenericObjectPoolConfig<Connection> poolConfig, int timeout) {
+        Duration maxTotalRetries = Duration.ofMillis((long) timeout * MAX_ATTEMPTS);
+        this.provider = new ClusterConnectionProvider(seedNodes, clientConfig, poolConfig);
+        this.jedis = new UnifiedJedis(new RedirectCountingExecutor(provider, MAX_ATTEMPTS, maxTotalRetries, stats));
+    }
+
+    public UnifiedJedis commands() {
+        return jedis;
+    }
+
+    public ClusterPipeline pipelined() {
+        return new ClusterPipeline(provider);
+    }
+
+    /**
+     * @return node currently owning the slot of the key, as seen by the cached slot map
+     */
+    public ClusterNodeStats.Node nodeFor(String key) {
+        HostAndPort node = provider.getNode(JedisClusterCRC16.getSlot(key));
+        return stats.node(node == null ? UNKNOWN_NODE : node);
+    }
+
+    /**
+     * @return connection pools of the currently known nodes
+     */
+    public Collection<ConnectionPool> pools() {
+        return provider.getNodes().values();
+    }
+
+    public ClusterNodeStats stats() {
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        log.info("Cluster node statistics:%s".formatted(stats.summary()));
+        jedis.close();
+    }
+
+    private static class RedirectCountingExecutor extends ClusterCommandExecutor {
+        private final ClusterNodeStats stats;
+
+        RedirectCountingExecutor(ClusterConnectionProvider provider, int maxAttempts, Duration maxTotalRetriesDuration,
+                                 ClusterNodeStats stats) {
+            super(provider, maxAttempts, maxTotalRetriesDuration);
+            this.stats = stats;
+        }
+
+        @Override
+        protected <T> T execute(Connection connection, CommandObject<T> commandObject) {
+            try {
+                return super.execute(connection, commandObject);
+            } catch (JedisMovedDataException e) {
+                stats.node(e.getTargetNode()).moved();
+                throw e;
+            } catch (JedisAskDataException e) {
+                stats.node(e.getTargetNode()).asked();
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package ru.beeline.lt.codec;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Codecs shipped with the sampler. The serializations wrap the value the way a service would store a single field:
+ * {@code JSON} as {@code {"value":"..."}}, {@code PROTOBUF} as field 1 of type bytes; the compressions use the JDK
+ * and zstd-jni.
+ */
+public enum BuiltInCodec implements ValueCodec {
+
+    JSON {
+        private static final byte[] PREFIX = "{\"value\":\"".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] SUFFIX = "\"}".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+        @Override
+        public byte[] encode(byte[] value) {
+            // escapes bytes, not characters: a UTF-8 value stays valid JSON and any other value still round-trips
+            ByteArrayOutputStream out = new ByteArrayOutputStream(value.length + PREFIX.length + SUFFIX.length + 16);
+            out.writeBytes(PREFIX);
+            for (byte b : value) {
+                if (b == '"' || b == '\\') {
+                    out.write('\\');
+                    out.write(b);
+                } else if (b >= 0 && b < 0x20) {
+                    out.writeBytes(new byte[]{'\\', 'u', '0', '0', HEX[b >> 4], HEX[b & 0xF]});
+                } else {
+                    out.write(b);
+                }
+            }
+            out.writeBytes(SUFFIX);
+            return out.toByteArray();
+        }
+
+        @Override
+        public byte[] decode(byte[] data) {
+            int end = data.length - SUFFIX.length;
+            if (end < PREFIX.length || !Arrays.equals(data, 0, PREFIX.length, PREFIX, 0, PREFIX.length)
+                    || !Arrays.equals(data, end, data.length, SUFFIX, 0, SUFFIX.length)) {
+                throw new IllegalArgumentException("Not a JSON encoded value");
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(end - PREFIX.length);
+            for (int i = PREFIX.length; i < end; i++) {
+                byte b = data[i];
+                if (b != '\\') {
+                    out.write(b);
+                } else if (i + 1 < end && data[i + 1] != 'u') {
+                    out.write(data[++i]);
+                } else if (i + 5 < end) {
+                    out.write(Integer.parseInt(new String(data, i + 2, 4, StandardCharsets.US_ASCII), 16));
+                    i += 5;
+                } else {
+                    throw new IllegalArgumentException("Malformed escape in JSON encoded value");
+                }
+            }
+            return out.toByteArray();
+        }
+    },
+
+    PROTOBUF {
+        private static final int FIELD_1_BYTES = 1 << 3 | 2; // field number 1, wire type length-delimited
+
+        @Override
+        public byte[] encode(byte[] value) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(value.length + 6);
+            out.write(FIELD_1_BYTES);
+            for (int length = value.length; ; length >>>= 7) {
+                if ((length & ~0x7F) == 0) {
+                    out.write(length);
+                    break;
+                }
+                out.write(length & 0x7F | 0x80);
+            }
+            out.writeBytes(value);
+            return out.toByteArray();
+        }
+
+        @Override
+        public byte[] decode(byte[] data) {
+            if (data.length < 2 || data[0] != FIELD_1_BYTES) {
+                throw new IllegalArgumentException("Not a Protobuf encoded value");
+            }
+            int length = 0;
+            int offset = 1;
+            for (int shift = 0; ; shift += 7) {
+                if (offset == data.length || shift > 28) {
+                    throw new IllegalArgumentException("Malformed length in Protobuf encoded value");
+                }
+                byte b = data[offset++];
+                length |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            if (length != data.length - offset) {
+                throw new IllegalArgumentException("Protobuf encoded value of %d bytes holds %d".formatted(length, data.length - offset));
+            }
+            return Arrays.copyOfRange(data, offset, data.length);
+        }
+    },
+
+    GZIP {
+        @Override
+        public byte[] encode(byte[] value) {
+            return compress(value, out -> new GZIPOutputStream(out));
+        }
+
+        @Override
+        public byte[] decode(byte[] data) {
+            return decompress(data, in -> new GZIPInputStream(in));
+        }
+    },
+
+    DEFLATE {
+        @Override
+        public byte[] encode(byte[] value) {
+            return compress(value, DeflaterOutputStream::new);
+        }
+
+        @Override
+        public byte[] decode(byte[] data) {
+            return decompress(data, InflaterInputStream::new);
+        }
+    },
+
+    ZSTD {
+        private static final int LEVEL = 3; // zstd's default
+
+        @Override
+        public byte[] encode(byte[] value) {
+            return Zstd.compress(value, LEVEL);
+        }
+
+        @Override
+        public byte[] decode(byte[] data) {
+            long size = Zstd.getFrameContentSize(data);
+            if (size < 0 || size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Not a zstd frame with its content size");
+            }
+            return Zstd.decompress(data, (int) size);
+        }
+    };
+
+    private interface StreamWrapper<T> {
+        T wrap(T stream) throws IOException;
+    }
+
+    private static byte[] compress(byte[] value, StreamWrapper<OutputStream> compressor) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(value.length / 2 + 32);
+        try (OutputStream stream = compressor.wrap(out)) {
+            stream.write(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] data, StreamWrapper<InputStream> decompressor) {
+        try (InputStream stream = decompressor.wrap(new ByteArrayInputStream(data))) {
+            return stream.readAllBytes();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed compressed value: " + e.getMessage(), e);
+        }
+    }
+}
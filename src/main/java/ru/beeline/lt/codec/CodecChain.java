@@ -0,0 +1,50 @@
+package ru.beeline.lt.codec;
+
+import java.util.List;
+
+/**
+ * Codecs applied one after another, e.g. {@code JSON+ZSTD}: encoding runs them in order, decoding in reverse.
+ */
+public class CodecChain implements ValueCodec {
+
+    private final List<ValueCodec> codecs;
+    private final String name;
+
+    public CodecChain(List<ValueCodec> codecs) {
+        if (codecs.isEmpty()) {
+            throw new IllegalArgumentException("Codec chain has no codecs");
+        }
+        this.codecs = List.copyOf(codecs);
+        this.name = String.join("+", this.codecs.stream().map(ValueCodec::name).toList());
+    }
+
+    public List<ValueCodec> codecs() {
+        return codecs;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public byte[] encode(byte[] value) {
+        for (ValueCodec codec : codecs) {
+            value = codec.encode(value);
+        }
+        return value;
+    }
+
+    @Override
+    public byte[] decode(byte[] data) {
+        for (int i = codecs.size() - 1; i >= 0; i--) {
+            data = codecs.get(i).decode(data);
+        }
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,93 @@
+package ru.beeline.lt.codec;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What a codec did during the test, summed over all threads: values and bytes on both sides of the codec and the
+ * time spent in it, which the sampler keeps out of the Redis round-trip.
+ */
+public class CodecStats {
+
+    private final String codec;
+    private final LongAdder encoded = new LongAdder();
+    private final LongAdder encodeRawBytes = new LongAdder();
+    private final LongAdder encodeEncodedBytes = new LongAdder();
+    private final LongAdder encodeNanos = new LongAdder();
+    private final LongAdder decoded = new LongAdder();
+    private final LongAdder decodeEncodedBytes = new LongAdder();
+    private final LongAdder decodeRawBytes = new LongAdder();
+    private final LongAdder decodeNanos = new LongAdder();
+
+    CodecStats(String codec) {
+        this.codec = codec;
+    }
+
+    public String codec() {
+        return codec;
+    }
+
+    public void recordEncode(int rawBytes, int encodedBytes, long nanos) {
+        encoded.increment();
+        encodeRawBytes.add(rawBytes);
+        encodeEncodedBytes.add(encodedBytes);
+        encodeNanos.add(nanos);
+    }
+
+    public void recordDecode(int encodedBytes, int rawBytes, long nanos) {
+        decoded.increment();
+        decodeEncodedBytes.add(encodedBytes);
+        decodeRawBytes.add(rawBytes);
+        decodeNanos.add(nanos);
+    }
+
+    public long encoded() {
+        return encoded.sum();
+    }
+
+    public long encodeRawBytes() {
+        return encodeRawBytes.sum();
+    }
+
+    public long encodeEncodedBytes() {
+        return encodeEncodedBytes.sum();
+    }
+
+    public long encodeNanos() {
+        return encodeNanos.sum();
+    }
+
+    public long decoded() {
+        return decoded.sum();
+    }
+
+    public long decodeEncodedBytes() {
+        return decodeEncodedBytes.sum();
+    }
+
+    public long decodeRawBytes() {
+        return decodeRawBytes.sum();
+    }
+
+    public long decodeNanos() {
+        return decodeNanos.sum();
+    }
+
+    /**
+     * @return encoded over raw size of the values written, 0 before any
+     */
+    public double ratio() {
+        long raw = encodeRawBytes();
+        return raw == 0 ? 0 : (double) encodeEncodedBytes() / raw;
+    }
+
+    @Override
+    public String toString() {
+        long encoded = encoded();
+        long decoded = decoded();
+        return "%s: encoded %d values, %d -> %d bytes (ratio %.3f), %.1f us each; decoded %d values, %d -> %d bytes, %.1f us each".formatted(
+                codec, encoded, encodeRawBytes(), encodeEncodedBytes(), ratio(),
+                encoded == 0 ? 0 : encodeNanos() / 1e3 / encoded,
+                decoded, decodeEncodedBytes(), decodeRawBytes(),
+                decoded == 0 ? 0 : decodeNanos() / 1e3 / decoded);
+    }
+}
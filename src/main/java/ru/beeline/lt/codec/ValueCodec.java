@@ -0,0 +1,20 @@
+package ru.beeline.lt.codec;
+
+/**
+ * Turns the values of a sample into what the service stores, and back: a serialization format, a compression,
+ * or a chain of both. Codecs are shared by all JMeter threads and must be thread-safe.
+ */
+public interface ValueCodec {
+
+    /**
+     * @return the name the codec is selected by, in upper case
+     */
+    String name();
+
+    byte[] encode(byte[] value);
+
+    /**
+     * @throws RuntimeException if the data was not encoded by this codec
+     */
+    byte[] decode(byte[] data);
+}
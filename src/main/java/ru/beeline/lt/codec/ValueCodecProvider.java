@@ -0,0 +1,12 @@
+package ru.beeline.lt.codec;
+
+import java.util.Collection;
+
+/**
+ * Adds codecs to {@link ValueCodecs}, e.g. LZ4 or a real Protobuf schema. Implementations are discovered with
+ * {@link java.util.ServiceLoader}, so a jar next to the plugin can add codecs without changing the sampler.
+ */
+public interface ValueCodecProvider {
+
+    Collection<? extends ValueCodec> codecs();
+}
@@ -0,0 +1,94 @@
+package ru.beeline.lt.codec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the value codecs: the built-in ones plus those of {@link ValueCodecProvider}s found on the class path,
+ * and the statistics of the codecs used by the test.
+ */
+public class ValueCodecs {
+
+    private static final Logger log = LoggerFactory.getLogger(ValueCodecs.class);
+
+    private static final Map<String, ValueCodec> CODECS = new LinkedHashMap<>();
+    private static final Map<String, CodecStats> STATS = new ConcurrentHashMap<>();
+
+    static {
+        register(Arrays.asList(BuiltInCodec.values()));
+        for (ValueCodecProvider provider : ServiceLoader.load(ValueCodecProvider.class, ValueCodecs.class.getClassLoader())) {
+            log.info("Registering value codecs of %s".formatted(provider.getClass().getName()));
+            register(provider.codecs());
+        }
+    }
+
+    /**
+     * Adds codecs, replacing registered ones with the same name.
+     */
+    public static synchronized void register(Collection<? extends ValueCodec> codecs) {
+        for (ValueCodec codec : codecs) {
+            CODECS.put(codec.name().toUpperCase(Locale.ROOT), codec);
+        }
+    }
+
+    /**
+     * @return the codec with the given name, in any case, or {@code null} if there is none
+     */
+    public static synchronized ValueCodec find(String name) {
+        return CODECS.get(name.toUpperCase(Locale.ROOT));
+    }
+
+    public static synchronized List<String> names() {
+        return new ArrayList<>(CODECS.keySet());
+    }
+
+    /**
+     * @param spec a codec name or names joined by {@code +}, applied in order when encoding, e.g. {@code JSON+ZSTD}
+     * @throws IllegalStateException if a codec is unknown, like an unknown sampler operation
+     */
+    public static ValueCodec parse(String spec) {
+        List<ValueCodec> codecs = new ArrayList<>();
+        for (String name : spec.split("\\+")) {
+            if (name.isBlank()) {
+                throw new IllegalArgumentException("Malformed codec chain " + spec);
+            }
+            ValueCodec codec = find(name.trim());
+            if (codec == null) {
+                throw new IllegalStateException("Unexpected value: " + name.trim());
+            }
+            codecs.add(codec);
+        }
+        return codecs.size() == 1 ? codecs.get(0) : new CodecChain(codecs);
+    }
+
+    /**
+     * @return the shared statistics of the codec, created on first use
+     */
+    public static CodecStats stats(ValueCodec codec) {
+        return STATS.computeIfAbsent(codec.name(), CodecStats::new);
+    }
+
+    public static Collection<CodecStats> all() {
+        return STATS.values();
+    }
+
+    /**
+     * Logs what every codec of the test did and forgets it.
+     */
+    public static void reset() {
+        for (CodecStats stats : STATS.values()) {
+            log.info("Value codec " + stats);
+        }
+        STATS.clear();
+    }
+}
@@ -0,0 +1,80 @@
+package ru.beeline.lt.command;
+
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.commands.JedisCommands;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static ru.beeline.lt.command.RedisOperation.Parameter.FIELD;
+import static ru.beeline.lt.command.RedisOperation.Parameter.VALUE;
+
+/**
+ * Hash commands on a single field, or on the whole hash.
+ */
+public enum HashOperation implements RedisOperation {
+    HSET(FIELD, VALUE) {
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            return jedis.hset(request.key(), request.options().field(), request.value());
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            pipeline.hset(request.key(), request.options().field(), request.value());
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            return new String[]{"HSET", request.key(), request.options().field(), request.value()};
+        }
+    },
+    HGET(FIELD) {
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            return jedis.hget(request.key(), request.options().field());
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            pipeline.hget(request.key(), request.options().field());
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            return new String[]{"HGET", request.key(), request.options().field()};
+        }
+    },
+    HGETALL {
+        @Override
+        public boolean cacheable() {
+            return true;
+        }
+
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            return jedis.hgetAll(request.key());
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            pipeline.hgetAll(request.key());
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            return new String[]{"HGETALL", request.key()};
+        }
+    };
+
+    private final Set<Parameter> parameters;
+
+    HashOperation(Parameter... parameters) {
+        this.parameters = parameters.length == 0 ? EnumSet.noneOf(Parameter.class) : EnumSet.of(parameters[0], parameters);
+    }
+
+    @Override
+    public Set<Parameter> parameters() {
+        return parameters;
+    }
+}
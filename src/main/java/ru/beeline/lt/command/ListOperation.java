@@ -0,0 +1,83 @@
+package ru.beeline.lt.command;
+
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.commands.JedisCommands;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static ru.beeline.lt.command.RedisOperation.Parameter.RANGE;
+import static ru.beeline.lt.command.RedisOperation.Parameter.VALUE;
+
+/**
+ * List commands: LPUSH and RPOP make a queue, LRANGE reads an index range ({@code 0 -1} by default).
+ */
+public enum ListOperation implements RedisOperation {
+    LPUSH(VALUE) {
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            return jedis.lpush(request.key(), request.value());
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            pipeline.lpush(request.key(), request.value());
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            return new String[]{"LPUSH", request.key(), request.value()};
+        }
+    },
+    RPOP {
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            return jedis.rpop(request.key());
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            pipeline.rpop(request.key());
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            return new String[]{"RPOP", request.key()};
+        }
+    },
+    LRANGE(RANGE) {
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            return jedis.lrange(request.key(), start(request), end(request));
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            pipeline.lrange(request.key(), start(request), end(request));
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            return new String[]{"LRANGE", request.key(), Long.toString(start(request)), Long.toString(end(request))};
+        }
+
+        private long start(RedisRequest request) {
+            return Long.parseLong(request.options().rangeStart("0"));
+        }
+
+        private long end(RedisRequest request) {
+            return Long.parseLong(request.options().rangeEnd("-1"));
+        }
+    };
+
+    private final Set<Parameter> parameters;
+
+    ListOperation(Parameter... parameters) {
+        this.parameters = parameters.length == 0 ? EnumSet.noneOf(Parameter.class) : EnumSet.of(parameters[0], parameters);
+    }
+
+    @Override
+    public Set<Parameter> parameters() {
+        return parameters;
+    }
+}
@@ -0,0 +1,85 @@
+package ru.beeline.lt.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Weighted mix of operations, e.g. {@code GET:80, SET:15, DEL:5}: every sample draws its operation independently
+ * with probability proportional to its weight. Entries are separated by commas, semicolons or spaces;
+ * an entry without a weight has weight 1.
+ */
+public class OperationMix {
+
+    /**
+     * @param weight relative, the weights of a mix need not add up to 100
+     */
+    public record Share(RedisOperation operation, double weight) {
+    }
+
+    private final List<Share> shares;
+    private final double[] cumulative;
+
+    private OperationMix(List<Share> shares) {
+        this.shares = List.copyOf(shares);
+        this.cumulative = new double[shares.size()];
+        double total = 0;
+        for (int i = 0; i < cumulative.length; i++) {
+            total += shares.get(i).weight();
+            cumulative[i] = total;
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the mix is empty or a weight is not a positive number
+     * @throws IllegalStateException    if an operation is unknown, like an unknown sampler operation
+     */
+    public static OperationMix parse(String spec) {
+        List<Share> shares = new ArrayList<>();
+        for (String entry : spec.trim().split("[,;\\s]+")) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int colon = entry.lastIndexOf(':');
+            String name = colon < 0 ? entry : entry.substring(0, colon);
+            double weight;
+            try {
+                weight = colon < 0 ? 1 : Double.parseDouble(entry.substring(colon + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed weight in operation mix entry " + entry);
+            }
+            if (!(weight > 0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Operation mix weights must be positive, got " + entry);
+            }
+            RedisOperation operation = RedisOperations.find(name);
+            if (operation == null) {
+                throw new IllegalStateException("Unexpected value: " + name);
+            }
+            shares.add(new Share(operation, weight));
+        }
+        if (shares.isEmpty()) {
+            throw new IllegalArgumentException("Operation mix has no operations");
+        }
+        return new OperationMix(shares);
+    }
+
+    public List<Share> shares() {
+        return shares;
+    }
+
+    /**
+     * @return the index in {@link #shares()} of the operation of the next sample
+     */
+    public int next() {
+        if (cumulative.length == 1) {
+            return 0;
+        }
+        double point = ThreadLocalRandom.current().nextDouble(cumulative[cumulative.length - 1]);
+        for (int i = 0; i < cumulative.length - 1; i++) {
+            if (point < cumulative[i]) {
+                return i;
+            }
+        }
+        return cumulative.length - 1;
+    }
+}
@@ -0,0 +1,100 @@
+package ru.beeline.lt.command;
+
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.commands.JedisBinaryCommands;
+import redis.clients.jedis.commands.JedisCommands;
+
+import java.util.Set;
+
+/**
+ * Command that {@link ru.beeline.lt.RedisSampler} can send, looked up by name in {@link RedisOperations}.
+ * The sampler resolves its operation once per thread, so the hot path is a virtual call instead of a string switch.
+ * <p>
+ * Binary mode is optional: operations that support it send keys and values as {@code byte[]},
+ * without charset encoding, and return replies as raw bytes.
+ */
+public interface RedisOperation {
+
+    /**
+     * Request inputs an operation reads, besides the key. The GUI enables the matching fields.
+     */
+    enum Parameter {
+        VALUE, EXPIRE, FIELD, RANGE,
+        /** several keys per command, {@link RedisRequest#keys()} holds a batch */
+        KEYS,
+        /** number of elements returned, taken from the batch size */
+        COUNT,
+        GROUP, SCRIPT,
+        /** command sequence of {@link RequestOptions#transaction()} */
+        TRANSACTION
+    }
+
+    String name();
+
+    Set<Parameter> parameters();
+
+    default boolean uses(Parameter parameter) {
+        return parameters().contains(parameter);
+    }
+
+    default boolean usesValue() {
+        return uses(Parameter.VALUE);
+    }
+
+    default boolean usesExpire() {
+        return uses(Parameter.EXPIRE);
+    }
+
+    /**
+     * Called once per thread before the first command, e.g. to create a stream consumer group.
+     */
+    default void prepare(JedisCommands jedis, RedisRequest request) {
+    }
+
+    Object execute(JedisCommands jedis, RedisRequest request);
+
+    /**
+     * @return {@code false} if commands of the operation can not be pipelined, e.g. a transaction with WATCH
+     */
+    default boolean supportsPipeline() {
+        return true;
+    }
+
+    void pipeline(AbstractPipeline pipeline, RedisRequest request);
+
+    /**
+     * @return {@code true} for reads whose reply depends on the key only, so it can be kept in a client-side cache
+     *         until the server invalidates the key
+     */
+    default boolean cacheable() {
+        return false;
+    }
+
+    /**
+     * @return the command with its arguments, as sent over the wire
+     */
+    String[] arguments(RedisRequest request);
+
+    default boolean supportsBinary() {
+        return false;
+    }
+
+    default Object execute(JedisBinaryCommands jedis, byte[] key, byte[] value, long expire) {
+        throw new UnsupportedOperationException(name() + " has no binary mode");
+    }
+
+    /**
+     * @return the pending reply, so binary replies can be measured after sync
+     */
+    default Response<?> pipeline(AbstractPipeline pipeline, byte[] key, byte[] value, long expire) {
+        throw new UnsupportedOperationException(name() + " has no binary mode");
+    }
+
+    /**
+     * @return the binary command with its arguments, as sent over the wire
+     */
+    default byte[][] arguments(byte[] key, byte[] value, long expire) {
+        throw new UnsupportedOperationException(name() + " has no binary mode");
+    }
+}
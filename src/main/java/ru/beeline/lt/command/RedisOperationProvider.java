@@ -0,0 +1,12 @@
+package ru.beeline.lt.command;
+
+import java.util.Collection;
+
+/**
+ * Adds operations to {@link RedisOperations}. Implementations are discovered with {@link java.util.ServiceLoader},
+ * so a jar next to the plugin can add commands without changing the sampler.
+ */
+public interface RedisOperationProvider {
+
+    Collection<? extends RedisOperation> operations();
+}
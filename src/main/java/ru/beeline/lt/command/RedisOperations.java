@@ -0,0 +1,58 @@
+package ru.beeline.lt.command;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of the operations the sampler supports: the built-in command families
+ * plus those of {@link RedisOperationProvider}s found on the class path.
+ */
+public class RedisOperations {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisOperations.class);
+
+    private static final Map<String, RedisOperation> OPERATIONS = new LinkedHashMap<>();
+
+    static {
+        register(Arrays.asList(StringOperation.values()));
+        register(Arrays.asList(HashOperation.values()));
+        register(Arrays.asList(ListOperation.values()));
+        register(Arrays.asList(SetOperation.values()));
+        register(Arrays.asList(SortedSetOperation.values()));
+        register(Arrays.asList(StreamOperation.values()));
+        register(Arrays.asList(ScriptOperation.values()));
+        register(Arrays.asList(TransactionOperation.values()));
+        for (RedisOperationProvider provider : ServiceLoader.load(RedisOperationProvider.class, RedisOperations.class.getClassLoader())) {
+            log.info("Registering Redis operations of %s".formatted(provider.getClass().getName()));
+            register(provider.operations());
+        }
+    }
+
+    /**
+     * Adds operations, replacing registered ones with the same name.
+     */
+    public static synchronized void register(Collection<? extends RedisOperation> operations) {
+        for (RedisOperation operation : operations) {
+            OPERATIONS.put(operation.name(), operation);
+        }
+    }
+
+    /**
+     * @return the operation with the given name or {@code null} if there is none
+     */
+    public static synchronized RedisOperation find(String name) {
+        return OPERATIONS.get(name);
+    }
+
+    public static synchronized List<String> names() {
+        return new ArrayList<>(OPERATIONS.keySet());
+    }
+}
@@ -0,0 +1,16 @@
+package ru.beeline.lt.command;
+
+/**
+ * Inputs of one command.
+ *
+ * @param key    the key, the first key of a batch for multi-key commands
+ * @param value  the value, {@code null} if the operation does not use it
+ * @param keys   all keys of a multi-key command, {@code null} otherwise
+ * @param values values matching {@code keys}, {@code null} if the operation does not use them
+ */
+public record RedisRequest(String key, String value, long expire, String[] keys, String[] values, RequestOptions options) {
+
+    public RedisRequest(String key, String value, long expire, RequestOptions options) {
+        this(key, value, expire, null, null, options);
+    }
+}
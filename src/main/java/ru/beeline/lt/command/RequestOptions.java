@@ -0,0 +1,49 @@
+package ru.beeline.lt.command;
+
+/**
+ * Command settings that stay the same for the whole run of a sampler.
+ *
+ * @param field       hash field or stream entry field
+ * @param rangeStart  range start, {@code null} for the operation default
+ * @param rangeEnd    range end, {@code null} for the operation default
+ * @param batchSize   keys per multi-key command, or elements per reply for commands with a count
+ * @param group       stream consumer group
+ * @param consumer    stream consumer name
+ * @param script      Lua script source
+ * @param transaction commands of a transaction, {@code null} for other operations
+ * @param sha         SHA1 of the loaded script, {@code null} until it is loaded
+ */
+public record RequestOptions(String field, String rangeStart, String rangeEnd, int batchSize,
+                             String group, String consumer, String script, TransactionSpec transaction, String sha) {
+
+    public static final String DEFAULT_FIELD = "field";
+    public static final String DEFAULT_GROUP = "jmeter";
+
+    /**
+     * @param range range as {@code "start end"}, blank for the operation default
+     */
+    public static RequestOptions of(String field, String range, int batchSize, String group, String consumer, String script,
+                                    TransactionSpec transaction) {
+        String[] bounds = range.isBlank() ? new String[2] : range.trim().split("\\s+");
+        if (bounds.length != 2) {
+            throw new IllegalArgumentException("Range must be 'start end', got '%s'".formatted(range));
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive, got " + batchSize);
+        }
+        return new RequestOptions(field.isBlank() ? DEFAULT_FIELD : field, bounds[0], bounds[1], batchSize,
+                group.isBlank() ? DEFAULT_GROUP : group, consumer, script, transaction, null);
+    }
+
+    public RequestOptions withSha(String sha) {
+        return new RequestOptions(field, rangeStart, rangeEnd, batchSize, group, consumer, script, transaction, sha);
+    }
+
+    public String rangeStart(String defaultValue) {
+        return rangeStart == null ? defaultValue : rangeStart;
+    }
+
+    public String rangeEnd(String defaultValue) {
+        return rangeEnd == null ? defaultValue : rangeEnd;
+    }
+}
@@ -0,0 +1,36 @@
+package ru.beeline.lt.command;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * SHA1 of the scripts loaded during the running test, so every script is loaded once per test and server
+ * whatever the number of threads.
+ */
+public class ScriptCache {
+
+    private static final Map<Key, String> SHAS = new ConcurrentHashMap<>();
+
+    /**
+     * @param connection identifies the servers the script is loaded into, e.g. the connection key of the sampler
+     * @param loader     loads the script into Redis and returns its SHA1, called once per connection and script
+     */
+    public static String load(Object connection, String script, UnaryOperator<String> loader) {
+        return SHAS.computeIfAbsent(new Key(connection, script), key -> loader.apply(script));
+    }
+
+    /**
+     * Forgets a script the servers no longer have, e.g. after {@code SCRIPT FLUSH} or a failover, so it is loaded again.
+     */
+    public static void invalidate(Object connection, String script) {
+        SHAS.remove(new Key(connection, script));
+    }
+
+    public static void reset() {
+        SHAS.clear();
+    }
+
+    private record Key(Object connection, String script) {
+    }
+}
@@ -0,0 +1,62 @@
+package ru.beeline.lt.command;
+
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.commands.JedisCommands;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static ru.beeline.lt.command.RedisOperation.Parameter.SCRIPT;
+import static ru.beeline.lt.command.RedisOperation.Parameter.VALUE;
+
+/**
+ * Lua script called by SHA1 with the key as {@code KEYS[1]} and the value as {@code ARGV[1]}.
+ * The sampler loads the script once per test and connection through {@link ScriptCache} and puts its SHA1
+ * in the request options.
+ */
+public enum ScriptOperation implements RedisOperation {
+    EVALSHA(SCRIPT, VALUE) {
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            try {
+                return jedis.evalsha(request.options().sha(), 1, request.key(), request.value());
+            } catch (JedisNoScriptException e) {
+                // the script cache was flushed or the node failed over, EVAL loads the script again
+                return jedis.eval(request.options().script(), 1, request.key(), request.value());
+            }
+        }
+
+        @Override
+        public Response<Object> pipelineReply(AbstractPipeline pipeline, RedisRequest request) {
+            return pipeline.evalsha(request.options().sha(), 1, request.key(), request.value());
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            return new String[]{"EVALSHA", request.options().sha(), "1", request.key(), request.value()};
+        }
+    };
+
+    private final Set<Parameter> parameters;
+
+    ScriptOperation(Parameter... parameters) {
+        this.parameters = parameters.length == 0 ? EnumSet.noneOf(Parameter.class) : EnumSet.of(parameters[0], parameters);
+    }
+
+    @Override
+    public Set<Parameter> parameters() {
+        return parameters;
+    }
+
+    @Override
+    public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+        pipelineReply(pipeline, request);
+    }
+
+    /**
+     * Queues the call and returns its pending reply, so a {@code NOSCRIPT} reply can be told after sync.
+     */
+    public abstract Response<Object> pipelineReply(AbstractPipeline pipeline, RedisRequest request);
+}
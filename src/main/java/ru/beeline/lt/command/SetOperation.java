@@ -0,0 +1,79 @@
+package ru.beeline.lt.command;
+
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.commands.JedisCommands;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static ru.beeline.lt.command.RedisOperation.Parameter.VALUE;
+
+/**
+ * Set commands, the value is the member.
+ */
+public enum SetOperation implements RedisOperation {
+    SADD(VALUE) {
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            return jedis.sadd(request.key(), request.value());
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            pipeline.sadd(request.key(), request.value());
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            return new String[]{"SADD", request.key(), request.value()};
+        }
+    },
+    SISMEMBER(VALUE) {
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            return jedis.sismember(request.key(), request.value());
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            pipeline.sismember(request.key(), request.value());
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            return new String[]{"SISMEMBER", request.key(), request.value()};
+        }
+    },
+    SMEMBERS {
+        @Override
+        public boolean cacheable() {
+            return true;
+        }
+
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            return jedis.smembers(request.key());
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            pipeline.smembers(request.key());
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            return new String[]{"SMEMBERS", request.key()};
+        }
+    };
+
+    private final Set<Parameter> parameters;
+
+    SetOperation(Parameter... parameters) {
+        this.parameters = parameters.length == 0 ? EnumSet.noneOf(Parameter.class) : EnumSet.of(parameters[0], parameters);
+    }
+
+    @Override
+    public Set<Parameter> parameters() {
+        return parameters;
+    }
+}
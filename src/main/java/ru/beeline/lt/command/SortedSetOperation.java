@@ -0,0 +1,83 @@
+package ru.beeline.lt.command;
+
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.commands.JedisCommands;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static ru.beeline.lt.command.RedisOperation.Parameter.COUNT;
+import static ru.beeline.lt.command.RedisOperation.Parameter.RANGE;
+import static ru.beeline.lt.command.RedisOperation.Parameter.VALUE;
+
+/**
+ * Sorted set commands for leaderboard-like load: the value is the member,
+ * ZADD scores it randomly in [0, 1) and ZINCRBY adds 1 to its score.
+ * ZRANGEBYSCORE reads a score range ({@code -inf +inf} by default) limited to the batch size.
+ */
+public enum SortedSetOperation implements RedisOperation {
+    ZADD(VALUE) {
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            return jedis.zadd(request.key(), ThreadLocalRandom.current().nextDouble(), request.value());
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            pipeline.zadd(request.key(), ThreadLocalRandom.current().nextDouble(), request.value());
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            return new String[]{"ZADD", request.key(), Double.toString(ThreadLocalRandom.current().nextDouble()), request.value()};
+        }
+    },
+    ZINCRBY(VALUE) {
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            return jedis.zincrby(request.key(), 1, request.value());
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            pipeline.zincrby(request.key(), 1, request.value());
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            return new String[]{"ZINCRBY", request.key(), "1", request.value()};
+        }
+    },
+    ZRANGEBYSCORE(RANGE, COUNT) {
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            RequestOptions options = request.options();
+            return jedis.zrangeByScore(request.key(), options.rangeStart("-inf"), options.rangeEnd("+inf"), 0, options.batchSize());
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            RequestOptions options = request.options();
+            pipeline.zrangeByScore(request.key(), options.rangeStart("-inf"), options.rangeEnd("+inf"), 0, options.batchSize());
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            RequestOptions options = request.options();
+            return new String[]{"ZRANGEBYSCORE", request.key(), options.rangeStart("-inf"), options.rangeEnd("+inf"),
+                    "LIMIT", "0", Integer.toString(options.batchSize())};
+        }
+    };
+
+    private final Set<Parameter> parameters;
+
+    SortedSetOperation(Parameter... parameters) {
+        this.parameters = parameters.length == 0 ? EnumSet.noneOf(Parameter.class) : EnumSet.of(parameters[0], parameters);
+    }
+
+    @Override
+    public Set<Parameter> parameters() {
+        return parameters;
+    }
+}
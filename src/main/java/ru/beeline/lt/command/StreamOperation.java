@@ -0,0 +1,102 @@
+package ru.beeline.lt.command;
+
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.StreamEntryID;
+import redis.clients.jedis.commands.JedisCommands;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.params.XReadGroupParams;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import static ru.beeline.lt.command.RedisOperation.Parameter.COUNT;
+import static ru.beeline.lt.command.RedisOperation.Parameter.FIELD;
+import static ru.beeline.lt.command.RedisOperation.Parameter.GROUP;
+import static ru.beeline.lt.command.RedisOperation.Parameter.VALUE;
+
+/**
+ * Stream commands: XADD appends a one-field entry, XREADGROUP reads up to the batch size of new entries
+ * as a consumer of the group. Entries are read with NOACK, so the pending list does not grow during the test.
+ */
+public enum StreamOperation implements RedisOperation {
+    XADD(FIELD, VALUE) {
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            return jedis.xadd(request.key(), StreamEntryID.NEW_ENTRY, Map.of(request.options().field(), request.value()));
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            pipeline.xadd(request.key(), StreamEntryID.NEW_ENTRY, Map.of(request.options().field(), request.value()));
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            return new String[]{"XADD", request.key(), "*", request.options().field(), request.value()};
+        }
+    },
+    XREADGROUP(GROUP, COUNT) {
+        @Override
+        public void prepare(JedisCommands jedis, RedisRequest request) {
+            createGroup(jedis, request);
+        }
+
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            try {
+                return readGroup(jedis, request);
+            } catch (JedisDataException e) {
+                if (e.getMessage() == null || !e.getMessage().startsWith("NOGROUP")) {
+                    throw e;
+                }
+                // generated keys get their group on first use
+                createGroup(jedis, request);
+                return readGroup(jedis, request);
+            }
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            RequestOptions options = request.options();
+            pipeline.xreadGroup(options.group(), options.consumer(), params(options), Map.of(request.key(), StreamEntryID.UNRECEIVED_ENTRY));
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            RequestOptions options = request.options();
+            return new String[]{"XREADGROUP", "GROUP", options.group(), options.consumer(),
+                    "COUNT", Integer.toString(options.batchSize()), "NOACK", "STREAMS", request.key(), ">"};
+        }
+
+        private Object readGroup(JedisCommands jedis, RedisRequest request) {
+            RequestOptions options = request.options();
+            return jedis.xreadGroup(options.group(), options.consumer(), params(options), Map.of(request.key(), StreamEntryID.UNRECEIVED_ENTRY));
+        }
+
+        private XReadGroupParams params(RequestOptions options) {
+            return XReadGroupParams.xReadGroupParams().count(options.batchSize()).noAck();
+        }
+
+        private void createGroup(JedisCommands jedis, RedisRequest request) {
+            try {
+                jedis.xgroupCreate(request.key(), request.options().group(), new StreamEntryID(), true);
+            } catch (JedisDataException e) {
+                if (e.getMessage() == null || !e.getMessage().startsWith("BUSYGROUP")) {
+                    throw e;
+                }
+            }
+        }
+    };
+
+    private final Set<Parameter> parameters;
+
+    StreamOperation(Parameter... parameters) {
+        this.parameters = parameters.length == 0 ? EnumSet.noneOf(Parameter.class) : EnumSet.of(parameters[0], parameters);
+    }
+
+    @Override
+    public Set<Parameter> parameters() {
+        return parameters;
+    }
+}
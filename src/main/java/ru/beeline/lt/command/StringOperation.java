@@ -0,0 +1,299 @@
+package ru.beeline.lt.command;
+
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.commands.JedisBinaryCommands;
+import redis.clients.jedis.commands.JedisCommands;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static ru.beeline.lt.command.RedisOperation.Parameter.EXPIRE;
+import static ru.beeline.lt.command.RedisOperation.Parameter.KEYS;
+import static ru.beeline.lt.command.RedisOperation.Parameter.VALUE;
+
+/**
+ * String commands. Single-key commands also have a binary mode.
+ */
+public enum StringOperation implements RedisOperation {
+    GET {
+        @Override
+        public boolean cacheable() {
+            return true;
+        }
+
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            return jedis.get(request.key());
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            pipeline.get(request.key());
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            return new String[]{"GET", request.key()};
+        }
+
+        @Override
+        public Object execute(JedisBinaryCommands jedis, byte[] key, byte[] value, long expire) {
+            return jedis.get(key);
+        }
+
+        @Override
+        public Response<?> pipeline(AbstractPipeline pipeline, byte[] key, byte[] value, long expire) {
+            return pipeline.get(key);
+        }
+
+        @Override
+        public byte[][] arguments(byte[] key, byte[] value, long expire) {
+            return new byte[][]{command(), key};
+        }
+    },
+    SET(VALUE) {
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            return jedis.set(request.key(), request.value());
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            pipeline.set(request.key(), request.value());
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            return new String[]{"SET", request.key(), request.value()};
+        }
+
+        @Override
+        public Object execute(JedisBinaryCommands jedis, byte[] key, byte[] value, long expire) {
+            return jedis.set(key, value);
+        }
+
+        @Override
+        public Response<?> pipeline(AbstractPipeline pipeline, byte[] key, byte[] value, long expire) {
+            return pipeline.set(key, value);
+        }
+
+        @Override
+        public byte[][] arguments(byte[] key, byte[] value, long expire) {
+            return new byte[][]{command(), key, value};
+        }
+    },
+    SETEX(VALUE, EXPIRE) {
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            return jedis.setex(request.key(), request.expire(), request.value());
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            pipeline.setex(request.key(), request.expire(), request.value());
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            return new String[]{"SETEX", request.key(), Long.toString(request.expire()), request.value()};
+        }
+
+        @Override
+        public Object execute(JedisBinaryCommands jedis, byte[] key, byte[] value, long expire) {
+            return jedis.setex(key, expire, value);
+        }
+
+        @Override
+        public Response<?> pipeline(AbstractPipeline pipeline, byte[] key, byte[] value, long expire) {
+            return pipeline.setex(key, expire, value);
+        }
+
+        @Override
+        public byte[][] arguments(byte[] key, byte[] value, long expire) {
+            return new byte[][]{command(), key, bytes(expire), value};
+        }
+    },
+    EXISTS {
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            return jedis.exists(request.key());
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            pipeline.exists(request.key());
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            return new String[]{"EXISTS", request.key()};
+        }
+
+        @Override
+        public Object execute(JedisBinaryCommands jedis, byte[] key, byte[] value, long expire) {
+            return jedis.exists(key);
+        }
+
+        @Override
+        public Response<?> pipeline(AbstractPipeline pipeline, byte[] key, byte[] value, long expire) {
+            return pipeline.exists(key);
+        }
+
+        @Override
+        public byte[][] arguments(byte[] key, byte[] value, long expire) {
+            return new byte[][]{command(), key};
+        }
+    },
+    DEL {
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            return jedis.del(request.key());
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            pipeline.del(request.key());
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            return new String[]{"DEL", request.key()};
+        }
+
+        @Override
+        public Object execute(JedisBinaryCommands jedis, byte[] key, byte[] value, long expire) {
+            return jedis.del(key);
+        }
+
+        @Override
+        public Response<?> pipeline(AbstractPipeline pipeline, byte[] key, byte[] value, long expire) {
+            return pipeline.del(key);
+        }
+
+        @Override
+        public byte[][] arguments(byte[] key, byte[] value, long expire) {
+            return new byte[][]{command(), key};
+        }
+    },
+    PEXPIRE(EXPIRE) {
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            return jedis.pexpire(request.key(), request.expire());
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            pipeline.pexpire(request.key(), request.expire());
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            return new String[]{"PEXPIRE", request.key(), Long.toString(request.expire())};
+        }
+
+        @Override
+        public Object execute(JedisBinaryCommands jedis, byte[] key, byte[] value, long expire) {
+            return jedis.pexpire(key, expire);
+        }
+
+        @Override
+        public Response<?> pipeline(AbstractPipeline pipeline, byte[] key, byte[] value, long expire) {
+            return pipeline.pexpire(key, expire);
+        }
+
+        @Override
+        public byte[][] arguments(byte[] key, byte[] value, long expire) {
+            return new byte[][]{command(), key, bytes(expire)};
+        }
+    },
+    MGET(KEYS) {
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            return jedis.mget(request.keys());
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            pipeline.mget(request.keys());
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            return prepend("MGET", request.keys());
+        }
+
+        @Override
+        public boolean supportsBinary() {
+            return false;
+        }
+    },
+    MSET(KEYS, VALUE) {
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            return jedis.mset(keysAndValues(request));
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            pipeline.mset(keysAndValues(request));
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            return prepend("MSET", keysAndValues(request));
+        }
+
+        @Override
+        public boolean supportsBinary() {
+            return false;
+        }
+    };
+
+    private final Set<Parameter> parameters;
+    private final byte[] command;
+
+    StringOperation(Parameter... parameters) {
+        this.parameters = parameters.length == 0 ? EnumSet.noneOf(Parameter.class) : EnumSet.of(parameters[0], parameters);
+        this.command = name().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public Set<Parameter> parameters() {
+        return parameters;
+    }
+
+    @Override
+    public boolean supportsBinary() {
+        return true;
+    }
+
+    /**
+     * @return the command name as sent over the wire
+     */
+    public byte[] command() {
+        return command;
+    }
+
+    private static byte[] bytes(long number) {
+        return Long.toString(number).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static String[] keysAndValues(RedisRequest request) {
+        String[] keys = request.keys();
+        String[] keysAndValues = new String[keys.length * 2];
+        for (int i = 0; i < keys.length; i++) {
+            keysAndValues[2 * i] = keys[i];
+            keysAndValues[2 * i + 1] = request.values()[i];
+        }
+        return keysAndValues;
+    }
+
+    static String[] prepend(String command, String... arguments) {
+        String[] result = new String[arguments.length + 1];
+        result[0] = command;
+        System.arraycopy(arguments, 0, result, 1, arguments.length);
+        return result;
+    }
+}
@@ -0,0 +1,20 @@
+package ru.beeline.lt.command;
+
+/**
+ * Transaction aborted by WATCH conflicts more times than allowed.
+ */
+public class TransactionAbortedException extends RuntimeException {
+
+    private static final long serialVersionUID = 3187420566113290514L;
+
+    private final int retries;
+
+    public TransactionAbortedException(int retries) {
+        super("Transaction aborted by WATCH after %d retries".formatted(retries));
+        this.retries = retries;
+    }
+
+    public int retries() {
+        return retries;
+    }
+}
@@ -0,0 +1,83 @@
+package ru.beeline.lt.command;
+
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Transaction;
+import redis.clients.jedis.commands.JedisCommands;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static ru.beeline.lt.command.RedisOperation.Parameter.TRANSACTION;
+import static ru.beeline.lt.command.RedisOperation.Parameter.VALUE;
+
+/**
+ * Command sequence of {@link RequestOptions#transaction()} sent atomically as one sample.
+ * With WATCH keys the transaction is optimistic: a conflicting write aborts EXEC, and the sample runs the reads and
+ * the transaction again, up to the retry limit, reporting the retries in {@link TransactionResult}.
+ * Needs a single connection, so it runs on standalone and Sentinel topologies only and can not be pipelined.
+ */
+public enum TransactionOperation implements RedisOperation {
+    MULTI(TRANSACTION, VALUE) {
+        @Override
+        public Object execute(JedisCommands jedis, RedisRequest request) {
+            if (!(jedis instanceof Jedis client)) {
+                throw new IllegalStateException("MULTI needs a standalone or Sentinel connection");
+            }
+            TransactionSpec spec = request.options().transaction();
+            String key = request.key();
+            String value = request.value();
+            String[] watch = spec.watchKeys(key);
+            Connection connection = client.getConnection();
+            try (Transaction transaction = new Transaction(connection, false)) {
+                for (int retries = 0; ; retries++) {
+                    if (watch.length > 0) {
+                        transaction.watch(watch);
+                    }
+                    for (TransactionSpec.Template read : spec.reads()) {
+                        connection.executeCommand(read.arguments(key, value));
+                    }
+                    transaction.multi();
+                    for (TransactionSpec.Template command : spec.commands()) {
+                        transaction.sendCommand(command.arguments(key, value));
+                    }
+                    List<Object> replies = transaction.exec();
+                    if (replies != null) {
+                        return new TransactionResult(replies, retries);
+                    }
+                    if (retries >= spec.maxRetries()) {
+                        throw new TransactionAbortedException(retries);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public boolean supportsPipeline() {
+            return false;
+        }
+
+        @Override
+        public void pipeline(AbstractPipeline pipeline, RedisRequest request) {
+            throw new UnsupportedOperationException("MULTI can not be pipelined");
+        }
+
+        @Override
+        public String[] arguments(RedisRequest request) {
+            throw new UnsupportedOperationException("MULTI can not be pipelined");
+        }
+    };
+
+    private final Set<Parameter> parameters;
+
+    TransactionOperation(Parameter... parameters) {
+        this.parameters = parameters.length == 0 ? EnumSet.noneOf(Parameter.class) : EnumSet.of(parameters[0], parameters);
+    }
+
+    @Override
+    public Set<Parameter> parameters() {
+        return parameters;
+    }
+}
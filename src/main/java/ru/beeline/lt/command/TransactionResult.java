@@ -0,0 +1,18 @@
+package ru.beeline.lt.command;
+
+import redis.clients.jedis.util.SafeEncoder;
+
+import java.util.List;
+
+/**
+ * Replies of an executed transaction.
+ *
+ * @param retries times the transaction was aborted by a WATCH conflict before it succeeded
+ */
+public record TransactionResult(List<Object> replies, int retries) {
+
+    @Override
+    public String toString() {
+        return "%s after %d retries".formatted(SafeEncoder.encodeObject(replies), retries);
+    }
+}
@@ -0,0 +1,85 @@
+package ru.beeline.lt.command;
+
+import redis.clients.jedis.CommandArguments;
+import redis.clients.jedis.commands.ProtocolCommand;
+import redis.clients.jedis.util.SafeEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Commands of a {@link TransactionOperation#MULTI} sample. Commands are separated by {@code ;} or new lines,
+ * arguments by spaces; {@value #KEY} and {@value #VALUE} are replaced by the key and value of the sample,
+ * e.g. {@code DECR {key}; RPUSH {key}:orders {value}}.
+ *
+ * @param reads      commands sent after WATCH and before MULTI, the read of a read-modify-write
+ * @param watch      keys to WATCH, empty for MULTI/EXEC without optimistic locking
+ * @param commands   commands queued between MULTI and EXEC
+ * @param maxRetries transactions aborted by a WATCH conflict to retry before the sample fails
+ */
+public record TransactionSpec(List<Template> reads, List<String> watch, List<Template> commands, int maxRetries) {
+
+    public static final String KEY = "{key}";
+    public static final String VALUE = "{value}";
+
+    /**
+     * @param watch keys separated by spaces, blank for no WATCH
+     */
+    public static TransactionSpec parse(String commands, String reads, String watch, int maxRetries) {
+        List<Template> queued = parseCommands(commands);
+        if (queued.isEmpty()) {
+            throw new IllegalArgumentException("Transaction has no commands");
+        }
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("Transaction retries must not be negative, got " + maxRetries);
+        }
+        List<String> keys = watch.isBlank() ? List.of() : List.of(watch.trim().split("\\s+"));
+        return new TransactionSpec(parseCommands(reads), keys, queued, maxRetries);
+    }
+
+    private static List<Template> parseCommands(String text) {
+        List<Template> commands = new ArrayList<>();
+        for (String command : text.split("[;\\n]")) {
+            if (!command.isBlank()) {
+                String[] words = command.trim().split("\\s+");
+                String name = words[0].toUpperCase(Locale.ROOT);
+                List<String> args = List.of(words).subList(1, words.length);
+                commands.add(new Template(() -> SafeEncoder.encode(name), name, args));
+            }
+        }
+        return commands;
+    }
+
+    static String resolve(String template, String key, String value) {
+        String resolved = template.replace(KEY, key);
+        return value == null ? resolved : resolved.replace(VALUE, value);
+    }
+
+    public String[] watchKeys(String key) {
+        String[] keys = new String[watch.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = resolve(watch.get(i), key, null);
+        }
+        return keys;
+    }
+
+    /**
+     * One command with placeholders in its arguments.
+     */
+    public record Template(ProtocolCommand command, String name, List<String> args) {
+
+        public CommandArguments arguments(String key, String value) {
+            CommandArguments arguments = new CommandArguments(command);
+            for (String arg : args) {
+                arguments.add(resolve(arg, key, value));
+            }
+            return arguments;
+        }
+
+        @Override
+        public String toString() {
+            return args.isEmpty() ? name : name + " " + String.join(" ", args);
+        }
+    }
+}
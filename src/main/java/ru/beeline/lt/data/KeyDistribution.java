@@ -0,0 +1,84 @@
+package ru.beeline.lt.data;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Access patterns over a keyspace of {@code n} keys.
+ */
+public enum KeyDistribution {
+    /**
+     * Every key is equally likely.
+     */
+    UNIFORM {
+        @Override
+        public KeyGenerator create(String id, long keyspace, double zipfTheta, double hotKeys, double hotOps) {
+            return () -> ThreadLocalRandom.current().nextLong(keyspace);
+        }
+    },
+    /**
+     * Key {@code i} is accessed with probability proportional to {@code 1 / (i + 1)^theta}, so low indexes are hot;
+     * {@code theta} is in (0, 1).
+     */
+    ZIPFIAN {
+        @Override
+        public KeyGenerator create(String id, long keyspace, double zipfTheta, double hotKeys, double hotOps) {
+            return new ZipfianKeyGenerator(keyspace, zipfTheta);
+        }
+    },
+    /**
+     * Keys in order, wrapping around at the end of the keyspace. The counter is shared by all threads of the sampler.
+     */
+    SEQUENTIAL {
+        @Override
+        public KeyGenerator create(String id, long keyspace, double zipfTheta, double hotKeys, double hotOps) {
+            AtomicLong counter = SEQUENCES.computeIfAbsent(id, k -> new AtomicLong());
+            return () -> Math.floorMod(counter.getAndIncrement(), keyspace);
+        }
+    },
+    /**
+     * A hot set of {@code hotKeys * n} keys receives {@code hotOps} of all accesses, uniformly within each set.
+     */
+    HOTSPOT {
+        @Override
+        public KeyGenerator create(String id, long keyspace, double zipfTheta, double hotKeys, double hotOps) {
+            long hotSetSize = Math.max(1, Math.min(keyspace, (long) (keyspace * hotKeys)));
+            long coldSetSize = keyspace - hotSetSize;
+            return () -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                if (coldSetSize == 0 || random.nextDouble() < hotOps) {
+                    return random.nextLong(hotSetSize);
+                }
+                return hotSetSize + random.nextLong(coldSetSize);
+            };
+        }
+    };
+
+    private static final Map<String, AtomicLong> SEQUENCES = new ConcurrentHashMap<>();
+
+    /**
+     * @param id identifies the sampler, so that threads of one sampler share a sequence
+     */
+    public abstract KeyGenerator create(String id, long keyspace, double zipfTheta, double hotKeys, double hotOps);
+
+    /**
+     * @return the distribution with the given name or {@code null} if there is none (fixed key)
+     */
+    public static KeyDistribution find(String name) {
+        for (KeyDistribution distribution : values()) {
+            if (distribution.name().equals(name)) {
+                return distribution;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Forgets shared sequences, called when a test ends.
+     */
+    public static void reset() {
+        SEQUENCES.clear();
+    }
+}
@@ -0,0 +1,16 @@
+package ru.beeline.lt.data;
+
+/**
+ * Picks the next key of a keyspace. Implementations are thread-safe and shared by the threads of a sampler.
+ */
+public interface KeyGenerator {
+
+    /**
+     * @return key index in {@code [0, keyspace)}
+     */
+    long nextIndex();
+
+    default String nextKey(String prefix) {
+        return prefix.concat(Long.toString(nextIndex()));
+    }
+}
@@ -0,0 +1,218 @@
+package ru.beeline.lt.data;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.params.SetParams;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Fills a keyspace before the measurement starts, so reads hit a dataset of realistic size instead of missing.
+ * Keys are the prefix followed by an index in {@code [0, keys)}, the names a {@link KeyDistribution} generates
+ * for a keyspace of the same size. Loader threads take batches of indexes and send each batch as one pipeline of SETs.
+ * <p>
+ * A keyspace is loaded once per test even if several samplers ask for it.
+ */
+public class Preloader {
+
+    private static final Logger log = LoggerFactory.getLogger(Preloader.class);
+
+    private static final long PROGRESS_INTERVAL_SECONDS = 10;
+
+    private static final Set<String> LOADED = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Runs work on a pipeline of one loader connection and releases the connection afterwards.
+     */
+    @FunctionalInterface
+    public interface Connector {
+        void withPipeline(Consumer<AbstractPipeline> work);
+    }
+
+    /**
+     * @param keyPrefix   prefix of the generated keys
+     * @param keys        number of keys
+     * @param values      value of the next key
+     * @param ttl         TTL of the keys: {@code ""} or {@code 0} for none, {@code 60000} (fixed)
+     *                    or {@code 60000-120000} (uniform), in milliseconds
+     * @param connections parallel loader connections
+     * @param batchSize   SETs per pipeline round trip
+     */
+    public record Settings(String keyPrefix, long keys, Supplier<byte[]> values, String ttl, int connections, int batchSize) {
+        public Settings {
+            if (keys <= 0 || connections <= 0 || batchSize <= 0) {
+                throw new IllegalArgumentException("Preload keys, connections and batch size must be positive: %d, %d, %d"
+                        .formatted(keys, connections, batchSize));
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "%d keys %s[0..%d), ttl '%s', %d connections, batch %d".formatted(keys, keyPrefix, keys, ttl, connections, batchSize);
+        }
+    }
+
+    /**
+     * @param nanos time the load took
+     */
+    public record Result(long keys, long bytes, long nanos) {
+        public double keysPerSecond() {
+            return nanos == 0 ? 0 : keys * 1e9 / nanos;
+        }
+
+        public double megabytesPerSecond() {
+            return nanos == 0 ? 0 : bytes * 1e9 / nanos / (1024 * 1024);
+        }
+
+        @Override
+        public String toString() {
+            return "%d keys, %.1f MB in %.1f s: %.0f keys/s, %.1f MB/s".formatted(
+                    keys, bytes / (1024.0 * 1024), nanos / 1e9, keysPerSecond(), megabytesPerSecond());
+        }
+    }
+
+    /**
+     * Loads the keyspace unless it was already loaded in this test.
+     *
+     * @param id identifies the keyspace: the server, the prefix and the number of keys
+     * @return the result, {@code null} if the keyspace was already loaded
+     */
+    public static Result loadOnce(String id, Settings settings, Connector connector) {
+        if (!LOADED.add(id)) {
+            return null;
+        }
+        try {
+            return load(settings, connector);
+        } catch (RuntimeException e) {
+            LOADED.remove(id);
+            throw e;
+        }
+    }
+
+    public static Result load(Settings settings, Connector connector) {
+        long[] ttl = parseTtl(settings.ttl());
+        log.info("Preloading %s".formatted(settings));
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(settings.connections(), task -> {
+            Thread thread = new Thread(task, "redis-preload-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        LongAdder loaded = new LongAdder();
+        LongAdder bytes = new LongAdder();
+        AtomicLong nextIndex = new AtomicLong();
+        long start = System.nanoTime();
+        List<Future<?>> loaders = new ArrayList<>();
+        try {
+            for (int i = 0; i < settings.connections(); i++) {
+                loaders.add(executor.submit(() -> connector.withPipeline(pipeline ->
+                        loadBatches(pipeline, settings, ttl, nextIndex, loaded, bytes))));
+            }
+            for (Future<?> loader : loaders) {
+                awaitLoader(loader, settings, loaded, start);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Preload interrupted after %d keys".formatted(loaded.sum()), e);
+        } finally {
+            nextIndex.set(settings.keys()); // stops the other loaders after a failure
+            executor.shutdownNow();
+        }
+        Result result = new Result(loaded.sum(), bytes.sum(), System.nanoTime() - start);
+        log.info("Preloaded %s".formatted(result));
+        return result;
+    }
+
+    private static void loadBatches(AbstractPipeline pipeline, Settings settings, long[] ttl,
+                                    AtomicLong nextIndex, LongAdder loaded, LongAdder bytes) {
+        byte[] prefix = settings.keyPrefix().getBytes(StandardCharsets.UTF_8);
+        SetParams fixedTtl = ttl[0] > 0 && ttl[0] == ttl[1] ? SetParams.setParams().px(ttl[0]) : null;
+        long first;
+        while ((first = nextIndex.getAndAdd(settings.batchSize())) < settings.keys()) {
+            long end = Math.min(settings.keys(), first + settings.batchSize());
+            long batchBytes = 0;
+            for (long index = first; index < end; index++) {
+                byte[] key = key(prefix, index);
+                byte[] value = settings.values().get();
+                if (ttl[0] <= 0) {
+                    pipeline.set(key, value);
+                } else {
+                    pipeline.set(key, value, fixedTtl != null ? fixedTtl
+                            : SetParams.setParams().px(ThreadLocalRandom.current().nextLong(ttl[0], ttl[1] + 1)));
+                }
+                batchBytes += key.length + value.length;
+            }
+            pipeline.sync();
+            loaded.add(end - first);
+            bytes.add(batchBytes);
+        }
+    }
+
+    private static byte[] key(byte[] prefix, long index) {
+        byte[] suffix = Long.toString(index).getBytes(StandardCharsets.US_ASCII);
+        byte[] key = new byte[prefix.length + suffix.length];
+        System.arraycopy(prefix, 0, key, 0, prefix.length);
+        System.arraycopy(suffix, 0, key, prefix.length, suffix.length);
+        return key;
+    }
+
+    /**
+     * Waits for a loader, logging the progress of the whole load meanwhile.
+     */
+    private static void awaitLoader(Future<?> loader, Settings settings, LongAdder loaded, long start) throws InterruptedException {
+        while (true) {
+            try {
+                loader.get(PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+                return;
+            } catch (TimeoutException e) {
+                long keys = loaded.sum();
+                log.info("Preloaded %d of %d keys, %.0f keys/s".formatted(
+                        keys, settings.keys(), keys * 1e9 / (System.nanoTime() - start)));
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+            }
+        }
+    }
+
+    /**
+     * @return minimal and maximal TTL in milliseconds, {@code 0} for none
+     */
+    static long[] parseTtl(String ttl) {
+        String spec = ttl == null ? "" : ttl.replaceAll("\\s", "");
+        if (spec.isEmpty()) {
+            return new long[]{0, 0};
+        }
+        int dash = spec.indexOf('-');
+        long min = Long.parseLong(dash < 0 ? spec : spec.substring(0, dash));
+        long max = dash < 0 ? min : Long.parseLong(spec.substring(dash + 1));
+        if (min < 0 || max < min) {
+            throw new IllegalArgumentException("Invalid preload TTL: " + ttl);
+        }
+        return new long[]{min, max};
+    }
+
+    /**
+     * Forgets loaded keyspaces, called when a test ends.
+     */
+    public static void reset() {
+        LOADED.clear();
+    }
+}
@@ -0,0 +1,141 @@
+package ru.beeline.lt.data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pre-generated random values following a size distribution.
+ * Values are built once per test and handed out as is, so generating data costs one random draw per sample.
+ * <p>
+ * Size specs: {@code 100} (fixed), {@code 100-1000} (uniform) or {@code 100:70,1000:25,10000:5} (weighted sizes).
+ * A pool can also hold the content of a file as its single value, for payloads that must be sent verbatim.
+ */
+public class ValuePool {
+
+    private static final Map<String, ValuePool> POOLS = new ConcurrentHashMap<>();
+    private static final byte[] ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_VALUES = 256;
+    private static final int MIN_VALUES = 16;
+    private static final long MAX_POOL_BYTES = 64L * 1024 * 1024;
+
+    private final String spec;
+    private final byte[][] bytes;
+    private final String[] strings;
+
+    private ValuePool(String spec, byte[][] bytes, String[] strings) {
+        this.spec = spec;
+        this.bytes = bytes;
+        this.strings = strings;
+    }
+
+    private static ValuePool generate(String spec, int[] sizes) {
+        byte[][] bytes = new byte[sizes.length][];
+        String[] strings = new String[sizes.length];
+        Random random = new Random(spec.hashCode());
+        for (int i = 0; i < sizes.length; i++) {
+            byte[] value = new byte[sizes[i]];
+            for (int j = 0; j < value.length; j++) {
+                value[j] = ALPHABET[random.nextInt(ALPHABET.length)];
+            }
+            bytes[i] = value;
+            strings[i] = new String(value, StandardCharsets.US_ASCII);
+        }
+        return new ValuePool(spec, bytes, strings);
+    }
+
+    private static ValuePool load(String file) {
+        try {
+            byte[] content = Files.readAllBytes(Path.of(file));
+            // the text form is only needed outside binary mode, do not keep a second copy of a large file otherwise
+            return new ValuePool(file, new byte[][]{content}, new String[1]);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read value file " + file, e);
+        }
+    }
+
+    /**
+     * @return the shared pool for the spec, built on first use
+     */
+    public static ValuePool forSpec(String spec) {
+        String normalized = spec.replaceAll("\\s", "");
+        return POOLS.computeIfAbsent(normalized, k -> generate(k, sampleSizes(k)));
+    }
+
+    /**
+     * @return the shared pool holding the file content as its only value, read on first use
+     */
+    public static ValuePool forFile(String file) {
+        return POOLS.computeIfAbsent("file:" + file, k -> load(file));
+    }
+
+    public static void reset() {
+        POOLS.clear();
+    }
+
+    public String next() {
+        int index = ThreadLocalRandom.current().nextInt(strings.length);
+        String value = strings[index];
+        if (value == null) {
+            // racy but idempotent: concurrent threads may decode the same value once each
+            value = new String(bytes[index], StandardCharsets.UTF_8);
+            strings[index] = value;
+        }
+        return value;
+    }
+
+    public byte[] nextBytes() {
+        return bytes[ThreadLocalRandom.current().nextInt(bytes.length)];
+    }
+
+    static int[] sampleSizes(String spec) {
+        List<int[]> buckets = new ArrayList<>(); // {size, weight} or {min, max, -1}
+        int maxSize = 0;
+        for (String part : spec.split(",")) {
+            int[] bucket;
+            if (part.contains(":")) {
+                String[] sizeAndWeight = part.split(":");
+                bucket = new int[]{Integer.parseInt(sizeAndWeight[0]), Integer.parseInt(sizeAndWeight[1])};
+            } else if (part.contains("-")) {
+                String[] range = part.split("-");
+                bucket = new int[]{Integer.parseInt(range[0]), Integer.parseInt(range[1]), -1};
+            } else {
+                bucket = new int[]{Integer.parseInt(part), 1};
+            }
+            maxSize = Math.max(maxSize, bucket.length == 3 ? bucket[1] : bucket[0]);
+            buckets.add(bucket);
+        }
+        int count = (int) Math.max(MIN_VALUES, Math.min(MAX_VALUES, MAX_POOL_BYTES / Math.max(1, maxSize)));
+        int totalWeight = buckets.stream().mapToInt(b -> b.length == 3 ? 1 : b[1]).sum();
+        Random random = new Random(spec.hashCode());
+        int[] sizes = new int[count];
+        for (int i = 0; i < count; i++) {
+            // stratified over the cumulative weights, so small pools still follow the distribution
+            double point = (i + random.nextDouble()) / count * totalWeight;
+            int[] chosen = buckets.get(buckets.size() - 1);
+            for (int[] bucket : buckets) {
+                int weight = bucket.length == 3 ? 1 : bucket[1];
+                if (point < weight) {
+                    chosen = bucket;
+                    break;
+                }
+                point -= weight;
+            }
+            sizes[i] = chosen.length == 3 ? chosen[0] + random.nextInt(chosen[1] - chosen[0] + 1) : chosen[0];
+        }
+        return sizes;
+    }
+
+    @Override
+    public String toString() {
+        return "ValuePool(%s, %d values)".formatted(spec, bytes.length);
+    }
+}
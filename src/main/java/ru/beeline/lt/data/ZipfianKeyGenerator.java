@@ -0,0 +1,61 @@
+package ru.beeline.lt.data;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Zipfian generator after Gray et al., "Quickly Generating Billion-Record Synthetic Databases", as used by YCSB.
+ * Drawing a key is O(1); the zeta constant is O(n) and is computed once per keyspace size and exponent.
+ * The closed form holds for exponents in (0, 1) only.
+ */
+public class ZipfianKeyGenerator implements KeyGenerator {
+
+    private static final Map<String, Double> ZETA_CACHE = new ConcurrentHashMap<>();
+
+    private final long items;
+    private final double theta;
+    private final double zetan;
+    private final double alpha;
+    private final double eta;
+    private final double halfPowTheta;
+
+    public ZipfianKeyGenerator(long items, double theta) {
+        if (theta <= 0 || theta >= 1) {
+            throw new IllegalArgumentException("Zipfian exponent must be in (0, 1): " + theta);
+        }
+        this.items = items;
+        this.theta = theta;
+        this.zetan = ZETA_CACHE.computeIfAbsent(items + "/" + theta, k -> zeta(items, theta));
+        this.alpha = 1.0 / (1.0 - theta);
+        double zeta2 = zeta(2, theta);
+        this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta2 / zetan);
+        this.halfPowTheta = Math.pow(0.5, theta);
+    }
+
+    private static double zeta(long n, double theta) {
+        double sum = 0;
+        for (long i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+
+    @Override
+    public long nextIndex() {
+        double u = ThreadLocalRandom.current().nextDouble();
+        double uz = u * zetan;
+        if (uz < 1.0) {
+            return 0;
+        }
+        if (uz < 1.0 + halfPowTheta) {
+            return 1;
+        }
+        return Math.min(items - 1, (long) (items * Math.pow(eta * u - eta + 1, alpha)));
+    }
+
+    @Override
+    public String toString() {
+        return "Zipfian(n=%d, theta=%s)".formatted(items, theta);
+    }
+}
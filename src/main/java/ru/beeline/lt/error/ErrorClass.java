@@ -0,0 +1,191 @@
+package ru.beeline.lt.error;
+
+import redis.clients.jedis.exceptions.JedisAccessControlException;
+import redis.clients.jedis.exceptions.JedisAskDataException;
+import redis.clients.jedis.exceptions.JedisBusyException;
+import redis.clients.jedis.exceptions.JedisClusterOperationException;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisMovedDataException;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+import ru.beeline.lt.command.TransactionAbortedException;
+import ru.beeline.lt.messaging.UnstampedMessageException;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.NoSuchElementException;
+
+/**
+ * Failure classes reported as the response code of failed samples, so that JMeter reports split an outage by cause
+ * instead of one {@code 500}. Redis error replies are classified by their prefix, client failures by exception type.
+ */
+public enum ErrorClass {
+    /** Read or connect timeout */
+    TIMEOUT,
+    /** Nothing listens on the port, e.g. a node is down */
+    CONNECTION_REFUSED,
+    /** Connection reset, closed by the server or broken */
+    CONNECTION_LOST,
+    /** Host name does not resolve */
+    UNKNOWN_HOST,
+    /** No pooled connection within the pool max wait */
+    POOL_EXHAUSTED,
+    MOVED,
+    ASK,
+    CLUSTERDOWN,
+    TRYAGAIN,
+    /** Cluster redirects or retries exhausted */
+    CLUSTER_RETRIES,
+    /** Server over {@code maxmemory} */
+    OOM,
+    /** Write sent to a replica */
+    READONLY,
+    /** Dataset loading after a restart */
+    LOADING,
+    /** Script or module busy */
+    BUSY,
+    MASTERDOWN,
+    NOSCRIPT,
+    NOGROUP,
+    WRONGTYPE,
+    EXECABORT,
+    /** Transaction aborted by WATCH conflicts beyond the retry limit */
+    WATCH_ABORTED,
+    /** Consumed message without the producer timestamp */
+    UNSTAMPED_MESSAGE,
+    /** Authentication or ACL failure */
+    NOAUTH,
+    /** Any other error reply */
+    REDIS_ERROR,
+    /** Sampler settings, e.g. an unknown operation */
+    CONFIGURATION,
+    /** Any other client failure */
+    CLIENT_ERROR;
+
+    /**
+     * @return the class of the innermost recognised cause, so a Redis error or socket failure wrapped
+     *         in a client exception is reported as such
+     */
+    public static ErrorClass of(Throwable error) {
+        ErrorClass result = CLIENT_ERROR;
+        for (Throwable cause = error; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            ErrorClass causeClass = ofException(cause);
+            if (causeClass == null) {
+                continue;
+            }
+            result = causeClass;
+            if (causeClass == CONNECTION_LOST) {
+                // a connection failure may suppress the socket exception that tells the cause
+                for (Throwable suppressed : cause.getSuppressed()) {
+                    ErrorClass suppressedClass = ofException(suppressed);
+                    if (suppressedClass != null && suppressedClass != CONNECTION_LOST) {
+                        result = suppressedClass;
+                        break;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static ErrorClass ofException(Throwable error) {
+        if (error instanceof SocketTimeoutException) {
+            return TIMEOUT;
+        }
+        if (error instanceof ConnectException) {
+            return CONNECTION_REFUSED;
+        }
+        if (error instanceof UnknownHostException) {
+            return UNKNOWN_HOST;
+        }
+        if (error instanceof NoSuchElementException && error.getCause() == null) {
+            return POOL_EXHAUSTED; // commons-pool: timeout waiting for idle object
+        }
+        if (error instanceof JedisMovedDataException) {
+            return MOVED;
+        }
+        if (error instanceof JedisAskDataException) {
+            return ASK;
+        }
+        if (error instanceof JedisNoScriptException) {
+            return NOSCRIPT;
+        }
+        if (error instanceof JedisBusyException) {
+            return BUSY;
+        }
+        if (error instanceof JedisAccessControlException) {
+            return NOAUTH;
+        }
+        if (error instanceof JedisDataException) {
+            return ofReply(error.getMessage());
+        }
+        if (error instanceof JedisConnectionException) {
+            return CONNECTION_LOST;
+        }
+        if (error instanceof IllegalStateException || error instanceof IllegalArgumentException) {
+            return CONFIGURATION;
+        }
+        if (error instanceof TransactionAbortedException) {
+            return WATCH_ABORTED;
+        }
+        if (error instanceof UnstampedMessageException) {
+            return UNSTAMPED_MESSAGE;
+        }
+        if (error instanceof JedisClusterOperationException) {
+            return CLUSTER_RETRIES;
+        }
+        return null;
+    }
+
+    /**
+     * Classifies an error message of the open model engine: a Redis error reply or {@code "Exception: ..."}.
+     */
+    public static ErrorClass of(String error) {
+        if (error.startsWith("Exception: ")) {
+            if (error.contains("SocketTimeoutException")) {
+                return TIMEOUT;
+            }
+            if (error.contains("ConnectException")) {
+                return CONNECTION_REFUSED;
+            }
+            if (error.contains("IllegalStateException") || error.contains("IllegalArgumentException")) {
+                return CONFIGURATION;
+            }
+            return error.contains("IOException") || error.contains("SocketException") || error.contains("EOFException")
+                    ? CONNECTION_LOST : CLIENT_ERROR;
+        }
+        return ofReply(error);
+    }
+
+    private static ErrorClass ofReply(String reply) {
+        if (reply == null) {
+            return REDIS_ERROR;
+        }
+        String prefix = reply.split(" ", 2)[0];
+        return switch (prefix) {
+            case "MOVED" -> MOVED;
+            case "ASK" -> ASK;
+            case "CLUSTERDOWN" -> CLUSTERDOWN;
+            case "TRYAGAIN" -> TRYAGAIN;
+            case "OOM" -> OOM;
+            case "READONLY" -> READONLY;
+            case "LOADING" -> LOADING;
+            case "BUSY" -> BUSY;
+            case "MASTERDOWN" -> MASTERDOWN;
+            case "NOSCRIPT" -> NOSCRIPT;
+            case "NOGROUP" -> NOGROUP;
+            case "WRONGTYPE" -> WRONGTYPE;
+            case "EXECABORT" -> EXECABORT;
+            case "NOAUTH", "WRONGPASS", "NOPERM" -> NOAUTH;
+            default -> REDIS_ERROR;
+        };
+    }
+
+    /**
+     * @return the response code of samples failed with this class
+     */
+    public String responseCode() {
+        return name();
+    }
+}
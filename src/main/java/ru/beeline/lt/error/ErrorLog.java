@@ -0,0 +1,68 @@
+package ru.beeline.lt.error;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs stack traces of failed samples at most once per interval for every distinct cause,
+ * so that a failing Redis does not turn the load generator into a stack trace printer.
+ * The cause is the error class with the innermost exception type; repeats are counted and reported with the next trace.
+ */
+public class ErrorLog {
+
+    private static final Logger log = LoggerFactory.getLogger(ErrorLog.class);
+
+    private static final long INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int MAX_CAUSES = 1000;
+
+    private static final Map<String, Cause> CAUSES = new ConcurrentHashMap<>();
+
+    private static class Cause {
+        final AtomicLong nextLogNanos;
+        final LongAdder suppressed = new LongAdder();
+
+        Cause(long now) {
+            nextLogNanos = new AtomicLong(now);
+        }
+    }
+
+    public static void log(ErrorClass errorClass, Throwable error) {
+        Throwable root = error;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String key = errorClass + " " + root.getClass().getName();
+        long now = System.nanoTime();
+        Cause cause = CAUSES.get(key);
+        if (cause == null) {
+            if (CAUSES.size() >= MAX_CAUSES) {
+                return;
+            }
+            cause = CAUSES.computeIfAbsent(key, k -> new Cause(now));
+        }
+        long next = cause.nextLogNanos.get();
+        if (now - next < 0 || !cause.nextLogNanos.compareAndSet(next, now + INTERVAL_NANOS)) {
+            cause.suppressed.increment();
+            return;
+        }
+        long suppressed = cause.suppressed.sumThenReset();
+        log.warn("Sample failed with %s%s".formatted(errorClass,
+                suppressed == 0 ? "" : ", %d more since the last trace of this cause".formatted(suppressed)), error);
+    }
+
+    public static void reset() {
+        CAUSES.forEach((key, cause) -> {
+            long suppressed = cause.suppressed.sum();
+            if (suppressed > 0) {
+                log.warn("%s: %d failures without a logged trace".formatted(key, suppressed));
+            }
+        });
+        CAUSES.clear();
+    }
+}
@@ -0,0 +1,173 @@
+package ru.beeline.lt.gui;
+
+import org.apache.jmeter.samplers.gui.AbstractSamplerGui;
+import org.apache.jmeter.testelement.TestElement;
+import org.apache.jorphan.gui.layout.VerticalLayout;
+import ru.beeline.lt.messaging.MessagingSampler;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Connection and destination panels of the messaging samplers; subclasses add the panel of their own settings.
+ */
+public abstract class MessagingSamplerGui extends AbstractSamplerGui {
+
+    private static final long serialVersionUID = -1297905362850402648L;
+
+    private JTextField hostField;
+    private JTextField portField;
+    private JTextField clientNameField;
+    private JTextField databaseField;
+    private JTextField timeoutField;
+    private JTextField userField;
+    private JTextField passwordField;
+    private JCheckBox tlsEnabledCheckBox;
+    private JTextField tlsKeystoreField;
+    private JTextField tlsKeystorePasswordField;
+    private JTextField tlsTruststoreField;
+    private JTextField tlsTruststorePasswordField;
+    private JCheckBox tlsSkipHostnameCheckBox;
+    private JComboBox<String> transportSelector;
+    private JTextField destinationField;
+    private JCheckBox leanResponseCheckBox;
+
+    protected void createGui() {
+        setLayout(new VerticalLayout(5, VerticalLayout.BOTH, VerticalLayout.TOP));
+        setBorder(makeBorder());
+        add(makeTitlePanel());
+
+        JPanel connectionPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        connectionPanel.setBorder(BorderFactory.createTitledBorder("Redis Connection"));
+        hostField = addField(connectionPanel, "Host: ", 20);
+        portField = addField(connectionPanel, "Port: ", 5);
+        clientNameField = addField(connectionPanel, "Client name: ", 15);
+        databaseField = addField(connectionPanel, "Database: ", 4);
+        timeoutField = addField(connectionPanel, "Timeout: ", 6);
+        userField = addField(connectionPanel, "User: ", 10);
+        userField.setToolTipText("ACL user, empty for the default user");
+        passwordField = addField(connectionPanel, "Password: ", 10);
+
+        JPanel tlsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        tlsPanel.setBorder(BorderFactory.createTitledBorder("TLS"));
+        tlsEnabledCheckBox = new JCheckBox("Enabled");
+        tlsPanel.add(tlsEnabledCheckBox);
+        tlsKeystoreField = addField(tlsPanel, "Keystore: ", 15);
+        tlsKeystoreField.setToolTipText("PKCS12 or JKS file with the client certificate for mutual TLS, empty for none");
+        tlsKeystorePasswordField = addField(tlsPanel, "Password: ", 8);
+        tlsTruststoreField = addField(tlsPanel, "Truststore: ", 15);
+        tlsTruststoreField.setToolTipText("PKCS12 or JKS file with the trusted server certificates, empty for the JVM defaults");
+        tlsTruststorePasswordField = addField(tlsPanel, "Password: ", 8);
+        tlsSkipHostnameCheckBox = new JCheckBox("Skip hostname check");
+        tlsPanel.add(tlsSkipHostnameCheckBox);
+
+        JPanel destinationPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        destinationPanel.setBorder(BorderFactory.createTitledBorder("Destination"));
+        destinationPanel.add(new JLabel("Transport: "));
+        transportSelector = new JComboBox<>(new String[]{MessagingSampler.TRANSPORT_PUBSUB, MessagingSampler.TRANSPORT_STREAM});
+        transportSelector.addActionListener(e -> transportChanged(MessagingSampler.TRANSPORT_STREAM.equals(transportSelector.getSelectedItem())));
+        destinationPanel.add(transportSelector);
+        destinationField = addField(destinationPanel, "Channel or stream: ", 25);
+        destinationField.setToolTipText(getDestinationToolTip());
+        leanResponseCheckBox = new JCheckBox("Lean response (skip response body and message)");
+        destinationPanel.add(leanResponseCheckBox);
+
+        add(connectionPanel);
+        add(tlsPanel);
+        add(destinationPanel);
+        add(createOptionsPanel());
+    }
+
+    protected static JTextField addField(JPanel panel, String label, int columns) {
+        panel.add(new JLabel(label));
+        JTextField field = new JTextField();
+        field.setColumns(columns);
+        panel.add(field);
+        return field;
+    }
+
+    /**
+     * @return the panel with the settings of the sampler type
+     */
+    protected abstract JPanel createOptionsPanel();
+
+    protected abstract String getDestinationToolTip();
+
+    /**
+     * Enables the settings that apply to the selected transport.
+     */
+    protected void transportChanged(boolean stream) {
+    }
+
+    @Override
+    public String getLabelResource() {
+        return null;
+    }
+
+    @Override
+    public void configure(TestElement element) {
+        super.configure(element);
+        if (element instanceof MessagingSampler sampler) {
+            hostField.setText(sampler.getHost());
+            portField.setText(sampler.getPort());
+            clientNameField.setText(sampler.getClientName());
+            databaseField.setText(sampler.getDatabase());
+            timeoutField.setText(sampler.getTimeout());
+            userField.setText(sampler.getUser());
+            passwordField.setText(sampler.getPassword());
+            tlsEnabledCheckBox.setSelected(sampler.isTlsEnabled());
+            tlsKeystoreField.setText(sampler.getTlsKeystore());
+            tlsKeystorePasswordField.setText(sampler.getTlsKeystorePassword());
+            tlsTruststoreField.setText(sampler.getTlsTruststore());
+            tlsTruststorePasswordField.setText(sampler.getTlsTruststorePassword());
+            tlsSkipHostnameCheckBox.setSelected(sampler.isTlsSkipHostnameCheck());
+            transportSelector.setSelectedItem(sampler.getTransport());
+            destinationField.setText(sampler.getDestination());
+            leanResponseCheckBox.setSelected(sampler.isLeanResponse());
+        }
+    }
+
+    @Override
+    public void modifyTestElement(TestElement element) {
+        super.configureTestElement(element);
+        if (element instanceof MessagingSampler sampler) {
+            sampler.setHost(hostField.getText());
+            sampler.setPort(portField.getText());
+            sampler.setClientName(clientNameField.getText());
+            sampler.setDatabase(databaseField.getText());
+            sampler.setTimeout(timeoutField.getText());
+            sampler.setUser(userField.getText());
+            sampler.setPassword(passwordField.getText());
+            sampler.setTlsEnabled(tlsEnabledCheckBox.isSelected());
+            sampler.setTlsKeystore(tlsKeystoreField.getText());
+            sampler.setTlsKeystorePassword(tlsKeystorePasswordField.getText());
+            sampler.setTlsTruststore(tlsTruststoreField.getText());
+            sampler.setTlsTruststorePassword(tlsTruststorePasswordField.getText());
+            sampler.setTlsSkipHostnameCheck(tlsSkipHostnameCheckBox.isSelected());
+            sampler.setTransport((String) transportSelector.getSelectedItem());
+            sampler.setDestination(destinationField.getText());
+            sampler.setLeanResponse(leanResponseCheckBox.isSelected());
+        }
+    }
+
+    @Override
+    public void clearGui() {
+        super.clearGui();
+        hostField.setText("localhost");
+        portField.setText("6379");
+        clientNameField.setText("jmeter_redis_client");
+        databaseField.setText("0");
+        timeoutField.setText("2000");
+        userField.setText("");
+        passwordField.setText("");
+        tlsEnabledCheckBox.setSelected(false);
+        tlsKeystoreField.setText("");
+        tlsKeystorePasswordField.setText("");
+        tlsTruststoreField.setText("");
+        tlsTruststorePasswordField.setText("");
+        tlsSkipHostnameCheckBox.setSelected(false);
+        transportSelector.setSelectedItem(MessagingSampler.TRANSPORT_PUBSUB);
+        destinationField.setText("");
+        leanResponseCheckBox.setSelected(false);
+    }
+}
@@ -0,0 +1,93 @@
+package ru.beeline.lt.gui;
+
+import org.apache.jmeter.testelement.TestElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.beeline.lt.JMeterPluginUtils;
+import ru.beeline.lt.messaging.RedisConsumerSampler;
+
+import javax.swing.*;
+import java.awt.*;
+
+public class RedisConsumerSamplerGui extends MessagingSamplerGui {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisConsumerSamplerGui.class);
+
+    private static final long serialVersionUID = -8817092731641530326L;
+
+    private JTextField groupField;
+    private JTextField batchSizeField;
+    private JTextField bufferField;
+
+    public RedisConsumerSamplerGui() {
+        super();
+        log.debug("RedisConsumerSamplerGui()");
+        createGui();
+    }
+
+    @Override
+    protected JPanel createOptionsPanel() {
+        JPanel consumerPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        consumerPanel.setBorder(BorderFactory.createTitledBorder("Consumer"));
+        groupField = addField(consumerPanel, "Consumer group: ", 10);
+        groupField.setToolTipText("Stream consumer group, created at the end of the stream if missing; "
+                + "every JMeter thread is a consumer");
+        batchSizeField = addField(consumerPanel, "Batch size: ", 6);
+        batchSizeField.setToolTipText("Entries per XREADGROUP");
+        bufferField = addField(consumerPanel, "Buffer: ", 8);
+        bufferField.setToolTipText("Messages received but not yet sampled that are kept, the rest are dropped; "
+                + "the consumer lag of each sample is in the ${" + RedisConsumerSampler.LAG_VARIABLE + "} variable");
+        return consumerPanel;
+    }
+
+    @Override
+    protected String getDestinationToolTip() {
+        return "Channels to SUBSCRIBE to separated by commas, or the stream to read";
+    }
+
+    @Override
+    protected void transportChanged(boolean stream) {
+        groupField.setEnabled(stream);
+        batchSizeField.setEnabled(stream);
+    }
+
+    @Override
+    public String getStaticLabel() {
+        return JMeterPluginUtils.prefixLabel("Redis Consumer Sampler");
+    }
+
+    @Override
+    public TestElement createTestElement() {
+        RedisConsumerSampler testElement = new RedisConsumerSampler();
+        configureTestElement(testElement);
+        return testElement;
+    }
+
+    @Override
+    public void configure(TestElement element) {
+        super.configure(element);
+        if (element instanceof RedisConsumerSampler sampler) {
+            groupField.setText(sampler.getGroup());
+            batchSizeField.setText(sampler.getBatchSize());
+            bufferField.setText(sampler.getBuffer());
+        }
+    }
+
+    @Override
+    public void modifyTestElement(TestElement element) {
+        super.modifyTestElement(element);
+        if (element instanceof RedisConsumerSampler sampler) {
+            sampler.setGroup(groupField.getText());
+            sampler.setBatchSize(batchSizeField.getText());
+            sampler.setBuffer(bufferField.getText());
+        }
+    }
+
+    @Override
+    public void clearGui() {
+        super.clearGui();
+        groupField.setText("");
+        batchSizeField.setText("100");
+        bufferField.setText("100000");
+    }
+}
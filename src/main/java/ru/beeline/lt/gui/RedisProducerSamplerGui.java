@@ -0,0 +1,73 @@
+package ru.beeline.lt.gui;
+
+import org.apache.jmeter.testelement.TestElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.beeline.lt.JMeterPluginUtils;
+import ru.beeline.lt.messaging.RedisProducerSampler;
+
+import javax.swing.*;
+import java.awt.*;
+
+public class RedisProducerSamplerGui extends MessagingSamplerGui {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisProducerSamplerGui.class);
+
+    private static final long serialVersionUID = 4262381845527092419L;
+
+    private JTextField payloadField;
+
+    public RedisProducerSamplerGui() {
+        super();
+        log.debug("RedisProducerSamplerGui()");
+        createGui();
+    }
+
+    @Override
+    protected JPanel createOptionsPanel() {
+        JPanel messagePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        messagePanel.setBorder(BorderFactory.createTitledBorder("Message"));
+        payloadField = addField(messagePanel, "Payload: ", 40);
+        payloadField.setToolTipText("Sent after the publish timestamp, evaluated for every message");
+        return messagePanel;
+    }
+
+    @Override
+    protected String getDestinationToolTip() {
+        return "Channel to PUBLISH to, or stream to XADD to";
+    }
+
+    @Override
+    public String getStaticLabel() {
+        return JMeterPluginUtils.prefixLabel("Redis Producer Sampler");
+    }
+
+    @Override
+    public TestElement createTestElement() {
+        RedisProducerSampler testElement = new RedisProducerSampler();
+        configureTestElement(testElement);
+        return testElement;
+    }
+
+    @Override
+    public void configure(TestElement element) {
+        super.configure(element);
+        if (element instanceof RedisProducerSampler sampler) {
+            payloadField.setText(sampler.getPayload());
+        }
+    }
+
+    @Override
+    public void modifyTestElement(TestElement element) {
+        super.modifyTestElement(element);
+        if (element instanceof RedisProducerSampler sampler) {
+            sampler.setPayload(payloadField.getText());
+        }
+    }
+
+    @Override
+    public void clearGui() {
+        super.clearGui();
+        payloadField.setText("");
+    }
+}
@@ -0,0 +1,141 @@
+package ru.beeline.lt.gui;
+
+import org.apache.jmeter.samplers.gui.AbstractSamplerGui;
+import org.apache.jmeter.testelement.TestElement;
+import org.apache.jorphan.gui.layout.VerticalLayout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.beeline.lt.JMeterPluginUtils;
+import ru.beeline.lt.replay.RedisReplaySampler;
+
+import javax.swing.*;
+import java.awt.*;
+
+public class RedisReplaySamplerGui extends AbstractSamplerGui {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisReplaySamplerGui.class);
+
+    private static final long serialVersionUID = -2215087469405513860L;
+
+    private JTextField hostField;
+    private JTextField portField;
+    private JTextField clientNameField;
+    private JTextField databaseField;
+    private JTextField timeoutField;
+    private JTextField userField;
+    private JTextField passwordField;
+    private JTextField replayFileField;
+    private JTextField replaySpeedField;
+    private JCheckBox leanResponseCheckBox;
+    private JTextField hdrFileField;
+
+    public RedisReplaySamplerGui() {
+        super();
+        log.debug("RedisReplaySamplerGui()");
+        createGui();
+    }
+
+    private void createGui() {
+        setLayout(new VerticalLayout(5, VerticalLayout.BOTH, VerticalLayout.TOP));
+        setBorder(makeBorder());
+        add(makeTitlePanel());
+
+        JPanel connectionPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        connectionPanel.setBorder(BorderFactory.createTitledBorder("Redis Connection"));
+        hostField = MessagingSamplerGui.addField(connectionPanel, "Host: ", 20);
+        portField = MessagingSamplerGui.addField(connectionPanel, "Port: ", 5);
+        clientNameField = MessagingSamplerGui.addField(connectionPanel, "Client name: ", 15);
+        databaseField = MessagingSamplerGui.addField(connectionPanel, "Database: ", 4);
+        timeoutField = MessagingSamplerGui.addField(connectionPanel, "Timeout: ", 6);
+        userField = MessagingSamplerGui.addField(connectionPanel, "User: ", 10);
+        passwordField = MessagingSamplerGui.addField(connectionPanel, "Password: ", 10);
+
+        JPanel tracePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        tracePanel.setBorder(BorderFactory.createTitledBorder("Trace"));
+        replayFileField = MessagingSamplerGui.addField(tracePanel, "File: ", 40);
+        replayFileField.setToolTipText("MONITOR output, or a binary trace converted with ru.beeline.lt.replay.BinaryTraceWriter; "
+                + "commands are dealt to the threads of the group by key");
+        replaySpeedField = MessagingSamplerGui.addField(tracePanel, "Speed: ", 6);
+        replaySpeedField.setToolTipText("1 for the recorded timing, 2 for twice as fast, 0 for as fast as possible");
+
+        JPanel resultPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        resultPanel.setBorder(BorderFactory.createTitledBorder("Sample Result"));
+        leanResponseCheckBox = new JCheckBox("Lean response (skip response body and message)");
+        resultPanel.add(leanResponseCheckBox);
+        hdrFileField = MessagingSamplerGui.addField(resultPanel, "HDR histogram file: ", 15);
+        hdrFileField.setToolTipText("Empty to disable; writes a histogram per command type at the end of the test");
+
+        add(connectionPanel);
+        add(tracePanel);
+        add(resultPanel);
+    }
+
+    @Override
+    public String getLabelResource() {
+        return null;
+    }
+
+    @Override
+    public String getStaticLabel() {
+        return JMeterPluginUtils.prefixLabel("Redis Replay Sampler");
+    }
+
+    @Override
+    public TestElement createTestElement() {
+        RedisReplaySampler testElement = new RedisReplaySampler();
+        configureTestElement(testElement);
+        return testElement;
+    }
+
+    @Override
+    public void configure(TestElement element) {
+        super.configure(element);
+        if (element instanceof RedisReplaySampler sampler) {
+            hostField.setText(sampler.getHost());
+            portField.setText(sampler.getPort());
+            clientNameField.setText(sampler.getClientName());
+            databaseField.setText(sampler.getDatabase());
+            timeoutField.setText(sampler.getTimeout());
+            userField.setText(sampler.getUser());
+            passwordField.setText(sampler.getPassword());
+            replayFileField.setText(sampler.getReplayFile());
+            replaySpeedField.setText(sampler.getReplaySpeed());
+            leanResponseCheckBox.setSelected(sampler.isLeanResponse());
+            hdrFileField.setText(sampler.getHdrFile());
+        }
+    }
+
+    @Override
+    public void modifyTestElement(TestElement element) {
+        super.configureTestElement(element);
+        if (element instanceof RedisReplaySampler sampler) {
+            sampler.setHost(hostField.getText());
+            sampler.setPort(portField.getText());
+            sampler.setClientName(clientNameField.getText());
+            sampler.setDatabase(databaseField.getText());
+            sampler.setTimeout(timeoutField.getText());
+            sampler.setUser(userField.getText());
+            sampler.setPassword(passwordField.getText());
+            sampler.setReplayFile(replayFileField.getText());
+            sampler.setReplaySpeed(replaySpeedField.getText());
+            sampler.setLeanResponse(leanResponseCheckBox.isSelected());
+            sampler.setHdrFile(hdrFileField.getText());
+        }
+    }
+
+    @Override
+    public void clearGui() {
+        super.clearGui();
+        hostField.setText("localhost");
+        portField.setText("6379");
+        clientNameField.setText("jmeter_redis_client");
+        databaseField.setText("0");
+        timeoutField.setText("2000");
+        userField.setText("");
+        passwordField.setText("");
+        replayFileField.setText("");
+        replaySpeedField.setText("1");
+        leanResponseCheckBox.setSelected(false);
+        hdrFileField.setText("");
+    }
+}
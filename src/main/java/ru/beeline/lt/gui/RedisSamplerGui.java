@@ -7,6 +7,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ru.beeline.lt.JMeterPluginUtils;
 import ru.beeline.lt.RedisSampler;
+import ru.beeline.lt.codec.ValueCodecs;
+import ru.beeline.lt.command.RedisOperation;
+import ru.beeline.lt.command.RedisOperations;
 
 import javax.swing.*;
 import javax.swing.event.DocumentEvent;
@@ -24,14 +27,88 @@ public class RedisSamplerGui extends AbstractSamplerGui {
     private JTextField clientNameField;
     private JTextField hostField;
     private JTextField portField;
+    private JTextField userField;
     private JTextField passwordField;
     private JTextField databaseField;
     private JTextField timeoutFiled;
 
+    private JComboBox<String> topologySelector;
+    private JTextField nodesField;
+    private JTextField sentinelMasterField;
+    private JCheckBox nodeLabelsCheckBox;
+    private JComboBox<String> protocolSelector;
+
+    private JCheckBox tlsEnabledCheckBox;
+    private JTextField tlsKeystoreField;
+    private JTextField tlsKeystorePasswordField;
+    private JTextField tlsTruststoreField;
+    private JTextField tlsTruststorePasswordField;
+    private JCheckBox tlsSkipHostnameCheckBox;
+
+    private JCheckBox cacheEnabledCheckBox;
+    private JTextField cacheSizeField;
+
+    private JComboBox<String> poolModeSelector;
+    private JTextField poolMaxTotalField;
+    private JTextField poolMaxIdleField;
+    private JTextField poolMinIdleField;
+    private JTextField poolPrewarmField;
+    private JTextField poolMaxWaitField;
+
+    private JComboBox<String> loadModelSelector;
+    private JTextField loadTargetRateField;
+    private JTextField loadConnectionsField;
+    private JTextField loadMaxInFlightField;
+    private JTextField adaptiveSloP99Field;
+    private JTextField adaptiveStepField;
+    private JTextField adaptiveGrowthField;
+    private JTextField adaptiveReportField;
+
     private JComboBox<String> operationSelector;
+    private JTextField mixField;
     private JTextField keyField;
     private JTextField valueField;
     private JTextField expireField;
+    private JTextField pipelineDepthField;
+
+    private JTextField fieldField;
+    private JTextField rangeField;
+    private JTextField batchSizeField;
+    private JTextField groupField;
+    private JTextField scriptField;
+
+    private JComboBox<String> keyDistributionSelector;
+    private JTextField keyspaceField;
+    private JTextField zipfThetaField;
+    private JTextField hotKeysField;
+    private JTextField hotOpsField;
+    private JTextField valueSizesField;
+    private JTextField valueFileField;
+    private JCheckBox binaryCheckBox;
+    private JTextField codecField;
+    private JCheckBox leanResponseCheckBox;
+    private JCheckBox fullCaptureCheckBox;
+    private JTextField hdrFileField;
+    private JTextField transactionCommandsField;
+    private JTextField transactionReadsField;
+    private JTextField transactionWatchField;
+    private JTextField transactionMaxRetriesField;
+    private JCheckBox metricsEnabledCheckBox;
+    private JTextField metricsPortField;
+    private JCheckBox stubEnabledCheckBox;
+    private JTextField stubLatencyField;
+    private JTextField stubErrorRateField;
+    private JTextField preloadKeysField;
+    private JTextField preloadTtlField;
+    private JTextField preloadConnectionsField;
+    private JTextField preloadBatchField;
+    private JTextField churnRateField;
+    private JTextField churnBorrowsField;
+    private JCheckBox failoverObserveCheckBox;
+    private JTextField failoverProbeIntervalField;
+    private JCheckBox serverStatsCollectCheckBox;
+    private JTextField serverStatsIntervalField;
+    private JTextField serverStatsFileField;
 
     public RedisSamplerGui() {
         super();
@@ -90,40 +167,180 @@ public class RedisSamplerGui extends AbstractSamplerGui {
         addIntegerRangeCheck(timeoutFiled, 0, Integer.MAX_VALUE, timeoutErrorLabel);
         redisParamsPanel.add(timeoutErrorLabel);
 
+        JLabel userLabel = new JLabel("User: ");
+        redisParamsPanel.add(userLabel);
+        userField = new JTextField();
+        userField.setColumns(10);
+        userField.setToolTipText("ACL user, empty for the default user");
+        redisParamsPanel.add(userField);
         JLabel passwordLabel = new JLabel("Password: ");
         redisParamsPanel.add(passwordLabel);
         passwordField = new JTextField();
         passwordField.setColumns(10);
         redisParamsPanel.add(passwordField);
 
+        JPanel topologyPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        topologyPanel.setBorder(BorderFactory.createEmptyBorder(1, 4, 1, 0));
+        JLabel topologyLabel = new JLabel("Topology: ");
+        topologyPanel.add(topologyLabel);
+        topologySelector = new JComboBox<>(new String[]{
+                RedisSampler.TOPOLOGY_STANDALONE, RedisSampler.TOPOLOGY_CLUSTER, RedisSampler.TOPOLOGY_SENTINEL});
+        topologySelector.addActionListener(e -> {
+            String topology = (String) topologySelector.getSelectedItem();
+            boolean standalone = RedisSampler.TOPOLOGY_STANDALONE.equals(topology);
+            hostField.setEnabled(standalone);
+            portField.setEnabled(standalone);
+            nodesField.setEnabled(!standalone);
+            sentinelMasterField.setEnabled(RedisSampler.TOPOLOGY_SENTINEL.equals(topology));
+            nodeLabelsCheckBox.setEnabled(RedisSampler.TOPOLOGY_CLUSTER.equals(topology));
+        });
+        topologyPanel.add(topologySelector);
+        JLabel nodesLabel = new JLabel("Seed nodes: ");
+        topologyPanel.add(nodesLabel);
+        nodesField = new JTextField();
+        nodesField.setColumns(30);
+        nodesField.setToolTipText("Comma separated host:port list of cluster nodes or sentinels");
+        topologyPanel.add(nodesField);
+        JLabel sentinelMasterLabel = new JLabel("Master name: ");
+        topologyPanel.add(sentinelMasterLabel);
+        sentinelMasterField = new JTextField();
+        sentinelMasterField.setColumns(10);
+        topologyPanel.add(sentinelMasterField);
+        nodeLabelsCheckBox = new JCheckBox("Per-node sample labels");
+        topologyPanel.add(nodeLabelsCheckBox);
+        JLabel protocolLabel = new JLabel("Protocol: ");
+        topologyPanel.add(protocolLabel);
+        protocolSelector = new JComboBox<>(new String[]{RedisSampler.PROTOCOL_RESP2, RedisSampler.PROTOCOL_RESP3});
+        protocolSelector.setToolTipText("RESP3 needs Redis 6 or later; the embedded stub speaks RESP2 only");
+        topologyPanel.add(protocolSelector);
+
+        JPanel tlsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        tlsPanel.setBorder(BorderFactory.createTitledBorder("TLS"));
+        tlsEnabledCheckBox = new JCheckBox("Enabled");
+        tlsEnabledCheckBox.addActionListener(e -> setTlsFieldsEnabled(tlsEnabledCheckBox.isSelected()));
+        tlsPanel.add(tlsEnabledCheckBox);
+        JLabel tlsKeystoreLabel = new JLabel("Keystore: ");
+        tlsPanel.add(tlsKeystoreLabel);
+        tlsKeystoreField = new JTextField();
+        tlsKeystoreField.setColumns(15);
+        tlsKeystoreField.setToolTipText("PKCS12 or JKS file with the client certificate for mutual TLS, empty for none");
+        tlsPanel.add(tlsKeystoreField);
+        JLabel tlsKeystorePasswordLabel = new JLabel("Password: ");
+        tlsPanel.add(tlsKeystorePasswordLabel);
+        tlsKeystorePasswordField = new JTextField();
+        tlsKeystorePasswordField.setColumns(8);
+        tlsPanel.add(tlsKeystorePasswordField);
+        JLabel tlsTruststoreLabel = new JLabel("Truststore: ");
+        tlsPanel.add(tlsTruststoreLabel);
+        tlsTruststoreField = new JTextField();
+        tlsTruststoreField.setColumns(15);
+        tlsTruststoreField.setToolTipText("PKCS12 or JKS file with the trusted server certificates, empty for the JVM defaults");
+        tlsPanel.add(tlsTruststoreField);
+        JLabel tlsTruststorePasswordLabel = new JLabel("Password: ");
+        tlsPanel.add(tlsTruststorePasswordLabel);
+        tlsTruststorePasswordField = new JTextField();
+        tlsTruststorePasswordField.setColumns(8);
+        tlsPanel.add(tlsTruststorePasswordField);
+        tlsSkipHostnameCheckBox = new JCheckBox("Skip hostname check");
+        tlsPanel.add(tlsSkipHostnameCheckBox);
+
+        JPanel cachePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        cachePanel.setBorder(BorderFactory.createTitledBorder("Client-Side Cache"));
+        cacheEnabledCheckBox = new JCheckBox("Cache reads with server-assisted invalidation");
+        cacheEnabledCheckBox.setToolTipText("GET, HGETALL and SMEMBERS are served from a local cache kept coherent "
+                + "by CLIENT TRACKING; needs Redis 6 or later on standalone or Sentinel topology");
+        cacheEnabledCheckBox.addActionListener(e -> cacheSizeField.setEnabled(cacheEnabledCheckBox.isSelected()));
+        cachePanel.add(cacheEnabledCheckBox);
+        cacheSizeField = addNumberField(cachePanel, "Max keys: ", 1);
+
+        JPanel poolPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        poolPanel.setBorder(BorderFactory.createTitledBorder("Connection Pool"));
+        JLabel poolModeLabel = new JLabel("Mode: ");
+        poolPanel.add(poolModeLabel);
+        poolModeSelector = new JComboBox<>(new String[]{RedisSampler.POOL_MODE_THREAD, RedisSampler.POOL_MODE_SHARED});
+        poolPanel.add(poolModeSelector);
+        poolMaxTotalField = addNumberField(poolPanel, "Max total: ", 1);
+        poolMaxIdleField = addNumberField(poolPanel, "Max idle: ", 0);
+        poolMinIdleField = addNumberField(poolPanel, "Min idle: ", 0);
+        poolPrewarmField = addNumberField(poolPanel, "Pre-warm: ", 0);
+        poolMaxWaitField = addNumberField(poolPanel, "Max wait (ms): ", -1);
+
+        JPanel loadModelPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        loadModelPanel.setBorder(BorderFactory.createTitledBorder("Load Model"));
+        JLabel loadModelLabel = new JLabel("Model: ");
+        loadModelPanel.add(loadModelLabel);
+        loadModelSelector = new JComboBox<>(new String[]{RedisSampler.LOAD_MODEL_CLOSED, RedisSampler.LOAD_MODEL_OPEN,
+                RedisSampler.LOAD_MODEL_ADAPTIVE});
+        loadModelSelector.setToolTipText("CLOSED: every JMeter thread sends its own commands. "
+                + "OPEN: commands are sent at the target rate, JMeter threads only report completed commands. "
+                + "ADAPTIVE: like OPEN, starting at the target rate and searching for the highest rate within the p99 SLO");
+        loadModelSelector.addActionListener(e -> {
+            boolean adaptive = RedisSampler.LOAD_MODEL_ADAPTIVE.equals(loadModelSelector.getSelectedItem());
+            boolean open = adaptive || RedisSampler.LOAD_MODEL_OPEN.equals(loadModelSelector.getSelectedItem());
+            loadTargetRateField.setEnabled(open);
+            loadConnectionsField.setEnabled(open);
+            loadMaxInFlightField.setEnabled(open);
+            adaptiveSloP99Field.setEnabled(adaptive);
+            adaptiveStepField.setEnabled(adaptive);
+            adaptiveGrowthField.setEnabled(adaptive);
+            adaptiveReportField.setEnabled(adaptive);
+        });
+        loadModelPanel.add(loadModelSelector);
+        loadTargetRateField = addNumberField(loadModelPanel, "Target rate (ops/s): ", 1);
+        loadConnectionsField = addNumberField(loadModelPanel, "Connections: ", 1);
+        loadMaxInFlightField = addNumberField(loadModelPanel, "Max in-flight per connection: ", 1);
+        JLabel adaptiveSloP99Label = new JLabel("p99 SLO (ms): ");
+        loadModelPanel.add(adaptiveSloP99Label);
+        adaptiveSloP99Field = new JTextField();
+        adaptiveSloP99Field.setColumns(6);
+        loadModelPanel.add(adaptiveSloP99Field);
+        adaptiveStepField = addNumberField(loadModelPanel, "Step (ms): ", 1);
+        JLabel adaptiveGrowthLabel = new JLabel("Growth: ");
+        loadModelPanel.add(adaptiveGrowthLabel);
+        adaptiveGrowthField = new JTextField();
+        adaptiveGrowthField.setColumns(4);
+        adaptiveGrowthField.setToolTipText("Factor the rate is raised by each step until the SLO is exceeded, then the rate is bisected");
+        loadModelPanel.add(adaptiveGrowthField);
+        JLabel adaptiveReportLabel = new JLabel("Steps file: ");
+        loadModelPanel.add(adaptiveReportLabel);
+        adaptiveReportField = new JTextField();
+        adaptiveReportField.setColumns(12);
+        adaptiveReportField.setToolTipText("CSV of the rate, throughput and latency percentiles of every step; empty for the log only");
+        loadModelPanel.add(adaptiveReportField);
+
         JPanel requestPanel = new JPanel();
         requestPanel.setLayout(new BoxLayout(requestPanel, BoxLayout.X_AXIS));
         requestPanel.setBorder(BorderFactory.createTitledBorder("Redis Request"));
         requestPanel.add(Box.createHorizontalStrut(10));
         JLabel operationLabel = new JLabel("Operation: ");
         requestPanel.add(operationLabel);
-        operationSelector = new JComboBox<>(new String[]{"GET", "SET", "SETEX", "EXISTS", "DEL", "PEXPIRE"});
+        operationSelector = new JComboBox<>(RedisOperations.names().toArray(new String[0]));
         operationSelector.addActionListener(e -> {
-            switch ((String) operationSelector.getSelectedItem()) {
-                case "GET", "EXISTS", "DEL" -> {
-                    valueField.setEnabled(false);
-                    expireField.setEnabled(false);
-                }
-                case "SET" -> {
-                    valueField.setEnabled(true);
-                    expireField.setEnabled(false);
-                }
-                case "SETEX" -> {
-                    valueField.setEnabled(true);
-                    expireField.setEnabled(true);
-                }
-                case "PEXPIRE" -> {
-                    valueField.setEnabled(false);
-                    expireField.setEnabled(true);
-                }
+            RedisOperation operation = RedisOperations.find((String) operationSelector.getSelectedItem());
+            if (operation == null) {
+                return;
             }
+            valueField.setEnabled(operation.usesValue());
+            expireField.setEnabled(operation.usesExpire());
+            fieldField.setEnabled(operation.uses(RedisOperation.Parameter.FIELD));
+            rangeField.setEnabled(operation.uses(RedisOperation.Parameter.RANGE));
+            batchSizeField.setEnabled(operation.uses(RedisOperation.Parameter.KEYS) || operation.uses(RedisOperation.Parameter.COUNT));
+            groupField.setEnabled(operation.uses(RedisOperation.Parameter.GROUP));
+            scriptField.setEnabled(operation.uses(RedisOperation.Parameter.SCRIPT));
+            boolean transaction = operation.uses(RedisOperation.Parameter.TRANSACTION);
+            transactionCommandsField.setEnabled(transaction);
+            transactionReadsField.setEnabled(transaction);
+            transactionWatchField.setEnabled(transaction);
+            transactionMaxRetriesField.setEnabled(transaction);
         });
         requestPanel.add(operationSelector);
+        JLabel mixLabel = new JLabel("Mix: ");
+        requestPanel.add(mixLabel);
+        mixField = new JTextField();
+        mixField.setColumns(12);
+        mixField.setToolTipText("Weighted operations drawn per sample, e.g. GET:80, SET:15, DEL:5; "
+                + "results are labelled '<name> <operation>'. Empty for the operation alone");
+        requestPanel.add(mixField);
         JLabel keyLabel = new JLabel("Key: ");
         requestPanel.add(keyLabel);
         keyField = new JTextField();
@@ -140,12 +357,252 @@ public class RedisSamplerGui extends AbstractSamplerGui {
         addIntegerRangeCheck(expireField, 0, Long.MAX_VALUE);
         expireField.setColumns(10);
         requestPanel.add(expireField);
+        JLabel pipelineDepthLabel = new JLabel("Pipeline depth: ");
+        requestPanel.add(pipelineDepthLabel);
+        pipelineDepthField = new JTextField();
+        addIntegerRangeCheck(pipelineDepthField, 1, Integer.MAX_VALUE);
+        pipelineDepthField.setColumns(5);
+        requestPanel.add(pipelineDepthField);
+
+        JPanel argumentsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        argumentsPanel.setBorder(BorderFactory.createTitledBorder("Command Arguments"));
+        JLabel fieldLabel = new JLabel("Field: ");
+        argumentsPanel.add(fieldLabel);
+        fieldField = new JTextField();
+        fieldField.setColumns(8);
+        fieldField.setToolTipText("Hash field or stream entry field, 'field' if empty");
+        argumentsPanel.add(fieldField);
+        JLabel rangeLabel = new JLabel("Range: ");
+        argumentsPanel.add(rangeLabel);
+        rangeField = new JTextField();
+        rangeField.setColumns(8);
+        rangeField.setToolTipText("'start end': list indexes (LRANGE, 0 -1 if empty) or scores (ZRANGEBYSCORE, -inf +inf if empty)");
+        argumentsPanel.add(rangeField);
+        batchSizeField = addNumberField(argumentsPanel, "Batch size: ", 1);
+        batchSizeField.setToolTipText("Keys per multi-key command (MGET, MSET) or elements per reply (ZRANGEBYSCORE, XREADGROUP); "
+                + "on a cluster, multi-key commands need a {hash tag} in the key");
+        JLabel groupLabel = new JLabel("Consumer group: ");
+        argumentsPanel.add(groupLabel);
+        groupField = new JTextField();
+        groupField.setColumns(8);
+        groupField.setToolTipText("Stream consumer group, created if missing; every JMeter thread is a consumer");
+        argumentsPanel.add(groupField);
+        JLabel scriptLabel = new JLabel("Script: ");
+        argumentsPanel.add(scriptLabel);
+        scriptField = new JTextField();
+        scriptField.setColumns(25);
+        scriptField.setToolTipText("Lua script for EVALSHA, loaded once per test; KEYS[1] is the key, ARGV[1] the value");
+        argumentsPanel.add(scriptField);
+
+        JPanel transactionPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        transactionPanel.setBorder(BorderFactory.createTitledBorder("Transaction (MULTI)"));
+        JLabel transactionWatchLabel = new JLabel("WATCH: ");
+        transactionPanel.add(transactionWatchLabel);
+        transactionWatchField = new JTextField();
+        transactionWatchField.setColumns(8);
+        transactionWatchField.setToolTipText("Keys to watch separated by spaces, e.g. {key}; empty for MULTI/EXEC without WATCH");
+        transactionPanel.add(transactionWatchField);
+        JLabel transactionReadsLabel = new JLabel("Reads: ");
+        transactionPanel.add(transactionReadsLabel);
+        transactionReadsField = new JTextField();
+        transactionReadsField.setColumns(12);
+        transactionReadsField.setToolTipText("Commands between WATCH and MULTI separated by ';', e.g. GET {key}");
+        transactionPanel.add(transactionReadsField);
+        JLabel transactionCommandsLabel = new JLabel("Commands: ");
+        transactionPanel.add(transactionCommandsLabel);
+        transactionCommandsField = new JTextField();
+        transactionCommandsField.setColumns(25);
+        transactionCommandsField.setToolTipText("Commands between MULTI and EXEC separated by ';', "
+                + "{key} and {value} are replaced, e.g. DECR {key}; RPUSH {key}:orders {value}");
+        transactionPanel.add(transactionCommandsField);
+        transactionMaxRetriesField = addNumberField(transactionPanel, "Max retries: ", 0);
+        transactionMaxRetriesField.setToolTipText("Transactions aborted by WATCH to retry before the sample fails; "
+                + "retries of each sample are in the ${" + RedisSampler.RETRIES_VARIABLE + "} variable");
+
+        JPanel dataPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        dataPanel.setBorder(BorderFactory.createTitledBorder("Test Data"));
+        JLabel keyDistributionLabel = new JLabel("Key distribution: ");
+        dataPanel.add(keyDistributionLabel);
+        keyDistributionSelector = new JComboBox<>(new String[]{
+                RedisSampler.KEY_DISTRIBUTION_FIXED, "UNIFORM", "ZIPFIAN", "SEQUENTIAL", "HOTSPOT"});
+        keyDistributionSelector.setToolTipText("FIXED uses the key as is, other distributions append a key index to it");
+        keyDistributionSelector.addActionListener(e -> {
+            String distribution = (String) keyDistributionSelector.getSelectedItem();
+            keyspaceField.setEnabled(!RedisSampler.KEY_DISTRIBUTION_FIXED.equals(distribution));
+            zipfThetaField.setEnabled("ZIPFIAN".equals(distribution));
+            hotKeysField.setEnabled("HOTSPOT".equals(distribution));
+            hotOpsField.setEnabled("HOTSPOT".equals(distribution));
+        });
+        dataPanel.add(keyDistributionSelector);
+        keyspaceField = addNumberField(dataPanel, "Keyspace: ", 1);
+        keyspaceField.setColumns(10);
+        JLabel zipfThetaLabel = new JLabel("Zipf exponent: ");
+        dataPanel.add(zipfThetaLabel);
+        zipfThetaField = new JTextField();
+        zipfThetaField.setColumns(4);
+        zipfThetaField.setToolTipText("Between 0 and 1, exclusive; YCSB uses 0.99");
+        dataPanel.add(zipfThetaField);
+        JLabel hotKeysLabel = new JLabel("Hot keys fraction: ");
+        dataPanel.add(hotKeysLabel);
+        hotKeysField = new JTextField();
+        hotKeysField.setColumns(4);
+        dataPanel.add(hotKeysField);
+        JLabel hotOpsLabel = new JLabel("Hot ops fraction: ");
+        dataPanel.add(hotOpsLabel);
+        hotOpsField = new JTextField();
+        hotOpsField.setColumns(4);
+        dataPanel.add(hotOpsField);
+        JLabel valueSizesLabel = new JLabel("Value sizes: ");
+        dataPanel.add(valueSizesLabel);
+        valueSizesField = new JTextField();
+        valueSizesField.setColumns(15);
+        valueSizesField.setToolTipText("Empty to use the value as is; 100 (fixed), 100-1000 (uniform) or 100:70,1000:25,10000:5 (weighted)");
+        dataPanel.add(valueSizesField);
+        JLabel valueFileLabel = new JLabel("Value file: ");
+        dataPanel.add(valueFileLabel);
+        valueFileField = new JTextField();
+        valueFileField.setColumns(15);
+        valueFileField.setToolTipText("File sent verbatim as the value, read once per test; overrides value sizes");
+        dataPanel.add(valueFileField);
+        binaryCheckBox = new JCheckBox("Binary (byte[] commands)");
+        binaryCheckBox.setToolTipText("Send keys and values as raw bytes and report replies by size and checksum");
+        dataPanel.add(binaryCheckBox);
+        JLabel codecLabel = new JLabel("Codec: ");
+        dataPanel.add(codecLabel);
+        codecField = new JTextField();
+        codecField.setColumns(10);
+        codecField.setToolTipText("Encode values before SET and decode replies after GET, outside the elapsed time, e.g. JSON+ZSTD; "
+                + "implies binary. Codecs: " + String.join(", ", ValueCodecs.names()));
+        dataPanel.add(codecField);
+
+        JPanel preloadPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        preloadPanel.setBorder(BorderFactory.createTitledBorder("Preload"));
+        preloadKeysField = addNumberField(preloadPanel, "Keys (0 to skip): ", 0);
+        preloadKeysField.setToolTipText("Loads <key>0 .. <key>N-1 with the configured values once per test, before the threads start");
+        JLabel preloadTtlLabel = new JLabel("TTL (ms): ");
+        preloadPanel.add(preloadTtlLabel);
+        preloadTtlField = new JTextField();
+        preloadTtlField.setColumns(12);
+        preloadTtlField.setToolTipText("Empty for no TTL; 60000 (fixed) or 60000-120000 (uniform)");
+        preloadPanel.add(preloadTtlField);
+        preloadConnectionsField = addNumberField(preloadPanel, "Connections: ", 1);
+        preloadBatchField = addNumberField(preloadPanel, "Keys per pipeline: ", 1);
+
+        JPanel resiliencePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        resiliencePanel.setBorder(BorderFactory.createTitledBorder("Resilience"));
+        JLabel churnRateLabel = new JLabel("Reconnects per second per connection: ");
+        resiliencePanel.add(churnRateLabel);
+        churnRateField = new JTextField();
+        churnRateField.setColumns(6);
+        churnRateField.setToolTipText("0 to keep connections; standalone topology only. "
+                + "Connect, setup and first command times of reconnects are exported with the metrics");
+        resiliencePanel.add(churnRateField);
+        churnBorrowsField = addNumberField(resiliencePanel, "Reconnect after borrows (0 for never): ", 0);
+        churnBorrowsField.setToolTipText("Samples served by a connection before it is replaced; "
+                + "a pipelined sample, a multi-key command or a transaction is one borrow");
+        failoverObserveCheckBox = new JCheckBox("Observe failovers");
+        failoverObserveCheckBox.setToolTipText("Probes the primary with writes on a connection of its own and logs "
+                + "outages, their gap and recovery time, and primary changes");
+        failoverObserveCheckBox.addActionListener(e -> failoverProbeIntervalField.setEnabled(failoverObserveCheckBox.isSelected()));
+        resiliencePanel.add(failoverObserveCheckBox);
+        failoverProbeIntervalField = addNumberField(resiliencePanel, "Probe interval (ms): ", 1);
+
+        JPanel serverStatsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        serverStatsPanel.setBorder(BorderFactory.createTitledBorder("Server Stats"));
+        serverStatsCollectCheckBox = new JCheckBox("Collect INFO, SLOWLOG and LATENCY");
+        serverStatsCollectCheckBox.setToolTipText("Polls memory, stats, clients, persistence and command stats, "
+                + "new slow commands and latency events on a connection of its own");
+        serverStatsCollectCheckBox.addActionListener(e -> {
+            serverStatsIntervalField.setEnabled(serverStatsCollectCheckBox.isSelected());
+            serverStatsFileField.setEnabled(serverStatsCollectCheckBox.isSelected());
+        });
+        serverStatsPanel.add(serverStatsCollectCheckBox);
+        serverStatsIntervalField = addNumberField(serverStatsPanel, "Interval (ms): ", 1);
+        JLabel serverStatsFileLabel = new JLabel("Time series file: ");
+        serverStatsPanel.add(serverStatsFileLabel);
+        serverStatsFileField = new JTextField();
+        serverStatsFileField.setColumns(15);
+        serverStatsFileField.setToolTipText("CSV of timeStamp,node,metric,value with JMeter time stamps; "
+                + "empty to export the values with the live metrics only");
+        serverStatsPanel.add(serverStatsFileField);
 
+        JPanel resultPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        resultPanel.setBorder(BorderFactory.createTitledBorder("Sample Result"));
+        leanResponseCheckBox = new JCheckBox("Lean response (skip response body and message)");
+        resultPanel.add(leanResponseCheckBox);
+        fullCaptureCheckBox = new JCheckBox("Full capture (keep binary replies)");
+        resultPanel.add(fullCaptureCheckBox);
+        JLabel hdrFileLabel = new JLabel("HDR histogram file: ");
+        resultPanel.add(hdrFileLabel);
+        hdrFileField = new JTextField();
+        hdrFileField.setColumns(15);
+        hdrFileField.setToolTipText("Empty to disable; writes <file>.hlog and <file>-<operation>.hgrm in microseconds at the end of the test. "
+                + "Remote engines add their host to the name; merge their .hlog files with ru.beeline.lt.latency.LatencyMerge");
+        resultPanel.add(hdrFileField);
+
+
+        JPanel metricsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        metricsPanel.setBorder(BorderFactory.createTitledBorder("Live Metrics"));
+        metricsEnabledCheckBox = new JCheckBox("Export command, error and pool metrics");
+        metricsEnabledCheckBox.setToolTipText("JMX MBean ru.beeline.lt:type=RedisSampler, "
+                + "and Prometheus text at http://<host>:<port>/metrics when the port is set");
+        metricsEnabledCheckBox.addActionListener(e -> metricsPortField.setEnabled(metricsEnabledCheckBox.isSelected()));
+        metricsPanel.add(metricsEnabledCheckBox);
+        metricsPortField = addNumberField(metricsPanel, "Prometheus port (0 for JMX only): ", 0);
+
+        JPanel stubPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        stubPanel.setBorder(BorderFactory.createTitledBorder("Embedded Stub"));
+        stubEnabledCheckBox = new JCheckBox("Serve the port from an in-JVM RESP stub");
+        stubEnabledCheckBox.setToolTipText("Starts an in-memory Redis stub on localhost at the connection port "
+                + "for the duration of the test, to measure the sampler itself");
+        stubEnabledCheckBox.addActionListener(e -> {
+            stubLatencyField.setEnabled(stubEnabledCheckBox.isSelected());
+            stubErrorRateField.setEnabled(stubEnabledCheckBox.isSelected());
+        });
+        stubPanel.add(stubEnabledCheckBox);
+        stubLatencyField = addNumberField(stubPanel, "Injected latency (us): ", 0);
+        JLabel stubErrorRateLabel = new JLabel("Injected error rate: ");
+        stubPanel.add(stubErrorRateLabel);
+        stubErrorRateField = new JTextField();
+        stubErrorRateField.setColumns(6);
+        stubErrorRateField.setToolTipText("Share of commands answered with an error, from 0 to 1");
+        stubPanel.add(stubErrorRateField);
 
 //        add(clientNamePanel);
         add(connectionPanel);
         add(redisParamsPanel);
+        add(topologyPanel);
+        add(tlsPanel);
+        add(poolPanel);
+        add(cachePanel);
+        add(loadModelPanel);
         add(requestPanel);
+        add(argumentsPanel);
+        add(transactionPanel);
+        add(dataPanel);
+        add(preloadPanel);
+        add(resiliencePanel);
+        add(serverStatsPanel);
+        add(resultPanel);
+        add(metricsPanel);
+        add(stubPanel);
+    }
+
+    private void setTlsFieldsEnabled(boolean enabled) {
+        tlsKeystoreField.setEnabled(enabled);
+        tlsKeystorePasswordField.setEnabled(enabled);
+        tlsTruststoreField.setEnabled(enabled);
+        tlsTruststorePasswordField.setEnabled(enabled);
+        tlsSkipHostnameCheckBox.setEnabled(enabled);
+    }
+
+    private JTextField addNumberField(JPanel panel, String label, int min) {
+        panel.add(new JLabel(label));
+        JTextField field = new JTextField();
+        field.setColumns(6);
+        addIntegerRangeCheck(field, min, Integer.MAX_VALUE);
+        panel.add(field);
+        return field;
     }
 
     @Override
@@ -175,14 +632,94 @@ public class RedisSamplerGui extends AbstractSamplerGui {
             clientNameField.setText(sampler.getClientName());
             hostField.setText(sampler.getHost());
             portField.setText(sampler.getPort());
+            userField.setText(sampler.getUser());
             passwordField.setText(sampler.getPassword());
             databaseField.setText(sampler.getDatabase());
             timeoutFiled.setText(sampler.getTimeout());
 
+            topologySelector.setSelectedItem(sampler.getTopology());
+            nodesField.setText(sampler.getNodes());
+            sentinelMasterField.setText(sampler.getSentinelMaster());
+            nodeLabelsCheckBox.setSelected(sampler.isNodeLabels());
+            protocolSelector.setSelectedItem(sampler.getProtocol());
+
+            tlsEnabledCheckBox.setSelected(sampler.isTlsEnabled());
+            tlsKeystoreField.setText(sampler.getTlsKeystore());
+            tlsKeystorePasswordField.setText(sampler.getTlsKeystorePassword());
+            tlsTruststoreField.setText(sampler.getTlsTruststore());
+            tlsTruststorePasswordField.setText(sampler.getTlsTruststorePassword());
+            tlsSkipHostnameCheckBox.setSelected(sampler.isTlsSkipHostnameCheck());
+            setTlsFieldsEnabled(sampler.isTlsEnabled());
+
+            cacheEnabledCheckBox.setSelected(sampler.isCacheEnabled());
+            cacheSizeField.setText(sampler.getCacheSize());
+            cacheSizeField.setEnabled(sampler.isCacheEnabled());
+
+            poolModeSelector.setSelectedItem(sampler.getPoolMode());
+            poolMaxTotalField.setText(sampler.getPoolMaxTotal());
+            poolMaxIdleField.setText(sampler.getPoolMaxIdle());
+            poolMinIdleField.setText(sampler.getPoolMinIdle());
+            poolPrewarmField.setText(sampler.getPoolPrewarm());
+            poolMaxWaitField.setText(sampler.getPoolMaxWait());
+
+            loadModelSelector.setSelectedItem(sampler.getLoadModel());
+            loadTargetRateField.setText(sampler.getLoadTargetRate());
+            loadConnectionsField.setText(sampler.getLoadConnections());
+            loadMaxInFlightField.setText(sampler.getLoadMaxInFlight());
+            adaptiveSloP99Field.setText(sampler.getAdaptiveSloP99());
+            adaptiveStepField.setText(sampler.getAdaptiveStep());
+            adaptiveGrowthField.setText(sampler.getAdaptiveGrowth());
+            adaptiveReportField.setText(sampler.getAdaptiveReport());
+
             operationSelector.setSelectedItem(sampler.getOperation());
+            mixField.setText(sampler.getMix());
             keyField.setText(sampler.getKey());
             valueField.setText(sampler.getValue());
             expireField.setText(sampler.getExpire());
+            pipelineDepthField.setText(sampler.getPipelineDepth());
+            fieldField.setText(sampler.getField());
+            rangeField.setText(sampler.getRange());
+            batchSizeField.setText(sampler.getBatchSize());
+            groupField.setText(sampler.getGroup());
+            scriptField.setText(sampler.getScript());
+            transactionCommandsField.setText(sampler.getTransactionCommands());
+            transactionReadsField.setText(sampler.getTransactionReads());
+            transactionWatchField.setText(sampler.getTransactionWatch());
+            transactionMaxRetriesField.setText(sampler.getTransactionMaxRetries());
+            keyDistributionSelector.setSelectedItem(sampler.getKeyDistribution());
+            keyspaceField.setText(sampler.getKeyspace());
+            zipfThetaField.setText(sampler.getZipfTheta());
+            hotKeysField.setText(sampler.getHotKeys());
+            hotOpsField.setText(sampler.getHotOps());
+            valueSizesField.setText(sampler.getValueSizes());
+            valueFileField.setText(sampler.getValueFile());
+            binaryCheckBox.setSelected(sampler.isBinary());
+            codecField.setText(sampler.getCodec());
+            leanResponseCheckBox.setSelected(sampler.isLeanResponse());
+            fullCaptureCheckBox.setSelected(sampler.isFullCapture());
+            hdrFileField.setText(sampler.getHdrFile());
+            metricsEnabledCheckBox.setSelected(sampler.isMetricsEnabled());
+            metricsPortField.setText(sampler.getMetricsPort());
+            metricsPortField.setEnabled(sampler.isMetricsEnabled());
+            stubEnabledCheckBox.setSelected(sampler.isStubEnabled());
+            stubLatencyField.setText(sampler.getStubLatency());
+            stubErrorRateField.setText(sampler.getStubErrorRate());
+            stubLatencyField.setEnabled(sampler.isStubEnabled());
+            stubErrorRateField.setEnabled(sampler.isStubEnabled());
+            preloadKeysField.setText(sampler.getPreloadKeys());
+            preloadTtlField.setText(sampler.getPreloadTtl());
+            preloadConnectionsField.setText(sampler.getPreloadConnections());
+            preloadBatchField.setText(sampler.getPreloadBatch());
+            churnRateField.setText(sampler.getChurnRate());
+            churnBorrowsField.setText(sampler.getChurnBorrows());
+            failoverObserveCheckBox.setSelected(sampler.isFailoverObserve());
+            failoverProbeIntervalField.setText(sampler.getFailoverProbeInterval());
+            failoverProbeIntervalField.setEnabled(sampler.isFailoverObserve());
+            serverStatsCollectCheckBox.setSelected(sampler.isServerStatsCollect());
+            serverStatsIntervalField.setText(sampler.getServerStatsInterval());
+            serverStatsIntervalField.setEnabled(sampler.isServerStatsCollect());
+            serverStatsFileField.setText(sampler.getServerStatsFile());
+            serverStatsFileField.setEnabled(sampler.isServerStatsCollect());
         }
     }
 
@@ -194,13 +731,82 @@ public class RedisSamplerGui extends AbstractSamplerGui {
             sampler.setClientName(clientNameField.getText());
             sampler.setHost(hostField.getText());
             sampler.setPort(portField.getText());
+            sampler.setUser(userField.getText());
             sampler.setPassword(passwordField.getText());
             sampler.setDatabase(databaseField.getText());
             sampler.setTimeout(timeoutFiled.getText());
+            sampler.setTopology((String) topologySelector.getSelectedItem());
+            sampler.setNodes(nodesField.getText());
+            sampler.setSentinelMaster(sentinelMasterField.getText());
+            sampler.setNodeLabels(nodeLabelsCheckBox.isSelected());
+            sampler.setProtocol((String) protocolSelector.getSelectedItem());
+
+            sampler.setTlsEnabled(tlsEnabledCheckBox.isSelected());
+            sampler.setTlsKeystore(tlsKeystoreField.getText());
+            sampler.setTlsKeystorePassword(tlsKeystorePasswordField.getText());
+            sampler.setTlsTruststore(tlsTruststoreField.getText());
+            sampler.setTlsTruststorePassword(tlsTruststorePasswordField.getText());
+            sampler.setTlsSkipHostnameCheck(tlsSkipHostnameCheckBox.isSelected());
+
+            sampler.setCacheEnabled(cacheEnabledCheckBox.isSelected());
+            sampler.setCacheSize(cacheSizeField.getText());
+            sampler.setPoolMode((String) poolModeSelector.getSelectedItem());
+            sampler.setPoolMaxTotal(poolMaxTotalField.getText());
+            sampler.setPoolMaxIdle(poolMaxIdleField.getText());
+            sampler.setPoolMinIdle(poolMinIdleField.getText());
+            sampler.setPoolPrewarm(poolPrewarmField.getText());
+            sampler.setPoolMaxWait(poolMaxWaitField.getText());
+            sampler.setLoadModel((String) loadModelSelector.getSelectedItem());
+            sampler.setLoadTargetRate(loadTargetRateField.getText());
+            sampler.setLoadConnections(loadConnectionsField.getText());
+            sampler.setLoadMaxInFlight(loadMaxInFlightField.getText());
+            sampler.setAdaptiveSloP99(adaptiveSloP99Field.getText());
+            sampler.setAdaptiveStep(adaptiveStepField.getText());
+            sampler.setAdaptiveGrowth(adaptiveGrowthField.getText());
+            sampler.setAdaptiveReport(adaptiveReportField.getText());
             sampler.setOperation((String) operationSelector.getSelectedItem());
+            sampler.setMix(mixField.getText());
             sampler.setKey(keyField.getText());
             sampler.setValue(valueField.getText());
             sampler.setExpire(expireField.getText());
+            sampler.setPipelineDepth(pipelineDepthField.getText());
+            sampler.setField(fieldField.getText());
+            sampler.setRange(rangeField.getText());
+            sampler.setBatchSize(batchSizeField.getText());
+            sampler.setGroup(groupField.getText());
+            sampler.setScript(scriptField.getText());
+            sampler.setTransactionCommands(transactionCommandsField.getText());
+            sampler.setTransactionReads(transactionReadsField.getText());
+            sampler.setTransactionWatch(transactionWatchField.getText());
+            sampler.setTransactionMaxRetries(transactionMaxRetriesField.getText());
+            sampler.setKeyDistribution((String) keyDistributionSelector.getSelectedItem());
+            sampler.setKeyspace(keyspaceField.getText());
+            sampler.setZipfTheta(zipfThetaField.getText());
+            sampler.setHotKeys(hotKeysField.getText());
+            sampler.setHotOps(hotOpsField.getText());
+            sampler.setValueSizes(valueSizesField.getText());
+            sampler.setValueFile(valueFileField.getText());
+            sampler.setBinary(binaryCheckBox.isSelected());
+            sampler.setCodec(codecField.getText());
+            sampler.setLeanResponse(leanResponseCheckBox.isSelected());
+            sampler.setFullCapture(fullCaptureCheckBox.isSelected());
+            sampler.setHdrFile(hdrFileField.getText());
+            sampler.setMetricsEnabled(metricsEnabledCheckBox.isSelected());
+            sampler.setMetricsPort(metricsPortField.getText());
+            sampler.setStubEnabled(stubEnabledCheckBox.isSelected());
+            sampler.setStubLatency(stubLatencyField.getText());
+            sampler.setStubErrorRate(stubErrorRateField.getText());
+            sampler.setPreloadKeys(preloadKeysField.getText());
+            sampler.setPreloadTtl(preloadTtlField.getText());
+            sampler.setPreloadConnections(preloadConnectionsField.getText());
+            sampler.setPreloadBatch(preloadBatchField.getText());
+            sampler.setChurnRate(churnRateField.getText());
+            sampler.setChurnBorrows(churnBorrowsField.getText());
+            sampler.setFailoverObserve(failoverObserveCheckBox.isSelected());
+            sampler.setFailoverProbeInterval(failoverProbeIntervalField.getText());
+            sampler.setServerStatsCollect(serverStatsCollectCheckBox.isSelected());
+            sampler.setServerStatsInterval(serverStatsIntervalField.getText());
+            sampler.setServerStatsFile(serverStatsFileField.getText());
         }
     }
 
@@ -211,16 +817,98 @@ public class RedisSamplerGui extends AbstractSamplerGui {
         clientNameField.setText("jmeter_redis_client");
         hostField.setText("localhost");
         portField.setText("6379");
+        userField.setText("");
         passwordField.setText("");
         databaseField.setText("0");
         timeoutFiled.setText("2000");
 
+        topologySelector.setSelectedItem(RedisSampler.TOPOLOGY_STANDALONE);
+        nodesField.setText("");
+        sentinelMasterField.setText("");
+        nodeLabelsCheckBox.setSelected(false);
+        protocolSelector.setSelectedItem(RedisSampler.PROTOCOL_RESP2);
+
+        tlsEnabledCheckBox.setSelected(false);
+        tlsKeystoreField.setText("");
+        tlsKeystorePasswordField.setText("");
+        tlsTruststoreField.setText("");
+        tlsTruststorePasswordField.setText("");
+        tlsSkipHostnameCheckBox.setSelected(false);
+        setTlsFieldsEnabled(false);
+
+        cacheEnabledCheckBox.setSelected(false);
+        cacheSizeField.setText("100000");
+        cacheSizeField.setEnabled(false);
+
+        poolModeSelector.setSelectedItem(RedisSampler.POOL_MODE_THREAD);
+        poolMaxTotalField.setText("1000");
+        poolMaxIdleField.setText("1000");
+        poolMinIdleField.setText("0");
+        poolPrewarmField.setText("0");
+        poolMaxWaitField.setText("-1");
+
+        loadModelSelector.setSelectedItem(RedisSampler.LOAD_MODEL_CLOSED);
+        loadTargetRateField.setText("1000");
+        loadConnectionsField.setText("4");
+        loadMaxInFlightField.setText("1024");
+        adaptiveSloP99Field.setText("1");
+        adaptiveStepField.setText("10000");
+        adaptiveGrowthField.setText("1.5");
+        adaptiveReportField.setText("");
+
         operationSelector.setSelectedItem("GET");
+        mixField.setText("");
         keyField.setText("");
         valueField.setText("");
         valueField.setEnabled(false);
         expireField.setText("");
         expireField.setEnabled(false);
+        pipelineDepthField.setText("1");
+        fieldField.setText("");
+        rangeField.setText("");
+        batchSizeField.setText("10");
+        groupField.setText("");
+        scriptField.setText("");
+        transactionCommandsField.setText("");
+        transactionReadsField.setText("");
+        transactionWatchField.setText("");
+        transactionMaxRetriesField.setText("10");
+        keyDistributionSelector.setSelectedItem(RedisSampler.KEY_DISTRIBUTION_FIXED);
+        keyspaceField.setText("1000000");
+        zipfThetaField.setText("0.99");
+        hotKeysField.setText("0.2");
+        hotOpsField.setText("0.8");
+        valueSizesField.setText("");
+        valueFileField.setText("");
+        binaryCheckBox.setSelected(false);
+        codecField.setText("");
+        leanResponseCheckBox.setSelected(false);
+        fullCaptureCheckBox.setSelected(false);
+        hdrFileField.setText("");
+
+        metricsEnabledCheckBox.setSelected(false);
+        metricsPortField.setText("0");
+        metricsPortField.setEnabled(false);
+
+        stubEnabledCheckBox.setSelected(false);
+        stubLatencyField.setText("0");
+        stubLatencyField.setEnabled(false);
+        stubErrorRateField.setText("0");
+        stubErrorRateField.setEnabled(false);
+        preloadKeysField.setText("0");
+        preloadTtlField.setText("");
+        preloadConnectionsField.setText("4");
+        preloadBatchField.setText("1000");
+        churnRateField.setText("0");
+        churnBorrowsField.setText("0");
+        failoverObserveCheckBox.setSelected(false);
+        failoverProbeIntervalField.setText("100");
+        failoverProbeIntervalField.setEnabled(false);
+        serverStatsCollectCheckBox.setSelected(false);
+        serverStatsIntervalField.setText("1000");
+        serverStatsIntervalField.setEnabled(false);
+        serverStatsFileField.setText("");
+        serverStatsFileField.setEnabled(false);
     }
 
     protected void addIntegerRangeCheck(final JTextField input, int min, long max) {
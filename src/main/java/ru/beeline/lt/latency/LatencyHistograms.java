@@ -0,0 +1,134 @@
+package ru.beeline.lt.latency;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Latency recorders of the running test, grouped by output file.
+ * Every JMeter thread registers its own recorders; at the end of the test the recorders of each operation
+ * are merged and written as one tagged interval of an {@code .hlog} file plus an {@code .hgrm} percentile
+ * distribution per operation, both in microseconds.
+ * <p>
+ * On a remote engine of a distributed run the host name of the engine is added to the file names, so the logs of all
+ * engines can be collected into one directory and merged into cluster-wide percentiles by {@link LatencyMerge}.
+ */
+public class LatencyHistograms {
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyHistograms.class);
+
+    private static final Map<String, Queue<LatencyRecorder>> RECORDERS = new ConcurrentHashMap<>();
+    private static volatile long startMillis;
+    private static volatile String engine;
+
+    /**
+     * Names the files of this engine after its host, for a test started by a remote controller.
+     */
+    public static void setEngine(String host) {
+        engine = host == null || host.isBlank() ? null : host.trim();
+    }
+
+    /**
+     * @param file  output file name without extension
+     * @param label operation label, used as the histogram tag
+     * @return a new recorder owned by the calling thread
+     */
+    public static LatencyRecorder register(String file, String label) {
+        if (startMillis == 0) {
+            startMillis = System.currentTimeMillis();
+        }
+        LatencyRecorder recorder = new LatencyRecorder(label);
+        RECORDERS.computeIfAbsent(file, k -> new ConcurrentLinkedQueue<>()).add(recorder);
+        return recorder;
+    }
+
+    /**
+     * Merges and writes the recorded histograms, then forgets them. Called when all threads are done.
+     */
+    public static synchronized void writeAll() {
+        long endMillis = System.currentTimeMillis();
+        String engine = LatencyHistograms.engine;
+        RECORDERS.forEach((file, recorders) -> {
+            if (RECORDERS.remove(file, recorders)) {
+                write(engine == null ? file : file + "-" + fileNamePart(engine), engine, merge(recorders), startMillis, endMillis);
+            }
+        });
+        startMillis = 0;
+        LatencyHistograms.engine = null;
+    }
+
+    private static String fileNamePart(String text) {
+        return text.replaceAll("[^\\w.-]+", "_");
+    }
+
+    /**
+     * @return merged histogram per label, in registration order
+     */
+    static Map<String, Histogram> merge(Iterable<LatencyRecorder> recorders) {
+        Map<String, Histogram> merged = new LinkedHashMap<>();
+        for (LatencyRecorder recorder : recorders) {
+            merged.computeIfAbsent(recorder.label(), label -> {
+                Histogram histogram = new Histogram(LatencyRecorder.HIGHEST_TRACKABLE_MICROS, LatencyRecorder.SIGNIFICANT_DIGITS);
+                histogram.setTag(label);
+                return histogram;
+            }).add(recorder.histogram());
+        }
+        return merged;
+    }
+
+    /**
+     * @param engine host of the engine that recorded the histograms, {@code null} for a local or merged run
+     */
+    static void write(String file, String engine, Map<String, Histogram> histograms, long startMillis, long endMillis) {
+        try (PrintStream out = new PrintStream(file + ".hlog")) {
+            HistogramLogWriter writer = new HistogramLogWriter(out);
+            writer.outputComment(engine == null ? "Redis Sampler latency, microseconds"
+                    : "Redis Sampler latency of engine %s, microseconds".formatted(engine));
+            writer.outputLogFormatVersion();
+            writer.outputStartTime(startMillis);
+            writer.setBaseTime(startMillis);
+            writer.outputLegend();
+            histograms.forEach((label, histogram) -> {
+                // log readers split lines at spaces and commas, tags must not contain them
+                histogram.setTag(label.replaceAll("[\\s,]+", "_"));
+                histogram.setStartTimeStamp(startMillis);
+                histogram.setEndTimeStamp(endMillis);
+                writer.outputIntervalHistogram(histogram);
+            });
+        } catch (FileNotFoundException e) {
+            log.error("Failed to write latency log %s.hlog".formatted(file), e);
+        }
+        histograms.forEach((label, histogram) -> {
+            String distribution = "%s-%s.hgrm".formatted(file, fileNamePart(label));
+            try (PrintStream out = new PrintStream(distribution)) {
+                histogram.outputPercentileDistribution(out, 1.0);
+            } catch (FileNotFoundException e) {
+                log.error("Failed to write latency distribution %s".formatted(distribution), e);
+            }
+            log.info("Latency of %s, us: count=%d, %.1f/s, p50=%d, p99=%d, p99.9=%d, p99.99=%d, max=%d".formatted(label,
+                    histogram.getTotalCount(),
+                    throughput(histogram.getTotalCount(), startMillis, endMillis),
+                    histogram.getValueAtPercentile(50),
+                    histogram.getValueAtPercentile(99),
+                    histogram.getValueAtPercentile(99.9),
+                    histogram.getValueAtPercentile(99.99),
+                    histogram.getMaxValue()));
+        });
+    }
+
+    /**
+     * @return commands per second over the interval
+     */
+    static double throughput(long count, long startMillis, long endMillis) {
+        return endMillis > startMillis ? count * 1000.0 / (endMillis - startMillis) : 0;
+    }
+}
@@ -0,0 +1,101 @@
+package ru.beeline.lt.latency;
+
+import org.HdrHistogram.EncodableHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Merges the latency logs of the engines of a distributed run. HDR histograms add up without loss, so the merged
+ * percentiles are those of all commands of the run, which no combination of per-engine percentiles or of JMeter's
+ * summarized results gives. Histograms are merged by tag, the sampler and operation; the merged interval spans from
+ * the earliest start to the latest end of the engines, and the throughput is the merged count over it.
+ */
+public class LatencyMerge {
+
+    private final Map<String, Histogram> histograms = new LinkedHashMap<>();
+    private final Map<String, Set<String>> engines = new LinkedHashMap<>(); // logs that recorded each label
+    private long startMillis = Long.MAX_VALUE;
+    private long endMillis;
+
+    /**
+     * Adds the histograms of one engine's {@code .hlog}.
+     *
+     * @throws IOException if the log can not be read
+     */
+    public LatencyMerge add(File log) throws IOException {
+        try (HistogramLogReader reader = new HistogramLogReader(log)) {
+            for (EncodableHistogram interval = reader.nextIntervalHistogram(); interval != null; interval = reader.nextIntervalHistogram()) {
+                if (!(interval instanceof Histogram histogram)) {
+                    throw new IOException("Unexpected %s in %s".formatted(interval.getClass().getSimpleName(), log));
+                }
+                String label = histogram.getTag() == null ? "" : histogram.getTag();
+                histograms.computeIfAbsent(label, tag -> {
+                    Histogram merged = new Histogram(LatencyRecorder.HIGHEST_TRACKABLE_MICROS, LatencyRecorder.SIGNIFICANT_DIGITS);
+                    merged.setTag(tag);
+                    return merged;
+                }).add(histogram);
+                engines.computeIfAbsent(label, tag -> new LinkedHashSet<>()).add(log.getName());
+                startMillis = Math.min(startMillis, histogram.getStartTimeStamp());
+                endMillis = Math.max(endMillis, histogram.getEndTimeStamp());
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed latency log " + log, e);
+        }
+        return this;
+    }
+
+    public Map<String, Histogram> histograms() {
+        return histograms;
+    }
+
+    /**
+     * Writes the merged {@code <file>.hlog} and {@code <file>-<label>.hgrm} distributions, like a single engine does.
+     */
+    public void write(String file) {
+        LatencyHistograms.write(file, null, histograms, startMillis, endMillis);
+    }
+
+    /**
+     * @return one line per label: engines, count, throughput and percentiles in microseconds
+     */
+    public String summary() {
+        StringBuilder summary = new StringBuilder("%-40s %7s %12s %12s %8s %8s %8s %8s %8s%n".formatted(
+                "label", "engines", "count", "per second", "p50", "p99", "p99.9", "p99.99", "max"));
+        histograms.forEach((label, histogram) -> summary.append("%-40s %7d %12d %12.1f %8d %8d %8d %8d %8d%n".formatted(label,
+                engines.get(label).size(),
+                histogram.getTotalCount(),
+                LatencyHistograms.throughput(histogram.getTotalCount(), startMillis, endMillis),
+                histogram.getValueAtPercentile(50),
+                histogram.getValueAtPercentile(99),
+                histogram.getValueAtPercentile(99.9),
+                histogram.getValueAtPercentile(99.99),
+                histogram.getMaxValue())));
+        return summary.toString();
+    }
+
+    /**
+     * Merges engine logs: {@code java -cp <plugin jar and dependencies> ru.beeline.lt.latency.LatencyMerge
+     * <merged file without extension> <engine .hlog>...}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Expected <merged file without extension> <engine .hlog>...");
+        }
+        LatencyMerge merge = new LatencyMerge();
+        for (int i = 1; i < args.length; i++) {
+            merge.add(new File(args[i]));
+        }
+        if (merge.histograms().isEmpty()) {
+            throw new IllegalArgumentException("No histograms in the logs");
+        }
+        merge.write(args[0]);
+        System.out.printf("Merged %d logs into %s.hlog%n%s", args.length - 1, args[0], merge.summary());
+    }
+}
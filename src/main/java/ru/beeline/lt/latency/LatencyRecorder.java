@@ -0,0 +1,48 @@
+package ru.beeline.lt.latency;
+
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.IntCountsHistogram;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microsecond latency histogram of one sampler operation in one JMeter thread.
+ * Recording is a plain array increment: no allocation and no synchronization on the sample path.
+ */
+public class LatencyRecorder {
+
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    static final int SIGNIFICANT_DIGITS = 3;
+
+    private final String label;
+    // int counts keep a histogram per thread small, they are merged into long counts at the end of the test
+    private final AbstractHistogram histogram = new IntCountsHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+
+    LatencyRecorder(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public void recordNanos(long nanos) {
+        histogram.recordValue(toMicros(nanos));
+    }
+
+    /**
+     * Records {@code count} commands that took {@code nanos} each, e.g. the average of a pipeline.
+     */
+    public void recordNanos(long nanos, long count) {
+        histogram.recordValueWithCount(toMicros(nanos), count);
+    }
+
+    AbstractHistogram histogram() {
+        return histogram;
+    }
+
+    private static long toMicros(long nanos) {
+        // slower commands are counted at the upper bound rather than failing the sample
+        return Math.max(0, Math.min(nanos / 1_000, HIGHEST_TRACKABLE_MICROS));
+    }
+}
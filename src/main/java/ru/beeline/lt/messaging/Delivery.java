@@ -0,0 +1,24 @@
+package ru.beeline.lt.messaging;
+
+/**
+ * Message received by a {@link Subscription}.
+ *
+ * @param source      channel or stream the message came from
+ * @param id          stream entry ID, {@code null} for pub/sub
+ * @param publishedAt {@link MessageStamp} set by the producer, {@code -1} if the message has none
+ * @param receivedAt  {@link MessageStamp#now()} when the listener thread read the message
+ * @param size        payload size in bytes
+ */
+public record Delivery(String source, String id, long publishedAt, long receivedAt, int size) {
+
+    public boolean isStamped() {
+        return publishedAt >= 0;
+    }
+
+    /**
+     * @return end-to-end delivery latency, from the producer timestamp to the receipt
+     */
+    public long latencyNanos() {
+        return receivedAt - publishedAt;
+    }
+}
@@ -0,0 +1,66 @@
+package ru.beeline.lt.messaging;
+
+import java.time.Instant;
+
+/**
+ * Publish timestamp carried by the messages of {@link RedisProducerSampler}, in nanoseconds since the epoch.
+ * The epoch time is read once and advanced by {@link System#nanoTime()}, so latencies measured within one JVM
+ * have nanosecond resolution; across load generators they are as accurate as the clock synchronization of the hosts.
+ * <p>
+ * A pub/sub message is the timestamp, {@code ':'} and the payload; a stream entry has the
+ * {@value #TIMESTAMP_FIELD} and {@value #PAYLOAD_FIELD} fields.
+ */
+public final class MessageStamp {
+
+    public static final String TIMESTAMP_FIELD = "ts";
+    public static final String PAYLOAD_FIELD = "payload";
+    private static final char SEPARATOR = ':';
+
+    private static final long EPOCH_OFFSET_NANOS;
+
+    static {
+        Instant now = Instant.now();
+        EPOCH_OFFSET_NANOS = now.getEpochSecond() * 1_000_000_000L + now.getNano() - System.nanoTime();
+    }
+
+    private MessageStamp() {
+    }
+
+    public static long now() {
+        return EPOCH_OFFSET_NANOS + System.nanoTime();
+    }
+
+    public static String stamp(long timestamp, String payload) {
+        return Long.toString(timestamp) + SEPARATOR + payload;
+    }
+
+    /**
+     * @return the timestamp of a stamped pub/sub message, {@code -1} if it has none
+     */
+    public static long timestampOf(String message) {
+        int separator = message.indexOf(SEPARATOR);
+        return separator > 0 ? parse(message.substring(0, separator)) : -1;
+    }
+
+    /**
+     * @return the payload of a stamped pub/sub message, the message itself if it has no timestamp
+     */
+    public static String payloadOf(String message) {
+        int separator = message.indexOf(SEPARATOR);
+        return separator > 0 && parse(message.substring(0, separator)) >= 0 ? message.substring(separator + 1) : message;
+    }
+
+    /**
+     * @return the timestamp of a stream entry field, {@code -1} if it is missing or malformed
+     */
+    public static long parse(String timestamp) {
+        if (timestamp == null || timestamp.isEmpty()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(timestamp);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
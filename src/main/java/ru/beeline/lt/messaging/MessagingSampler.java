@@ -0,0 +1,277 @@
+package ru.beeline.lt.messaging;
+
+import org.apache.jmeter.samplers.AbstractSampler;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.testelement.TestStateListener;
+import org.apache.jmeter.testelement.ThreadListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.DefaultJedisClientConfig;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisClientConfig;
+import ru.beeline.lt.error.ErrorClass;
+import ru.beeline.lt.error.ErrorLog;
+import ru.beeline.lt.tls.TlsSocketFactories;
+
+import java.nio.charset.Charset;
+
+/**
+ * Connection and destination settings shared by {@link RedisProducerSampler} and {@link RedisConsumerSampler}.
+ * Messages go through pub/sub channels or streams of a standalone server; every JMeter thread has its own connection.
+ * Connection properties have the names of {@link ru.beeline.lt.RedisSampler}.
+ */
+public abstract class MessagingSampler extends AbstractSampler implements ThreadListener, TestStateListener {
+
+    private static final Logger log = LoggerFactory.getLogger(MessagingSampler.class);
+    private static final long serialVersionUID = 2950187455206391738L;
+
+    private static final String REDIS_HOST_PROP = "RedisSampler.connection.host";
+    private static final String REDIS_PORT_PROP = "RedisSampler.connection.port";
+    private static final String REDIS_CLIENT_NAME_PROP = "RedisSampler.connection.client_name";
+    private static final String REDIS_USER_PROP = "RedisSampler.connection.user";
+    private static final String REDIS_PASSWORD_PROP = "RedisSampler.connection.password";
+    private static final String REDIS_TIMEOUT_PROP = "RedisSampler.connection.timeout";
+    private static final String REDIS_DATABASE_PROP = "RedisSampler.connection.database";
+    private static final String REDIS_TLS_ENABLED_PROP = "RedisSampler.tls.enabled";
+    private static final String REDIS_TLS_KEYSTORE_PROP = "RedisSampler.tls.keystore";
+    private static final String REDIS_TLS_KEYSTORE_PASSWORD_PROP = "RedisSampler.tls.keystore_password";
+    private static final String REDIS_TLS_TRUSTSTORE_PROP = "RedisSampler.tls.truststore";
+    private static final String REDIS_TLS_TRUSTSTORE_PASSWORD_PROP = "RedisSampler.tls.truststore_password";
+    private static final String REDIS_TLS_SKIP_HOSTNAME_CHECK_PROP = "RedisSampler.tls.skip_hostname_check";
+    private static final String REDIS_TRANSPORT_PROP = "RedisSampler.messaging.transport";
+    private static final String REDIS_DESTINATION_PROP = "RedisSampler.messaging.destination";
+    private static final String REDIS_LEAN_RESPONSE_PROP = "RedisSampler.response.lean";
+
+    protected static final String DEFAULT_CHARSET = Charset.defaultCharset().name();
+
+    public static final String TRANSPORT_PUBSUB = "PUBSUB";
+    public static final String TRANSPORT_STREAM = "STREAM";
+
+    public String getHost() {
+        return getPropertyAsString(REDIS_HOST_PROP);
+    }
+
+    public void setHost(String host) {
+        setProperty(REDIS_HOST_PROP, host);
+    }
+
+    public String getPort() {
+        return getPropertyAsString(REDIS_PORT_PROP);
+    }
+
+    public void setPort(String port) {
+        setProperty(REDIS_PORT_PROP, port);
+    }
+
+    public String getUser() {
+        return getPropertyAsString(REDIS_USER_PROP);
+    }
+
+    public void setUser(String user) {
+        setProperty(REDIS_USER_PROP, user);
+    }
+
+    public String getPassword() {
+        return getPropertyAsString(REDIS_PASSWORD_PROP);
+    }
+
+    public void setPassword(String password) {
+        setProperty(REDIS_PASSWORD_PROP, password);
+    }
+
+    public String getTimeout() {
+        return getPropertyAsString(REDIS_TIMEOUT_PROP);
+    }
+
+    public void setTimeout(String timeout) {
+        setProperty(REDIS_TIMEOUT_PROP, timeout);
+    }
+
+    public String getDatabase() {
+        return getPropertyAsString(REDIS_DATABASE_PROP);
+    }
+
+    public void setDatabase(String database) {
+        setProperty(REDIS_DATABASE_PROP, database);
+    }
+
+    public String getClientName() {
+        return getPropertyAsString(REDIS_CLIENT_NAME_PROP);
+    }
+
+    public void setClientName(String clientName) {
+        setProperty(REDIS_CLIENT_NAME_PROP, clientName);
+    }
+
+    public boolean isTlsEnabled() {
+        return getPropertyAsBoolean(REDIS_TLS_ENABLED_PROP);
+    }
+
+    public void setTlsEnabled(boolean tlsEnabled) {
+        setProperty(REDIS_TLS_ENABLED_PROP, tlsEnabled);
+    }
+
+    public String getTlsKeystore() {
+        return getPropertyAsString(REDIS_TLS_KEYSTORE_PROP);
+    }
+
+    public void setTlsKeystore(String tlsKeystore) {
+        setProperty(REDIS_TLS_KEYSTORE_PROP, tlsKeystore);
+    }
+
+    public String getTlsKeystorePassword() {
+        return getPropertyAsString(REDIS_TLS_KEYSTORE_PASSWORD_PROP);
+    }
+
+    public void setTlsKeystorePassword(String tlsKeystorePassword) {
+        setProperty(REDIS_TLS_KEYSTORE_PASSWORD_PROP, tlsKeystorePassword);
+    }
+
+    public String getTlsTruststore() {
+        return getPropertyAsString(REDIS_TLS_TRUSTSTORE_PROP);
+    }
+
+    public void setTlsTruststore(String tlsTruststore) {
+        setProperty(REDIS_TLS_TRUSTSTORE_PROP, tlsTruststore);
+    }
+
+    public String getTlsTruststorePassword() {
+        return getPropertyAsString(REDIS_TLS_TRUSTSTORE_PASSWORD_PROP);
+    }
+
+    public void setTlsTruststorePassword(String tlsTruststorePassword) {
+        setProperty(REDIS_TLS_TRUSTSTORE_PASSWORD_PROP, tlsTruststorePassword);
+    }
+
+    public boolean isTlsSkipHostnameCheck() {
+        return getPropertyAsBoolean(REDIS_TLS_SKIP_HOSTNAME_CHECK_PROP);
+    }
+
+    public void setTlsSkipHostnameCheck(boolean tlsSkipHostnameCheck) {
+        setProperty(REDIS_TLS_SKIP_HOSTNAME_CHECK_PROP, tlsSkipHostnameCheck);
+    }
+
+    public String getTransport() {
+        return getPropertyAsString(REDIS_TRANSPORT_PROP, TRANSPORT_PUBSUB);
+    }
+
+    public void setTransport(String transport) {
+        setProperty(REDIS_TRANSPORT_PROP, transport);
+    }
+
+    /**
+     * @return the channel, or the stream key
+     */
+    public String getDestination() {
+        return getPropertyAsString(REDIS_DESTINATION_PROP);
+    }
+
+    public void setDestination(String destination) {
+        setProperty(REDIS_DESTINATION_PROP, destination);
+    }
+
+    public boolean isLeanResponse() {
+        return getPropertyAsBoolean(REDIS_LEAN_RESPONSE_PROP);
+    }
+
+    public void setLeanResponse(boolean leanResponse) {
+        setProperty(REDIS_LEAN_RESPONSE_PROP, leanResponse);
+    }
+
+    public boolean isStream() {
+        return TRANSPORT_STREAM.equals(getTransport());
+    }
+
+    /**
+     * Opens a connection of the current thread to the configured server.
+     */
+    protected Jedis openConnection() {
+        return new Jedis(new HostAndPort(getPropertyAsString(REDIS_HOST_PROP), getPropertyAsInt(REDIS_PORT_PROP)), createClientConfig());
+    }
+
+    protected int getTimeoutMillis() {
+        return getPropertyAsInt(REDIS_TIMEOUT_PROP);
+    }
+
+    private JedisClientConfig createClientConfig() {
+        String user = getPropertyAsString(REDIS_USER_PROP);
+        String password = getPropertyAsString(REDIS_PASSWORD_PROP);
+        String clientName = getPropertyAsString(REDIS_CLIENT_NAME_PROP);
+        boolean tls = getPropertyAsBoolean(REDIS_TLS_ENABLED_PROP);
+        return DefaultJedisClientConfig.builder()
+                .timeoutMillis(getPropertyAsInt(REDIS_TIMEOUT_PROP))
+                .user(user.isEmpty() ? null : user)
+                .password(password.isEmpty() ? null : password)
+                .database(getPropertyAsInt(REDIS_DATABASE_PROP))
+                .clientName(clientName.isEmpty() ? null : clientName)
+                .ssl(tls)
+                .sslSocketFactory(!tls ? null : TlsSocketFactories.get(new TlsSocketFactories.Settings(
+                        getPropertyAsString(REDIS_TLS_KEYSTORE_PROP),
+                        getPropertyAsString(REDIS_TLS_KEYSTORE_PASSWORD_PROP),
+                        getPropertyAsString(REDIS_TLS_TRUSTSTORE_PROP),
+                        getPropertyAsString(REDIS_TLS_TRUSTSTORE_PASSWORD_PROP),
+                        !getPropertyAsBoolean(REDIS_TLS_SKIP_HOSTNAME_CHECK_PROP))))
+                .build();
+    }
+
+    /**
+     * Reads an integer property, falling back to the default when it is absent or blank.
+     */
+    protected int getIntProperty(String name, int defaultValue) {
+        String value = getPropertyAsString(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return Integer.parseInt(value.trim());
+    }
+
+    /**
+     * Fails the sample with the class of the error as the response code, like {@link ru.beeline.lt.RedisSampler}.
+     */
+    protected void setFailure(SampleResult result, Throwable e) {
+        if (result.getStartTime() == 0) {
+            result.sampleStart();
+        }
+        if (result.getEndTime() == 0) {
+            result.sampleEnd();
+        }
+        ErrorClass errorClass = ErrorClass.of(e);
+        ErrorLog.log(errorClass, e);
+        result.setSuccessful(false);
+        result.setResponseCode(errorClass.responseCode());
+        String message = e.toString();
+        result.setResponseMessage(message);
+        if (!isLeanResponse()) {
+            result.setResponseData(message, DEFAULT_CHARSET);
+            result.setDataType(SampleResult.TEXT);
+        }
+    }
+
+    @Override
+    public void testStarted() {
+        log.debug("testStarted() %s".formatted(getName()));
+    }
+
+    @Override
+    public void testStarted(String host) {
+        testStarted();
+    }
+
+    @Override
+    public void testEnded() {
+        log.debug("testEnded() %s".formatted(getName()));
+        TlsSocketFactories.reset();
+        ErrorLog.reset();
+    }
+
+    @Override
+    public void testEnded(String host) {
+        testEnded();
+    }
+
+    @Override
+    public void threadStarted() {
+        log.debug("threadStarted() + %s".formatted(Thread.currentThread().getName()));
+    }
+}
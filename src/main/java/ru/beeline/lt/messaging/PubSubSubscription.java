@@ -0,0 +1,65 @@
+package ru.beeline.lt.messaging;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+/**
+ * SUBSCRIBE to channels on a dedicated connection. Redis keeps no backlog of pub/sub messages, a slow subscriber
+ * is disconnected once its output buffer limit is hit, so the lag is the local backlog of the subscription.
+ */
+class PubSubSubscription extends Subscription {
+
+    private final Supplier<Jedis> connections;
+    private final String[] channels;
+    private volatile Jedis jedis;
+    private volatile JedisPubSub pubSub;
+
+    /**
+     * @param connections opens the connection of the listener
+     */
+    PubSubSubscription(String name, int capacity, Supplier<Jedis> connections, String... channels) {
+        super(name, capacity);
+        this.connections = connections;
+        this.channels = channels;
+    }
+
+    @Override
+    protected void listen() {
+        try (Jedis jedis = connections.get()) {
+            JedisPubSub pubSub = new JedisPubSub() {
+                @Override
+                public void onMessage(String channel, String message) {
+                    long receivedAt = MessageStamp.now();
+                    deliver(new Delivery(channel, null, MessageStamp.timestampOf(message), receivedAt,
+                            MessageStamp.payloadOf(message).getBytes(StandardCharsets.UTF_8).length));
+                }
+            };
+            this.jedis = jedis;
+            this.pubSub = pubSub;
+            if (isRunning()) {
+                jedis.subscribe(pubSub, channels); // returns once unsubscribed
+            }
+        }
+    }
+
+    @Override
+    protected void abort() {
+        JedisPubSub pubSub = this.pubSub;
+        Jedis jedis = this.jedis;
+        try {
+            if (pubSub != null && pubSub.isSubscribed()) {
+                pubSub.unsubscribe();
+                return;
+            }
+        } catch (JedisException e) {
+            // broken connection, close it below
+        }
+        if (jedis != null) {
+            jedis.close();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package ru.beeline.lt.messaging;
+
+import org.apache.jmeter.samplers.Entry;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.threads.JMeterVariables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports one consumed message per sample. Every JMeter thread owns a {@link Subscription} with its own listener thread:
+ * a subscriber of the channels, or a consumer of the stream group named after the JMeter thread.
+ * <p>
+ * The sample starts at the producer timestamp and lasts the end-to-end delivery latency; the throughput of the sample
+ * label is the consumed messages per second. The consumer lag goes to the {@value #LAG_VARIABLE} variable
+ * and the response message, with the receive rate of the subscription.
+ * Clocks of producer and consumer hosts must be synchronized; a negative latency from clock skew is reported as zero.
+ */
+public class RedisConsumerSampler extends MessagingSampler {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisConsumerSampler.class);
+    private static final long serialVersionUID = 6471583090128830552L;
+
+    private static final String REDIS_GROUP_PROP = "RedisSampler.messaging.group";
+    private static final String REDIS_BATCH_SIZE_PROP = "RedisSampler.messaging.batch_size";
+    private static final String REDIS_BUFFER_PROP = "RedisSampler.messaging.buffer";
+
+    private static final long POLL_MILLIS = 100;
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final int DEFAULT_BUFFER = 100_000;
+    private static final int MAX_BLOCK_MILLIS = 1000;
+    /** JMeter variable with the consumer lag at the last sample, in messages */
+    public static final String LAG_VARIABLE = "redis_lag";
+
+    private transient Subscription subscription;
+
+    public String getGroup() {
+        return getPropertyAsString(REDIS_GROUP_PROP);
+    }
+
+    public void setGroup(String group) {
+        setProperty(REDIS_GROUP_PROP, group);
+    }
+
+    public String getBatchSize() {
+        return getPropertyAsString(REDIS_BATCH_SIZE_PROP);
+    }
+
+    public void setBatchSize(String batchSize) {
+        setProperty(REDIS_BATCH_SIZE_PROP, batchSize);
+    }
+
+    public String getBuffer() {
+        return getPropertyAsString(REDIS_BUFFER_PROP);
+    }
+
+    public void setBuffer(String buffer) {
+        setProperty(REDIS_BUFFER_PROP, buffer);
+    }
+
+    /**
+     * @return the next consumed message, or {@code null} if none arrived within the poll interval
+     */
+    @Override
+    public SampleResult sample(Entry entry) {
+        Subscription subscription = this.subscription;
+        if (subscription == null) {
+            try {
+                subscription = createSubscription().start();
+                this.subscription = subscription;
+            } catch (RuntimeException e) {
+                SampleResult result = new SampleResult();
+                result.setSampleLabel(getName());
+                setFailure(result, e);
+                return result;
+            }
+        }
+        Throwable failure = subscription.takeFailure();
+        if (failure != null) {
+            SampleResult result = new SampleResult();
+            result.setSampleLabel(getName());
+            setFailure(result, failure);
+            return result;
+        }
+        Delivery delivery;
+        try {
+            delivery = subscription.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        if (delivery == null) {
+            return null;
+        }
+        SampleResult result = new SampleResult();
+        result.setSampleLabel(getName());
+        if (!delivery.isStamped()) {
+            setFailure(result, new UnstampedMessageException(delivery));
+            return result;
+        }
+        long latencyNanos = Math.max(0, delivery.latencyNanos());
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+        result.setStampAndTime(TimeUnit.NANOSECONDS.toMillis(delivery.publishedAt()), elapsed);
+        result.setLatency(elapsed);
+        result.setBodySize((long) delivery.size());
+        long lag = subscription.lag();
+        JMeterVariables variables = JMeterContextService.getContext().getVariables();
+        if (variables != null) {
+            variables.put(LAG_VARIABLE, Long.toString(lag));
+        }
+        result.setSuccessful(true);
+        result.setResponseCodeOK(); // 200 code
+        if (!isLeanResponse()) {
+            double rate = subscription.rate();
+            result.setResponseData("""
+                    {
+                        "source": "%s",
+                        "id": "%s",
+                        "latency": %d,
+                        "lag": %d,
+                        "rate": %.1f,
+                        "dropped": %d
+                    }
+                    """.formatted(delivery.source(), delivery.id(), latencyNanos, lag, rate, subscription.dropped()), DEFAULT_CHARSET);
+            result.setResponseMessage("lag %d, %.1f msg/s".formatted(lag, rate));
+        }
+        return result;
+    }
+
+    private Subscription createSubscription() {
+        String destination = getDestination().trim();
+        if (destination.isEmpty()) {
+            throw new IllegalStateException("No %s to consume from".formatted(isStream() ? "stream" : "channel"));
+        }
+        String consumer = Thread.currentThread().getName();
+        int buffer = getIntProperty(REDIS_BUFFER_PROP, DEFAULT_BUFFER);
+        if (!isStream()) {
+            return new PubSubSubscription(consumer, buffer, this::openConnection, destination.split("[,;\\s]+"));
+        }
+        String group = getGroup().trim();
+        if (group.isEmpty()) {
+            throw new IllegalStateException("Stream consumer requires a consumer group");
+        }
+        int timeout = getTimeoutMillis();
+        int blockMillis = timeout <= 0 ? MAX_BLOCK_MILLIS : Math.max(1, Math.min(MAX_BLOCK_MILLIS, timeout / 2));
+        return new StreamSubscription(consumer, buffer, this::openConnection, destination, group, consumer,
+                getIntProperty(REDIS_BATCH_SIZE_PROP, DEFAULT_BATCH_SIZE), blockMillis);
+    }
+
+    @Override
+    public void threadFinished() {
+        log.debug("threadFinished() + %s".formatted(Thread.currentThread().getName()));
+        Subscription subscription = this.subscription;
+        this.subscription = null;
+        if (subscription != null) {
+            subscription.close();
+        }
+    }
+}
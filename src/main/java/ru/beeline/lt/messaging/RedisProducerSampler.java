@@ -0,0 +1,96 @@
+package ru.beeline.lt.messaging;
+
+import org.apache.jmeter.samplers.Entry;
+import org.apache.jmeter.samplers.SampleResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.StreamEntryID;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Publishes one message per sample, stamped with the time it is sent: PUBLISH to a channel or XADD to a stream.
+ * The sample time is the publish round trip; the delivery latency is measured by {@link RedisConsumerSampler}.
+ */
+public class RedisProducerSampler extends MessagingSampler {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisProducerSampler.class);
+    private static final long serialVersionUID = -3581440287634260717L;
+
+    private static final String REDIS_PAYLOAD_PROP = "RedisSampler.messaging.payload";
+
+    private transient Jedis connection;
+
+    public String getPayload() {
+        return getPropertyAsString(REDIS_PAYLOAD_PROP);
+    }
+
+    public void setPayload(String payload) {
+        setProperty(REDIS_PAYLOAD_PROP, payload);
+    }
+
+    @Override
+    public SampleResult sample(Entry entry) {
+        String destination = getDestination();
+        String payload = getPayload();
+        boolean stream = isStream();
+        SampleResult result = new SampleResult();
+        result.setSampleLabel(getName());
+        try {
+            Jedis jedis = connection;
+            if (jedis == null) {
+                jedis = openConnection();
+                connection = jedis;
+            }
+            result.sampleStart(); // start stopwatch
+            long timestamp = MessageStamp.now();
+            String response;
+            if (stream) {
+                StreamEntryID id = jedis.xadd(destination, StreamEntryID.NEW_ENTRY,
+                        Map.of(MessageStamp.TIMESTAMP_FIELD, Long.toString(timestamp), MessageStamp.PAYLOAD_FIELD, payload));
+                response = id.toString();
+            } else {
+                response = "%d receivers".formatted(jedis.publish(destination, MessageStamp.stamp(timestamp, payload)));
+            }
+            result.sampleEnd(); // stop stopwatch
+            result.setSuccessful(true);
+            result.setResponseCodeOK(); // 200 code
+            result.setSentBytes(payload.getBytes(StandardCharsets.UTF_8).length);
+            if (!isLeanResponse()) {
+                result.setResponseData("""
+                        {
+                            "transport": "%s",
+                            "destination": "%s",
+                            "timestamp": %d,
+                            "response": "%s"
+                        }
+                        """.formatted(getTransport(), destination, timestamp, response), DEFAULT_CHARSET);
+                result.setResponseMessage(response);
+            }
+        } catch (Throwable e) {
+            closeConnection(); // reconnect on the next sample
+            setFailure(result, e);
+        }
+        return result;
+    }
+
+    private void closeConnection() {
+        Jedis jedis = connection;
+        connection = null;
+        if (jedis != null) {
+            try {
+                jedis.close();
+            } catch (RuntimeException e) {
+                log.debug("Failed to close producer connection", e);
+            }
+        }
+    }
+
+    @Override
+    public void threadFinished() {
+        log.debug("threadFinished() + %s".formatted(Thread.currentThread().getName()));
+        closeConnection();
+    }
+}
@@ -0,0 +1,112 @@
+package ru.beeline.lt.messaging;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.StreamEntryID;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.params.XReadGroupParams;
+import redis.clients.jedis.resps.StreamEntry;
+import redis.clients.jedis.resps.StreamGroupInfo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * XREADGROUP with BLOCK in a loop, as one consumer of the group. Entries are read with NOACK, like the XREADGROUP
+ * operation, so the pending list does not grow. A missing group is created at the end of the stream,
+ * so only entries added during the test are measured.
+ * <p>
+ * The lag adds the group lag reported by XINFO GROUPS (Redis 7 and later), refreshed every second, to the local backlog.
+ */
+class StreamSubscription extends Subscription {
+
+    private static final long LAG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Supplier<Jedis> connections;
+    private final String stream;
+    private final String group;
+    private final String consumer;
+    private final XReadGroupParams params;
+    private volatile Jedis jedis;
+    private volatile long groupLag;
+
+    /**
+     * @param connections opens the connection of the listener
+     * @param blockMillis BLOCK timeout of one read, below the socket timeout of the connection
+     */
+    StreamSubscription(String name, int capacity, Supplier<Jedis> connections, String stream, String group, String consumer,
+                       int batchSize, int blockMillis) {
+        super(name, capacity);
+        this.connections = connections;
+        this.stream = stream;
+        this.group = group;
+        this.consumer = consumer;
+        this.params = XReadGroupParams.xReadGroupParams().count(batchSize).block(blockMillis).noAck();
+    }
+
+    @Override
+    protected void listen() {
+        try (Jedis jedis = connections.get()) {
+            this.jedis = jedis;
+            createGroup(jedis);
+            Map<String, StreamEntryID> streams = Map.of(stream, StreamEntryID.UNRECEIVED_ENTRY);
+            long lagReadAt = System.nanoTime() - LAG_INTERVAL_NANOS;
+            while (isRunning()) {
+                List<Map.Entry<String, List<StreamEntry>>> reply = jedis.xreadGroup(group, consumer, params, streams);
+                long receivedAt = MessageStamp.now();
+                if (reply != null) {
+                    for (Map.Entry<String, List<StreamEntry>> entries : reply) {
+                        for (StreamEntry entry : entries.getValue()) {
+                            Map<String, String> fields = entry.getFields();
+                            String payload = fields.get(MessageStamp.PAYLOAD_FIELD);
+                            deliver(new Delivery(entries.getKey(), entry.getID().toString(),
+                                    MessageStamp.parse(fields.get(MessageStamp.TIMESTAMP_FIELD)), receivedAt,
+                                    payload == null ? 0 : payload.getBytes(StandardCharsets.UTF_8).length));
+                        }
+                    }
+                }
+                if (System.nanoTime() - lagReadAt >= LAG_INTERVAL_NANOS) {
+                    groupLag = readGroupLag(jedis);
+                    lagReadAt = System.nanoTime();
+                }
+            }
+        }
+    }
+
+    private void createGroup(Jedis jedis) {
+        try {
+            jedis.xgroupCreate(stream, group, StreamEntryID.LAST_ENTRY, true);
+        } catch (JedisDataException e) {
+            if (e.getMessage() == null || !e.getMessage().startsWith("BUSYGROUP")) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @return entries of the stream not yet delivered to the group, {@code 0} if the server does not tell
+     */
+    private long readGroupLag(Jedis jedis) {
+        for (StreamGroupInfo info : jedis.xinfoGroups(stream)) {
+            if (group.equals(info.getName())) {
+                return info.getGroupInfo().get("lag") instanceof Long lag ? lag : 0;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    protected void abort() {
+        Jedis jedis = this.jedis;
+        if (jedis != null) {
+            jedis.close(); // fails a blocked read, the listener sees it is closed
+        }
+    }
+
+    @Override
+    public long lag() {
+        return groupLag + backlog();
+    }
+}
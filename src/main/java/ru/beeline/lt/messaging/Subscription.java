@@ -0,0 +1,156 @@
+package ru.beeline.lt.messaging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Consumer of one JMeter thread: a dedicated listener thread reads messages on its own connection and queues them
+ * for {@link RedisConsumerSampler}. The receive time is taken by the listener, so the delivery latency does not
+ * include the time the message waits for the JMeter thread.
+ * <p>
+ * A failed connection is reported once through {@link #takeFailure()} and re-established after
+ * {@value #RECONNECT_DELAY_MILLIS} ms. Messages beyond the queue capacity are dropped and counted.
+ */
+public abstract class Subscription implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(Subscription.class);
+
+    static final long RECONNECT_DELAY_MILLIS = 1000;
+    private static final long CLOSE_TIMEOUT_MILLIS = 1000;
+
+    private final String name;
+    private final BlockingQueue<Delivery> deliveries;
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean running;
+    private long startedAt;
+    private Thread listener;
+
+    /**
+     * @param capacity messages received but not yet sampled that are kept
+     */
+    protected Subscription(String name, int capacity) {
+        this.name = name;
+        this.deliveries = new ArrayBlockingQueue<>(capacity);
+    }
+
+    public synchronized Subscription start() {
+        if (!running) {
+            running = true;
+            startedAt = System.nanoTime();
+            listener = new Thread(this::run, "redis-subscription-" + name);
+            listener.setDaemon(true);
+            listener.start();
+        }
+        return this;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                listen();
+            } catch (Exception e) {
+                if (!running) {
+                    break;
+                }
+                failure.set(e);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens a connection and receives messages until it fails or the subscription is closed.
+     */
+    protected abstract void listen() throws Exception;
+
+    /**
+     * Wakes up a {@link #listen()} blocked on its connection, called on close.
+     */
+    protected abstract void abort();
+
+    protected boolean isRunning() {
+        return running;
+    }
+
+    protected void deliver(Delivery delivery) {
+        received.incrementAndGet();
+        if (!deliveries.offer(delivery)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the next received message or {@code null} if none arrived within the timeout
+     */
+    public Delivery poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return deliveries.poll(timeout, unit);
+    }
+
+    /**
+     * @return the last connection failure not yet reported, or {@code null}
+     */
+    public Throwable takeFailure() {
+        return failure.getAndSet(null);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public long received() {
+        return received.get();
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * @return messages received but not yet sampled
+     */
+    public int backlog() {
+        return deliveries.size();
+    }
+
+    /**
+     * @return messages the consumer is behind the producers
+     */
+    public long lag() {
+        return backlog();
+    }
+
+    /**
+     * @return messages received per second since the subscription started
+     */
+    public double rate() {
+        long elapsed = System.nanoTime() - startedAt;
+        return elapsed <= 0 ? 0 : received.get() * 1e9 / elapsed;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        abort();
+        try {
+            listener.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Subscription %s closed: received=%d, dropped=%d, %.1f msg/s".formatted(name, received(), dropped(), rate()));
+    }
+}
@@ -0,0 +1,13 @@
+package ru.beeline.lt.messaging;
+
+/**
+ * Consumed message without a {@link MessageStamp}, e.g. published by another application to the same channel.
+ */
+public class UnstampedMessageException extends RuntimeException {
+
+    private static final long serialVersionUID = -5219630877452165023L;
+
+    public UnstampedMessageException(Delivery delivery) {
+        super("Message without a timestamp from %s%s".formatted(delivery.source(), delivery.id() == null ? "" : " " + delivery.id()));
+    }
+}
@@ -0,0 +1,19 @@
+package ru.beeline.lt.metrics;
+
+import java.util.Map;
+
+/**
+ * One value of a metric at the time of collection.
+ *
+ * @param type   Prometheus metric type, {@code counter} or {@code gauge}
+ * @param labels label names and values, in output order
+ */
+public record MetricSample(String name, String type, String help, Map<String, String> labels, double value) {
+
+    /**
+     * @return the name with the label values, e.g. {@code redis_sampler_errors_total.GET.JedisConnectionException}
+     */
+    public String qualifiedName() {
+        return labels.isEmpty() ? name : name + "." + String.join(".", labels.values());
+    }
+}
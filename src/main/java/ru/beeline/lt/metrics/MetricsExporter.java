@@ -0,0 +1,185 @@
+package ru.beeline.lt.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes {@link SamplerMetrics} while a test runs: as attributes of the {@value #OBJECT_NAME} MBean
+ * and, when a port is given, in the Prometheus text format at {@code http://<host>:<port>/metrics}.
+ */
+public class MetricsExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(MetricsExporter.class);
+
+    static final String OBJECT_NAME = "ru.beeline.lt:type=RedisSampler";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static ObjectName objectName;
+    private static HttpServer httpServer;
+
+    /**
+     * Starts the export unless it is already running; samplers of one test share it.
+     *
+     * @param httpPort Prometheus endpoint port, {@code 0} for JMX only
+     */
+    public static synchronized void start(int httpPort) throws IOException {
+        if (objectName == null) {
+            try {
+                ObjectName name = new ObjectName(OBJECT_NAME);
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name); // left by a test that did not end cleanly
+                }
+                server.registerMBean(new MetricsMBean(), name);
+                objectName = name;
+            } catch (JMException e) {
+                throw new IOException("Failed to register " + OBJECT_NAME, e);
+            }
+        }
+        if (httpServer == null && httpPort > 0) {
+            HttpServer server = HttpServer.create(new InetSocketAddress(httpPort), 0);
+            server.createContext("/metrics", MetricsExporter::handle);
+            server.start();
+            httpServer = server;
+            log.info("Prometheus metrics at http://%s:%d/metrics".formatted(server.getAddress().getHostString(), httpPort));
+        }
+    }
+
+    public static synchronized void stop() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                log.debug("Failed to unregister " + objectName, e);
+            }
+            objectName = null;
+        }
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] body = toPrometheusText(SamplerMetrics.collect()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Renders samples in the Prometheus text exposition format. Samples are grouped by metric name in the order
+     * the names first appear, since the format allows one block per metric.
+     */
+    static String toPrometheusText(List<MetricSample> samples) {
+        Map<String, List<MetricSample>> metrics = new LinkedHashMap<>();
+        for (MetricSample sample : samples) {
+            metrics.computeIfAbsent(sample.name(), name -> new ArrayList<>()).add(sample);
+        }
+        StringBuilder text = new StringBuilder();
+        for (List<MetricSample> metric : metrics.values()) {
+            MetricSample first = metric.get(0);
+            text.append("# HELP ").append(first.name()).append(' ').append(first.help()).append('\n');
+            text.append("# TYPE ").append(first.name()).append(' ').append(first.type()).append('\n');
+            for (MetricSample sample : metric) {
+                text.append(sample.name());
+                if (!sample.labels().isEmpty()) {
+                    text.append('{');
+                    String separator = "";
+                    for (Map.Entry<String, String> label : sample.labels().entrySet()) {
+                        text.append(separator).append(label.getKey()).append("=\"").append(escape(label.getValue())).append('"');
+                        separator = ",";
+                    }
+                    text.append('}');
+                }
+                text.append(' ').append(sample.value()).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * One read-only attribute per metric sample, named by {@link MetricSample#qualifiedName()}.
+     * Attributes appear as operations and error types are first seen.
+     */
+    private static class MetricsMBean implements DynamicMBean {
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            for (MetricSample sample : SamplerMetrics.collect()) {
+                if (sample.qualifiedName().equals(attribute)) {
+                    return sample.value();
+                }
+            }
+            throw new AttributeNotFoundException(attribute);
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            List<MetricSample> samples = SamplerMetrics.collect();
+            AttributeList result = new AttributeList();
+            for (String attribute : attributes) {
+                for (MetricSample sample : samples) {
+                    if (sample.qualifiedName().equals(attribute)) {
+                        result.add(new Attribute(attribute, sample.value()));
+                        break;
+                    }
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) {
+            throw new UnsupportedOperationException(actionName);
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            MBeanAttributeInfo[] attributes = SamplerMetrics.collect().stream()
+                    .map(sample -> new MBeanAttributeInfo(sample.qualifiedName(), Double.class.getName(), sample.help(),
+                            true, false, false))
+                    .toArray(MBeanAttributeInfo[]::new);
+            return new MBeanInfo(MetricsMBean.class.getName(), "Redis sampler live metrics", attributes, null, null, null);
+        }
+    }
+}
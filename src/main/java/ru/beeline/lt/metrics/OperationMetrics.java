@@ -0,0 +1,69 @@
+package ru.beeline.lt.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of one operation, shared by all samplers and threads running it.
+ * Updates are striped {@link LongAdder} increments, so the sample path does not contend on a shared cache line.
+ */
+public class OperationMetrics {
+
+    private final String operation;
+    private final LongAdder commands = new LongAdder();
+    private final LongAdder failedCommands = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    OperationMetrics(String operation) {
+        this.operation = operation;
+    }
+
+    public String operation() {
+        return operation;
+    }
+
+    /**
+     * @param count  commands of the sample, the pipeline depth for pipelined samples
+     * @param failed commands of the sample that failed
+     */
+    public void recordCommands(int count, int failed) {
+        commands.add(count);
+        if (failed > 0) {
+            failedCommands.add(failed);
+        }
+    }
+
+    /**
+     * @param count transaction retries after WATCH conflicts
+     */
+    public void recordRetries(int count) {
+        if (count > 0) {
+            retries.add(count);
+        }
+    }
+
+    /**
+     * @param type error class, e.g. the exception name
+     */
+    public void recordError(String type) {
+        errors.computeIfAbsent(type, t -> new LongAdder()).increment();
+    }
+
+    long commands() {
+        return commands.sum();
+    }
+
+    long failedCommands() {
+        return failedCommands.sum();
+    }
+
+    long retries() {
+        return retries.sum();
+    }
+
+    Map<String, LongAdder> errors() {
+        return errors;
+    }
+}
@@ -0,0 +1,405 @@
+package ru.beeline.lt.metrics;
+
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.beeline.lt.cache.ClientSideCache;
+import ru.beeline.lt.cache.ClientSideCaches;
+import ru.beeline.lt.codec.CodecStats;
+import ru.beeline.lt.codec.ValueCodecs;
+import ru.beeline.lt.resilience.ChurnPool;
+import ru.beeline.lt.openmodel.RateSearch;
+import ru.beeline.lt.openmodel.RateSearches;
+import ru.beeline.lt.resilience.FailoverObserver;
+import ru.beeline.lt.resilience.FailoverObservers;
+import ru.beeline.lt.server.ServerStatsCollector;
+import ru.beeline.lt.server.ServerStatsCollectors;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Live metrics of the running test: commands and errors per operation, the behaviour of the client connection pools,
+ * TLS handshakes, reconnects of churning pools, client-side caches, failover observers, server stats collectors and
+ * rate searches. Samplers feed counters on the sample path; the gauges of the other components are read from their registries
+ * on collection, so an idle registry costs nothing. Exported by {@link MetricsExporter}.
+ */
+public class SamplerMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(SamplerMetrics.class);
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private static final Map<String, OperationMetrics> OPERATIONS = new ConcurrentHashMap<>();
+    private static final Map<Object, Supplier<? extends Collection<? extends GenericObjectPool<?>>>> POOLS = new ConcurrentHashMap<>();
+    private static final LongAdder POOL_BORROWS = new LongAdder();
+    private static final LongAdder POOL_WAIT_NANOS = new LongAdder();
+    private static final LongAccumulator POOL_WAIT_MAX_NANOS = new LongAccumulator(Math::max, 0);
+    // counts of pools closed during the test, so the totals do not drop when a JMeter thread finishes
+    private static final LongAdder CLOSED_POOLS_CREATED = new LongAdder();
+    private static final LongAdder CLOSED_POOLS_DESTROYED = new LongAdder();
+    private static final LongAdder TLS_HANDSHAKES = new LongAdder();
+    private static final LongAdder TLS_HANDSHAKE_NANOS = new LongAdder();
+    private static final LongAccumulator TLS_HANDSHAKE_MAX_NANOS = new LongAccumulator(Math::max, 0);
+    private static final Phase RECONNECT_CONNECT = new Phase("connect");
+    private static final Phase RECONNECT_SETUP = new Phase("setup");
+    private static final Phase RECONNECT_FIRST_COMMAND = new Phase("first_command");
+
+    public static OperationMetrics operation(String name) {
+        OperationMetrics metrics = OPERATIONS.get(name);
+        return metrics != null ? metrics : OPERATIONS.computeIfAbsent(name, OperationMetrics::new);
+    }
+
+    /**
+     * @param nanos time spent waiting for a connection from a pool
+     */
+    public static void recordPoolWait(long nanos) {
+        POOL_BORROWS.increment();
+        POOL_WAIT_NANOS.add(nanos);
+        POOL_WAIT_MAX_NANOS.accumulate(nanos);
+    }
+
+    /**
+     * @param nanos time a new connection spent in the TLS handshake
+     */
+    public static void recordTlsHandshake(long nanos) {
+        TLS_HANDSHAKES.increment();
+        TLS_HANDSHAKE_NANOS.add(nanos);
+        TLS_HANDSHAKE_MAX_NANOS.accumulate(nanos);
+    }
+
+    /**
+     * @param reconnect setup timings of a connection opened by a churning pool
+     */
+    public static void recordReconnect(ChurnPool.Reconnect reconnect) {
+        RECONNECT_CONNECT.record(reconnect.connectNanos());
+        RECONNECT_SETUP.record(reconnect.setupNanos());
+        if (reconnect.firstCommandNanos() >= 0) {
+            RECONNECT_FIRST_COMMAND.record(reconnect.firstCommandNanos());
+        }
+    }
+
+    public static void registerPool(GenericObjectPool<?> pool) {
+        registerPools(pool, () -> List.of(pool));
+    }
+
+    /**
+     * @param owner key to unregister the pools with
+     * @param pools current pools of the owner, e.g. the node pools of a cluster client
+     */
+    public static void registerPools(Object owner, Supplier<? extends Collection<? extends GenericObjectPool<?>>> pools) {
+        POOLS.put(owner, pools);
+    }
+
+    /**
+     * Keeps the created and destroyed counts of closed pools; call after closing them.
+     */
+    public static void unregisterPools(Object owner) {
+        Supplier<? extends Collection<? extends GenericObjectPool<?>>> pools = POOLS.remove(owner);
+        if (pools != null) {
+            for (GenericObjectPool<?> pool : pools.get()) {
+                CLOSED_POOLS_CREATED.add(pool.getCreatedCount());
+                CLOSED_POOLS_DESTROYED.add(pool.getDestroyedCount());
+            }
+        }
+    }
+
+    public static List<MetricSample> collect() {
+        List<MetricSample> samples = new ArrayList<>();
+        List<OperationMetrics> operations = new ArrayList<>(OPERATIONS.values());
+        for (OperationMetrics metrics : operations) {
+            samples.add(new MetricSample("redis_sampler_commands_total", "counter", "Commands sent by operation",
+                    labels("operation", metrics.operation()), metrics.commands()));
+        }
+        for (OperationMetrics metrics : operations) {
+            samples.add(new MetricSample("redis_sampler_failed_commands_total", "counter", "Failed commands by operation",
+                    labels("operation", metrics.operation()), metrics.failedCommands()));
+        }
+        for (OperationMetrics metrics : operations) {
+            long retries = metrics.retries();
+            if (retries > 0) {
+                samples.add(new MetricSample("redis_sampler_transaction_retries_total", "counter",
+                        "Transactions retried after a WATCH conflict, by operation", labels("operation", metrics.operation()), retries));
+            }
+        }
+        for (OperationMetrics metrics : operations) {
+            metrics.errors().forEach((type, count) -> samples.add(new MetricSample("redis_sampler_errors_total", "counter",
+                    "Failed samples by operation and error type", labels("operation", metrics.operation(), "type", type), count.sum())));
+        }
+
+        long active = 0;
+        long idle = 0;
+        long waiters = 0;
+        long created = CLOSED_POOLS_CREATED.sum();
+        long destroyed = CLOSED_POOLS_DESTROYED.sum();
+        int pools = 0;
+        for (Supplier<? extends Collection<? extends GenericObjectPool<?>>> owner : POOLS.values()) {
+            for (GenericObjectPool<?> pool : owner.get()) {
+                pools++;
+                active += pool.getNumActive();
+                idle += pool.getNumIdle();
+                waiters += pool.getNumWaiters();
+                created += pool.getCreatedCount();
+                destroyed += pool.getDestroyedCount();
+            }
+        }
+        samples.add(gauge("redis_sampler_pools", "Open client connection pools", pools));
+        samples.add(gauge("redis_sampler_pool_active_connections", "Connections borrowed from the pools", active));
+        samples.add(gauge("redis_sampler_pool_idle_connections", "Idle connections in the pools", idle));
+        samples.add(gauge("redis_sampler_pool_waiters", "Threads waiting for a connection", waiters));
+        samples.add(counter("redis_sampler_pool_connections_created_total", "Connections created by the pools", created));
+        samples.add(counter("redis_sampler_pool_connections_destroyed_total", "Connections destroyed by the pools", destroyed));
+        samples.add(counter("redis_sampler_pool_borrows_total", "Connections borrowed by the samplers", POOL_BORROWS.sum()));
+        samples.add(counter("redis_sampler_pool_wait_seconds_total", "Time spent waiting for a connection",
+                POOL_WAIT_NANOS.sum() / NANOS_PER_SECOND));
+        samples.add(gauge("redis_sampler_pool_wait_max_seconds", "Longest wait for a connection",
+                POOL_WAIT_MAX_NANOS.get() / NANOS_PER_SECOND));
+
+        long handshakes = TLS_HANDSHAKES.sum();
+        if (handshakes > 0) {
+            samples.add(counter("redis_sampler_tls_handshakes_total", "TLS handshakes of new connections", handshakes));
+            samples.add(counter("redis_sampler_tls_handshake_seconds_total", "Time spent in TLS handshakes",
+                    TLS_HANDSHAKE_NANOS.sum() / NANOS_PER_SECOND));
+            samples.add(gauge("redis_sampler_tls_handshake_max_seconds", "Longest TLS handshake",
+                    TLS_HANDSHAKE_MAX_NANOS.get() / NANOS_PER_SECOND));
+        }
+        if (RECONNECT_CONNECT.count() > 0) {
+            samples.add(counter("redis_sampler_reconnects_total", "Connections opened by churning pools", RECONNECT_CONNECT.count()));
+            List<Phase> phases = List.of(RECONNECT_CONNECT, RECONNECT_SETUP, RECONNECT_FIRST_COMMAND);
+            for (Phase phase : phases) {
+                samples.add(new MetricSample("redis_sampler_reconnect_seconds_total", "counter",
+                        "Time spent per phase of reconnects", phase.labels(), phase.seconds()));
+            }
+            for (Phase phase : phases) {
+                samples.add(new MetricSample("redis_sampler_reconnect_max_seconds", "gauge",
+                        "Longest phase of a reconnect", phase.labels(), phase.maxSeconds()));
+            }
+        }
+        collectCaches(samples);
+        collectFailovers(samples);
+        collectRateSearches(samples);
+        collectCodecs(samples);
+        for (ServerStatsCollector collector : ServerStatsCollectors.all()) {
+            collector.latest().forEach((node, values) -> values.forEach((metric, value) ->
+                    samples.add(new MetricSample("redis_sampler_server_stat", "gauge",
+                            "Last polled server INFO field, SLOWLOG or LATENCY statistic",
+                            labels("target", collector.name(), "node", node, "metric", metric), value))));
+        }
+        return samples;
+    }
+
+    private static void collectCaches(List<MetricSample> samples) {
+        List<ClientSideCache> caches = new ArrayList<>(ClientSideCaches.all());
+        for (ClientSideCache cache : caches) {
+            samples.add(new MetricSample("redis_sampler_client_cache_hits_total", "counter",
+                    "Reads served by the client-side cache", labels("cache", cache.name()), cache.stats().hits()));
+        }
+        for (ClientSideCache cache : caches) {
+            samples.add(new MetricSample("redis_sampler_client_cache_misses_total", "counter",
+                    "Reads of the client-side cache sent to the server", labels("cache", cache.name()), cache.stats().misses()));
+        }
+        for (ClientSideCache cache : caches) {
+            samples.add(new MetricSample("redis_sampler_client_cache_invalidations_total", "counter",
+                    "Cached keys invalidated by the server", labels("cache", cache.name()), cache.stats().invalidations()));
+        }
+        for (ClientSideCache cache : caches) {
+            samples.add(new MetricSample("redis_sampler_client_cache_evictions_total", "counter",
+                    "Cached keys evicted by the size limit", labels("cache", cache.name()), cache.stats().evictions()));
+        }
+        for (ClientSideCache cache : caches) {
+            samples.add(new MetricSample("redis_sampler_client_cache_flushes_total", "counter",
+                    "Times the whole client-side cache was dropped", labels("cache", cache.name()), cache.stats().flushes()));
+        }
+        for (ClientSideCache cache : caches) {
+            samples.add(new MetricSample("redis_sampler_client_cache_entries", "gauge",
+                    "Replies in the client-side cache", labels("cache", cache.name()), cache.stats().entries()));
+        }
+    }
+
+    private static void collectFailovers(List<MetricSample> samples) {
+        List<FailoverObserver> observers = new ArrayList<>(FailoverObservers.all());
+        for (FailoverObserver observer : observers) {
+            samples.add(new MetricSample("redis_sampler_failover_available", "gauge",
+                    "Whether the last probe of the primary succeeded", labels("target", observer.name()),
+                    observer.stats().available() ? 1 : 0));
+        }
+        for (FailoverObserver observer : observers) {
+            samples.add(new MetricSample("redis_sampler_failover_probes_failed_total", "counter",
+                    "Failed write probes of the primary", labels("target", observer.name()), observer.stats().failedProbes()));
+        }
+        for (FailoverObserver observer : observers) {
+            samples.add(new MetricSample("redis_sampler_failover_outages_total", "counter",
+                    "Periods the primary did not accept writes", labels("target", observer.name()), observer.stats().outages()));
+        }
+        for (FailoverObserver observer : observers) {
+            samples.add(new MetricSample("redis_sampler_failover_primary_changes_total", "counter",
+                    "Times another server answered as the primary", labels("target", observer.name()),
+                    observer.stats().primaryChanges()));
+        }
+        for (FailoverObserver observer : observers) {
+            samples.add(new MetricSample("redis_sampler_failover_last_gap_seconds", "gauge",
+                    "Unavailability of the last outage, from the last probe before it to the first after it",
+                    labels("target", observer.name()), observer.stats().lastGapMillis() / 1000.0));
+        }
+        for (FailoverObserver observer : observers) {
+            samples.add(new MetricSample("redis_sampler_failover_max_gap_seconds", "gauge",
+                    "Longest unavailability of the primary", labels("target", observer.name()), observer.stats().maxGapMillis() / 1000.0));
+        }
+        for (FailoverObserver observer : observers) {
+            samples.add(new MetricSample("redis_sampler_failover_down_seconds_total", "counter",
+                    "Time the primary did not accept writes", labels("target", observer.name()), observer.stats().downMillis() / 1000.0));
+        }
+    }
+
+    private static void collectRateSearches(List<MetricSample> samples) {
+        List<RateSearch> searches = new ArrayList<>(RateSearches.all());
+        for (RateSearch search : searches) {
+            samples.add(new MetricSample("redis_sampler_rate_search_offered_rate", "gauge",
+                    "Command rate the adaptive load model currently offers", labels("sampler", search.name()), search.offeredRate()));
+        }
+        for (RateSearch search : searches) {
+            samples.add(new MetricSample("redis_sampler_rate_search_converged", "gauge",
+                    "Whether the search for the sustainable rate is done", labels("sampler", search.name()), search.isConverged() ? 1 : 0));
+        }
+        for (RateSearch search : searches) {
+            samples.add(new MetricSample("redis_sampler_rate_search_sustainable_rate", "gauge",
+                    "Highest command rate within the p99 SLO, 0 until the search is done", labels("sampler", search.name()),
+                    search.sustainableRate()));
+        }
+    }
+
+    private static void collectCodecs(List<MetricSample> samples) {
+        List<CodecStats> codecs = new ArrayList<>(ValueCodecs.all());
+        for (CodecStats stats : codecs) {
+            samples.add(new MetricSample("redis_sampler_codec_values_total", "counter", "Values encoded or decoded by codec",
+                    labels("codec", stats.codec(), "direction", "encode"), stats.encoded()));
+            samples.add(new MetricSample("redis_sampler_codec_values_total", "counter", "Values encoded or decoded by codec",
+                    labels("codec", stats.codec(), "direction", "decode"), stats.decoded()));
+        }
+        for (CodecStats stats : codecs) {
+            samples.add(new MetricSample("redis_sampler_codec_seconds_total", "counter",
+                    "Time spent in the codec, outside the sample elapsed time", labels("codec", stats.codec(), "direction", "encode"),
+                    stats.encodeNanos() / 1e9));
+            samples.add(new MetricSample("redis_sampler_codec_seconds_total", "counter",
+                    "Time spent in the codec, outside the sample elapsed time", labels("codec", stats.codec(), "direction", "decode"),
+                    stats.decodeNanos() / 1e9));
+        }
+        for (CodecStats stats : codecs) {
+            samples.add(new MetricSample("redis_sampler_codec_bytes_total", "counter", "Value bytes before and after the codec",
+                    labels("codec", stats.codec(), "direction", "encode", "form", "raw"), stats.encodeRawBytes()));
+            samples.add(new MetricSample("redis_sampler_codec_bytes_total", "counter", "Value bytes before and after the codec",
+                    labels("codec", stats.codec(), "direction", "encode", "form", "encoded"), stats.encodeEncodedBytes()));
+            samples.add(new MetricSample("redis_sampler_codec_bytes_total", "counter", "Value bytes before and after the codec",
+                    labels("codec", stats.codec(), "direction", "decode", "form", "encoded"), stats.decodeEncodedBytes()));
+            samples.add(new MetricSample("redis_sampler_codec_bytes_total", "counter", "Value bytes before and after the codec",
+                    labels("codec", stats.codec(), "direction", "decode", "form", "raw"), stats.decodeRawBytes()));
+        }
+    }
+
+    /**
+     * Logs the totals of the test and clears the registry for the next one.
+     */
+    public static void reset() {
+        if (!OPERATIONS.isEmpty()) {
+            OPERATIONS.values().forEach(metrics -> log.info("%s: commands=%d, failed=%d, retries=%d, errors=%s".formatted(
+                    metrics.operation(), metrics.commands(), metrics.failedCommands(), metrics.retries(), metrics.errors())));
+            long borrows = POOL_BORROWS.sum();
+            log.info("Pool: borrows=%d, mean wait=%d us, max wait=%d us".formatted(borrows,
+                    borrows == 0 ? 0 : POOL_WAIT_NANOS.sum() / borrows / 1000, POOL_WAIT_MAX_NANOS.get() / 1000));
+        }
+        long handshakes = TLS_HANDSHAKES.sum();
+        if (handshakes > 0) {
+            log.info("TLS: handshakes=%d, mean=%d us, max=%d us".formatted(handshakes,
+                    TLS_HANDSHAKE_NANOS.sum() / handshakes / 1000, TLS_HANDSHAKE_MAX_NANOS.get() / 1000));
+        }
+        long reconnects = RECONNECT_CONNECT.count();
+        if (reconnects > 0) {
+            log.info("Reconnects: %d, %s, %s, %s".formatted(reconnects, RECONNECT_CONNECT, RECONNECT_SETUP, RECONNECT_FIRST_COMMAND));
+        }
+        OPERATIONS.clear();
+        POOLS.clear();
+        POOL_BORROWS.reset();
+        POOL_WAIT_NANOS.reset();
+        POOL_WAIT_MAX_NANOS.reset();
+        CLOSED_POOLS_CREATED.reset();
+        CLOSED_POOLS_DESTROYED.reset();
+        TLS_HANDSHAKES.reset();
+        TLS_HANDSHAKE_NANOS.reset();
+        TLS_HANDSHAKE_MAX_NANOS.reset();
+        RECONNECT_CONNECT.reset();
+        RECONNECT_SETUP.reset();
+        RECONNECT_FIRST_COMMAND.reset();
+    }
+
+    private static MetricSample gauge(String name, String help, double value) {
+        return new MetricSample(name, "gauge", help, Map.of(), value);
+    }
+
+    private static MetricSample counter(String name, String help, double value) {
+        return new MetricSample(name, "counter", help, Map.of(), value);
+    }
+
+    private static Map<String, String> labels(String... namesAndValues) {
+        Map<String, String> labels = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            labels.put(namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return labels;
+    }
+
+    /**
+     * Count, total and maximum time of one phase of reconnects: {@code connect} (TCP and TLS),
+     * {@code setup} (authentication, database and client name) or {@code first_command}.
+     */
+    private static final class Phase {
+        private final String name;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        Phase(String name) {
+            this.name = name;
+        }
+
+        void record(long nanos) {
+            count.increment();
+            this.nanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        Map<String, String> labels() {
+            return SamplerMetrics.labels("phase", name);
+        }
+
+        double seconds() {
+            return nanos.sum() / NANOS_PER_SECOND;
+        }
+
+        double maxSeconds() {
+            return maxNanos.get() / NANOS_PER_SECOND;
+        }
+
+        void reset() {
+            count.reset();
+            nanos.reset();
+            maxNanos.reset();
+        }
+
+        @Override
+        public String toString() {
+            long count = count();
+            return "%s mean=%d us, max=%d us".formatted(name, count == 0 ? 0 : nanos.sum() / count / 1000, maxNanos.get() / 1000);
+        }
+    }
+}
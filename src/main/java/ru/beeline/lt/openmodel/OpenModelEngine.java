@@ -0,0 +1,503 @@
+package ru.beeline.lt.openmodel;
+
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.beeline.lt.resp.RespError;
+import ru.beeline.lt.resp.RespProtocol;
+
+import javax.net.ssl.SSLSocketFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open-model load engine: fires commands at a target rate over a few pipelined connections,
+ * independently of how fast Redis answers.
+ * <p>
+ * Every command has an intended send time on a fixed schedule. Latency is measured from that time,
+ * so when the engine falls behind (slow socket, in-flight limit reached) the wait is counted,
+ * avoiding coordinated omission. Completed commands are queued for JMeter threads to report.
+ * A failed connection is reopened on the same schedule, and the commands it loses are reported as failed.
+ */
+public class OpenModelEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenModelEngine.class);
+
+    private static final long SPIN_THRESHOLD_NANOS = 50_000;
+    private static final int COMPLETION_QUEUE_CAPACITY = 1 << 20;
+    private static final long RECONNECT_INTERVAL_MILLIS = 100;
+
+    private final Settings settings;
+    private final BlockingQueue<Completion> completions = new ArrayBlockingQueue<>(COMPLETION_QUEUE_CAPACITY);
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final List<Lane> lanes = new ArrayList<>();
+    private volatile boolean running;
+    private volatile double rate;
+    private volatile long laneIntervalNanos; // between the commands of one connection
+    private volatile long scheduleNanos; // start of the schedule at the current rate
+    private volatile Recorder latencyRecorder;
+    private volatile long windowStartNanos; // intended send times of the commands recorded
+    private volatile long windowEndNanos;
+    private final AtomicLong windowErrors = new AtomicLong();
+    private long baseNanos;
+    private long baseMillis;
+
+    public OpenModelEngine(Settings settings) {
+        this.settings = settings;
+        setRate(settings.rate());
+    }
+
+    public double rate() {
+        return rate;
+    }
+
+    /**
+     * Changes the target rate and restarts the schedule from now: ticks the engine fell behind on at the old rate
+     * are dropped, so their backlog is not measured against the new rate.
+     */
+    public void setRate(double rate) {
+        if (!(rate > 0)) {
+            throw new IllegalArgumentException("Open model rate must be positive: " + rate);
+        }
+        this.rate = rate;
+        this.laneIntervalNanos = Math.max(1, (long) (1e9 * settings.connections() / rate));
+        this.scheduleNanos = System.nanoTime();
+    }
+
+    /**
+     * Records the latency of successful commands, in microseconds, for a reader that samples intervals.
+     * Only commands intended to be sent within the window set by {@link #setLatencyWindow} are recorded.
+     *
+     * @param recorder {@code null} to stop recording
+     */
+    public void setLatencyRecorder(Recorder recorder) {
+        this.latencyRecorder = recorder;
+    }
+
+    /**
+     * Sets the intended send times, {@link System#nanoTime()} based, of the commands recorded by the latency recorder
+     * and counted by {@link #windowErrors()}.
+     */
+    public void setLatencyWindow(long startNanos, long endNanos) {
+        this.windowEndNanos = endNanos;
+        this.windowStartNanos = startNanos;
+    }
+
+    /**
+     * @return failed commands intended within the latency window, summed over all windows
+     */
+    public long windowErrors() {
+        return windowErrors.get();
+    }
+
+    /**
+     * Waits until every command intended before the given time is answered, at most the command timeout.
+     *
+     * @return {@code false} if commands intended before the time were still unsent or unanswered
+     */
+    public boolean awaitAnswered(long intendedNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.timeout());
+        while (true) {
+            boolean answered = true;
+            for (Lane lane : lanes) {
+                answered &= lane.answered(intendedNanos);
+            }
+            if (answered || !running) {
+                return answered;
+            }
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+    }
+
+    public long completed() {
+        return completed.get();
+    }
+
+    public long errors() {
+        return errors.get();
+    }
+
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        try {
+            for (int i = 0; i < settings.connections(); i++) {
+                lanes.add(new Lane(i));
+            }
+        } catch (IOException e) {
+            lanes.forEach(Lane::close);
+            lanes.clear();
+            throw e;
+        }
+        baseMillis = System.currentTimeMillis();
+        baseNanos = System.nanoTime();
+        scheduleNanos = baseNanos;
+        running = true;
+        for (Lane lane : lanes) {
+            lane.start();
+        }
+        log.info("Open model engine started: %s ops/s over %d connections to %s:%d".formatted(
+                rate, settings.connections(), settings.host(), settings.port()));
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Waits for the next completed command.
+     *
+     * @return the completion or {@code null} if none arrived within the timeout
+     */
+    public Completion poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return completions.poll(timeout, unit);
+    }
+
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        long elapsedNanos = System.nanoTime() - baseNanos;
+        for (Lane lane : lanes) {
+            lane.stop();
+        }
+        log.info("Open model engine stopped: sent=%d, completed=%d, errors=%d, not reported=%d, achieved %.1f ops/s".formatted(
+                sent.get(), completed.get(), errors.get(), dropped.get(), completed.get() * 1e9 / elapsedNanos));
+        if (dropped.get() > 0) {
+            log.warn("%d completions were not reported: add JMeter threads to drain the open model engine".formatted(dropped.get()));
+        }
+    }
+
+    private void complete(long intendedNanos, long completedNanos, String error) {
+        completed.incrementAndGet();
+        if (error != null) {
+            errors.incrementAndGet();
+        }
+        Recorder recorder = latencyRecorder;
+        if (recorder != null && intendedNanos - windowStartNanos >= 0 && intendedNanos - windowEndNanos < 0) {
+            if (error != null) {
+                windowErrors.incrementAndGet();
+            } else {
+                recorder.recordValue(Math.max(0, (completedNanos - intendedNanos) / 1_000));
+            }
+        }
+        long stamp = baseMillis + (intendedNanos - baseNanos) / 1_000_000;
+        if (!completions.offer(new Completion(stamp, completedNanos - intendedNanos, error))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Connects and authenticates a connection of the engine.
+     */
+    private Connection connect() throws IOException {
+        Socket plain = new Socket();
+        Socket socket = plain;
+        try {
+            plain.setTcpNoDelay(true);
+            plain.connect(new InetSocketAddress(settings.host(), settings.port()), settings.timeout());
+            if (settings.sslSocketFactory() != null) {
+                plain.setSoTimeout(settings.timeout()); // bounds the TLS handshake
+                socket = settings.sslSocketFactory().createSocket(plain, settings.host(), settings.port(), true);
+            }
+            Connection connection = new Connection(socket, new BufferedOutputStream(socket.getOutputStream(), 64 * 1024),
+                    new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+            handshake(connection);
+            return connection;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private void handshake(Connection connection) throws IOException {
+        connection.socket().setSoTimeout(settings.timeout());
+        if (settings.password() != null) {
+            if (settings.user() != null) {
+                connection.call("AUTH", settings.user(), settings.password());
+            } else {
+                connection.call("AUTH", settings.password());
+            }
+        }
+        if (settings.database() != 0) {
+            connection.call("SELECT", Integer.toString(settings.database()));
+        }
+        if (settings.clientName() != null) {
+            connection.call("CLIENT", "SETNAME", settings.clientName());
+        }
+        connection.socket().setSoTimeout(0);
+    }
+
+    /**
+     * @param socket TLS socket over the connected one when TLS is enabled
+     */
+    private record Connection(Socket socket, OutputStream out, InputStream in) {
+        void call(String... args) throws IOException {
+            out.write(RespProtocol.encodeCommand(args));
+            out.flush();
+            if (RespProtocol.readReply(in) instanceof RespError error) {
+                throw new IOException("%s failed: %s".formatted(args[0], error.message()));
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                log.debug("Failed to close open model connection", e);
+            }
+        }
+    }
+
+    /**
+     * One connection with its own sender and receiver threads.
+     * Commands are answered in order, so the receiver matches replies to the intended send times
+     * kept in a single-producer single-consumer ring.
+     * <p>
+     * When the connection fails, the commands in flight complete with the failure and the sender reconnects,
+     * keeping the schedule: commands intended while the lane is disconnected complete as failed too.
+     */
+    private class Lane {
+        private final int index;
+        private final long[] inFlight;
+        private final int mask;
+        private final AtomicLong head = new AtomicLong(); // written by sender
+        private final AtomicLong tail = new AtomicLong(); // written by receiver, by sender while the receiver is idle
+        private final AtomicReference<IOException> failure = new AtomicReference<>(); // first failure of the connection
+        private volatile Connection connection; // replaced by sender only
+        private volatile Connection receiverIdle; // failed connection the receiver no longer reads
+        private volatile long pending; // intended send time of the next unsent command
+        private boolean commandFailureLogged;
+        private Thread sender;
+        private Thread receiver;
+
+        Lane(int index) throws IOException {
+            this.index = index;
+            int capacity = Integer.highestOneBit(Math.max(1, settings.maxInFlight() - 1)) << 1;
+            this.inFlight = new long[capacity];
+            this.mask = capacity - 1;
+            this.connection = connect();
+        }
+
+        void start() {
+            sender = new Thread(this::send, "redis-open-model-sender-" + index);
+            receiver = new Thread(this::receive, "redis-open-model-receiver-" + index);
+            sender.setDaemon(true);
+            receiver.setDaemon(true);
+            receiver.start();
+            sender.start();
+        }
+
+        private void send() {
+            Supplier<byte[]> commands = settings.commands();
+            Connection connection = this.connection;
+            long schedule = 0;
+            long next = 0;
+            while (running) {
+                try {
+                    if (receiverIdle == connection) {
+                        throw failure.get();
+                    }
+                    long interval = laneIntervalNanos;
+                    if (schedule != scheduleNanos) {
+                        // the rate changed: start over at the new rate instead of catching up on missed ticks
+                        schedule = scheduleNanos;
+                        next = schedule + interval * index / settings.connections();
+                        pending = next;
+                    }
+                    long now = System.nanoTime();
+                    if (now < next) {
+                        waitUntil(next);
+                        continue;
+                    }
+                    // send everything that is due, then flush once
+                    while (running && next <= now) {
+                        long h = head.get();
+                        if (h - tail.get() > mask) {
+                            break; // in-flight limit reached, the backlog is accounted in latency
+                        }
+                        byte[] command;
+                        try {
+                            command = commands.get();
+                        } catch (RuntimeException e) {
+                            failCommand(next, e);
+                            next += interval;
+                            continue;
+                        }
+                        inFlight[(int) (h & mask)] = next;
+                        head.set(h + 1); // publish the slot before the reply can arrive
+                        connection.out().write(command);
+                        sent.incrementAndGet();
+                        next += interval;
+                    }
+                    connection.out().flush();
+                    pending = next;
+                    if (next <= now) {
+                        LockSupport.parkNanos(SPIN_THRESHOLD_NANOS);
+                    }
+                } catch (IOException e) {
+                    if (!running) {
+                        return;
+                    }
+                    failure.compareAndSet(null, e);
+                    next = reconnect(connection, next);
+                    connection = this.connection;
+                }
+            }
+        }
+
+        private void failCommand(long intendedNanos, RuntimeException e) {
+            if (!commandFailureLogged) {
+                commandFailureLogged = true;
+                log.error("Open model sender %d failed to build a command".formatted(index), e);
+            }
+            complete(intendedNanos, System.nanoTime(), "Exception: " + e);
+        }
+
+        /**
+         * Fails the commands in flight on the failed connection and connects again. Commands that fall due
+         * until the connection is back fail with the last connection error.
+         *
+         * @return intended send time of the next command
+         */
+        private long reconnect(Connection failed, long next) {
+            IOException cause = failure.get();
+            log.error("Open model connection %d failed, reconnecting".formatted(index), cause);
+            failed.close(); // stops the receiver if it is still reading
+            while (running && receiverIdle != failed) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+            String error = "Exception: " + cause;
+            long now = System.nanoTime();
+            for (long t = tail.get(), h = head.get(); t < h; t++) {
+                complete(inFlight[(int) (t & mask)], now, error);
+            }
+            tail.set(head.get());
+            while (running) {
+                for (now = System.nanoTime(); next <= now; next += laneIntervalNanos) {
+                    complete(next, now, error);
+                }
+                pending = next;
+                try {
+                    Connection connection = connect();
+                    failure.set(null);
+                    this.connection = connection; // resumes the receiver
+                    log.info("Open model connection %d reconnected".formatted(index));
+                    return next;
+                } catch (IOException e) {
+                    error = "Exception: " + e;
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(RECONNECT_INTERVAL_MILLIS));
+                }
+            }
+            return next;
+        }
+
+        private void receive() {
+            Connection connection = this.connection;
+            while (running || tail.get() < head.get()) {
+                try {
+                    String error = RespProtocol.skipReply(connection.in());
+                    long now = System.nanoTime();
+                    long t = tail.get();
+                    head.get(); // acquire the slot published by the sender
+                    complete(inFlight[(int) (t & mask)], now, error);
+                    tail.lazySet(t + 1);
+                } catch (IOException e) {
+                    if (!running) {
+                        return;
+                    }
+                    // hand the commands in flight over to the sender, which fails them and reconnects
+                    failure.compareAndSet(null, e);
+                    connection.close();
+                    receiverIdle = connection;
+                    while (running && this.connection == connection) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    }
+                    connection = this.connection;
+                }
+            }
+        }
+
+        /**
+         * @return whether the lane sent every command intended before the time and received its reply
+         */
+        boolean answered(long intendedNanos) {
+            if (pending - intendedNanos < 0) {
+                return false;
+            }
+            long t = tail.get();
+            return t == head.get() || inFlight[(int) (t & mask)] - intendedNanos >= 0;
+        }
+
+        private void waitUntil(long deadline) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+
+        void stop() {
+            try {
+                sender.join(settings.timeout());
+                // give in-flight commands a chance to complete before closing the socket
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.timeout());
+                while (tail.get() < head.get() && System.nanoTime() < deadline) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            close();
+        }
+
+        void close() {
+            connection.close();
+        }
+    }
+
+    /**
+     * @param user             ACL user, {@code null} for the default user
+     * @param sslSocketFactory layers TLS over the connected sockets, {@code null} for plain connections
+     * @param rate             initial target command rate per second over all connections
+     * @param maxInFlight      maximum number of commands awaiting a reply on one connection
+     * @param commands         supplies the RESP-encoded command for every tick; called from the sender threads
+     */
+    public record Settings(String host, int port, String user, String password, int database, String clientName,
+                           SSLSocketFactory sslSocketFactory, int timeout, double rate, int connections, int maxInFlight,
+                           Supplier<byte[]> commands) {
+    }
+
+    /**
+     * Command answered by Redis.
+     *
+     * @param timeStamp      intended send time, epoch millis
+     * @param latencyNanos   time from the intended send time to the reply
+     * @param error          error reply or exception message, {@code null} on success
+     */
+    public record Completion(long timeStamp, long latencyNanos, String error) {
+    }
+}
@@ -0,0 +1,39 @@
+package ru.beeline.lt.openmodel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Engines of the running test, one per open-model sampler. JMeter threads of the sampler share its engine.
+ */
+public class OpenModelEngines {
+
+    private static final Map<String, OpenModelEngine> ENGINES = new ConcurrentHashMap<>();
+
+    public static OpenModelEngine getOrStart(String key, Supplier<OpenModelEngine.Settings> settings) {
+        OpenModelEngine engine = ENGINES.get(key);
+        if (engine == null) {
+            engine = ENGINES.computeIfAbsent(key, k -> {
+                OpenModelEngine created = new OpenModelEngine(settings.get());
+                try {
+                    created.start();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return created;
+            });
+        }
+        return engine;
+    }
+
+    public static void stopAll() {
+        ENGINES.forEach((key, engine) -> {
+            if (ENGINES.remove(key, engine)) {
+                engine.stop();
+            }
+        });
+    }
+}
@@ -0,0 +1,252 @@
+package ru.beeline.lt.openmodel;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches for the highest rate an open model engine sustains within a p99 latency SLO. The rate is raised by a
+ * growth factor every step while the step stays within the SLO; after the first step over it, the rate is bisected
+ * between the highest step within and the lowest step over the SLO until they are less than {@value #PRECISION}
+ * apart. The engine then backs off to the highest rate within the SLO and holds it until the test ends.
+ * <p>
+ * A step is within the SLO when its p99, measured from the intended send times of the engine, does not exceed the SLO
+ * and at most {@value #MAX_ERROR_RATIO} of its commands failed. Only the commands intended to be sent after the first
+ * fifth of a step are measured, and the step waits for all of them to be answered; a step whose commands are not
+ * answered within the command timeout is over the SLO. The engine restarts its schedule on every rate change, so the
+ * backlog of a step over the SLO is dropped rather than counted against the next one. Every step is logged and, if a
+ * report file is set, written to it as a CSV row: the latency curve of the target.
+ */
+public class RateSearch implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RateSearch.class);
+
+    static final double PRECISION = 0.05;
+    static final double MAX_ERROR_RATIO = 0.01;
+    private static final double MIN_RATE = 1;
+    private static final long CLOSE_TIMEOUT_MILLIS = 1000;
+
+    /**
+     * @param sloP99Millis p99 latency the target must stay within
+     * @param stepMillis   duration of a step at one rate
+     * @param growth       factor the rate is raised by after a step within the SLO, while no step exceeded it
+     * @param report       CSV file of the steps, {@code null} for the log only
+     */
+    public record Settings(double sloP99Millis, long stepMillis, double growth, Path report) {
+        public Settings {
+            if (!(sloP99Millis > 0)) {
+                throw new IllegalArgumentException("Rate search needs a positive p99 SLO, got " + sloP99Millis);
+            }
+            if (stepMillis <= 0) {
+                throw new IllegalArgumentException("Rate search step must be positive: " + stepMillis);
+            }
+            if (!(growth > 1)) {
+                throw new IllegalArgumentException("Rate search growth must be greater than 1: " + growth);
+            }
+        }
+    }
+
+    /**
+     * One rate of the search, latencies in microseconds.
+     *
+     * @param offeredRate  rate the engine was asked for
+     * @param achievedRate commands completed per second
+     */
+    public record Step(int number, double offeredRate, double achievedRate, long completed, long errors,
+                       long p50Micros, long p99Micros, long p999Micros, long maxMicros, boolean withinSlo) {
+        @Override
+        public String toString() {
+            return "step %d: offered %.1f/s, achieved %.1f/s, errors=%d, p50=%d us, p99=%d us, p99.9=%d us, max=%d us, %s".formatted(
+                    number, offeredRate, achievedRate, errors, p50Micros, p99Micros, p999Micros, maxMicros,
+                    withinSlo ? "within SLO" : "over SLO");
+        }
+    }
+
+    private final String name;
+    private final OpenModelEngine engine;
+    private final Settings settings;
+    private final Recorder latency = new Recorder(3);
+    private final List<Step> steps = new CopyOnWriteArrayList<>();
+    private volatile boolean converged;
+    private volatile double sustainableRate;
+    private volatile boolean running;
+    private BufferedWriter report;
+    private Thread searcher;
+
+    public RateSearch(String name, OpenModelEngine engine, Settings settings) {
+        this.name = name;
+        this.engine = engine;
+        this.settings = settings;
+    }
+
+    /**
+     * Creates the report and starts the search from the current rate of the engine.
+     *
+     * @throws UncheckedIOException if the report can not be created
+     */
+    public synchronized RateSearch start() {
+        if (!running) {
+            if (settings.report() != null) {
+                try {
+                    report = Files.newBufferedWriter(settings.report(), StandardCharsets.UTF_8);
+                    report.write("step,offered_rate,achieved_rate,completed,errors,p50_us,p99_us,p99_9_us,max_us,within_slo\n");
+                    report.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to create rate search report " + settings.report(), e);
+                }
+            }
+            engine.setLatencyRecorder(latency);
+            running = true;
+            searcher = new Thread(this::run, "redis-rate-search");
+            searcher.setDaemon(true);
+            searcher.start();
+            log.info("Searching the sustainable rate of %s from %.1f/s, p99 SLO %s ms, %d ms steps".formatted(
+                    name, engine.rate(), settings.sloP99Millis(), settings.stepMillis()));
+        }
+        return this;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public double offeredRate() {
+        return engine.rate();
+    }
+
+    public boolean isConverged() {
+        return converged;
+    }
+
+    /**
+     * @return the highest rate within the SLO once the search converged, 0 before or if no rate was within it
+     */
+    public double sustainableRate() {
+        return sustainableRate;
+    }
+
+    public List<Step> steps() {
+        return List.copyOf(steps);
+    }
+
+    private void run() {
+        long sloMicros = (long) (settings.sloP99Millis() * 1000);
+        long settleMillis = settings.stepMillis() / 5;
+        double withinRate = 0; // highest rate within the SLO
+        double overRate = Double.POSITIVE_INFINITY; // lowest rate over the SLO
+        Histogram histogram = null;
+        try {
+            while (running) {
+                double rate = engine.rate();
+                TimeUnit.MILLISECONDS.sleep(settleMillis);
+                long start = System.nanoTime();
+                engine.setLatencyWindow(start, Long.MAX_VALUE);
+                histogram = latency.getIntervalHistogram(histogram); // late replies of the previous window
+                long errors = engine.windowErrors();
+                TimeUnit.MILLISECONDS.sleep(settings.stepMillis() - settleMillis);
+                long end = System.nanoTime();
+                engine.setLatencyWindow(start, end);
+                boolean answered = engine.awaitAnswered(end);
+                histogram = latency.getIntervalHistogram(histogram);
+                errors = engine.windowErrors() - errors;
+                long completed = histogram.getTotalCount() + errors;
+                double seconds = (end - start) / 1e9;
+                boolean within = answered && histogram.getTotalCount() > 0 && histogram.getValueAtPercentile(99) <= sloMicros
+                        && errors <= completed * MAX_ERROR_RATIO;
+                Step step = new Step(steps.size() + 1, rate, completed / seconds, completed, errors,
+                        histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99),
+                        histogram.getValueAtPercentile(99.9), histogram.getMaxValue(), within);
+                steps.add(step);
+                log.info("Rate search of %s, %s".formatted(name, step));
+                writeReport(step);
+                if (converged) {
+                    continue; // holding
+                }
+                if (within) {
+                    withinRate = Math.max(withinRate, rate);
+                } else {
+                    overRate = Math.min(overRate, rate);
+                }
+                double next;
+                if (overRate == Double.POSITIVE_INFINITY) {
+                    next = rate * settings.growth();
+                } else if (overRate - withinRate <= withinRate * PRECISION || overRate <= MIN_RATE) {
+                    converge(withinRate);
+                    next = Math.max(withinRate, MIN_RATE);
+                } else {
+                    next = withinRate > 0 ? (withinRate + overRate) / 2 : overRate / settings.growth();
+                }
+                engine.setRate(next);
+            }
+        } catch (InterruptedException e) {
+            // stopped
+        }
+    }
+
+    private void converge(double rate) {
+        sustainableRate = rate;
+        converged = true;
+        if (rate > 0) {
+            log.info("Sustainable rate of %s within p99 %s ms: %.1f/s, holding it".formatted(name, settings.sloP99Millis(), rate));
+        } else {
+            log.warn("%s exceeds the p99 SLO of %s ms even at %.1f/s, holding it".formatted(name, settings.sloP99Millis(), MIN_RATE));
+        }
+    }
+
+    private void writeReport(Step step) {
+        if (report == null) {
+            return;
+        }
+        try {
+            report.write("%d,%.1f,%.1f,%d,%d,%d,%d,%d,%d,%b%n".formatted(step.number(), step.offeredRate(), step.achievedRate(),
+                    step.completed(), step.errors(), step.p50Micros(), step.p99Micros(), step.p999Micros(), step.maxMicros(),
+                    step.withinSlo()));
+            report.flush();
+        } catch (IOException e) {
+            log.error("Failed to write rate search report %s, no more steps are written".formatted(settings.report()), e);
+            closeReport();
+        }
+    }
+
+    private void closeReport() {
+        try {
+            report.close();
+        } catch (IOException e) {
+            // already failing or finished
+        }
+        report = null;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        searcher.interrupt();
+        try {
+            searcher.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        engine.setLatencyRecorder(null);
+        if (report != null) {
+            closeReport();
+        }
+        log.info("Rate search of %s stopped after %d steps: %s".formatted(name, steps.size(), converged
+                ? "sustainable rate %.1f/s within p99 %s ms".formatted(sustainableRate, settings.sloP99Millis())
+                : "not converged, the highest rate within p99 %s ms was %.1f/s".formatted(settings.sloP99Millis(),
+                steps.stream().filter(Step::withinSlo).mapToDouble(Step::offeredRate).max().orElse(0))));
+    }
+}
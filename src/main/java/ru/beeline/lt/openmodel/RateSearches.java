@@ -0,0 +1,38 @@
+package ru.beeline.lt.openmodel;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Rate searches of the running test, one per adaptive open-model engine.
+ */
+public class RateSearches {
+
+    private static final Map<String, RateSearch> SEARCHES = new ConcurrentHashMap<>();
+
+    /**
+     * @param key the key of the engine
+     */
+    public static RateSearch getOrStart(String key, Supplier<RateSearch> factory) {
+        RateSearch search = SEARCHES.get(key);
+        if (search == null) {
+            search = SEARCHES.computeIfAbsent(key, k -> factory.get().start());
+        }
+        return search;
+    }
+
+    public static Collection<RateSearch> all() {
+        return List.copyOf(SEARCHES.values());
+    }
+
+    public static void stopAll() {
+        SEARCHES.forEach((key, search) -> {
+            if (SEARCHES.remove(key, search)) {
+                search.close();
+            }
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package ru.beeline.lt.replay;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Reads the compact trace format of {@link BinaryTraceWriter}.
+ */
+class BinaryTraceReader implements TraceReader {
+
+    private final MappedInput input;
+    private long offsetMicros;
+
+    BinaryTraceReader(MappedInput input) throws IOException {
+        this.input = input;
+        byte[] magic = new byte[BinaryTraceWriter.MAGIC.length];
+        input.readFully(magic);
+        if (!Arrays.equals(magic, BinaryTraceWriter.MAGIC)) {
+            throw new IOException("Not a binary trace");
+        }
+    }
+
+    static boolean hasMagic(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return Arrays.equals(in.readNBytes(BinaryTraceWriter.MAGIC.length), BinaryTraceWriter.MAGIC);
+        }
+    }
+
+    @Override
+    public TraceCommand next() throws IOException {
+        long delta = readVarint(true);
+        if (delta < 0) {
+            return null;
+        }
+        offsetMicros += delta;
+        int count = (int) readVarint(false);
+        byte[][] args = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            args[i] = new byte[(int) readVarint(false)];
+            input.readFully(args[i]);
+        }
+        return new TraceCommand(offsetMicros * 1_000, args);
+    }
+
+    /**
+     * @param atRecordStart whether the end of the trace may come instead
+     * @return the value, -1 at the end of the trace
+     */
+    private long readVarint(boolean atRecordStart) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = input.read();
+            if (b == -1) {
+                if (atRecordStart && shift == 0) {
+                    return -1;
+                }
+                throw new EOFException("Trace ends inside a record");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint at byte %d of the trace".formatted(input.position()));
+    }
+
+    @Override
+    public long position() {
+        return input.position();
+    }
+
+    @Override
+    public long size() {
+        return input.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
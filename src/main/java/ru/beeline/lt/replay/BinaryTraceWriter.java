@@ -0,0 +1,72 @@
+package ru.beeline.lt.replay;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes traces in a compact binary format, several times smaller and faster to read than {@code MONITOR} output:
+ * the magic {@code RSTRACE1}, then per command the microseconds since the previous command, the argument count
+ * and each argument as its length and bytes, all numbers unsigned LEB128 varints.
+ */
+public class BinaryTraceWriter implements AutoCloseable {
+
+    static final byte[] MAGIC = "RSTRACE1".getBytes(StandardCharsets.US_ASCII);
+
+    private final OutputStream out;
+    private long offsetMicros;
+
+    public BinaryTraceWriter(Path file) throws IOException {
+        this.out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16);
+        out.write(MAGIC);
+    }
+
+    /**
+     * @param command commands must come in the order of their offsets
+     */
+    public void write(TraceCommand command) throws IOException {
+        long micros = command.offsetNanos() / 1_000;
+        writeVarint(Math.max(0, micros - offsetMicros));
+        offsetMicros = Math.max(offsetMicros, micros);
+        writeVarint(command.args().length);
+        for (byte[] arg : command.args()) {
+            writeVarint(arg.length);
+            out.write(arg);
+        }
+    }
+
+    private void writeVarint(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Converts a {@code MONITOR} log: {@code java -cp <plugin jar and dependencies> ru.beeline.lt.replay.BinaryTraceWriter
+     * <monitor log> <binary trace>}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Expected <monitor log> <binary trace>");
+        }
+        long commands = 0;
+        try (TraceReader reader = TraceReader.open(Path.of(args[0]));
+             BinaryTraceWriter writer = new BinaryTraceWriter(Path.of(args[1]))) {
+            for (TraceCommand command = reader.next(); command != null; command = reader.next()) {
+                writer.write(command);
+                commands++;
+            }
+        }
+        System.out.printf("Converted %d commands to %s (%d bytes)%n", commands, args[1], Files.size(Path.of(args[1])));
+    }
+}
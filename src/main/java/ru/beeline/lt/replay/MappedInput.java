@@ -0,0 +1,86 @@
+package ru.beeline.lt.replay;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sequential reader of a file mapped into memory a window at a time, so traces of any size are read without
+ * copying them onto the heap and pages already replayed can be dropped by the OS.
+ */
+class MappedInput implements AutoCloseable {
+
+    static final long WINDOW_BYTES = 64L << 20;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long windowBytes;
+    private long windowStart;
+    private MappedByteBuffer window;
+
+    MappedInput(Path file) throws IOException {
+        this(file, WINDOW_BYTES);
+    }
+
+    MappedInput(Path file, long windowBytes) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowBytes = windowBytes;
+    }
+
+    /**
+     * @return the next byte, or -1 at the end of the file
+     */
+    int read() throws IOException {
+        if (window == null || !window.hasRemaining()) {
+            if (!map()) {
+                return -1;
+            }
+        }
+        return window.get() & 0xFF;
+    }
+
+    /**
+     * @throws EOFException if the file ends first
+     */
+    void readFully(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (window == null || !window.hasRemaining()) {
+                if (!map()) {
+                    throw new EOFException("Trace ends inside a record");
+                }
+            }
+            int count = Math.min(bytes.length - offset, window.remaining());
+            window.get(bytes, offset, count);
+            offset += count;
+        }
+    }
+
+    long position() {
+        return window == null ? windowStart : windowStart + window.position();
+    }
+
+    long size() {
+        return size;
+    }
+
+    private boolean map() throws IOException {
+        long next = position();
+        if (next >= size) {
+            return false;
+        }
+        windowStart = next;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, next, Math.min(windowBytes, size - next));
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,158 @@
+package ru.beeline.lt.replay;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads {@code MONITOR} output, one command per line:
+ * <pre>
+ * 1700000000.123456 [0 10.0.0.5:53412] "SET" "user:1" "{\"name\":\"a\"}"
+ * </pre>
+ * Arguments are quoted with the escapes Redis uses ({@code \"}, {@code \\}, {@code \n}, {@code \r}, {@code \t},
+ * {@code \a}, {@code \b} and {@code \xHH}), so binary values round-trip. Lines that are not commands,
+ * such as the {@code OK} that starts the output, are skipped. So are the commands of scripts, logged with the
+ * {@code lua} client after the script call, since replaying the call runs them again. The database and client
+ * of a command are otherwise ignored.
+ */
+class MonitorTraceReader implements TraceReader {
+
+    private static final String LUA_CLIENT = "lua";
+
+    private final MappedInput input;
+    private final ByteArrayOutputStream arg = new ByteArrayOutputStream(64);
+    private final List<byte[]> args = new ArrayList<>();
+    private long firstNanos = -1;
+
+    MonitorTraceReader(MappedInput input) {
+        this.input = input;
+    }
+
+    @Override
+    public TraceCommand next() throws IOException {
+        while (true) {
+            int c = input.read();
+            if (c == -1) {
+                return null;
+            }
+            TraceCommand command = parseLine(c);
+            if (command != null) {
+                return command;
+            }
+        }
+    }
+
+    /**
+     * Parses the rest of a line, always consuming it up to the line end.
+     *
+     * @return the command, {@code null} if the line is not one
+     */
+    private TraceCommand parseLine(int c) throws IOException {
+        long seconds = 0;
+        long micros = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        boolean digits = false;
+        for (; c != ' '; c = input.read()) {
+            if (c >= '0' && c <= '9') {
+                digits = true;
+                if (!fraction) {
+                    seconds = seconds * 10 + c - '0';
+                } else if (fractionDigits < 6) {
+                    micros = micros * 10 + c - '0';
+                    fractionDigits++;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                skipLine(c);
+                return null;
+            }
+        }
+        for (; fractionDigits < 6; fractionDigits++) {
+            micros *= 10;
+        }
+        if (!digits || (c = input.read()) != '[') {
+            skipLine(c);
+            return null;
+        }
+        boolean clientField = false;
+        int lua = 0; // characters of the client matching "lua", -1 on a mismatch
+        while ((c = input.read()) != ']') {
+            if (c == -1 || c == '\n') {
+                return null;
+            }
+            if (!clientField) {
+                clientField = c == ' ';
+            } else if (lua >= 0) {
+                lua = lua < LUA_CLIENT.length() && c == LUA_CLIENT.charAt(lua) ? lua + 1 : -1;
+            }
+        }
+        if (lua == LUA_CLIENT.length()) {
+            skipLine(input.read()); // run by a script replayed with its EVAL, EVALSHA or FCALL
+            return null;
+        }
+        args.clear();
+        while ((c = input.read()) != -1 && c != '\n') {
+            if (c == '"') {
+                args.add(readQuoted());
+            }
+        }
+        if (args.isEmpty()) {
+            return null;
+        }
+        long nanos = seconds * 1_000_000_000 + micros * 1_000;
+        if (firstNanos < 0) {
+            firstNanos = nanos;
+        }
+        return new TraceCommand(Math.max(0, nanos - firstNanos), args.toArray(new byte[0][]));
+    }
+
+    private byte[] readQuoted() throws IOException {
+        arg.reset();
+        int c;
+        while ((c = input.read()) != '"') {
+            if (c == -1 || c == '\n') {
+                throw new IOException("Unterminated argument at byte %d of the trace".formatted(input.position()));
+            }
+            if (c == '\\') {
+                c = input.read();
+                switch (c) {
+                    case 'n' -> c = '\n';
+                    case 'r' -> c = '\r';
+                    case 't' -> c = '\t';
+                    case 'a' -> c = 7;
+                    case 'b' -> c = '\b';
+                    case 'x' -> c = Character.digit(input.read(), 16) << 4 | Character.digit(input.read(), 16);
+                    default -> {
+                        // \" and \\ stand for themselves
+                    }
+                }
+            }
+            arg.write(c);
+        }
+        return arg.toByteArray();
+    }
+
+    private void skipLine(int c) throws IOException {
+        while (c != -1 && c != '\n') {
+            c = input.read();
+        }
+    }
+
+    @Override
+    public long position() {
+        return input.position();
+    }
+
+    @Override
+    public long size() {
+        return input.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
@@ -0,0 +1,365 @@
+package ru.beeline.lt.replay;
+
+import org.apache.jmeter.samplers.AbstractSampler;
+import org.apache.jmeter.samplers.Entry;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.testelement.TestStateListener;
+import org.apache.jmeter.testelement.ThreadListener;
+import org.apache.jmeter.threads.JMeterContext;
+import org.apache.jmeter.threads.JMeterThread;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.DefaultJedisClientConfig;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisClientConfig;
+import redis.clients.jedis.commands.ProtocolCommand;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import ru.beeline.lt.error.ErrorClass;
+import ru.beeline.lt.error.ErrorLog;
+import ru.beeline.lt.latency.LatencyHistograms;
+import ru.beeline.lt.latency.LatencyRecorder;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays a recorded command trace, {@code MONITOR} output or a {@link BinaryTraceWriter binary trace}, against
+ * a standalone server. The JMeter threads of the sampler share one {@link TraceReplay}, which deals the commands to the
+ * threads by key, so each thread sends its commands in recorded order at their recorded time, scaled by the speed.
+ * <p>
+ * One sample is one command, labelled with the sampler name and the command name, so latency is reported per command
+ * type; an HDR histogram file gets a histogram per command type as well. A thread stops when its share of the trace
+ * has been sent. Connection properties have the names of {@link ru.beeline.lt.RedisSampler}.
+ */
+public class RedisReplaySampler extends AbstractSampler implements ThreadListener, TestStateListener {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisReplaySampler.class);
+    private static final long serialVersionUID = -6045823215938771742L;
+
+    private static final String REDIS_HOST_PROP = "RedisSampler.connection.host";
+    private static final String REDIS_PORT_PROP = "RedisSampler.connection.port";
+    private static final String REDIS_CLIENT_NAME_PROP = "RedisSampler.connection.client_name";
+    private static final String REDIS_USER_PROP = "RedisSampler.connection.user";
+    private static final String REDIS_PASSWORD_PROP = "RedisSampler.connection.password";
+    private static final String REDIS_TIMEOUT_PROP = "RedisSampler.connection.timeout";
+    private static final String REDIS_DATABASE_PROP = "RedisSampler.connection.database";
+    private static final String REDIS_REPLAY_FILE_PROP = "RedisSampler.replay.file";
+    private static final String REDIS_REPLAY_SPEED_PROP = "RedisSampler.replay.speed";
+    private static final String REDIS_LEAN_RESPONSE_PROP = "RedisSampler.response.lean";
+    private static final String REDIS_HDR_FILE_PROP = "RedisSampler.response.hdr_file";
+
+    private static final String DEFAULT_CHARSET = Charset.defaultCharset().name();
+    private static final int MAX_REPLY_CHARS = 200;
+
+    private transient Jedis connection;
+    private transient TraceReplay replay;
+    private transient int partition;
+    private transient Map<String, LatencyRecorder> latencyRecorders;
+
+    public String getHost() {
+        return getPropertyAsString(REDIS_HOST_PROP);
+    }
+
+    public void setHost(String host) {
+        setProperty(REDIS_HOST_PROP, host);
+    }
+
+    public String getPort() {
+        return getPropertyAsString(REDIS_PORT_PROP);
+    }
+
+    public void setPort(String port) {
+        setProperty(REDIS_PORT_PROP, port);
+    }
+
+    public String getUser() {
+        return getPropertyAsString(REDIS_USER_PROP);
+    }
+
+    public void setUser(String user) {
+        setProperty(REDIS_USER_PROP, user);
+    }
+
+    public String getPassword() {
+        return getPropertyAsString(REDIS_PASSWORD_PROP);
+    }
+
+    public void setPassword(String password) {
+        setProperty(REDIS_PASSWORD_PROP, password);
+    }
+
+    public String getTimeout() {
+        return getPropertyAsString(REDIS_TIMEOUT_PROP);
+    }
+
+    public void setTimeout(String timeout) {
+        setProperty(REDIS_TIMEOUT_PROP, timeout);
+    }
+
+    public String getDatabase() {
+        return getPropertyAsString(REDIS_DATABASE_PROP);
+    }
+
+    public void setDatabase(String database) {
+        setProperty(REDIS_DATABASE_PROP, database);
+    }
+
+    public String getClientName() {
+        return getPropertyAsString(REDIS_CLIENT_NAME_PROP);
+    }
+
+    public void setClientName(String clientName) {
+        setProperty(REDIS_CLIENT_NAME_PROP, clientName);
+    }
+
+    /**
+     * @return {@code MONITOR} output or a binary trace
+     */
+    public String getReplayFile() {
+        return getPropertyAsString(REDIS_REPLAY_FILE_PROP);
+    }
+
+    public void setReplayFile(String replayFile) {
+        setProperty(REDIS_REPLAY_FILE_PROP, replayFile);
+    }
+
+    /**
+     * @return speed relative to the recording: {@code 1} for the original timing, {@code 2} for twice as fast,
+     * {@code 0} for as fast as possible
+     */
+    public String getReplaySpeed() {
+        return getPropertyAsString(REDIS_REPLAY_SPEED_PROP);
+    }
+
+    public void setReplaySpeed(String replaySpeed) {
+        setProperty(REDIS_REPLAY_SPEED_PROP, replaySpeed);
+    }
+
+    public boolean isLeanResponse() {
+        return getPropertyAsBoolean(REDIS_LEAN_RESPONSE_PROP);
+    }
+
+    public void setLeanResponse(boolean leanResponse) {
+        setProperty(REDIS_LEAN_RESPONSE_PROP, leanResponse);
+    }
+
+    public String getHdrFile() {
+        return getPropertyAsString(REDIS_HDR_FILE_PROP);
+    }
+
+    public void setHdrFile(String hdrFile) {
+        setProperty(REDIS_HDR_FILE_PROP, hdrFile);
+    }
+
+    /**
+     * @return the next command of the thread, or {@code null} if none was due within the poll interval
+     */
+    @Override
+    public SampleResult sample(Entry entry) {
+        TraceCommand command;
+        long lagNanos;
+        try {
+            TraceReplay replay = this.replay;
+            if (replay == null) {
+                replay = initReplay();
+                this.replay = replay;
+            }
+            command = replay.poll(partition);
+            if (command == null) {
+                if (replay.isEnded(partition)) {
+                    log.info("%s: the trace share of %s is replayed".formatted(getName(), Thread.currentThread().getName()));
+                    JMeterThread thread = getThreadContext().getThread();
+                    if (thread != null) {
+                        thread.stop();
+                    }
+                }
+                return null;
+            }
+            lagNanos = replay.awaitDue(command);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (RuntimeException e) {
+            SampleResult result = new SampleResult();
+            result.setSampleLabel(getName());
+            setFailure(result, e);
+            return result;
+        }
+
+        String name = command.name();
+        byte[][] args = command.args();
+        SampleResult result = new SampleResult();
+        result.setSampleLabel(getName() + " " + name);
+        try {
+            Jedis jedis = connection;
+            if (jedis == null) {
+                jedis = openConnection();
+                connection = jedis;
+            }
+            ProtocolCommand protocolCommand = () -> args[0];
+            long start = System.nanoTime();
+            result.sampleStart(); // start stopwatch
+            Object reply = jedis.sendCommand(protocolCommand, Arrays.copyOfRange(args, 1, args.length));
+            result.sampleEnd(); // stop stopwatch
+            long duration = System.nanoTime() - start;
+            replay.recordReplayed();
+            LatencyRecorder latency = latencyRecorder(name);
+            if (latency != null) {
+                latency.recordNanos(duration);
+            }
+            result.setSuccessful(true);
+            result.setResponseCodeOK(); // 200 code
+            result.setSentBytes(command.bytes());
+            if (!isLeanResponse()) {
+                String replyText = describe(reply);
+                byte[] key = command.key();
+                result.setResponseData("""
+                        {
+                            "command": "%s",
+                            "key": "%s",
+                            "offset": %d,
+                            "lag": %d,
+                            "duration": %d,
+                            "response": "%s"
+                        }
+                        """.formatted(name, key == null ? "" : new String(key, StandardCharsets.UTF_8), command.offsetNanos(),
+                        lagNanos, duration, replyText), DEFAULT_CHARSET);
+                result.setResponseMessage(replyText);
+            }
+        } catch (Throwable e) {
+            if (e instanceof JedisConnectionException) {
+                closeConnection(); // reconnect on the next sample
+            }
+            setFailure(result, e);
+        }
+        return result;
+    }
+
+    private TraceReplay initReplay() {
+        String file = getReplayFile().trim();
+        if (file.isEmpty()) {
+            throw new IllegalStateException("No trace file to replay");
+        }
+        JMeterContext context = getThreadContext();
+        int threads = context.getThreadGroup() == null ? 1 : context.getThreadGroup().getNumThreads();
+        TraceReplay replay = TraceReplays.getOrStart(getName() + "|" + file, () -> new TraceReplay.Settings(Path.of(file),
+                getReplaySpeed().isBlank() ? 1 : Double.parseDouble(getReplaySpeed().trim()), threads));
+        partition = context.getThreadNum() % replay.partitions();
+        return replay;
+    }
+
+    private LatencyRecorder latencyRecorder(String command) {
+        String hdrFile = getHdrFile();
+        if (hdrFile.isBlank()) {
+            return null;
+        }
+        if (latencyRecorders == null) {
+            latencyRecorders = new HashMap<>();
+        }
+        return latencyRecorders.computeIfAbsent(command,
+                name -> LatencyHistograms.register(hdrFile.trim(), "%s %s".formatted(getName(), name)));
+    }
+
+    private static String describe(Object reply) {
+        String text;
+        if (reply instanceof byte[] bytes) {
+            text = new String(bytes, StandardCharsets.UTF_8);
+        } else if (reply instanceof List<?> list) {
+            text = "%d elements".formatted(list.size());
+        } else {
+            text = String.valueOf(reply);
+        }
+        return text.length() > MAX_REPLY_CHARS ? text.substring(0, MAX_REPLY_CHARS) + "..." : text;
+    }
+
+    private Jedis openConnection() {
+        String user = getUser();
+        String password = getPassword();
+        String clientName = getClientName();
+        JedisClientConfig config = DefaultJedisClientConfig.builder()
+                .timeoutMillis(getPropertyAsInt(REDIS_TIMEOUT_PROP))
+                .user(user.isEmpty() ? null : user)
+                .password(password.isEmpty() ? null : password)
+                .database(getPropertyAsInt(REDIS_DATABASE_PROP))
+                .clientName(clientName.isEmpty() ? null : clientName)
+                .build();
+        return new Jedis(new HostAndPort(getHost(), getPropertyAsInt(REDIS_PORT_PROP)), config);
+    }
+
+    private void closeConnection() {
+        Jedis jedis = connection;
+        connection = null;
+        if (jedis != null) {
+            try {
+                jedis.close();
+            } catch (RuntimeException e) {
+                log.debug("Failed to close replay connection", e);
+            }
+        }
+    }
+
+    /**
+     * Fails the sample with the class of the error as the response code, like {@link ru.beeline.lt.RedisSampler}.
+     */
+    private void setFailure(SampleResult result, Throwable e) {
+        if (result.getStartTime() == 0) {
+            result.sampleStart();
+        }
+        if (result.getEndTime() == 0) {
+            result.sampleEnd();
+        }
+        ErrorClass errorClass = ErrorClass.of(e);
+        ErrorLog.log(errorClass, e);
+        result.setSuccessful(false);
+        result.setResponseCode(errorClass.responseCode());
+        String message = e.toString();
+        result.setResponseMessage(message);
+        if (!isLeanResponse()) {
+            result.setResponseData(message, DEFAULT_CHARSET);
+            result.setDataType(SampleResult.TEXT);
+        }
+    }
+
+    @Override
+    public void testStarted() {
+        log.debug("testStarted() %s".formatted(getName()));
+    }
+
+    @Override
+    public void testStarted(String host) {
+        LatencyHistograms.setEngine(host);
+        testStarted();
+    }
+
+    @Override
+    public void testEnded() {
+        log.debug("testEnded() %s".formatted(getName()));
+        TraceReplays.stopAll();
+        LatencyHistograms.writeAll();
+        ErrorLog.reset();
+    }
+
+    @Override
+    public void testEnded(String host) {
+        testEnded();
+    }
+
+    @Override
+    public void threadStarted() {
+        log.debug("threadStarted() + %s".formatted(Thread.currentThread().getName()));
+    }
+
+    @Override
+    public void threadFinished() {
+        log.debug("threadFinished() + %s".formatted(Thread.currentThread().getName()));
+        closeConnection();
+        replay = null;
+        latencyRecorders = null;
+    }
+}
@@ -0,0 +1,35 @@
+package ru.beeline.lt.replay;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * One recorded command.
+ *
+ * @param offsetNanos time since the first command of the trace
+ * @param args        command name and arguments, as sent
+ */
+public record TraceCommand(long offsetNanos, byte[][] args) {
+
+    /**
+     * @return the command name in upper case, the label its latency is reported under
+     */
+    public String name() {
+        return new String(args[0], StandardCharsets.US_ASCII).toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * @return the first argument, which is the key of most data commands; {@code null} for commands without arguments
+     */
+    public byte[] key() {
+        return args.length > 1 ? args[1] : null;
+    }
+
+    public long bytes() {
+        long bytes = 0;
+        for (byte[] arg : args) {
+            bytes += arg.length;
+        }
+        return bytes;
+    }
+}
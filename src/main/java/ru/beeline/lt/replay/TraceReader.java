@@ -0,0 +1,39 @@
+package ru.beeline.lt.replay;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Reads the commands of a trace in recorded order.
+ */
+public interface TraceReader extends AutoCloseable {
+
+    /**
+     * @return the next command, {@code null} at the end of the trace
+     * @throws IOException if the file can not be read or a record is malformed
+     */
+    TraceCommand next() throws IOException;
+
+    /**
+     * @return bytes of the trace read so far, for progress reporting
+     */
+    long position();
+
+    long size();
+
+    @Override
+    void close() throws IOException;
+
+    /**
+     * Opens a binary trace written by {@link BinaryTraceWriter}, or otherwise a {@code MONITOR} log.
+     */
+    static TraceReader open(Path file) throws IOException {
+        MappedInput input = new MappedInput(file);
+        try {
+            return BinaryTraceReader.hasMagic(file) ? new BinaryTraceReader(input) : new MonitorTraceReader(input);
+        } catch (IOException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package ru.beeline.lt.replay;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays one trace file through the JMeter threads of a sampler. A reader thread streams the trace and deals
+ * every command to the partition of its first argument, usually its key; each partition is consumed by one JMeter
+ * thread, so commands on a key are sent in recorded order while the keys are spread over the threads.
+ * Commands without arguments go round-robin. Partition queues are bounded: the reader stays ahead of the
+ * threads by at most {@value #QUEUE_CAPACITY} commands each, so the trace never sits on the heap.
+ * <p>
+ * Commands are due at their recorded offset divided by the speed, from the start of the replay; a speed of 0
+ * sends them as fast as the threads can. Connection and server commands that would change the replaying
+ * connection or the server ({@code AUTH}, {@code SELECT}, {@code MONITOR}, {@code SHUTDOWN} and the like) are skipped.
+ */
+public class TraceReplay implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TraceReplay.class);
+
+    static final int QUEUE_CAPACITY = 10_000;
+    private static final long POLL_MILLIS = 100;
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final Set<String> SKIPPED = Set.of(
+            "AUTH", "HELLO", "SELECT", "QUIT", "RESET", "CLIENT", "MONITOR", "SUBSCRIBE", "PSUBSCRIBE", "SSUBSCRIBE",
+            "UNSUBSCRIBE", "PUNSUBSCRIBE", "SUNSUBSCRIBE", "SYNC", "PSYNC", "REPLCONF", "REPLICAOF", "SLAVEOF",
+            "SHUTDOWN", "DEBUG", "CONFIG", "FLUSHALL", "FLUSHDB", "FAILOVER", "CLUSTER", "MULTI", "EXEC", "DISCARD", "WATCH",
+            "UNWATCH");
+    // the end of the trace in every partition
+    private static final TraceCommand END = new TraceCommand(0, new byte[0][]);
+
+    /**
+     * @param speed      replay speed relative to the recording, 0 for as fast as possible
+     * @param partitions JMeter threads replaying the trace
+     */
+    public record Settings(Path file, double speed, int partitions) {
+        public Settings {
+            if (speed < 0) {
+                throw new IllegalArgumentException("Replay speed must not be negative: " + speed);
+            }
+            if (partitions <= 0) {
+                throw new IllegalArgumentException("Replay needs at least one thread: " + partitions);
+            }
+        }
+    }
+
+    private final Settings settings;
+    private final List<BlockingQueue<TraceCommand>> queues;
+    private final boolean[] ended; // of each partition, by its own thread
+    private final LongAdder replayed = new LongAdder();
+    private final LongAccumulator maxLagNanos = new LongAccumulator(Math::max, 0);
+    private volatile long read;
+    private volatile long skipped;
+    private volatile boolean running;
+    private volatile long startNanos;
+    private Thread reader;
+
+    public TraceReplay(Settings settings) {
+        this.settings = settings;
+        this.queues = new ArrayList<>(settings.partitions());
+        this.ended = new boolean[settings.partitions()];
+        for (int i = 0; i < settings.partitions(); i++) {
+            queues.add(new ArrayBlockingQueue<>(QUEUE_CAPACITY));
+        }
+    }
+
+    /**
+     * Opens the trace and starts dealing its commands; the replay clock starts now.
+     *
+     * @throws IOException if the trace can not be opened
+     */
+    public synchronized TraceReplay start() throws IOException {
+        if (!running) {
+            TraceReader trace = TraceReader.open(settings.file());
+            running = true;
+            startNanos = System.nanoTime();
+            reader = new Thread(() -> read(trace), "redis-trace-reader");
+            reader.setDaemon(true);
+            reader.start();
+            log.info("Replaying %s (%d MB) with %d threads at %s".formatted(settings.file(), trace.size() >> 20,
+                    settings.partitions(), settings.speed() == 0 ? "max speed" : settings.speed() + "x speed"));
+        }
+        return this;
+    }
+
+    public int partitions() {
+        return settings.partitions();
+    }
+
+    /**
+     * @return the next command of the partition, {@code null} if none arrived within the poll interval
+     */
+    public TraceCommand poll(int partition) throws InterruptedException {
+        if (ended[partition]) {
+            return null;
+        }
+        TraceCommand command = queues.get(partition).poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (command == END) {
+            ended[partition] = true;
+            return null;
+        }
+        return command;
+    }
+
+    /**
+     * @return whether the partition has no more commands: the trace was replayed, or the replay failed or was stopped
+     */
+    public boolean isEnded(int partition) {
+        return ended[partition] || !running && queues.get(partition).isEmpty();
+    }
+
+    /**
+     * Sleeps until the command is due.
+     *
+     * @return how late the command is, in nanoseconds
+     */
+    public long awaitDue(TraceCommand command) throws InterruptedException {
+        double speed = settings.speed();
+        if (speed == 0) {
+            return 0;
+        }
+        long due = startNanos + (long) (command.offsetNanos() / speed);
+        long delay = due - System.nanoTime();
+        if (delay > 0) {
+            TimeUnit.NANOSECONDS.sleep(delay);
+            return 0;
+        }
+        maxLagNanos.accumulate(-delay);
+        return -delay;
+    }
+
+    public void recordReplayed() {
+        replayed.increment();
+    }
+
+    private void read(TraceReader trace) {
+        long roundRobin = 0;
+        long lastProgress = System.nanoTime();
+        try (trace) {
+            for (TraceCommand command = trace.next(); command != null && running; command = trace.next()) {
+                read++;
+                if (SKIPPED.contains(command.name())) {
+                    skipped++;
+                    continue;
+                }
+                byte[] key = command.key();
+                int partition = key == null ? (int) (roundRobin++ % queues.size()) : Math.floorMod(hash(key), queues.size());
+                queues.get(partition).put(command);
+                long now = System.nanoTime();
+                if (now - lastProgress >= PROGRESS_INTERVAL_NANOS) {
+                    lastProgress = now;
+                    log.info("Replay of %s: %d%% read, %d commands replayed, max lag %d ms".formatted(settings.file(),
+                            trace.size() == 0 ? 100 : trace.position() * 100 / trace.size(), replayed.sum(),
+                            TimeUnit.NANOSECONDS.toMillis(maxLagNanos.get())));
+                }
+            }
+            for (BlockingQueue<TraceCommand> queue : queues) {
+                queue.put(END);
+            }
+            log.info("Trace %s read: %d commands, %d skipped".formatted(settings.file(), read, skipped));
+        } catch (InterruptedException e) {
+            // stopped
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to read trace %s after %d commands".formatted(settings.file(), read), e);
+            running = false;
+        }
+    }
+
+    private static int hash(byte[] key) {
+        int hash = Arrays.hashCode(key);
+        return hash ^ (hash >>> 16);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (reader == null) {
+            return;
+        }
+        running = false;
+        reader.interrupt();
+        try {
+            reader.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        reader = null;
+        log.info("Replay of %s stopped: %d of %d commands replayed, %d skipped, max lag %d ms, in %d s".formatted(
+                settings.file(), replayed.sum(), read, skipped, TimeUnit.NANOSECONDS.toMillis(maxLagNanos.get()),
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos)));
+    }
+}
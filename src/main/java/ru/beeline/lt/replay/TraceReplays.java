@@ -0,0 +1,37 @@
+package ru.beeline.lt.replay;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Replays of the running test, one per replay sampler. JMeter threads of the sampler share its replay.
+ */
+public class TraceReplays {
+
+    private static final Map<String, TraceReplay> REPLAYS = new ConcurrentHashMap<>();
+
+    public static TraceReplay getOrStart(String key, Supplier<TraceReplay.Settings> settings) {
+        TraceReplay replay = REPLAYS.get(key);
+        if (replay == null) {
+            replay = REPLAYS.computeIfAbsent(key, k -> {
+                try {
+                    return new TraceReplay(settings.get()).start();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        return replay;
+    }
+
+    public static void stopAll() {
+        REPLAYS.forEach((key, replay) -> {
+            if (REPLAYS.remove(key, replay)) {
+                replay.close();
+            }
+        });
+    }
+}
@@ -0,0 +1,170 @@
+package ru.beeline.lt.resilience;
+
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.PooledObjectFactory;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import redis.clients.jedis.DefaultJedisSocketFactory;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisClientConfig;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisSocketFactory;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+import java.net.Socket;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pool of a standalone server that drops its connections on purpose, to reproduce the reconnect storms
+ * that follow deploys and failovers. A connection is replaced when it is borrowed after serving the configured
+ * number of borrows or after living for the reconnect interval; the pool closes it and opens a new one. A borrow is
+ * one sample, whatever the number of commands it sends: a pipeline or a transaction counts once.
+ * <p>
+ * New connections are timed by phase: the TCP connect with the TLS handshake, then the setup commands of the client
+ * config ({@code HELLO}/{@code AUTH}, {@code SELECT}, {@code CLIENT SETNAME}). The timings are handed to the sampler
+ * with the first borrow of the connection, so it can time the first command as well.
+ */
+public class ChurnPool extends JedisPool {
+
+    /**
+     * @param rate    reconnects per second of each connection, 0 for no age limit
+     * @param borrows borrows served by a connection before it is replaced, 0 for no limit
+     */
+    public record Policy(double rate, long borrows) {
+        public Policy {
+            if (rate < 0 || borrows < 0) {
+                throw new IllegalArgumentException("Churn rate and borrows must not be negative: %s, %d".formatted(rate, borrows));
+            }
+        }
+
+        public boolean isEnabled() {
+            return rate > 0 || borrows > 0;
+        }
+
+        long maxAgeNanos() {
+            return rate > 0 ? (long) (1e9 / rate) : 0;
+        }
+    }
+
+    /**
+     * Setup timings of a new connection.
+     *
+     * @param connectNanos      TCP connect and TLS handshake
+     * @param setupNanos        authentication, database selection and client name
+     * @param firstCommandNanos first command sent on the connection, -1 until it is known
+     */
+    public record Reconnect(long connectNanos, long setupNanos, long firstCommandNanos) {
+        public Reconnect firstCommand(long nanos) {
+            return new Reconnect(connectNanos, setupNanos, nanos);
+        }
+
+        public long connectMillis() {
+            return (connectNanos + setupNanos) / 1_000_000;
+        }
+    }
+
+    private final Factory factory;
+
+    public ChurnPool(GenericObjectPoolConfig<Jedis> poolConfig, HostAndPort address, JedisClientConfig clientConfig, Policy policy) {
+        this(testedOnBorrow(poolConfig), new Factory(address, clientConfig, policy));
+    }
+
+    private ChurnPool(GenericObjectPoolConfig<Jedis> poolConfig, Factory factory) {
+        super(poolConfig, factory);
+        this.factory = factory;
+    }
+
+    private static GenericObjectPoolConfig<Jedis> testedOnBorrow(GenericObjectPoolConfig<Jedis> poolConfig) {
+        poolConfig.setTestOnBorrow(true); // validation is where connections are retired
+        return poolConfig;
+    }
+
+    /**
+     * @return setup timings if the connection is new and borrowed for the first time, otherwise {@code null}
+     */
+    public Reconnect takeReconnect(Jedis jedis) {
+        return factory.fresh.remove(jedis);
+    }
+
+    private static class Factory implements PooledObjectFactory<Jedis> {
+        private final HostAndPort address;
+        private final JedisClientConfig clientConfig;
+        private final long maxBorrows;
+        private final long maxAgeNanos;
+        private final Map<Jedis, Reconnect> fresh = new ConcurrentHashMap<>();
+
+        Factory(HostAndPort address, JedisClientConfig clientConfig, Policy policy) {
+            this.address = address;
+            this.clientConfig = clientConfig;
+            this.maxBorrows = policy.borrows();
+            this.maxAgeNanos = policy.maxAgeNanos();
+        }
+
+        @Override
+        public PooledObject<Jedis> makeObject() {
+            TimedSocketFactory sockets = new TimedSocketFactory(address, clientConfig);
+            long start = System.nanoTime();
+            Jedis jedis = new Jedis(sockets, clientConfig); // connects and sends the setup commands
+            long total = System.nanoTime() - start;
+            fresh.put(jedis, new Reconnect(sockets.connectNanos, total - sockets.connectNanos, -1));
+            return new DefaultPooledObject<>(jedis);
+        }
+
+        @Override
+        public boolean validateObject(PooledObject<Jedis> pooled) {
+            Jedis jedis = pooled.getObject();
+            if (!jedis.isConnected() || jedis.isBroken()) {
+                return false;
+            }
+            long borrowed = pooled.getBorrowedCount(); // includes the borrow being validated
+            if (borrowed <= 1) {
+                return true;
+            }
+            if (maxBorrows > 0 && borrowed > maxBorrows) {
+                return false;
+            }
+            return maxAgeNanos == 0 || Duration.between(pooled.getCreateInstant(), Instant.now()).toNanos() < maxAgeNanos;
+        }
+
+        @Override
+        public void destroyObject(PooledObject<Jedis> pooled) {
+            Jedis jedis = pooled.getObject();
+            fresh.remove(jedis);
+            jedis.disconnect();
+        }
+
+        @Override
+        public void activateObject(PooledObject<Jedis> pooled) {
+        }
+
+        @Override
+        public void passivateObject(PooledObject<Jedis> pooled) {
+        }
+    }
+
+    /**
+     * Times the socket creation of one connection: TCP connect, plus the TLS handshake when the config has TLS.
+     */
+    private static class TimedSocketFactory implements JedisSocketFactory {
+        private final JedisSocketFactory delegate;
+        private long connectNanos;
+
+        TimedSocketFactory(HostAndPort address, JedisClientConfig clientConfig) {
+            this.delegate = new DefaultJedisSocketFactory(address, clientConfig);
+        }
+
+        @Override
+        public Socket createSocket() throws JedisConnectionException {
+            long start = System.nanoTime();
+            try {
+                return delegate.createSocket();
+            } finally {
+                connectNanos = System.nanoTime() - start;
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package ru.beeline.lt.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisClientConfig;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.params.SetParams;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Watches the primary of the target while the test runs: a write probe is sent at a fixed interval on a connection
+ * of its own, and the outcome is kept as a timeline of outages and primary changes.
+ * <p>
+ * An outage starts with the first failed probe and ends with the first successful one. Its gap is the time from the
+ * last probe that succeeded before it to the first one after it, the upper bound of the unavailability seen by
+ * clients; its recovery time is counted from the first failure. A replica that was demoted answers writes with
+ * {@code READONLY}, so it is unavailable to the probe as well.
+ * <p>
+ * The primary is identified by its address and {@code run_id}, read from {@code INFO server} on every new probe
+ * connection, so a standalone server restarted at the same address counts as a new primary.
+ */
+public class FailoverObserver implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(FailoverObserver.class);
+
+    static final String PROBE_KEY = "redis-sampler:failover-probe";
+    private static final long CLOSE_TIMEOUT_MILLIS = 1000;
+
+    /**
+     * Timeline since the observer was started.
+     *
+     * @param available      whether the last probe succeeded
+     * @param lastGapMillis  gap of the last finished outage
+     * @param downMillis     total of the outage gaps, including the current outage
+     */
+    public record Stats(long probes, long failedProbes, long outages, long primaryChanges, boolean available,
+                        long lastGapMillis, long maxGapMillis, long downMillis) {
+        @Override
+        public String toString() {
+            return "probes=%d, failed=%d, outages=%d, primary changes=%d, last gap=%d ms, max gap=%d ms, down=%d ms".formatted(
+                    probes, failedProbes, outages, primaryChanges, lastGapMillis, maxGapMillis, downMillis);
+        }
+    }
+
+    private final String name;
+    private final Supplier<HostAndPort> primary;
+    private final JedisClientConfig config;
+    private final long intervalNanos;
+    private final SetParams probeParams;
+    private volatile boolean running;
+    private Thread prober;
+
+    // written by the prober thread only, read by stats()
+    private volatile long probes;
+    private volatile long failedProbes;
+    private volatile long outages;
+    private volatile long primaryChanges;
+    private volatile long lastSuccessNanos;
+    private volatile long firstFailureNanos; // 0 while available
+    private volatile long lastGapNanos;
+    private volatile long maxGapNanos;
+    private volatile long finishedDownNanos;
+    private Jedis connection;
+    private String connectedPrimary; // address and run id of the probe connection
+    private String lastPrimary;
+
+    /**
+     * @param primary        resolves the current primary before each probe
+     * @param intervalMillis time between probes, the resolution of the measured gaps
+     */
+    public FailoverObserver(String name, Supplier<HostAndPort> primary, JedisClientConfig config, long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Failover probe interval must be positive: " + intervalMillis);
+        }
+        this.name = name;
+        this.primary = primary;
+        this.config = config;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.probeParams = SetParams.setParams().px(Math.max(1000, intervalMillis * 10));
+    }
+
+    /**
+     * Resolves the primary through the sentinels, asking them in turn until one answers.
+     */
+    public static Supplier<HostAndPort> sentinelPrimary(String master, Set<HostAndPort> sentinels, JedisClientConfig sentinelConfig) {
+        return () -> {
+            JedisException failure = null;
+            for (HostAndPort sentinel : sentinels) {
+                try (Jedis jedis = new Jedis(sentinel, sentinelConfig)) {
+                    List<String> address = jedis.sentinelGetMasterAddrByName(master);
+                    if (address != null && address.size() == 2) {
+                        return new HostAndPort(address.get(0), Integer.parseInt(address.get(1)));
+                    }
+                } catch (JedisException e) {
+                    failure = e;
+                }
+            }
+            throw failure != null ? failure : new JedisConnectionException("No sentinel knows master " + master);
+        };
+    }
+
+    public synchronized FailoverObserver start() {
+        if (!running) {
+            running = true;
+            prober = new Thread(this::run, "redis-failover-observer");
+            prober.setDaemon(true);
+            prober.start();
+            log.info("Observing failovers of %s every %d ms".formatted(name, TimeUnit.NANOSECONDS.toMillis(intervalNanos)));
+        }
+        return this;
+    }
+
+    public Stats stats() {
+        long firstFailure = firstFailureNanos;
+        long currentDown = firstFailure == 0 || lastSuccessNanos == 0 ? 0 : System.nanoTime() - lastSuccessNanos;
+        return new Stats(probes, failedProbes, outages, primaryChanges, firstFailure == 0,
+                TimeUnit.NANOSECONDS.toMillis(lastGapNanos), TimeUnit.NANOSECONDS.toMillis(maxGapNanos),
+                TimeUnit.NANOSECONDS.toMillis(finishedDownNanos + currentDown));
+    }
+
+    public String name() {
+        return name;
+    }
+
+    private void run() {
+        long next = System.nanoTime();
+        while (running) {
+            probe();
+            next += intervalNanos;
+            long delay = next - System.nanoTime();
+            if (delay < 0) {
+                next = System.nanoTime(); // a slow probe delays the schedule instead of bursting after it
+            } else {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+        }
+        disconnect();
+    }
+
+    private void probe() {
+        try {
+            Jedis jedis = connect(primary.get());
+            jedis.set(PROBE_KEY, Long.toString(probes), probeParams);
+            succeeded(System.nanoTime(), connectedPrimary);
+        } catch (RuntimeException e) {
+            disconnect();
+            failed(System.nanoTime(), e);
+        } finally {
+            probes++;
+        }
+    }
+
+    private Jedis connect(HostAndPort address) {
+        if (connection != null && connectedPrimary.startsWith(address + " ")) {
+            return connection;
+        }
+        disconnect();
+        Jedis jedis = new Jedis(address, config);
+        try {
+            connectedPrimary = address + " " + runId(jedis.info("server"));
+        } catch (RuntimeException e) {
+            jedis.close();
+            throw e;
+        }
+        connection = jedis;
+        return jedis;
+    }
+
+    private static String runId(String info) {
+        for (String line : info.split("\r?\n")) {
+            if (line.startsWith("run_id:")) {
+                return line.substring("run_id:".length()).trim();
+            }
+        }
+        return "";
+    }
+
+    private void disconnect() {
+        if (connection != null) {
+            connection.close();
+            connection = null;
+        }
+    }
+
+    private void succeeded(long now, String current) {
+        long firstFailure = firstFailureNanos;
+        if (firstFailure != 0) {
+            long gap = lastSuccessNanos == 0 ? now - firstFailure : now - lastSuccessNanos;
+            lastGapNanos = gap;
+            maxGapNanos = Math.max(maxGapNanos, gap);
+            finishedDownNanos += gap;
+            firstFailureNanos = 0;
+            log.warn("%s recovered on %s: unavailable for %d ms, %d ms after the first failed probe".formatted(
+                    name, current, TimeUnit.NANOSECONDS.toMillis(gap), TimeUnit.NANOSECONDS.toMillis(now - firstFailure)));
+        }
+        if (lastPrimary != null && !lastPrimary.equals(current)) {
+            primaryChanges++;
+            log.warn("%s primary changed from %s to %s".formatted(name, lastPrimary, current));
+        }
+        lastPrimary = current;
+        lastSuccessNanos = now;
+    }
+
+    private void failed(long now, RuntimeException e) {
+        failedProbes++;
+        if (firstFailureNanos == 0) {
+            firstFailureNanos = now;
+            outages++;
+            log.warn("%s unavailable: %s".formatted(name, e));
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        prober.interrupt();
+        try {
+            prober.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Failover observer of %s stopped: %s".formatted(name, stats()));
+    }
+}
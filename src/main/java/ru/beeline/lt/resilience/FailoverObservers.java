@@ -0,0 +1,38 @@
+package ru.beeline.lt.resilience;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Failover observers of the running test, one per target. Samplers of the same target share its observer.
+ */
+public class FailoverObservers {
+
+    private static final Map<Object, FailoverObserver> OBSERVERS = new ConcurrentHashMap<>();
+
+    /**
+     * @param key identifies the target
+     */
+    public static FailoverObserver getOrStart(Object key, Supplier<FailoverObserver> factory) {
+        FailoverObserver observer = OBSERVERS.get(key);
+        if (observer == null) {
+            observer = OBSERVERS.computeIfAbsent(key, k -> factory.get().start());
+        }
+        return observer;
+    }
+
+    public static Collection<FailoverObserver> all() {
+        return List.copyOf(OBSERVERS.values());
+    }
+
+    public static void stopAll() {
+        OBSERVERS.forEach((key, observer) -> {
+            if (OBSERVERS.remove(key, observer)) {
+                observer.close();
+            }
+        });
+    }
+}
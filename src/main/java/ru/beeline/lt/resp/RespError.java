@@ -0,0 +1,7 @@
+package ru.beeline.lt.resp;
+
+/**
+ * Error reply ({@code -ERR ...}) read from a RESP stream.
+ */
+public record RespError(String message) {
+}
@@ -0,0 +1,241 @@
+package ru.beeline.lt.resp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RESP2 encoder and decoder, enough to talk to Redis without a client library.
+ * Replies are decoded as {@link String} (simple and bulk strings), {@link Long}, {@link RespError},
+ * {@link List} (arrays) or {@code null} (nil bulk string or array).
+ */
+public class RespProtocol {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    /**
+     * Encodes a command as an array of bulk strings.
+     */
+    public static byte[] encodeCommand(String... args) {
+        byte[][] encoded = new byte[args.length][];
+        for (int i = 0; i < args.length; i++) {
+            encoded[i] = args[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return encodeCommand(encoded);
+    }
+
+    public static byte[] encodeCommand(byte[]... args) {
+        int size = 16;
+        for (byte[] arg : args) {
+            size += arg.length + 16;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        try {
+            writeCommand(out, args);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // impossible for ByteArrayOutputStream
+        }
+        return out.toByteArray();
+    }
+
+    public static void writeCommand(OutputStream out, byte[]... args) throws IOException {
+        out.write('*');
+        writeNumber(out, args.length);
+        for (byte[] arg : args) {
+            writeBulk(out, arg);
+        }
+    }
+
+    public static void writeBulk(OutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.write('$');
+            writeNumber(out, -1);
+            return;
+        }
+        out.write('$');
+        writeNumber(out, value.length);
+        out.write(value);
+        out.write(CRLF);
+    }
+
+    public static void writeSimple(OutputStream out, String value) throws IOException {
+        out.write('+');
+        out.write(value.getBytes(StandardCharsets.UTF_8));
+        out.write(CRLF);
+    }
+
+    public static void writeError(OutputStream out, String message) throws IOException {
+        out.write('-');
+        out.write(message.getBytes(StandardCharsets.UTF_8));
+        out.write(CRLF);
+    }
+
+    public static void writeInteger(OutputStream out, long value) throws IOException {
+        out.write(':');
+        writeNumber(out, value);
+    }
+
+    public static void writeArrayHeader(OutputStream out, int length) throws IOException {
+        out.write('*');
+        writeNumber(out, length);
+    }
+
+    private static void writeNumber(OutputStream out, long value) throws IOException {
+        out.write(Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+        out.write(CRLF);
+    }
+
+    /**
+     * Reads a command sent by a client, an array of bulk strings. Inline commands are not supported.
+     *
+     * @return the command and its arguments or {@code null} if the connection was closed between commands
+     */
+    public static byte[][] readCommand(InputStream in) throws IOException {
+        int type = in.read();
+        if (type == -1) {
+            return null;
+        }
+        if (type != '*') {
+            throw new IOException("Expected a RESP array, got type byte: " + type);
+        }
+        int length = (int) readNumber(in);
+        byte[][] args = new byte[Math.max(0, length)][];
+        for (int i = 0; i < args.length; i++) {
+            type = in.read();
+            if (type != '$') {
+                throw new IOException("Expected a RESP bulk string, got type byte: " + type);
+            }
+            args[i] = readBulk(in, (int) readNumber(in));
+        }
+        return args;
+    }
+
+    public static Object readReply(InputStream in) throws IOException {
+        int type = in.read();
+        return switch (type) {
+            case -1 -> throw new EOFException("Connection closed");
+            case '+' -> readLine(in);
+            case '-' -> new RespError(readLine(in));
+            case ':' -> readNumber(in);
+            case '$' -> {
+                int length = (int) readNumber(in);
+                yield length < 0 ? null : new String(readBulk(in, length), StandardCharsets.UTF_8);
+            }
+            case '*' -> {
+                int length = (int) readNumber(in);
+                if (length < 0) {
+                    yield null;
+                }
+                List<Object> items = new ArrayList<>(length);
+                for (int i = 0; i < length; i++) {
+                    items.add(readReply(in));
+                }
+                yield items;
+            }
+            default -> throw new IOException("Unexpected RESP type byte: " + type);
+        };
+    }
+
+    /**
+     * Reads a reply without materializing it.
+     *
+     * @return the error message for an error reply, {@code null} otherwise
+     */
+    public static String skipReply(InputStream in) throws IOException {
+        int type = in.read();
+        switch (type) {
+            case -1 -> throw new EOFException("Connection closed");
+            case '+', ':' -> skipLine(in);
+            case '-' -> {
+                return readLine(in);
+            }
+            case '$' -> {
+                long length = readNumber(in);
+                if (length >= 0) {
+                    skipFully(in, length + 2);
+                }
+            }
+            case '*' -> {
+                long length = readNumber(in);
+                String error = null;
+                for (long i = 0; i < length; i++) {
+                    String itemError = skipReply(in);
+                    if (error == null) {
+                        error = itemError;
+                    }
+                }
+                return error;
+            }
+            default -> throw new IOException("Unexpected RESP type byte: " + type);
+        }
+        return null;
+    }
+
+    private static byte[] readBulk(InputStream in, int length) throws IOException {
+        byte[] data = in.readNBytes(length);
+        if (data.length < length) {
+            throw new EOFException("Connection closed");
+        }
+        skipFully(in, 2);
+        return data;
+    }
+
+    private static void skipFully(InputStream in, long count) throws IOException {
+        while (count > 0) {
+            long skipped = in.skip(count);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException("Connection closed");
+                }
+                skipped = 1;
+            }
+            count -= skipped;
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(32);
+        int b;
+        while ((b = in.read()) != '\r') {
+            if (b < 0) {
+                throw new EOFException("Connection closed");
+            }
+            line.write(b);
+        }
+        in.read(); // '\n'
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void skipLine(InputStream in) throws IOException {
+        int b;
+        while ((b = in.read()) != '\r') {
+            if (b < 0) {
+                throw new EOFException("Connection closed");
+            }
+        }
+        in.read(); // '\n'
+    }
+
+    private static long readNumber(InputStream in) throws IOException {
+        long value = 0;
+        boolean negative = false;
+        int b;
+        while ((b = in.read()) != '\r') {
+            if (b < 0) {
+                throw new EOFException("Connection closed");
+            }
+            if (b == '-') {
+                negative = true;
+            } else {
+                value = value * 10 + (b - '0');
+            }
+        }
+        in.read(); // '\n'
+        return negative ? -value : value;
+    }
+}
@@ -0,0 +1,405 @@
+package ru.beeline.lt.server;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisClientConfig;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.resps.Slowlog;
+import redis.clients.jedis.util.SafeEncoder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Samples the state of the servers while the test runs, on connections of its own: the numeric fields of
+ * {@code INFO memory}, {@code stats}, {@code clients}, {@code persistence} and {@code commandstats}, the new
+ * {@code SLOWLOG} entries and {@code LATENCY LATEST}, polled at a fixed interval.
+ * <p>
+ * Every poll is appended to a CSV time series of {@code timeStamp,node,metric,value} rows. Time stamps are epoch
+ * milliseconds like those of JMeter results, so the series lines up with the load timeline and throughput drops can be
+ * matched to evictions, fragmentation, fork and AOF rewrite stalls or blocked clients. Command statistics are
+ * {@code cmdstat_<command>.<field>}, slow commands {@code slowlog.new} and {@code slowlog.max_usec}, and latency
+ * events {@code latency.<event>.max_ms} plus {@code latency.<event>.latest_ms} in the poll after the event occurred.
+ * <p>
+ * A command the server refuses, such as {@code SLOWLOG} for an ACL user without the admin category, is logged once
+ * and not sent to that node again.
+ */
+public class ServerStatsCollector implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ServerStatsCollector.class);
+
+    static final List<String> INFO_SECTIONS = List.of("memory", "stats", "clients", "persistence", "commandstats");
+    private static final int SLOWLOG_ENTRIES = 128;
+    private static final long CLOSE_TIMEOUT_MILLIS = 1000;
+
+    private final String name;
+    private final Supplier<List<HostAndPort>> nodes;
+    private final JedisClientConfig config;
+    private final long intervalNanos;
+    private final Path file;
+    private final Map<HostAndPort, Node> states = new HashMap<>(); // by the collector thread only
+    private volatile Map<String, Map<String, Double>> latest = Map.of();
+    private volatile boolean running;
+    private volatile long polls;
+    private volatile long failedPolls;
+    private long rows;
+    private BufferedWriter out; // used by the collector thread only once it runs
+    private Thread collector;
+
+    /**
+     * @param nodes          resolves the servers to poll before each poll
+     * @param intervalMillis time between polls
+     * @param file           CSV time series to write, {@code null} to keep the latest values for metrics only
+     */
+    public ServerStatsCollector(String name, Supplier<List<HostAndPort>> nodes, JedisClientConfig config,
+                                long intervalMillis, Path file) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Server stats interval must be positive: " + intervalMillis);
+        }
+        this.name = name;
+        this.nodes = nodes;
+        this.config = config;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.file = file;
+    }
+
+    /**
+     * Creates the time series file and starts polling.
+     *
+     * @throws UncheckedIOException if the file can not be created
+     */
+    public synchronized ServerStatsCollector start() {
+        if (!running) {
+            if (file != null) {
+                try {
+                    out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+                    out.write("timeStamp,node,metric,value\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to create server stats file " + file, e);
+                }
+            }
+            running = true;
+            collector = new Thread(this::run, "redis-server-stats");
+            collector.setDaemon(true);
+            collector.start();
+            log.info("Collecting server stats of %s every %d ms%s".formatted(name, TimeUnit.NANOSECONDS.toMillis(intervalNanos),
+                    file == null ? "" : " to " + file));
+        }
+        return this;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return the values of the last poll by node
+     */
+    public Map<String, Map<String, Double>> latest() {
+        return latest;
+    }
+
+    private void run() {
+        long next = System.nanoTime();
+        while (running) {
+            poll();
+            next += intervalNanos;
+            long delay = next - System.nanoTime();
+            if (delay < 0) {
+                next = System.nanoTime(); // a slow poll delays the schedule instead of bursting after it
+            } else {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+        }
+        states.values().forEach(Node::disconnect);
+        if (out != null) {
+            closeFile(null); // here rather than in close(), which may give up waiting while a poll is blocked
+        }
+    }
+
+    private void poll() {
+        long timeStamp = System.currentTimeMillis();
+        List<HostAndPort> addresses;
+        try {
+            addresses = nodes.get();
+        } catch (RuntimeException e) {
+            failedPolls++;
+            log.warn("Failed to resolve the nodes of %s: %s".formatted(name, e));
+            return;
+        }
+        Map<String, Map<String, Double>> values = new LinkedHashMap<>();
+        boolean failed = false;
+        for (HostAndPort address : addresses) {
+            Map<String, Double> metrics = states.computeIfAbsent(address, Node::new).poll();
+            if (metrics == null) {
+                failed = true;
+            } else {
+                values.put(address.toString(), metrics);
+                write(timeStamp, address.toString(), metrics);
+            }
+        }
+        flush();
+        latest = values;
+        polls++;
+        if (failed) {
+            failedPolls++;
+        }
+    }
+
+    private void write(long timeStamp, String node, Map<String, Double> metrics) {
+        if (out == null) {
+            return;
+        }
+        try {
+            for (Map.Entry<String, Double> metric : metrics.entrySet()) {
+                out.write(Long.toString(timeStamp));
+                out.write(',');
+                out.write(node);
+                out.write(',');
+                out.write(metric.getKey());
+                out.write(',');
+                out.write(format(metric.getValue()));
+                out.write('\n');
+                rows++;
+            }
+        } catch (IOException e) {
+            closeFile(e);
+        }
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    private void flush() {
+        if (out != null) {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                closeFile(e);
+            }
+        }
+    }
+
+    private void closeFile(IOException failure) {
+        if (failure != null) {
+            log.error("Failed to write server stats of %s to %s, no more rows are written".formatted(name, file), failure);
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            // already failing or finished
+        }
+        out = null;
+    }
+
+    /**
+     * Adds the numeric fields of one {@code INFO} section, skipping the lines of other sections a server may send.
+     * Command statistics are split into their fields.
+     */
+    static void parseInfo(String info, String section, Map<String, Double> metrics) {
+        boolean inSection = false;
+        for (String line : info.split("\r?\n")) {
+            if (line.startsWith("#")) {
+                inSection = line.substring(1).trim().equalsIgnoreCase(section);
+                continue;
+            }
+            int colon = line.indexOf(':');
+            if (!inSection || colon <= 0) {
+                continue;
+            }
+            String field = line.substring(0, colon);
+            String value = line.substring(colon + 1).trim();
+            if (field.startsWith("cmdstat_")) {
+                for (String part : value.split(",")) {
+                    int equals = part.indexOf('=');
+                    if (equals > 0) {
+                        putNumber(metrics, field + "." + part.substring(0, equals), part.substring(equals + 1));
+                    }
+                }
+            } else {
+                putNumber(metrics, field, value);
+            }
+        }
+    }
+
+    private static void putNumber(Map<String, Double> metrics, String name, String value) {
+        if (value.isEmpty() || !(Character.isDigit(value.charAt(0)) || value.charAt(0) == '-')) {
+            return;
+        }
+        try {
+            metrics.put(name, Double.parseDouble(value));
+        } catch (NumberFormatException e) {
+            // a version, address or other text field
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        collector.interrupt();
+        try {
+            collector.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (collector.isAlive()) {
+            log.warn("Server stats collector of %s is still polling, its file is closed when the poll ends".formatted(name));
+        }
+        log.info("Server stats collector of %s stopped: %d polls, %d with failed nodes, %d rows%s".formatted(
+                name, polls, failedPolls, rows, file == null ? "" : " written to " + file));
+    }
+
+    /**
+     * Connection and progress of one server.
+     */
+    private final class Node {
+
+        private final HostAndPort address;
+        private final Set<String> refused = new HashSet<>();
+        private final Map<String, Long> latencyEvents = new HashMap<>(); // time stamps of the last seen events
+        private Jedis connection;
+        private long lastSlowlogId = -1;
+        private boolean slowlogStarted;
+        private boolean latencyStarted;
+        private boolean failing;
+
+        Node(HostAndPort address) {
+            this.address = address;
+        }
+
+        /**
+         * @return the values, {@code null} if the node could not be reached
+         */
+        Map<String, Double> poll() {
+            Map<String, Double> metrics = new LinkedHashMap<>();
+            try {
+                if (connection == null) {
+                    connection = new Jedis(address, config);
+                }
+                for (String section : INFO_SECTIONS) {
+                    if (!refused.contains(section)) {
+                        try {
+                            parseInfo(connection.info(section), section, metrics);
+                        } catch (JedisDataException e) {
+                            refuse(section, e);
+                        }
+                    }
+                }
+                if (!refused.contains("SLOWLOG")) {
+                    try {
+                        pollSlowlog(metrics);
+                    } catch (JedisDataException e) {
+                        refuse("SLOWLOG", e);
+                    }
+                }
+                if (!refused.contains("LATENCY")) {
+                    try {
+                        pollLatency(metrics);
+                    } catch (JedisDataException e) {
+                        refuse("LATENCY", e);
+                    }
+                }
+            } catch (RuntimeException e) {
+                disconnect();
+                if (!failing) {
+                    failing = true;
+                    log.warn("Failed to collect server stats of %s from %s: %s".formatted(name, address, e));
+                }
+                return null;
+            }
+            if (failing) {
+                failing = false;
+                log.info("Collecting server stats of %s from %s again".formatted(name, address));
+            }
+            return metrics;
+        }
+
+        private void refuse(String command, JedisDataException e) {
+            refused.add(command);
+            log.warn("%s refused %s of the server stats collector, not sending it again: %s".formatted(address, command, e.getMessage()));
+        }
+
+        private void pollSlowlog(Map<String, Double> metrics) {
+            List<Slowlog> entries = connection.slowlogGet(SLOWLOG_ENTRIES); // newest first
+            long last = lastSlowlogId;
+            if (!entries.isEmpty()) {
+                lastSlowlogId = entries.get(0).getId();
+            }
+            if (!slowlogStarted) {
+                slowlogStarted = true; // the entries so far are older than the test
+                return;
+            }
+            if (!entries.isEmpty() && entries.get(0).getId() < last) {
+                last = -1; // a restarted or reset server numbers its entries from 0 again
+            }
+            int count = 0;
+            Slowlog slowest = null;
+            for (Slowlog entry : entries) {
+                if (entry.getId() <= last) {
+                    break;
+                }
+                count++;
+                if (slowest == null || entry.getExecutionTime() > slowest.getExecutionTime()) {
+                    slowest = entry;
+                }
+            }
+            metrics.put("slowlog.new", (double) count);
+            if (slowest != null) {
+                metrics.put("slowlog.max_usec", (double) slowest.getExecutionTime());
+                log.info("%s: %d slow commands, the slowest took %d us: %s".formatted(address, count,
+                        slowest.getExecutionTime(), String.join(" ", slowest.getArgs())));
+            }
+        }
+
+        private void pollLatency(Map<String, Double> metrics) {
+            Object reply = connection.sendCommand(Protocol.Command.LATENCY, "LATEST");
+            if (!(reply instanceof List<?> events)) {
+                return;
+            }
+            for (Object item : events) {
+                if (!(item instanceof List<?> event) || event.size() < 4) {
+                    continue;
+                }
+                String eventName = SafeEncoder.encode((byte[]) event.get(0)).toLowerCase(Locale.ROOT);
+                long timeStamp = (Long) event.get(1);
+                Long seen = latencyEvents.put(eventName, timeStamp);
+                if (latencyStarted && (seen == null || seen != timeStamp)) {
+                    metrics.put("latency." + eventName + ".latest_ms", ((Long) event.get(2)).doubleValue());
+                }
+                metrics.put("latency." + eventName + ".max_ms", ((Long) event.get(3)).doubleValue());
+            }
+            latencyStarted = true; // events seen in the first poll are older than the test
+        }
+
+        void disconnect() {
+            if (connection != null) {
+                connection.close();
+                connection = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package ru.beeline.lt.server;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Server stats collectors of the running test, one per target. Samplers of the same target share its collector.
+ */
+public class ServerStatsCollectors {
+
+    private static final Map<Object, ServerStatsCollector> COLLECTORS = new ConcurrentHashMap<>();
+
+    /**
+     * @param key identifies the target
+     */
+    public static ServerStatsCollector getOrStart(Object key, Supplier<ServerStatsCollector> factory) {
+        ServerStatsCollector collector = COLLECTORS.get(key);
+        if (collector == null) {
+            collector = COLLECTORS.computeIfAbsent(key, k -> factory.get().start());
+        }
+        return collector;
+    }
+
+    public static Collection<ServerStatsCollector> all() {
+        return List.copyOf(COLLECTORS.values());
+    }
+
+    public static void stopAll() {
+        COLLECTORS.forEach((key, collector) -> {
+            if (COLLECTORS.remove(key, collector)) {
+                collector.close();
+            }
+        });
+    }
+}
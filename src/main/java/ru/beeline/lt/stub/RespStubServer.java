@@ -0,0 +1,211 @@
+package ru.beeline.lt.stub;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.beeline.lt.resp.RespProtocol;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Embedded server speaking RESP2 over an in-memory {@link StubStore}, to exercise the sampler without a real Redis.
+ * Every connection is served by its own thread; replies are flushed once the pipelined input is drained.
+ * <p>
+ * {@link Faults} delay every command and answer a share of them with an error, to see how the sampler reports a slow
+ * or failing server. Runs in the JMeter JVM (see {@link StubServers}) or standalone through {@link #main(String[])}.
+ */
+public class RespStubServer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RespStubServer.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int DEFAULT_PORT = 6379;
+    private static final long CLOSE_TIMEOUT_MILLIS = 1000;
+    static final String INJECTED_ERROR = "ERR injected error";
+
+    private final ServerSocket serverSocket;
+    private final StubStore store;
+    private final Faults faults;
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong commands = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private volatile boolean running;
+    private Thread acceptor;
+
+    /**
+     * Binds to the loopback interface.
+     *
+     * @param port the port, {@code 0} for an ephemeral one
+     */
+    public RespStubServer(int port) throws IOException {
+        this(port, Faults.NONE);
+    }
+
+    /**
+     * Binds to the loopback interface.
+     *
+     * @param port the port, {@code 0} for an ephemeral one
+     */
+    public RespStubServer(int port, Faults faults) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), new StubStore(), faults);
+    }
+
+    public RespStubServer(InetSocketAddress address, StubStore store, Faults faults) throws IOException {
+        this.store = store;
+        this.faults = faults;
+        this.serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(address);
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public StubStore store() {
+        return store;
+    }
+
+    public synchronized RespStubServer start() {
+        if (!running) {
+            running = true;
+            acceptor = new Thread(this::accept, "resp-stub-acceptor-" + port());
+            acceptor.setDaemon(true);
+            acceptor.start();
+            log.info("RESP stub server listening on %s, %s".formatted(serverSocket.getLocalSocketAddress(), faults));
+        }
+        return this;
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                clients.add(socket);
+                Thread worker = new Thread(() -> serve(socket), "resp-stub-" + connections.incrementAndGet());
+                worker.setDaemon(true);
+                worker.start();
+            } catch (IOException e) {
+                if (running) {
+                    log.error("RESP stub server failed to accept a connection", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        StubStore.Session session = null;
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE);
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE);
+            session = new StubStore.Session(out);
+            byte[][] command;
+            while ((command = RespProtocol.readCommand(in)) != null) {
+                commands.incrementAndGet();
+                if (faults.latencyMicros() > 0) {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(faults.latencyMicros()));
+                }
+                synchronized (out) { // shared with publishers writing to a subscribed connection
+                    if (faults.errorRate() > 0 && ThreadLocalRandom.current().nextDouble() < faults.errorRate()) {
+                        injectedErrors.incrementAndGet();
+                        RespProtocol.writeError(out, INJECTED_ERROR);
+                    } else {
+                        store.execute(session, command, out);
+                    }
+                    if (in.available() == 0) {
+                        out.flush();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                log.debug("RESP stub connection closed: %s".formatted(e));
+            }
+        } finally {
+            if (session != null) {
+                store.disconnect(session);
+            }
+            clients.remove(socket);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (running) {
+            log.info("RESP stub server on port %d stopped: commands=%d, injected errors=%d".formatted(
+                    port(), commands.get(), injectedErrors.get()));
+        }
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            log.debug("Failed to close RESP stub server socket", e);
+        }
+        for (Socket client : clients) {
+            try {
+                client.close();
+            } catch (IOException e) {
+                log.debug("Failed to close RESP stub connection", e);
+            }
+        }
+        clients.clear();
+        if (acceptor != null) {
+            try {
+                // the listening socket is released once the blocked accept returns, wait for it to rebind the port
+                acceptor.join(CLOSE_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Runs a standalone stub: {@code java -cp <plugin jar and dependencies> ru.beeline.lt.stub.RespStubServer
+     * [port [latency micros [error rate]]]}. Listens on all interfaces until killed.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Faults faults = new Faults(args.length > 1 ? Long.parseLong(args[1]) : 0, args.length > 2 ? Double.parseDouble(args[2]) : 0);
+        RespStubServer server = new RespStubServer(new InetSocketAddress(port), new StubStore(), faults).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        Thread.currentThread().join();
+    }
+
+    /**
+     * @param latencyMicros delay before executing every command
+     * @param errorRate     share of commands answered with {@value RespStubServer#INJECTED_ERROR}, from 0 to 1
+     */
+    public record Faults(long latencyMicros, double errorRate) {
+        public static final Faults NONE = new Faults(0, 0);
+
+        public Faults {
+            if (latencyMicros < 0) {
+                throw new IllegalArgumentException("Stub latency must not be negative: " + latencyMicros);
+            }
+            if (errorRate < 0 || errorRate > 1) {
+                throw new IllegalArgumentException("Stub error rate must be between 0 and 1: " + errorRate);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "latency %d us, error rate %s".formatted(latencyMicros, errorRate);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package ru.beeline.lt.stub;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stub servers of the running test, one per port. Samplers targeting the same port share its server.
+ */
+public class StubServers {
+
+    private static final Map<Integer, RespStubServer> SERVERS = new ConcurrentHashMap<>();
+
+    public static RespStubServer getOrStart(int port, RespStubServer.Faults faults) {
+        RespStubServer server = SERVERS.get(port);
+        if (server == null) {
+            server = SERVERS.computeIfAbsent(port, p -> {
+                try {
+                    return new RespStubServer(p, faults).start();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        return server;
+    }
+
+    public static void stopAll() {
+        SERVERS.forEach((port, server) -> {
+            if (SERVERS.remove(port, server)) {
+                server.close();
+            }
+        });
+    }
+}
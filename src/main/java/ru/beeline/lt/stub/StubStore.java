@@ -0,0 +1,1059 @@
+package ru.beeline.lt.stub;
+
+import ru.beeline.lt.resp.RespProtocol;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-memory data and command implementations of {@link RespStubServer}.
+ * Covers the commands of the sampler operations with Redis reply types; Lua scripts are accepted but not run.
+ * Keys and members are kept as ISO-8859-1 strings, so binary data round-trips unchanged. Expiry is checked lazily on access.
+ * <p>
+ * Transactions run under one lock, so they are atomic to each other but not to commands outside of them.
+ * WATCH compares per-key write counters, which are only kept once a client has watched a key.
+ * <p>
+ * PUBLISH writes to the subscribed connections from the publishing thread, under the lock of their output stream.
+ * <p>
+ * Key tracking supports the RESP2 redirect mode only: {@code CLIENT TRACKING ON REDIRECT <id>} makes reads of the
+ * connection tracked, and a write to a tracked key is published to the redirect connection on {@value #INVALIDATE_CHANNEL}.
+ */
+public class StubStore {
+
+    @FunctionalInterface
+    interface Command {
+        void execute(byte[][] args, OutputStream out) throws IOException;
+    }
+
+    private record Entry(Object value, long expiresAt) {
+        boolean isExpired(long now) {
+            return expiresAt != 0 && expiresAt <= now;
+        }
+    }
+
+    private record Member(double score, String name) implements Comparable<Member> {
+        @Override
+        public int compareTo(Member other) {
+            int byScore = Double.compare(score, other.score);
+            return byScore != 0 ? byScore : name.compareTo(other.name);
+        }
+    }
+
+    private static class SortedSet {
+        final Map<String, Double> scores = new HashMap<>();
+        final TreeSet<Member> members = new TreeSet<>();
+
+        double add(String name, double score, boolean increment) {
+            Double current = scores.get(name);
+            if (current != null) {
+                members.remove(new Member(current, name));
+                if (increment) {
+                    score += current;
+                }
+            }
+            scores.put(name, score);
+            members.add(new Member(score, name));
+            return score;
+        }
+    }
+
+    private record StreamEntry(long millis, long sequence, byte[][] fields) {
+        byte[] id() {
+            return (millis + "-" + sequence).getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private static class Stream {
+        final List<StreamEntry> entries = new ArrayList<>();
+        final Map<String, Integer> groups = new HashMap<>(); // group -> index of the next undelivered entry
+    }
+
+    // BLOCK 0 waits forever in Redis; the stub wakes up to let closed connections go
+    private static final long MAX_BLOCK_MILLIS = 1000;
+    static final String INVALIDATE_CHANNEL = "__redis__:invalidate";
+    // reads whose keys are tracked for client-side caching, MGET tracks all its keys
+    private static final Set<String> TRACKED_READS = Set.of(
+            "GET", "EXISTS", "MGET", "HGET", "HGETALL", "LRANGE", "SISMEMBER", "SMEMBERS", "ZRANGEBYSCORE");
+    private static final String WRONG_TYPE = "WRONGTYPE Operation against a key holding the wrong kind of value";
+
+    private final Map<String, Entry> data = new ConcurrentHashMap<>();
+    private final Set<String> scripts = ConcurrentHashMap.newKeySet();
+    private final Map<String, Command> commands = new HashMap<>();
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private final Map<String, Set<Session>> subscribers = new ConcurrentHashMap<>();
+    private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> trackedKeys = new ConcurrentHashMap<>(); // key -> redirect connection ids
+    private final Object transactionLock = new Object();
+    private final String runId = newRunId(); // new for every stub start, as a restarted Redis has
+    private volatile boolean watching;
+
+    public StubStore() {
+        registerConnectionCommands();
+        registerStringCommands();
+        registerHashCommands();
+        registerListCommands();
+        registerSetCommands();
+        registerSortedSetCommands();
+        registerStreamCommands();
+        registerStreamInfoCommands();
+        registerScriptCommands();
+    }
+
+    /**
+     * Executes a command of a client connection and writes its reply. Failures are answered with a RESP error, as Redis does.
+     */
+    public void execute(Session session, byte[][] args, OutputStream out) throws IOException {
+        if (args.length == 0) {
+            RespProtocol.writeError(out, "ERR empty command");
+            return;
+        }
+        String name = text(args[0]).toUpperCase(Locale.ROOT);
+        switch (name) {
+            case "MULTI" -> multi(session, out);
+            case "EXEC" -> exec(session, out);
+            case "DISCARD" -> discard(session, out);
+            case "WATCH" -> watch(session, args, out);
+            case "UNWATCH" -> {
+                session.watched.clear();
+                RespProtocol.writeSimple(out, "OK");
+            }
+            case "SUBSCRIBE" -> subscribe(session, args, out);
+            case "UNSUBSCRIBE" -> unsubscribe(session, args, out);
+            case "CLIENT" -> client(session, args, out);
+            default -> {
+                if (session.queued == null) {
+                    execute(name, args, out);
+                    if (session.trackingRedirect != 0 && TRACKED_READS.contains(name)) {
+                        track(session.trackingRedirect, args, name.equals("MGET") ? args.length : Math.min(args.length, 2));
+                    }
+                } else if (commands.containsKey(name)) {
+                    session.queued.add(args);
+                    RespProtocol.writeSimple(out, "QUEUED");
+                } else {
+                    session.failed = true;
+                    RespProtocol.writeError(out, "ERR unknown command '%s'".formatted(text(args[0])));
+                }
+            }
+        }
+    }
+
+    private void execute(String name, byte[][] args, OutputStream out) throws IOException {
+        Command command = commands.get(name);
+        if (command == null) {
+            RespProtocol.writeError(out, "ERR unknown command '%s'".formatted(text(args[0])));
+            return;
+        }
+        try {
+            command.execute(args, out);
+        } catch (StubException e) {
+            RespProtocol.writeError(out, e.getMessage());
+        } catch (NumberFormatException e) {
+            RespProtocol.writeError(out, "ERR value is not an integer or out of range");
+        }
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * Drops the subscriptions of a closed connection.
+     */
+    public void disconnect(Session session) {
+        for (String channel : session.channels) {
+            Set<Session> sessions = subscribers.get(channel);
+            if (sessions != null) {
+                sessions.remove(session);
+            }
+        }
+        session.channels.clear();
+        sessions.remove(session.id, session);
+    }
+
+    private void multi(Session session, OutputStream out) throws IOException {
+        if (session.queued != null) {
+            RespProtocol.writeError(out, "ERR MULTI calls can not be nested");
+            return;
+        }
+        session.queued = new ArrayList<>();
+        RespProtocol.writeSimple(out, "OK");
+    }
+
+    private void exec(Session session, OutputStream out) throws IOException {
+        List<byte[][]> queued = session.queued;
+        if (queued == null) {
+            RespProtocol.writeError(out, "ERR EXEC without MULTI");
+            return;
+        }
+        boolean failed = session.failed;
+        session.queued = null;
+        session.failed = false;
+        if (failed) {
+            session.watched.clear();
+            RespProtocol.writeError(out, "EXECABORT Transaction discarded because of previous errors.");
+            return;
+        }
+        synchronized (transactionLock) {
+            boolean modified = false;
+            for (Map.Entry<String, Long> watched : session.watched.entrySet()) {
+                modified |= !watched.getValue().equals(versions.getOrDefault(watched.getKey(), 0L));
+            }
+            session.watched.clear();
+            if (modified) {
+                RespProtocol.writeArrayHeader(out, -1); // aborted, a watched key was written
+                return;
+            }
+            RespProtocol.writeArrayHeader(out, queued.size());
+            for (byte[][] command : queued) {
+                execute(text(command[0]).toUpperCase(Locale.ROOT), command, out);
+            }
+        }
+    }
+
+    private void discard(Session session, OutputStream out) throws IOException {
+        if (session.queued == null) {
+            RespProtocol.writeError(out, "ERR DISCARD without MULTI");
+            return;
+        }
+        session.queued = null;
+        session.failed = false;
+        session.watched.clear();
+        RespProtocol.writeSimple(out, "OK");
+    }
+
+    private void watch(Session session, byte[][] args, OutputStream out) throws IOException {
+        if (session.queued != null) {
+            RespProtocol.writeError(out, "ERR WATCH inside MULTI is not allowed");
+            return;
+        }
+        if (args.length < 2) {
+            RespProtocol.writeError(out, wrongArguments(args).getMessage());
+            return;
+        }
+        watching = true;
+        for (int i = 1; i < args.length; i++) {
+            String key = key(args[i]);
+            session.watched.putIfAbsent(key, versions.getOrDefault(key, 0L));
+        }
+        RespProtocol.writeSimple(out, "OK");
+    }
+
+    private void subscribe(Session session, byte[][] args, OutputStream out) throws IOException {
+        if (args.length < 2) {
+            RespProtocol.writeError(out, wrongArguments(args).getMessage());
+            return;
+        }
+        for (int i = 1; i < args.length; i++) {
+            String channel = key(args[i]);
+            if (session.channels.add(channel)) {
+                subscribers.computeIfAbsent(channel, c -> ConcurrentHashMap.newKeySet()).add(session);
+            }
+            writePush(out, "subscribe", args[i], session.channels.size());
+        }
+    }
+
+    private void unsubscribe(Session session, byte[][] args, OutputStream out) throws IOException {
+        List<String> channels = new ArrayList<>();
+        if (args.length > 1) {
+            for (int i = 1; i < args.length; i++) {
+                channels.add(key(args[i]));
+            }
+        } else {
+            channels.addAll(session.channels);
+        }
+        if (channels.isEmpty()) {
+            writePush(out, "unsubscribe", null, 0);
+        }
+        for (String channel : channels) {
+            if (session.channels.remove(channel)) {
+                Set<Session> sessions = subscribers.get(channel);
+                if (sessions != null) {
+                    sessions.remove(session);
+                }
+            }
+            writePush(out, "unsubscribe", bytes(channel), session.channels.size());
+        }
+    }
+
+    /**
+     * CLIENT ID and CLIENT TRACKING; other subcommands, such as SETNAME, are accepted as is.
+     */
+    private void client(Session session, byte[][] args, OutputStream out) throws IOException {
+        String subcommand = args.length > 1 ? text(args[1]).toUpperCase(Locale.ROOT) : "";
+        switch (subcommand) {
+            case "ID" -> {
+                sessions.put(session.id, session);
+                RespProtocol.writeInteger(out, session.id);
+            }
+            case "TRACKING" -> {
+                if (args.length < 3) {
+                    RespProtocol.writeError(out, "ERR syntax error");
+                    return;
+                }
+                boolean on = text(args[2]).equalsIgnoreCase("ON");
+                long redirect = -1; // tracked, but RESP2 clients without a redirect get no invalidations
+                for (int i = 3; i + 1 < args.length; i++) {
+                    if (text(args[i]).equalsIgnoreCase("REDIRECT")) {
+                        redirect = integer(args[i + 1]);
+                    }
+                }
+                session.trackingRedirect = on ? redirect : 0;
+                RespProtocol.writeSimple(out, "OK");
+            }
+            default -> RespProtocol.writeSimple(out, "OK");
+        }
+    }
+
+    private void track(long redirect, byte[][] args, int end) {
+        for (int i = 1; i < end; i++) {
+            trackedKeys.computeIfAbsent(key(args[i]), k -> ConcurrentHashMap.newKeySet()).add(redirect);
+        }
+    }
+
+    /**
+     * Sends an invalidation of the key to the connections that read it, once, as Redis does.
+     *
+     * @param key the changed key, {@code null} when all keys were flushed
+     */
+    private void invalidate(String key) {
+        Set<Long> redirects;
+        if (key != null) {
+            redirects = trackedKeys.remove(key);
+        } else {
+            redirects = new LinkedHashSet<>();
+            trackedKeys.values().forEach(redirects::addAll);
+            trackedKeys.clear();
+        }
+        if (redirects == null) {
+            return;
+        }
+        for (long redirect : redirects) {
+            Session target = sessions.get(redirect);
+            if (target == null || !target.channels.contains(INVALIDATE_CHANNEL)) {
+                continue;
+            }
+            synchronized (target.out) {
+                try {
+                    RespProtocol.writeArrayHeader(target.out, 3);
+                    RespProtocol.writeBulk(target.out, bytes("message"));
+                    RespProtocol.writeBulk(target.out, bytes(INVALIDATE_CHANNEL));
+                    if (key == null) {
+                        RespProtocol.writeArrayHeader(target.out, -1);
+                    } else {
+                        RespProtocol.writeArrayHeader(target.out, 1);
+                        RespProtocol.writeBulk(target.out, bytes(key));
+                    }
+                    target.out.flush();
+                } catch (IOException e) {
+                    sessions.remove(redirect, target); // the redirect connection went away
+                }
+            }
+        }
+    }
+
+    private static void writePush(OutputStream out, String kind, byte[] channel, long count) throws IOException {
+        RespProtocol.writeArrayHeader(out, 3);
+        RespProtocol.writeBulk(out, bytes(kind));
+        RespProtocol.writeBulk(out, channel);
+        RespProtocol.writeInteger(out, count);
+    }
+
+    /**
+     * @return the number of connections the message was written to
+     */
+    private int publish(byte[] channel, byte[] message) {
+        Set<Session> sessions = subscribers.get(key(channel));
+        if (sessions == null) {
+            return 0;
+        }
+        int receivers = 0;
+        for (Session session : sessions) {
+            synchronized (session.out) {
+                try {
+                    RespProtocol.writeArrayHeader(session.out, 3);
+                    RespProtocol.writeBulk(session.out, bytes("message"));
+                    RespProtocol.writeBulk(session.out, channel);
+                    RespProtocol.writeBulk(session.out, message);
+                    session.out.flush();
+                    receivers++;
+                } catch (IOException e) {
+                    sessions.remove(session); // the subscriber went away
+                }
+            }
+        }
+        return receivers;
+    }
+
+    /**
+     * Counts a write to the key for WATCH and invalidates it in client-side caches.
+     */
+    private void modified(String key) {
+        if (watching) {
+            versions.merge(key, 1L, Long::sum);
+        }
+        if (!trackedKeys.isEmpty()) {
+            invalidate(key);
+        }
+    }
+
+    private void registerConnectionCommands() {
+        register("PING", 1, (args, out) -> {
+            if (args.length > 1) {
+                RespProtocol.writeBulk(out, args[1]);
+            } else {
+                RespProtocol.writeSimple(out, "PONG");
+            }
+        });
+        // connection setup done by clients, accepted as is
+        register("AUTH", 2, (args, out) -> RespProtocol.writeSimple(out, "OK"));
+        register("SELECT", 2, (args, out) -> RespProtocol.writeSimple(out, "OK"));
+        register("FLUSHALL", 1, (args, out) -> {
+            data.clear();
+            invalidate(null);
+            RespProtocol.writeSimple(out, "OK");
+        });
+        register("DBSIZE", 1, (args, out) -> RespProtocol.writeInteger(out, data.size()));
+        // the fields failover observation reads: run_id tells a restarted stub apart
+        register("INFO", 1, (args, out) -> RespProtocol.writeBulk(out, bytes(
+                "# Server\r\nredis_version:7.2.0\r\nrun_id:%s\r\n\r\n# Replication\r\nrole:master\r\n".formatted(runId))));
+        register("PUBLISH", 3, (args, out) -> RespProtocol.writeInteger(out, publish(args[1], args[2])));
+    }
+
+    private void registerStringCommands() {
+        register("GET", 2, (args, out) -> RespProtocol.writeBulk(out, value(args[1], byte[].class)));
+        register("SET", 3, (args, out) -> {
+            long expiresAt = 0;
+            for (int i = 3; i + 1 < args.length; i += 2) {
+                String option = text(args[i]).toUpperCase(Locale.ROOT);
+                long amount = Long.parseLong(text(args[i + 1]));
+                expiresAt = switch (option) {
+                    case "EX" -> System.currentTimeMillis() + amount * 1000;
+                    case "PX" -> System.currentTimeMillis() + amount;
+                    default -> throw new StubException("ERR syntax error");
+                };
+            }
+            data.put(key(args[1]), new Entry(args[2], expiresAt));
+            modified(key(args[1]));
+            RespProtocol.writeSimple(out, "OK");
+        });
+        register("SETEX", 4, (args, out) -> {
+            data.put(key(args[1]), new Entry(args[3], System.currentTimeMillis() + Long.parseLong(text(args[2])) * 1000));
+            modified(key(args[1]));
+            RespProtocol.writeSimple(out, "OK");
+        });
+        register("EXISTS", 2, (args, out) -> {
+            int count = 0;
+            for (int i = 1; i < args.length; i++) {
+                if (entry(key(args[i])) != null) {
+                    count++;
+                }
+            }
+            RespProtocol.writeInteger(out, count);
+        });
+        register("DEL", 2, (args, out) -> {
+            int count = 0;
+            for (int i = 1; i < args.length; i++) {
+                if (data.remove(key(args[i])) != null) {
+                    modified(key(args[i]));
+                    count++;
+                }
+            }
+            RespProtocol.writeInteger(out, count);
+        });
+        register("PEXPIRE", 3, (args, out) -> {
+            String key = key(args[1]);
+            long expiresAt = System.currentTimeMillis() + Long.parseLong(text(args[2]));
+            Entry entry = entry(key);
+            boolean updated = entry != null && data.replace(key, entry, new Entry(entry.value(), expiresAt));
+            if (updated) {
+                modified(key);
+            }
+            RespProtocol.writeInteger(out, updated ? 1 : 0);
+        });
+        register("MGET", 2, (args, out) -> {
+            RespProtocol.writeArrayHeader(out, args.length - 1);
+            for (int i = 1; i < args.length; i++) {
+                Entry entry = entry(key(args[i]));
+                RespProtocol.writeBulk(out, entry != null && entry.value() instanceof byte[] value ? value : null);
+            }
+        });
+        register("MSET", 3, (args, out) -> {
+            if (args.length % 2 == 0) {
+                throw wrongArguments(args);
+            }
+            for (int i = 1; i < args.length; i += 2) {
+                data.put(key(args[i]), new Entry(args[i + 1], 0));
+                modified(key(args[i]));
+            }
+            RespProtocol.writeSimple(out, "OK");
+        });
+        register("INCR", 2, (args, out) -> RespProtocol.writeInteger(out, increment(args[1], 1)));
+        register("INCRBY", 3, (args, out) -> RespProtocol.writeInteger(out, increment(args[1], integer(args[2]))));
+        register("DECR", 2, (args, out) -> RespProtocol.writeInteger(out, increment(args[1], -1)));
+        register("DECRBY", 3, (args, out) -> RespProtocol.writeInteger(out, increment(args[1], -integer(args[2]))));
+    }
+
+    private void registerHashCommands() {
+        register("HSET", 4, (args, out) -> {
+            if (args.length % 2 != 0) {
+                throw wrongArguments(args);
+            }
+            Map<String, byte[]> hash = valueOrCreate(args[1], Map.class, LinkedHashMap::new);
+            int added = 0;
+            synchronized (hash) {
+                for (int i = 2; i < args.length; i += 2) {
+                    if (hash.put(key(args[i]), args[i + 1]) == null) {
+                        added++;
+                    }
+                }
+            }
+            RespProtocol.writeInteger(out, added);
+        });
+        register("HGET", 3, (args, out) -> {
+            Map<String, byte[]> hash = value(args[1], Map.class);
+            if (hash == null) {
+                RespProtocol.writeBulk(out, null);
+                return;
+            }
+            synchronized (hash) {
+                RespProtocol.writeBulk(out, hash.get(key(args[2])));
+            }
+        });
+        register("HGETALL", 2, (args, out) -> {
+            Map<String, byte[]> hash = value(args[1], Map.class);
+            if (hash == null) {
+                RespProtocol.writeArrayHeader(out, 0);
+                return;
+            }
+            synchronized (hash) {
+                RespProtocol.writeArrayHeader(out, hash.size() * 2);
+                for (Map.Entry<String, byte[]> field : hash.entrySet()) {
+                    RespProtocol.writeBulk(out, bytes(field.getKey()));
+                    RespProtocol.writeBulk(out, field.getValue());
+                }
+            }
+        });
+    }
+
+    private void registerListCommands() {
+        register("LPUSH", 3, (args, out) -> {
+            Deque<byte[]> list = valueOrCreate(args[1], Deque.class, ArrayDeque::new);
+            synchronized (list) {
+                for (int i = 2; i < args.length; i++) {
+                    list.addFirst(args[i]);
+                }
+                RespProtocol.writeInteger(out, list.size());
+            }
+        });
+        register("RPOP", 2, (args, out) -> {
+            Deque<byte[]> list = value(args[1], Deque.class);
+            if (list == null) {
+                RespProtocol.writeBulk(out, null);
+                return;
+            }
+            byte[] item;
+            synchronized (list) {
+                item = list.pollLast();
+            }
+            if (item != null) {
+                modified(key(args[1]));
+            }
+            RespProtocol.writeBulk(out, item);
+        });
+        register("LRANGE", 4, (args, out) -> {
+            Deque<byte[]> list = value(args[1], Deque.class);
+            if (list == null) {
+                RespProtocol.writeArrayHeader(out, 0);
+                return;
+            }
+            synchronized (list) {
+                int size = list.size();
+                int start = index(Long.parseLong(text(args[2])), size);
+                int stop = Math.min(index(Long.parseLong(text(args[3])), size), size - 1);
+                RespProtocol.writeArrayHeader(out, Math.max(0, stop - start + 1));
+                Iterator<byte[]> iterator = list.iterator();
+                for (int i = 0; i <= stop && iterator.hasNext(); i++) {
+                    byte[] item = iterator.next();
+                    if (i >= start) {
+                        RespProtocol.writeBulk(out, item);
+                    }
+                }
+            }
+        });
+    }
+
+    private void registerSetCommands() {
+        register("SADD", 3, (args, out) -> {
+            Set<String> set = valueOrCreate(args[1], Set.class, LinkedHashSet::new);
+            int added = 0;
+            synchronized (set) {
+                for (int i = 2; i < args.length; i++) {
+                    if (set.add(key(args[i]))) {
+                        added++;
+                    }
+                }
+            }
+            RespProtocol.writeInteger(out, added);
+        });
+        register("SISMEMBER", 3, (args, out) -> {
+            Set<String> set = value(args[1], Set.class);
+            if (set == null) {
+                RespProtocol.writeInteger(out, 0);
+                return;
+            }
+            synchronized (set) {
+                RespProtocol.writeInteger(out, set.contains(key(args[2])) ? 1 : 0);
+            }
+        });
+        register("SMEMBERS", 2, (args, out) -> {
+            Set<String> set = value(args[1], Set.class);
+            if (set == null) {
+                RespProtocol.writeArrayHeader(out, 0);
+                return;
+            }
+            synchronized (set) {
+                RespProtocol.writeArrayHeader(out, set.size());
+                for (String member : set) {
+                    RespProtocol.writeBulk(out, bytes(member));
+                }
+            }
+        });
+    }
+
+    private void registerSortedSetCommands() {
+        register("ZADD", 4, (args, out) -> {
+            if (args.length % 2 != 0) {
+                throw wrongArguments(args);
+            }
+            SortedSet set = valueOrCreate(args[1], SortedSet.class, SortedSet::new);
+            int added = 0;
+            synchronized (set) {
+                for (int i = 2; i < args.length; i += 2) {
+                    String member = key(args[i + 1]);
+                    if (!set.scores.containsKey(member)) {
+                        added++;
+                    }
+                    set.add(member, score(args[i]), false);
+                }
+            }
+            RespProtocol.writeInteger(out, added);
+        });
+        register("ZINCRBY", 4, (args, out) -> {
+            SortedSet set = valueOrCreate(args[1], SortedSet.class, SortedSet::new);
+            double score;
+            synchronized (set) {
+                score = set.add(key(args[3]), score(args[2]), true);
+            }
+            RespProtocol.writeBulk(out, bytes(formatScore(score)));
+        });
+        register("ZRANGEBYSCORE", 4, (args, out) -> {
+            long offset = 0;
+            long count = Long.MAX_VALUE;
+            for (int i = 4; i < args.length; i++) {
+                if ("LIMIT".equalsIgnoreCase(text(args[i])) && i + 2 < args.length) {
+                    offset = Long.parseLong(text(args[++i]));
+                    count = Long.parseLong(text(args[++i]));
+                    count = count < 0 ? Long.MAX_VALUE : count;
+                }
+            }
+            SortedSet set = value(args[1], SortedSet.class);
+            if (set == null) {
+                RespProtocol.writeArrayHeader(out, 0);
+                return;
+            }
+            String min = text(args[2]);
+            String max = text(args[3]);
+            List<String> result = new ArrayList<>();
+            synchronized (set) {
+                long skipped = 0;
+                for (Member member : set.members) {
+                    if (!aboveMin(member.score(), min)) {
+                        continue;
+                    }
+                    if (!belowMax(member.score(), max) || result.size() >= count) {
+                        break;
+                    }
+                    if (skipped++ >= offset) {
+                        result.add(member.name());
+                    }
+                }
+            }
+            RespProtocol.writeArrayHeader(out, result.size());
+            for (String member : result) {
+                RespProtocol.writeBulk(out, bytes(member));
+            }
+        });
+    }
+
+    private void registerStreamCommands() {
+        register("XADD", 5, (args, out) -> {
+            if (args.length % 2 == 0 || !"*".equals(text(args[2]))) {
+                throw new StubException("ERR only XADD key * field value ... is supported");
+            }
+            byte[][] fields = new byte[args.length - 3][];
+            System.arraycopy(args, 3, fields, 0, fields.length);
+            Stream stream = valueOrCreate(args[1], Stream.class, Stream::new);
+            StreamEntry entry;
+            synchronized (stream) {
+                long now = System.currentTimeMillis();
+                StreamEntry last = stream.entries.isEmpty() ? null : stream.entries.get(stream.entries.size() - 1);
+                entry = last != null && last.millis() >= now
+                        ? new StreamEntry(last.millis(), last.sequence() + 1, fields)
+                        : new StreamEntry(now, 0, fields);
+                stream.entries.add(entry);
+                stream.notifyAll(); // wake blocked XREADGROUP
+            }
+            RespProtocol.writeBulk(out, entry.id());
+        });
+        register("XGROUP", 5, (args, out) -> {
+            if (!"CREATE".equalsIgnoreCase(text(args[1]))) {
+                throw new StubException("ERR only XGROUP CREATE is supported");
+            }
+            boolean mkstream = args.length > 5 && "MKSTREAM".equalsIgnoreCase(text(args[5]));
+            Stream stream = mkstream ? valueOrCreate(args[2], Stream.class, Stream::new) : value(args[2], Stream.class);
+            if (stream == null) {
+                throw new StubException("ERR The XGROUP subcommand requires the key to exist");
+            }
+            synchronized (stream) {
+                String group = key(args[3]);
+                if (stream.groups.containsKey(group)) {
+                    throw new StubException("BUSYGROUP Consumer Group name already exists");
+                }
+                stream.groups.put(group, "$".equals(text(args[4])) ? stream.entries.size() : 0);
+            }
+            RespProtocol.writeSimple(out, "OK");
+        });
+        register("XREADGROUP", 7, (args, out) -> {
+            // XREADGROUP GROUP group consumer [COUNT n] [BLOCK ms] [NOACK] STREAMS key >
+            String group = key(args[2]);
+            int count = Integer.MAX_VALUE;
+            long block = -1;
+            int streams = -1;
+            for (int i = 4; i < args.length; i++) {
+                String option = text(args[i]).toUpperCase(Locale.ROOT);
+                if ("COUNT".equals(option)) {
+                    count = Integer.parseInt(text(args[++i]));
+                } else if ("BLOCK".equals(option)) {
+                    block = Long.parseLong(text(args[++i]));
+                } else if ("STREAMS".equals(option)) {
+                    streams = i + 1;
+                    break;
+                }
+            }
+            if (streams < 0 || args.length - streams != 2 || !">".equals(text(args[streams + 1]))) {
+                throw new StubException("ERR only XREADGROUP ... STREAMS key > is supported");
+            }
+            Stream stream = value(args[streams], Stream.class);
+            if (stream == null) {
+                throw new StubException("NOGROUP No such key '%s' or consumer group '%s'".formatted(key(args[streams]), group));
+            }
+            List<StreamEntry> delivered;
+            synchronized (stream) {
+                Integer next = stream.groups.get(group);
+                if (next == null) {
+                    throw new StubException("NOGROUP No such key '%s' or consumer group '%s'".formatted(key(args[streams]), group));
+                }
+                if (block >= 0 && next == stream.entries.size()) {
+                    awaitEntries(stream, next, block == 0 ? MAX_BLOCK_MILLIS : Math.min(block, MAX_BLOCK_MILLIS));
+                    next = stream.groups.get(group); // other consumers of the group may have read meanwhile
+                }
+                int end = (int) Math.min(stream.entries.size(), (long) next + count);
+                delivered = new ArrayList<>(stream.entries.subList(next, end));
+                stream.groups.put(group, end);
+            }
+            if (delivered.isEmpty()) {
+                RespProtocol.writeArrayHeader(out, -1);
+                return;
+            }
+            RespProtocol.writeArrayHeader(out, 1);
+            RespProtocol.writeArrayHeader(out, 2);
+            RespProtocol.writeBulk(out, args[streams]);
+            RespProtocol.writeArrayHeader(out, delivered.size());
+            for (StreamEntry entry : delivered) {
+                RespProtocol.writeArrayHeader(out, 2);
+                RespProtocol.writeBulk(out, entry.id());
+                RespProtocol.writeArrayHeader(out, entry.fields().length);
+                for (byte[] field : entry.fields()) {
+                    RespProtocol.writeBulk(out, field);
+                }
+            }
+        });
+    }
+
+    private void registerStreamInfoCommands() {
+        register("XINFO", 3, (args, out) -> {
+            if (!"GROUPS".equalsIgnoreCase(text(args[1]))) {
+                throw new StubException("ERR only XINFO GROUPS is supported");
+            }
+            Stream stream = value(args[2], Stream.class);
+            if (stream == null) {
+                throw new StubException("ERR no such key");
+            }
+            synchronized (stream) {
+                RespProtocol.writeArrayHeader(out, stream.groups.size());
+                for (Map.Entry<String, Integer> group : stream.groups.entrySet()) {
+                    int next = group.getValue();
+                    RespProtocol.writeArrayHeader(out, 12);
+                    RespProtocol.writeBulk(out, bytes("name"));
+                    RespProtocol.writeBulk(out, bytes(group.getKey()));
+                    RespProtocol.writeBulk(out, bytes("consumers"));
+                    RespProtocol.writeInteger(out, 0); // consumers are not tracked
+                    RespProtocol.writeBulk(out, bytes("pending"));
+                    RespProtocol.writeInteger(out, 0); // entries are delivered as with NOACK
+                    RespProtocol.writeBulk(out, bytes("last-delivered-id"));
+                    RespProtocol.writeBulk(out, next == 0 ? bytes("0-0") : stream.entries.get(next - 1).id());
+                    RespProtocol.writeBulk(out, bytes("entries-read"));
+                    RespProtocol.writeInteger(out, next);
+                    RespProtocol.writeBulk(out, bytes("lag"));
+                    RespProtocol.writeInteger(out, stream.entries.size() - next);
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits on the stream monitor until entries are added after {@code next} or the timeout elapses.
+     */
+    private static void awaitEntries(Stream stream, int next, long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        try {
+            while (stream.entries.size() == next && remaining > 0) {
+                stream.wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void registerScriptCommands() {
+        register("SCRIPT", 2, (args, out) -> {
+            String subcommand = text(args[1]).toUpperCase(Locale.ROOT);
+            switch (subcommand) {
+                case "LOAD" -> {
+                    if (args.length != 3) {
+                        throw wrongArguments(args);
+                    }
+                    String sha = sha1(args[2]);
+                    scripts.add(sha);
+                    RespProtocol.writeBulk(out, bytes(sha));
+                }
+                case "FLUSH" -> {
+                    scripts.clear();
+                    RespProtocol.writeSimple(out, "OK");
+                }
+                default -> throw new StubException("ERR unknown subcommand '%s'".formatted(text(args[1])));
+            }
+        });
+        // scripts are not run: a known script replies nil, like a script without a return value
+        register("EVAL", 3, (args, out) -> {
+            scripts.add(sha1(args[1]));
+            RespProtocol.writeBulk(out, null);
+        });
+        register("EVALSHA", 3, (args, out) -> {
+            if (!scripts.contains(text(args[1]).toLowerCase(Locale.ROOT))) {
+                throw new StubException("NOSCRIPT No matching script. Please use EVAL.");
+            }
+            RespProtocol.writeBulk(out, null);
+        });
+    }
+
+    /**
+     * @param arity minimal number of arguments, including the command name
+     */
+    private static String newRunId() {
+        byte[] id = new byte[20];
+        ThreadLocalRandom.current().nextBytes(id);
+        return HexFormat.of().formatHex(id);
+    }
+
+    void register(String name, int arity, Command command) {
+        commands.put(name, (args, out) -> {
+            if (args.length < arity) {
+                throw wrongArguments(args);
+            }
+            command.execute(args, out);
+        });
+    }
+
+    private Entry entry(String key) {
+        Entry entry = data.get(key);
+        if (entry != null && entry.isExpired(System.currentTimeMillis())) {
+            if (data.remove(key, entry)) {
+                modified(key);
+            }
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * @return the value of the key or {@code null} if there is none
+     * @throws StubException if the key holds a value of another type
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T value(byte[] key, Class<?> type) {
+        Entry entry = entry(key(key));
+        if (entry == null) {
+            return null;
+        }
+        if (!type.isInstance(entry.value())) {
+            throw new StubException(WRONG_TYPE);
+        }
+        return (T) entry.value();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T valueOrCreate(byte[] key, Class<?> type, Supplier<Object> factory) {
+        String name = key(key);
+        Entry entry = data.compute(name, (k, existing) ->
+                existing == null || existing.isExpired(System.currentTimeMillis()) ? new Entry(factory.get(), 0) : existing);
+        if (!type.isInstance(entry.value())) {
+            throw new StubException(WRONG_TYPE);
+        }
+        modified(name);
+        return (T) entry.value();
+    }
+
+    private long increment(byte[] key, long delta) {
+        String name = key(key);
+        long[] result = new long[1];
+        data.compute(name, (k, existing) -> {
+            if (existing != null && existing.isExpired(System.currentTimeMillis())) {
+                existing = null;
+            }
+            if (existing != null && !(existing.value() instanceof byte[])) {
+                throw new StubException(WRONG_TYPE);
+            }
+            long value = existing != null ? integer((byte[]) existing.value()) : 0;
+            result[0] = value + delta;
+            return new Entry(bytes(Long.toString(result[0])), existing != null ? existing.expiresAt() : 0);
+        });
+        modified(name);
+        return result[0];
+    }
+
+    private static long integer(byte[] arg) {
+        try {
+            return Long.parseLong(text(arg));
+        } catch (NumberFormatException e) {
+            throw new StubException("ERR value is not an integer or out of range");
+        }
+    }
+
+    private static int index(long index, int size) {
+        return (int) Math.max(0, index < 0 ? size + index : Math.min(index, size));
+    }
+
+    private static double score(byte[] arg) {
+        try {
+            return Double.parseDouble(text(arg).replace("inf", "Infinity"));
+        } catch (NumberFormatException e) {
+            throw new StubException("ERR value is not a valid float");
+        }
+    }
+
+    private static boolean aboveMin(double score, String min) {
+        return min.startsWith("(") ? score > bound(min.substring(1)) : score >= bound(min);
+    }
+
+    private static boolean belowMax(double score, String max) {
+        return max.startsWith("(") ? score < bound(max.substring(1)) : score <= bound(max);
+    }
+
+    private static double bound(String value) {
+        return switch (value) {
+            case "-inf" -> Double.NEGATIVE_INFINITY;
+            case "+inf", "inf" -> Double.POSITIVE_INFINITY;
+            default -> {
+                try {
+                    yield Double.parseDouble(value);
+                } catch (NumberFormatException e) {
+                    throw new StubException("ERR min or max is not a float");
+                }
+            }
+        };
+    }
+
+    private static String formatScore(double score) {
+        return score == Math.rint(score) && Math.abs(score) < 1e17 ? Long.toString((long) score) : Double.toString(score);
+    }
+
+    private static String sha1(byte[] script) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(script));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JVM has SHA-1
+        }
+    }
+
+    static String key(byte[] key) {
+        return new String(key, StandardCharsets.ISO_8859_1);
+    }
+
+    static byte[] bytes(String key) {
+        return key.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    static String text(byte[] arg) {
+        return new String(arg, StandardCharsets.UTF_8);
+    }
+
+    static StubException wrongArguments(byte[][] args) {
+        return new StubException("ERR wrong number of arguments for '%s' command".formatted(text(args[0]).toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * State of one client connection: the open transaction, the watched keys, the subscribed channels and key tracking.
+     */
+    public static class Session {
+        private static final AtomicLong IDS = new AtomicLong();
+
+        private final long id = IDS.incrementAndGet();
+        private final OutputStream out;
+        private final Set<String> channels = ConcurrentHashMap.newKeySet();
+        private final Map<String, Long> watched = new HashMap<>();
+        private List<byte[][]> queued; // commands of the open transaction, null outside MULTI
+        private boolean failed; // a command was rejected while queueing, EXEC aborts
+        private long trackingRedirect; // 0 when reads are not tracked
+
+        /**
+         * @param out replies of the connection; lock it while writing, published messages are written from other threads
+         */
+        public Session(OutputStream out) {
+            this.out = out;
+        }
+    }
+
+    /**
+     * Command failure answered with the message as a RESP error.
+     */
+    static class StubException extends RuntimeException {
+        private static final long serialVersionUID = 6642909351827740318L;
+
+        StubException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package ru.beeline.lt.tls;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.beeline.lt.metrics.SamplerMetrics;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TLS socket factories of the running test, one per keystore and truststore setting, so the stores are read once.
+ * Sockets complete the handshake as soon as they are created, and its time is counted by {@link SamplerMetrics}
+ * apart from command latency: the cost of reconnect storms over TLS shows up there.
+ */
+public class TlsSocketFactories {
+
+    private static final Logger log = LoggerFactory.getLogger(TlsSocketFactories.class);
+
+    private static final Map<Settings, SSLSocketFactory> FACTORIES = new ConcurrentHashMap<>();
+
+    /**
+     * @param keystore       client certificate and key for mutual TLS, blank for none
+     * @param truststore     certificates of trusted servers, blank for the JVM defaults
+     * @param verifyHostname check that the server certificate matches the host connected to
+     */
+    public record Settings(String keystore, String keystorePassword, String truststore, String truststorePassword,
+                           boolean verifyHostname) {
+        @Override
+        public String toString() {
+            // never leak the passwords into logs
+            return "keystore '%s', truststore '%s', verify hostname %s".formatted(keystore, truststore, verifyHostname);
+        }
+    }
+
+    public static SSLSocketFactory get(Settings settings) {
+        SSLSocketFactory factory = FACTORIES.get(settings);
+        return factory != null ? factory : FACTORIES.computeIfAbsent(settings, TlsSocketFactories::create);
+    }
+
+    private static SSLSocketFactory create(Settings settings) {
+        try {
+            KeyManagerFactory keyManagers = null;
+            if (!settings.keystore().isBlank()) {
+                char[] password = settings.keystorePassword().toCharArray();
+                keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+                keyManagers.init(KeyStore.getInstance(new File(settings.keystore().trim()), password), password);
+            }
+            TrustManagerFactory trustManagers = null;
+            if (!settings.truststore().isBlank()) {
+                trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+                trustManagers.init(KeyStore.getInstance(new File(settings.truststore().trim()),
+                        settings.truststorePassword().toCharArray()));
+            }
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(keyManagers == null ? null : keyManagers.getKeyManagers(),
+                    trustManagers == null ? null : trustManagers.getTrustManagers(), null);
+            log.info("TLS context created: %s".formatted(settings));
+            return new HandshakingSocketFactory(context.getSocketFactory(), settings.verifyHostname());
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to create TLS context with %s".formatted(settings), e);
+        }
+    }
+
+    /**
+     * Forgets the factories, called when a test ends, so changed stores are read again.
+     */
+    public static void reset() {
+        FACTORIES.clear();
+    }
+
+    /**
+     * Completes and times the handshake of sockets layered over a connected socket, the way Jedis creates them.
+     */
+    private static class HandshakingSocketFactory extends SSLSocketFactory {
+        private final SSLSocketFactory delegate;
+        private final boolean verifyHostname;
+
+        HandshakingSocketFactory(SSLSocketFactory delegate, boolean verifyHostname) {
+            this.delegate = delegate;
+            this.verifyHostname = verifyHostname;
+        }
+
+        @Override
+        public Socket createSocket(Socket socket, String host, int port, boolean autoClose) throws IOException {
+            SSLSocket sslSocket = (SSLSocket) delegate.createSocket(socket, host, port, autoClose);
+            if (verifyHostname) {
+                SSLParameters parameters = sslSocket.getSSLParameters();
+                parameters.setEndpointIdentificationAlgorithm("HTTPS");
+                sslSocket.setSSLParameters(parameters);
+            }
+            long start = System.nanoTime();
+            sslSocket.startHandshake();
+            SamplerMetrics.recordTlsHandshake(System.nanoTime() - start);
+            return sslSocket;
+        }
+
+        @Override
+        public String[] getDefaultCipherSuites() {
+            return delegate.getDefaultCipherSuites();
+        }
+
+        @Override
+        public String[] getSupportedCipherSuites() {
+            return delegate.getSupportedCipherSuites();
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) throws IOException {
+            return delegate.createSocket(host, port);
+        }
+
+        @Override
+        public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+            return delegate.createSocket(host, port, localHost, localPort);
+        }
+
+        @Override
+        public Socket createSocket(InetAddress host, int port) throws IOException {
+            return delegate.createSocket(host, port);
+        }
+
+        @Override
+        public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
+            return delegate.createSocket(address, port, localAddress, localPort);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package ru.beeline.lt;
+
+import org.apache.jmeter.samplers.SampleResult;
+import org.junit.Test;
+import redis.clients.jedis.Jedis;
+import ru.beeline.lt.error.ErrorClass;
+import ru.beeline.lt.stub.RespStubServer;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Reads served by the client-side cache, kept coherent by the key tracking of the RESP stub.
+ */
+public class RedisSamplerCacheIT {
+
+    private static RedisSampler cachedSampler(int port, String operation) {
+        RedisSampler sampler = StubSamplers.sampler(port, operation);
+        sampler.setKey("it:cached");
+        sampler.setCacheEnabled(true);
+        sampler.setCacheSize("100");
+        return sampler;
+    }
+
+    @Test
+    public void repliesOfOneCommandAreNotServedToAnother() throws IOException {
+        try (RespStubServer stub = new RespStubServer(0).start()) {
+            try (Jedis jedis = new Jedis("127.0.0.1", stub.port())) {
+                jedis.set("it:cached", "value");
+            }
+            RedisSampler get = cachedSampler(stub.port(), "GET");
+            RedisSampler hgetall = cachedSampler(stub.port(), "HGETALL");
+            get.testStarted();
+            hgetall.testStarted();
+            try {
+                get.threadStarted();
+                hgetall.threadStarted();
+                assertTrue(get.sample(null).isSuccessful());
+                assertTrue(get.sample(null).isSuccessful()); // cached
+                SampleResult result = hgetall.sample(null);
+                assertFalse(result.isSuccessful());
+                assertEquals(ErrorClass.WRONGTYPE.responseCode(), result.getResponseCode());
+                get.threadFinished();
+                hgetall.threadFinished();
+            } finally {
+                get.testEnded();
+                hgetall.testEnded();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package ru.beeline.lt;
+
+import org.apache.jmeter.samplers.SampleResult;
+import org.junit.Test;
+import ru.beeline.lt.error.ErrorClass;
+import ru.beeline.lt.stub.RespStubServer;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Failures of the RESP stub, injected or replied, and the response codes they give the samples.
+ */
+public class RedisSamplerErrorsIT {
+
+    @Test
+    public void injectedErrorsAreRedisErrors() throws IOException {
+        try (RespStubServer stub = new RespStubServer(0, new RespStubServer.Faults(0, 1)).start()) {
+            for (SampleResult result : StubSamplers.run(StubSamplers.sampler(stub.port(), "GET"), 3)) {
+                assertFalse(result.isSuccessful());
+                assertEquals(ErrorClass.REDIS_ERROR.responseCode(), result.getResponseCode());
+            }
+        }
+    }
+
+    @Test
+    public void errorRateFailsAShareOfSamples() throws IOException {
+        try (RespStubServer stub = new RespStubServer(0, new RespStubServer.Faults(0, 0.5)).start()) {
+            List<SampleResult> results = StubSamplers.run(StubSamplers.sampler(stub.port(), "SET"), 200);
+            long failed = results.stream().filter(result -> !result.isSuccessful()).count();
+            assertTrue("failed " + failed, failed > 0 && failed < results.size());
+            results.stream().filter(result -> !result.isSuccessful()).forEach(result ->
+                    assertEquals(ErrorClass.REDIS_ERROR.responseCode(), result.getResponseCode()));
+        }
+    }
+
+    @Test
+    public void latencyOverTheTimeoutIsATimeout() throws IOException {
+        try (RespStubServer stub = new RespStubServer(0, new RespStubServer.Faults(500_000, 0)).start()) {
+            RedisSampler sampler = StubSamplers.sampler(stub.port(), "GET");
+            sampler.setTimeout("100");
+            SampleResult result = StubSamplers.runOnce(sampler);
+            assertFalse(result.isSuccessful());
+            assertEquals(ErrorClass.TIMEOUT.responseCode(), result.getResponseCode());
+        }
+    }
+
+    @Test
+    public void latencyIsIncludedInTheElapsedTime() throws IOException {
+        try (RespStubServer stub = new RespStubServer(0, new RespStubServer.Faults(50_000, 0)).start()) {
+            List<SampleResult> results = StubSamplers.run(StubSamplers.sampler(stub.port(), "GET"), 3);
+            SampleResult last = results.get(results.size() - 1); // the first one also connects
+            assertTrue(last.getResponseMessage(), last.isSuccessful());
+            assertTrue("elapsed " + last.getTime(), last.getTime() >= 50);
+        }
+    }
+
+    @Test
+    public void wrongTypeReplyIsClassified() throws IOException {
+        try (RespStubServer stub = new RespStubServer(0).start()) {
+            RedisSampler hash = StubSamplers.sampler(stub.port(), "HSET");
+            hash.setKey("it:wrongtype");
+            assertTrue(StubSamplers.runOnce(hash).isSuccessful());
+            RedisSampler get = StubSamplers.sampler(stub.port(), "GET");
+            get.setKey("it:wrongtype");
+            SampleResult result = StubSamplers.runOnce(get);
+            assertFalse(result.isSuccessful());
+            assertEquals(ErrorClass.WRONGTYPE.responseCode(), result.getResponseCode());
+        }
+    }
+
+    @Test
+    public void unknownOperationIsAConfigurationError() throws IOException {
+        try (RespStubServer stub = new RespStubServer(0).start()) {
+            SampleResult result = StubSamplers.runOnce(StubSamplers.sampler(stub.port(), "NOPE"));
+            assertFalse(result.isSuccessful());
+            assertEquals(ErrorClass.CONFIGURATION.responseCode(), result.getResponseCode());
+        }
+    }
+
+    @Test
+    public void multiKeyCommandWithoutHashTagIsAConfigurationErrorOnCluster() throws IOException {
+        try (RespStubServer stub = new RespStubServer(0).start()) {
+            RedisSampler sampler = StubSamplers.sampler(stub.port(), "MGET");
+            sampler.setTopology(RedisSampler.TOPOLOGY_CLUSTER);
+            sampler.setNodes("127.0.0.1:" + stub.port());
+            sampler.setBatchSize("3");
+            SampleResult result = StubSamplers.runOnce(sampler);
+            assertFalse(result.isSuccessful());
+            assertEquals(ErrorClass.CONFIGURATION.responseCode(), result.getResponseCode());
+            assertTrue(result.getResponseMessage(), result.getResponseMessage().contains("hash tag"));
+        }
+    }
+
+    @Test
+    public void stoppedServerRefusesConnections() throws IOException {
+        int port;
+        try (RespStubServer stub = new RespStubServer(0).start()) {
+            port = stub.port();
+        }
+        SampleResult result = StubSamplers.runOnce(StubSamplers.sampler(port, "GET"));
+        assertFalse(result.isSuccessful());
+        assertEquals(ErrorClass.CONNECTION_REFUSED.responseCode(), result.getResponseCode());
+    }
+}
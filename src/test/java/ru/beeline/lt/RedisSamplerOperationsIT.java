@@ -0,0 +1,88 @@
+package ru.beeline.lt;
+
+import org.apache.jmeter.samplers.SampleResult;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import ru.beeline.lt.command.RedisOperations;
+import ru.beeline.lt.stub.RespStubServer;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Every registered operation against the RESP stub, one command per sample and pipelined.
+ */
+@RunWith(Parameterized.class)
+public class RedisSamplerOperationsIT {
+
+    private static RespStubServer stub;
+
+    @Parameterized.Parameter
+    public String operation;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<String> operations() {
+        return RedisOperations.names();
+    }
+
+    @BeforeClass
+    public static void startStub() throws IOException {
+        stub = new RespStubServer(0).start();
+    }
+
+    @AfterClass
+    public static void stopStub() {
+        stub.close();
+    }
+
+    private RedisSampler sampler() {
+        RedisSampler sampler = StubSamplers.sampler(stub.port(), operation);
+        sampler.setExpire("60000");
+        sampler.setGroup("it-group");
+        sampler.setScript("return ARGV[1]");
+        sampler.setTransactionCommands("SET {key} {value}; INCR {key}:count");
+        return sampler;
+    }
+
+    @Test
+    public void samplesSucceed() {
+        for (SampleResult result : StubSamplers.run(sampler(), 3)) {
+            assertTrue(result.getResponseMessage(), result.isSuccessful());
+            assertEquals("200", result.getResponseCode());
+            assertEquals(operation, result.getSampleLabel());
+        }
+    }
+
+    @Test
+    public void pipelinedSamplesSucceed() {
+        RedisSampler sampler = sampler();
+        if (!RedisOperations.find(operation).supportsPipeline()) {
+            return;
+        }
+        sampler.setPipelineDepth("5");
+        for (SampleResult result : StubSamplers.run(sampler, 2)) {
+            assertTrue(result.getResponseMessage(), result.isSuccessful());
+            assertEquals("200", result.getResponseCode());
+            assertEquals(5, result.getSampleCount());
+        }
+    }
+
+    @Test
+    public void binarySamplesSucceed() {
+        RedisSampler sampler = sampler();
+        if (!RedisOperations.find(operation).supportsBinary()) {
+            return;
+        }
+        sampler.setBinary(true);
+        for (SampleResult result : StubSamplers.run(sampler, 2)) {
+            assertTrue(result.getResponseMessage(), result.isSuccessful());
+            assertEquals("200", result.getResponseCode());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ru.beeline.lt;
+
+import org.apache.jmeter.samplers.SampleResult;
+import org.junit.Test;
+import redis.clients.jedis.Jedis;
+import ru.beeline.lt.error.ErrorClass;
+import ru.beeline.lt.stub.RespStubServer;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Scripts called by SHA1 when the servers do not all have them.
+ */
+public class RedisSamplerScriptsIT {
+
+    private static RedisSampler scriptSampler(int port) {
+        RedisSampler sampler = StubSamplers.sampler(port, "EVALSHA");
+        sampler.setScript("return ARGV[1]");
+        sampler.setPipelineDepth("5");
+        return sampler;
+    }
+
+    @Test
+    public void scriptIsLoadedIntoEveryServer() throws IOException {
+        try (RespStubServer first = new RespStubServer(0).start(); RespStubServer second = new RespStubServer(0).start()) {
+            RedisSampler firstSampler = scriptSampler(first.port());
+            RedisSampler secondSampler = scriptSampler(second.port());
+            firstSampler.testStarted();
+            secondSampler.testStarted();
+            try {
+                firstSampler.threadStarted();
+                secondSampler.threadStarted();
+                assertTrue(firstSampler.sample(null).isSuccessful());
+                SampleResult result = secondSampler.sample(null);
+                assertTrue(result.getResponseMessage(), result.isSuccessful());
+                firstSampler.threadFinished();
+                secondSampler.threadFinished();
+            } finally {
+                firstSampler.testEnded();
+                secondSampler.testEnded();
+            }
+        }
+    }
+
+    @Test
+    public void pipelinedScriptIsLoadedAgainAfterNoScript() throws IOException {
+        try (RespStubServer stub = new RespStubServer(0).start()) {
+            RedisSampler sampler = scriptSampler(stub.port());
+            sampler.testStarted();
+            try {
+                sampler.threadStarted();
+                assertTrue(sampler.sample(null).isSuccessful());
+                try (Jedis jedis = new Jedis("127.0.0.1", stub.port())) {
+                    jedis.scriptFlush();
+                }
+                SampleResult flushed = sampler.sample(null);
+                assertFalse(flushed.isSuccessful());
+                assertEquals(ErrorClass.NOSCRIPT.responseCode(), flushed.getResponseCode());
+                SampleResult reloaded = sampler.sample(null);
+                assertTrue(reloaded.getResponseMessage(), reloaded.isSuccessful());
+                sampler.threadFinished();
+            } finally {
+                sampler.testEnded();
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ru.beeline.lt;
+
+import org.apache.jmeter.samplers.SampleResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Samplers of the integration tests, pointed at a {@link ru.beeline.lt.stub.RespStubServer} of the test.
+ */
+final class StubSamplers {
+
+    private StubSamplers() {
+    }
+
+    static RedisSampler sampler(int port, String operation) {
+        RedisSampler sampler = new RedisSampler();
+        sampler.setName(operation);
+        sampler.setHost("127.0.0.1");
+        sampler.setPort(Integer.toString(port));
+        sampler.setTopology(RedisSampler.TOPOLOGY_STANDALONE);
+        sampler.setTimeout("2000");
+        sampler.setOperation(operation);
+        sampler.setKey("it:" + operation.toLowerCase());
+        sampler.setValue("value");
+        return sampler;
+    }
+
+    /**
+     * Runs the samples of one thread in a test of its own.
+     */
+    static List<SampleResult> run(RedisSampler sampler, int samples) {
+        List<SampleResult> results = new ArrayList<>(samples);
+        sampler.testStarted();
+        try {
+            sampler.threadStarted();
+            for (int i = 0; i < samples; i++) {
+                results.add(sampler.sample(null));
+            }
+            sampler.threadFinished();
+        } finally {
+            sampler.testEnded();
+        }
+        return results;
+    }
+
+    static SampleResult runOnce(RedisSampler sampler) {
+        return run(sampler, 1).get(0);
+    }
+}
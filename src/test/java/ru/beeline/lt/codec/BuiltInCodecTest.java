@@ -0,0 +1,91 @@
+package ru.beeline.lt.codec;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Round trips and wire formats of the built-in codecs.
+ */
+public class BuiltInCodecTest {
+
+    private static byte[] allBytes() {
+        byte[] value = new byte[256];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = (byte) i;
+        }
+        return value;
+    }
+
+    private static byte[] random(int length) {
+        byte[] value = new byte[length];
+        new Random(length).nextBytes(value);
+        return value;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void everyCodecRoundTripsAnyBytes() {
+        for (BuiltInCodec codec : BuiltInCodec.values()) {
+            for (byte[] value : new byte[][]{new byte[0], allBytes(), random(100_000)}) {
+                assertArrayEquals(codec.name(), value, codec.decode(codec.encode(value)));
+            }
+        }
+    }
+
+    @Test
+    public void jsonWrapsTheValueInAField() {
+        assertEquals("{\"value\":\"a\\\"b\\\\c\\u000a\"}",
+                new String(BuiltInCodec.JSON.encode(ascii("a\"b\\c\n")), StandardCharsets.US_ASCII));
+        assertArrayEquals(ascii("\\u"), BuiltInCodec.JSON.decode(ascii("{\"value\":\"\\\\u\"}")));
+    }
+
+    @Test
+    public void jsonRejectsOtherDocuments() {
+        assertThrows(IllegalArgumentException.class, () -> BuiltInCodec.JSON.decode(ascii("{\"other\":\"a\"}")));
+        assertThrows(IllegalArgumentException.class, () -> BuiltInCodec.JSON.decode(ascii("{\"value\":\"\\u00\"}")));
+    }
+
+    @Test
+    public void protobufLengthIsAVarint() {
+        assertArrayEquals(new byte[]{0x0A, 0x7F}, Arrays.copyOf(BuiltInCodec.PROTOBUF.encode(new byte[127]), 2));
+        assertArrayEquals(new byte[]{0x0A, (byte) 0x80, 0x01}, Arrays.copyOf(BuiltInCodec.PROTOBUF.encode(new byte[128]), 3));
+        assertArrayEquals(new byte[]{0x0A, (byte) 0x80, (byte) 0x80, 0x01},
+                Arrays.copyOf(BuiltInCodec.PROTOBUF.encode(new byte[16384]), 4));
+        assertEquals(16384 + 4, BuiltInCodec.PROTOBUF.encode(new byte[16384]).length);
+    }
+
+    @Test
+    public void protobufRejectsOtherMessages() {
+        assertThrows(IllegalArgumentException.class, () -> BuiltInCodec.PROTOBUF.decode(new byte[]{0x12, 0x00}));
+        assertThrows(IllegalArgumentException.class, () -> BuiltInCodec.PROTOBUF.decode(new byte[]{0x0A, 0x05, 1, 2}));
+        assertThrows(IllegalArgumentException.class, () -> BuiltInCodec.PROTOBUF.decode(new byte[]{0x0A, (byte) 0x80}));
+    }
+
+    @Test
+    public void compressionsRejectOtherData() {
+        for (BuiltInCodec codec : new BuiltInCodec[]{BuiltInCodec.GZIP, BuiltInCodec.DEFLATE, BuiltInCodec.ZSTD}) {
+            assertThrows(codec.name(), RuntimeException.class, () -> codec.decode(ascii("not compressed")));
+        }
+    }
+
+    @Test
+    public void chainsApplyTheirCodecsInOrder() {
+        ValueCodec chain = ValueCodecs.parse("json+ZSTD");
+        byte[] value = ascii("value");
+        byte[] encoded = chain.encode(value);
+        assertArrayEquals(BuiltInCodec.JSON.encode(value), BuiltInCodec.ZSTD.decode(encoded));
+        assertArrayEquals(value, chain.decode(encoded));
+        assertThrows(IllegalStateException.class, () -> ValueCodecs.parse("JSON+NOPE"));
+        assertThrows(IllegalArgumentException.class, () -> ValueCodecs.parse("JSON++ZSTD"));
+    }
+}
@@ -0,0 +1,60 @@
+package ru.beeline.lt.command;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Parsing and drawing of operation mixes.
+ */
+public class OperationMixTest {
+
+    @Test
+    public void entriesAreSeparatedByCommasSemicolonsOrSpaces() {
+        List<OperationMix.Share> shares = OperationMix.parse(" GET:80, SET:15;DEL:5  HGETALL ").shares();
+        assertEquals(4, shares.size());
+        assertEquals(RedisOperations.find("GET"), shares.get(0).operation());
+        assertEquals(80, shares.get(0).weight(), 0);
+        assertEquals(RedisOperations.find("DEL"), shares.get(2).operation());
+        assertEquals(1, shares.get(3).weight(), 0);
+    }
+
+    @Test
+    public void fractionalWeightsAreRelative() {
+        assertEquals(0.25, OperationMix.parse("GET:0.25,SET:0.75").shares().get(0).weight(), 0);
+    }
+
+    @Test
+    public void malformedMixesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> OperationMix.parse(" , ;"));
+        assertThrows(IllegalArgumentException.class, () -> OperationMix.parse("GET:x"));
+        assertThrows(IllegalArgumentException.class, () -> OperationMix.parse("GET:0"));
+        assertThrows(IllegalArgumentException.class, () -> OperationMix.parse("GET:-1"));
+        assertThrows(IllegalArgumentException.class, () -> OperationMix.parse("GET:Infinity"));
+        assertThrows(IllegalStateException.class, () -> OperationMix.parse("GET:1,NOPE:1"));
+    }
+
+    @Test
+    public void drawsFollowTheWeights() {
+        OperationMix mix = OperationMix.parse("GET:80,SET:15,DEL:5");
+        int draws = 100_000;
+        int[] counts = new int[3];
+        for (int i = 0; i < draws; i++) {
+            counts[mix.next()]++;
+        }
+        assertEquals(0.80, (double) counts[0] / draws, 0.01);
+        assertEquals(0.15, (double) counts[1] / draws, 0.01);
+        assertEquals(0.05, (double) counts[2] / draws, 0.01);
+    }
+
+    @Test
+    public void singleOperationIsAlwaysDrawn() {
+        OperationMix mix = OperationMix.parse("GET");
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, mix.next());
+        }
+    }
+}
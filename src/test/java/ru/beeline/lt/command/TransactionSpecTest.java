@@ -0,0 +1,58 @@
+package ru.beeline.lt.command;
+
+import org.junit.Test;
+import redis.clients.jedis.args.Rawable;
+import redis.clients.jedis.util.SafeEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Parsing of transaction commands and resolution of their placeholders.
+ */
+public class TransactionSpecTest {
+
+    private static List<String> words(TransactionSpec.Template template, String key, String value) {
+        List<String> words = new ArrayList<>();
+        for (Rawable arg : template.arguments(key, value)) {
+            words.add(SafeEncoder.encode(arg.getRaw()));
+        }
+        return words;
+    }
+
+    @Test
+    public void commandsAreSeparatedBySemicolonsOrLines() {
+        TransactionSpec spec = TransactionSpec.parse("decr {key}; RPUSH {key}:orders {value}\n\n  EXPIRE {key} 60 ", "", "", 0);
+        assertEquals(3, spec.commands().size());
+        assertEquals("DECR {key}", spec.commands().get(0).toString());
+        assertEquals(List.of("RPUSH", "user:1:orders", "v"), words(spec.commands().get(1), "user:1", "v"));
+        assertEquals(List.of("EXPIRE", "user:1", "60"), words(spec.commands().get(2), "user:1", "v"));
+        assertTrue(spec.reads().isEmpty());
+        assertTrue(spec.watch().isEmpty());
+    }
+
+    @Test
+    public void readsAndWatchedKeysAreResolved() {
+        TransactionSpec spec = TransactionSpec.parse("SET {key} {value}", "GET {key}", " {key}  {key}:lock ", 3);
+        assertEquals(List.of("GET", "k"), words(spec.reads().get(0), "k", "v"));
+        assertArrayEquals(new String[]{"k", "k:lock"}, spec.watchKeys("k"));
+        assertEquals(3, spec.maxRetries());
+    }
+
+    @Test
+    public void valuePlaceholderIsKeptWithoutAValue() {
+        assertEquals("{value}:{value}", TransactionSpec.resolve("{value}:{value}", "k", null));
+        assertEquals("k:v", TransactionSpec.resolve("{key}:{value}", "k", "v"));
+    }
+
+    @Test
+    public void invalidSpecsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> TransactionSpec.parse(" ; \n", "", "", 0));
+        assertThrows(IllegalArgumentException.class, () -> TransactionSpec.parse("INCR {key}", "", "", -1));
+    }
+}
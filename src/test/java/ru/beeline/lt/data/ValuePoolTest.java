@@ -0,0 +1,61 @@
+package ru.beeline.lt.data;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Value sizes drawn from the size specs.
+ */
+public class ValuePoolTest {
+
+    @After
+    public void reset() {
+        ValuePool.reset();
+    }
+
+    private static long count(int[] sizes, int size) {
+        return Arrays.stream(sizes).filter(s -> s == size).count();
+    }
+
+    @Test
+    public void fixedSize() {
+        int[] sizes = ValuePool.sampleSizes("100");
+        assertEquals(256, sizes.length);
+        assertEquals(sizes.length, count(sizes, 100));
+    }
+
+    @Test
+    public void uniformRange() {
+        int[] sizes = ValuePool.sampleSizes("100-200");
+        assertTrue(Arrays.stream(sizes).allMatch(size -> size >= 100 && size <= 200));
+        assertTrue(Arrays.stream(sizes).distinct().count() > 10);
+    }
+
+    @Test
+    public void weightedSizesFollowTheirWeights() {
+        int[] sizes = ValuePool.sampleSizes("100:70,1000:25,10000:5");
+        assertEquals(sizes.length, count(sizes, 100) + count(sizes, 1000) + count(sizes, 10000));
+        // stratified draws put every weight within one value of its share
+        assertEquals(0.70 * sizes.length, count(sizes, 100), 1);
+        assertEquals(0.25 * sizes.length, count(sizes, 1000), 1);
+        assertEquals(0.05 * sizes.length, count(sizes, 10000), 1);
+    }
+
+    @Test
+    public void largeValuesKeepAMinimumPool() {
+        assertEquals(16, ValuePool.sampleSizes("10000000").length);
+        assertEquals(64, ValuePool.sampleSizes("1048576").length); // 64 MiB of values
+    }
+
+    @Test
+    public void specsDifferingInBlanksShareAPool() {
+        assertSame(ValuePool.forSpec("100:70,1000:30"), ValuePool.forSpec(" 100:70, 1000:30 "));
+        assertEquals(100, ValuePool.forSpec("100").nextBytes().length);
+    }
+}
@@ -0,0 +1,70 @@
+package ru.beeline.lt.data;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Frequencies drawn by the Gray et al. closed form against the exact Zipf distribution.
+ */
+public class ZipfianKeyGeneratorTest {
+
+    private static final int DRAWS = 500_000;
+
+    private static double[] frequencies(int items, double theta) {
+        ZipfianKeyGenerator generator = new ZipfianKeyGenerator(items, theta);
+        double[] frequencies = new double[items];
+        for (int i = 0; i < DRAWS; i++) {
+            long index = generator.nextIndex();
+            assertTrue("index " + index, index >= 0 && index < items);
+            frequencies[(int) index] += 1.0 / DRAWS;
+        }
+        return frequencies;
+    }
+
+    private static double[] exact(int items, double theta) {
+        double zeta = 0;
+        for (int i = 1; i <= items; i++) {
+            zeta += Math.pow(i, -theta);
+        }
+        double[] probabilities = new double[items];
+        for (int i = 0; i < items; i++) {
+            probabilities[i] = Math.pow(i + 1, -theta) / zeta;
+        }
+        return probabilities;
+    }
+
+    private static void assertFollowsZipf(int items, double theta) {
+        double[] drawn = frequencies(items, theta);
+        double[] expected = exact(items, theta);
+        // the closed form is exact for the two hottest keys and approximates the others
+        assertEquals(expected[0], drawn[0], 0.005);
+        assertEquals(expected[1], drawn[1], 0.005);
+        double drawnHead = 0;
+        double expectedHead = 0;
+        for (int i = 0; i < items / 10; i++) {
+            drawnHead += drawn[i];
+            expectedHead += expected[i];
+        }
+        assertEquals(expectedHead, drawnHead, 0.03);
+    }
+
+    @Test
+    public void skewedDrawsFollowZipf() {
+        assertFollowsZipf(100, 0.99);
+    }
+
+    @Test
+    public void mildDrawsFollowZipf() {
+        assertFollowsZipf(1000, 0.5);
+    }
+
+    @Test
+    public void exponentOutsideTheClosedFormIsRejected() {
+        for (double theta : new double[]{0, -0.5, 1, 1.2}) {
+            assertThrows(String.valueOf(theta), IllegalArgumentException.class, () -> new ZipfianKeyGenerator(100, theta));
+        }
+    }
+}
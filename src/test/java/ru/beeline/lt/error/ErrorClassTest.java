@@ -0,0 +1,53 @@
+package ru.beeline.lt.error;
+
+import org.junit.Test;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Classification of client exceptions and open model error messages.
+ */
+public class ErrorClassTest {
+
+    @Test
+    public void innermostRecognisedCauseWins() {
+        JedisDataException reply = new JedisDataException("WRONGTYPE Operation against a key holding the wrong kind of value");
+        assertEquals(ErrorClass.WRONGTYPE, ErrorClass.of(new IllegalStateException("failed", reply)));
+        assertEquals(ErrorClass.TIMEOUT, ErrorClass.of(new JedisConnectionException(new SocketTimeoutException("Read timed out"))));
+    }
+
+    @Test
+    public void unrecognisedCausesKeepTheOuterClass() {
+        assertEquals(ErrorClass.CONFIGURATION, ErrorClass.of(new IllegalStateException(new IOException("closed"))));
+        assertEquals(ErrorClass.CLIENT_ERROR, ErrorClass.of(new RuntimeException(new IOException("closed"))));
+    }
+
+    @Test
+    public void suppressedSocketFailureRefinesALostConnection() {
+        JedisConnectionException lost = new JedisConnectionException("Failed to connect");
+        lost.addSuppressed(new ConnectException("Connection refused"));
+        assertEquals(ErrorClass.CONNECTION_REFUSED, ErrorClass.of(lost));
+        assertEquals(ErrorClass.CONNECTION_LOST, ErrorClass.of(new JedisConnectionException("Unexpected end of stream.")));
+    }
+
+    @Test
+    public void replyPrefixesAreClassified() {
+        assertEquals(ErrorClass.OOM, ErrorClass.of(new JedisDataException("OOM command not allowed")));
+        assertEquals(ErrorClass.NOAUTH, ErrorClass.of("WRONGPASS invalid username-password pair"));
+        assertEquals(ErrorClass.REDIS_ERROR, ErrorClass.of("ERR unknown command"));
+    }
+
+    @Test
+    public void openModelExceptionsAreClassified() {
+        assertEquals(ErrorClass.TIMEOUT, ErrorClass.of("Exception: java.net.SocketTimeoutException: Read timed out"));
+        assertEquals(ErrorClass.CONNECTION_REFUSED, ErrorClass.of("Exception: java.net.ConnectException: Connection refused"));
+        assertEquals(ErrorClass.CONNECTION_LOST, ErrorClass.of("Exception: java.io.EOFException: Connection closed"));
+        assertEquals(ErrorClass.CONFIGURATION, ErrorClass.of("Exception: java.lang.IllegalStateException: no key"));
+    }
+}
@@ -0,0 +1,87 @@
+package ru.beeline.lt.latency;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Merging of the latency logs of several engines.
+ */
+public class LatencyMergeTest {
+
+    private static final long START_MILLIS = 1_700_000_000_000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Histogram histogram(long valueMicros, long count) {
+        Histogram histogram = new Histogram(LatencyRecorder.HIGHEST_TRACKABLE_MICROS, LatencyRecorder.SIGNIFICANT_DIGITS);
+        histogram.recordValueWithCount(valueMicros, count);
+        return histogram;
+    }
+
+    private File engineLog(String name, Map<String, Histogram> histograms, long startMillis, long endMillis) {
+        String file = new File(folder.getRoot(), name).getPath();
+        LatencyHistograms.write(file, name, histograms, startMillis, endMillis);
+        return new File(file + ".hlog");
+    }
+
+    @Test
+    public void histogramsAreMergedByLabel() throws IOException {
+        Map<String, Histogram> first = new LinkedHashMap<>();
+        first.put("Redis GET", histogram(100, 900));
+        first.put("Redis SET", histogram(200, 10));
+        Map<String, Histogram> second = new LinkedHashMap<>();
+        second.put("Redis GET", histogram(10_000, 100));
+        LatencyMerge merge = new LatencyMerge()
+                .add(engineLog("first", first, START_MILLIS, START_MILLIS + 10_000))
+                .add(engineLog("second", second, START_MILLIS + 1_000, START_MILLIS + 11_000));
+
+        Histogram get = merge.histograms().get("Redis_GET");
+        assertEquals(1_000, get.getTotalCount());
+        assertEquals(100, get.getValueAtPercentile(50), 1);
+        assertEquals(10_000, get.getValueAtPercentile(99), 10);
+        assertEquals(10, merge.histograms().get("Redis_SET").getTotalCount());
+
+        String summary = merge.summary();
+        assertTrue(summary, summary.lines().anyMatch(line -> line.matches("Redis_GET\\s+2\\s+1000\\s+90\\.9\\s.*")));
+        assertTrue(summary, summary.lines().anyMatch(line -> line.matches("Redis_SET\\s+1\\s+10\\s+0\\.9\\s.*")));
+    }
+
+    @Test
+    public void mergedLogSpansAllEngines() throws IOException {
+        LatencyMerge merge = new LatencyMerge()
+                .add(engineLog("first", Map.of("GET", histogram(100, 5)), START_MILLIS, START_MILLIS + 10_000))
+                .add(engineLog("second", Map.of("GET", histogram(300, 5)), START_MILLIS + 1_000, START_MILLIS + 11_000));
+        String merged = new File(folder.getRoot(), "merged").getPath();
+        merge.write(merged);
+
+        assertTrue(new File(merged + "-GET.hgrm").isFile());
+        try (HistogramLogReader reader = new HistogramLogReader(merged + ".hlog")) {
+            Histogram histogram = (Histogram) reader.nextIntervalHistogram();
+            assertEquals("GET", histogram.getTag());
+            assertEquals(10, histogram.getTotalCount());
+            assertEquals(START_MILLIS, histogram.getStartTimeStamp());
+            assertEquals(START_MILLIS + 11_000, histogram.getEndTimeStamp());
+        }
+    }
+
+    @Test
+    public void malformedLogIsRejected() throws IOException {
+        File log = folder.newFile("broken.hlog");
+        Files.writeString(log.toPath(), "0.000,1.000,0.100,not a histogram\n");
+        assertThrows(IOException.class, () -> new LatencyMerge().add(log));
+    }
+}
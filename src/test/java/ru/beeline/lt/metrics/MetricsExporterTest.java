@@ -0,0 +1,44 @@
+package ru.beeline.lt.metrics;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Prometheus text rendering of metric samples.
+ */
+public class MetricsExporterTest {
+
+    @Test
+    public void interleavedSamplesRenderOneBlockPerMetric() {
+        String text = MetricsExporter.toPrometheusText(List.of(
+                new MetricSample("a_total", "counter", "A", Map.of("phase", "connect"), 1),
+                new MetricSample("b_seconds", "gauge", "B", Map.of("phase", "connect"), 2),
+                new MetricSample("a_total", "counter", "A", Map.of("phase", "setup"), 3),
+                new MetricSample("b_seconds", "gauge", "B", Map.of("phase", "setup"), 4)));
+        assertEquals("""
+                # HELP a_total A
+                # TYPE a_total counter
+                a_total{phase="connect"} 1.0
+                a_total{phase="setup"} 3.0
+                # HELP b_seconds B
+                # TYPE b_seconds gauge
+                b_seconds{phase="connect"} 2.0
+                b_seconds{phase="setup"} 4.0
+                """, text);
+    }
+
+    @Test
+    public void labelValuesAreEscaped() {
+        String text = MetricsExporter.toPrometheusText(List.of(
+                new MetricSample("c", "gauge", "C", Map.of("target", "a\"b\\c\nd"), 0)));
+        assertEquals("""
+                # HELP c C
+                # TYPE c gauge
+                c{target="a\\"b\\\\c\\nd"} 0.0
+                """, text);
+    }
+}
@@ -0,0 +1,59 @@
+package ru.beeline.lt.metrics;
+
+import org.junit.After;
+import org.junit.Test;
+import ru.beeline.lt.codec.BuiltInCodec;
+import ru.beeline.lt.codec.ValueCodecs;
+import ru.beeline.lt.resilience.ChurnPool;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Collection of the live metrics with more than one instance of a component.
+ */
+public class SamplerMetricsTest {
+
+    @After
+    public void reset() {
+        SamplerMetrics.reset();
+        ValueCodecs.reset();
+    }
+
+    @Test
+    public void samplesOfOneMetricAreAdjacent() {
+        SamplerMetrics.recordReconnect(new ChurnPool.Reconnect(1_000_000, 2_000_000, 3_000_000));
+        ValueCodecs.stats(BuiltInCodec.JSON).recordEncode(10, 8, 1_000);
+        ValueCodecs.stats(BuiltInCodec.ZSTD).recordDecode(8, 10, 1_000);
+
+        List<MetricSample> samples = SamplerMetrics.collect();
+        Set<String> finished = new HashSet<>();
+        String previous = null;
+        for (MetricSample sample : samples) {
+            if (!sample.name().equals(previous)) {
+                assertTrue(sample.name() + " is split", finished.add(sample.name()));
+                previous = sample.name();
+            }
+        }
+        assertEquals(3, samples.stream().filter(sample -> sample.name().equals("redis_sampler_reconnect_max_seconds")).count());
+        assertEquals(4, samples.stream().filter(sample -> sample.name().equals("redis_sampler_codec_values_total")).count());
+    }
+
+    @Test
+    public void twoInstancesRenderOneBlockPerMetric() {
+        SamplerMetrics.recordReconnect(new ChurnPool.Reconnect(1_000_000, 2_000_000, 3_000_000));
+        ValueCodecs.stats(BuiltInCodec.JSON).recordEncode(10, 8, 1_000);
+        ValueCodecs.stats(BuiltInCodec.ZSTD).recordDecode(8, 10, 1_000);
+
+        String text = MetricsExporter.toPrometheusText(SamplerMetrics.collect());
+        for (String metric : List.of("redis_sampler_reconnect_seconds_total", "redis_sampler_reconnect_max_seconds",
+                "redis_sampler_codec_values_total", "redis_sampler_codec_seconds_total", "redis_sampler_codec_bytes_total")) {
+            assertEquals(metric, 1, text.split("# TYPE " + metric + " ", -1).length - 1);
+        }
+        assertTrue(text, text.contains("redis_sampler_codec_values_total{codec=\"ZSTD\",direction=\"decode\"} 1.0"));
+    }
+}
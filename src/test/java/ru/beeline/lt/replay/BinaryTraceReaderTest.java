@@ -0,0 +1,110 @@
+package ru.beeline.lt.replay;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Round trips of the binary trace format.
+ */
+public class BinaryTraceReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static TraceCommand command(long offsetNanos, String... args) {
+        byte[][] bytes = new byte[args.length][];
+        for (int i = 0; i < args.length; i++) {
+            bytes[i] = args[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return new TraceCommand(offsetNanos, bytes);
+    }
+
+    private Path write(List<TraceCommand> commands) throws IOException {
+        Path file = folder.newFile().toPath();
+        try (BinaryTraceWriter writer = new BinaryTraceWriter(file)) {
+            for (TraceCommand command : commands) {
+                writer.write(command);
+            }
+        }
+        return file;
+    }
+
+    private static List<TraceCommand> readAll(TraceReader reader) throws IOException {
+        List<TraceCommand> commands = new ArrayList<>();
+        try (reader) {
+            for (TraceCommand command; (command = reader.next()) != null; ) {
+                commands.add(command);
+            }
+        }
+        return commands;
+    }
+
+    private static void assertSameCommands(List<TraceCommand> expected, List<TraceCommand> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).offsetNanos() / 1_000 * 1_000, actual.get(i).offsetNanos());
+            assertArrayEquals(expected.get(i).args(), actual.get(i).args());
+        }
+    }
+
+    @Test
+    public void commandsRoundTrip() throws IOException {
+        List<TraceCommand> commands = List.of(
+                command(0, "PING"),
+                command(1_500, "SET", "k", "x".repeat(300)),
+                command(3_600_000_000_000L, "HSET", "h", "f", ""),
+                new TraceCommand(3_600_000_001_000L, new byte[][]{"SET".getBytes(StandardCharsets.US_ASCII), {0, -1, 10}}));
+        try (TraceReader reader = TraceReader.open(write(commands))) {
+            assertTrue(reader instanceof BinaryTraceReader);
+        }
+        assertSameCommands(commands, readAll(TraceReader.open(write(commands))));
+    }
+
+    @Test
+    public void recordsSpanningMappedWindowsAreRead() throws IOException {
+        List<TraceCommand> commands = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            commands.add(command(i * 1_000L, "SET", "key:" + i, "v".repeat(i)));
+        }
+        Path file = write(commands);
+        assertSameCommands(commands, readAll(new BinaryTraceReader(new MappedInput(file, 7))));
+    }
+
+    @Test
+    public void truncatedTraceFails() throws IOException {
+        Path file = write(List.of(command(0, "SET", "k", "value")));
+        byte[] content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(content, content.length - 2));
+        try (TraceReader reader = TraceReader.open(file)) {
+            assertThrows(EOFException.class, reader::next);
+        }
+    }
+
+    @Test
+    public void monitorLogConvertsToTheSameCommands() throws IOException {
+        Path log = folder.newFile().toPath();
+        Files.writeString(log, """
+                OK
+                1700000000.000000 [0 10.0.0.5:53412] "SET" "k" "a\\x00b"
+                1700000000.002500 [0 10.0.0.5:53412] "GET" "k"
+                """, StandardCharsets.US_ASCII);
+        Path trace = folder.newFile().toPath();
+        BinaryTraceWriter.main(new String[]{log.toString(), trace.toString()});
+        assertSameCommands(readAll(TraceReader.open(log)), readAll(TraceReader.open(trace)));
+    }
+}
@@ -0,0 +1,80 @@
+package ru.beeline.lt.replay;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Parsing of {@code MONITOR} logs.
+ */
+public class MonitorTraceReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private List<TraceCommand> read(String log) throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.writeString(file, log, StandardCharsets.ISO_8859_1);
+        List<TraceCommand> commands = new ArrayList<>();
+        try (TraceReader reader = TraceReader.open(file)) {
+            for (TraceCommand command; (command = reader.next()) != null; ) {
+                commands.add(command);
+            }
+        }
+        return commands;
+    }
+
+    private static String text(byte[] arg) {
+        return new String(arg, StandardCharsets.ISO_8859_1);
+    }
+
+    @Test
+    public void commandsOfScriptsAreSkipped() throws IOException {
+        List<TraceCommand> commands = read("""
+                1700000000.000000 [0 10.0.0.5:53412] "EVAL" "redis.call('SET', KEYS[1], ARGV[1])" "1" "k" "v"
+                1700000000.000010 [0 lua] "SET" "k" "v"
+                1700000000.000100 [0 10.0.0.5:53412] "GET" "k"
+                """);
+        assertEquals(2, commands.size());
+        assertEquals("EVAL", commands.get(0).name());
+        assertEquals("GET", commands.get(1).name());
+    }
+
+    @Test
+    public void clientsNamedLikeTheScriptClientAreKept() throws IOException {
+        List<TraceCommand> commands = read("""
+                1700000000.000000 [0 lua2] "GET" "a"
+                1700000000.000001 [0 unix:/tmp/lua] "GET" "b"
+                """);
+        assertEquals(2, commands.size());
+    }
+
+    @Test
+    public void offsetsAreRelativeToTheFirstCommand() throws IOException {
+        List<TraceCommand> commands = read("""
+                OK
+                1700000000.5 [0 10.0.0.5:53412] "PING"
+                1700000001.250001 [3 10.0.0.5:53412] "SET" "k" "v"
+                """);
+        assertEquals(2, commands.size());
+        assertEquals(0, commands.get(0).offsetNanos());
+        assertEquals(750_001_000, commands.get(1).offsetNanos());
+    }
+
+    @Test
+    public void escapesAreDecoded() throws IOException {
+        List<TraceCommand> commands = read("""
+                1700000000.000000 [0 10.0.0.5:53412] "SET" "k" "a\\"b\\\\c\\n\\x00\\xff"
+                """);
+        assertEquals("a\"b\\c\n\u0000ÿ", text(commands.get(0).args()[2]));
+    }
+}